@@ -0,0 +1,42 @@
+package benchmarks;
+
+import dataProviders.ConfigFileReader;
+import managers.FileReaderManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a property lookup through FileReaderManager, as the page objects and helpers do it,
+ * compared with a lookup on an already loaded ConfigFileReader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigAccessBenchmark {
+
+    private ConfigFileReader loadedReader;
+
+    @Setup
+    public void setUp() {
+        loadedReader = new ConfigFileReader();
+    }
+
+    @Benchmark
+    public String fileReaderManagerLookup() {
+        return FileReaderManager.getInstance().getConfigReader().getUrl();
+    }
+
+    @Benchmark
+    public String loadedReaderLookup() {
+        return loadedReader.getUrl();
+    }
+
+    @Benchmark
+    public int loadedReaderTypedLookup() {
+        return loadedReader.getExplicitWait();
+    }
+}
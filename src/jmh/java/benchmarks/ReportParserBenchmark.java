@@ -0,0 +1,48 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import utilities.ReportParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReportParser summarization of Spark-style reports with many scenarios.
+ * The report is generated once per trial with one failed scenario in twenty.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportParserBenchmark {
+
+    @Param({"1000", "10000"})
+    public int scenarios;
+
+    private File report;
+
+    @Setup
+    public void setUp() throws IOException {
+        StringBuilder html = new StringBuilder("<html><body><ul class='test-list-item'>");
+        for (int i = 0; i < scenarios; i++) {
+            html.append("<li class='test'><span class='name'>Scenario ").append(i)
+                    .append("</span><span class='status'>").append(i % 20 == 0 ? "fail" : "pass")
+                    .append("</span><div class='details'>Given a step<br>When another step<br>Then a result</div></li>");
+        }
+        html.append("</ul></body></html>");
+        report = File.createTempFile("spark-benchmark", ".html");
+        report.deleteOnExit();
+        Files.write(report.toPath(), html.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public Map<String, Object> summarize() {
+        return ReportParser.summarize(report);
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import stepDefinitions.Hooks;
+import utilities.ScenarioResult;
+import utils.EmailUtil;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run-end cost of aggregating scenario results in Hooks and rendering the summary email body,
+ * for large runs. One scenario in twenty fails.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultAggregationBenchmark {
+
+    @Param({"10000"})
+    public int scenarios;
+
+    @Setup
+    public void setUp() {
+        List<ScenarioResult> results = Hooks.getScenarioResults();
+        results.clear();
+        for (int i = 0; i < scenarios; i++) {
+            results.add(new ScenarioResult("Scenario " + i, i % 20 == 0 ? "FAILED" : "PASSED"));
+        }
+    }
+
+    @Benchmark
+    public int passCount() {
+        return Hooks.getPassCount();
+    }
+
+    @Benchmark
+    public List<String> failedScenarios() {
+        return Hooks.getFailedScenarios();
+    }
+
+    @Benchmark
+    public String emailSummaryBody() {
+        return EmailUtil.buildSummaryBody("QA", "SMOKE", "2024-01-01 00:00:00");
+    }
+}
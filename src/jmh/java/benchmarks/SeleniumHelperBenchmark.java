@@ -0,0 +1,66 @@
+package benchmarks;
+
+import dataProviders.ConfigFileReader;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openjdk.jmh.annotations.*;
+import reUsableComponent.SeleniumHelper;
+import utils.CommandRetry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Framework overhead of SeleniumHelper actions (waits, JS click, text entry and verification)
+ * against an in-memory driver, i.e. the time spent per step before any browser round trip.
+ * The driver's CommandRetry is registered from a config loaded in setUp, so every action runs
+ * through the same retry executor as in a scenario.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeleniumHelperBenchmark {
+
+    private static final By LOCATOR = By.xpath("//input[@name='username']");
+    private WebDriver driver;
+    private SeleniumHelper helper;
+
+    @Setup
+    public void setUp() {
+        driver = StubWebDriver.create();
+        CommandRetry.register(driver, new ConfigFileReader());
+        helper = new SeleniumHelper(driver);
+    }
+
+    @TearDown
+    public void tearDown() {
+        CommandRetry.forget(driver);
+    }
+
+    @Benchmark
+    public void waitForElementToBeVisible() {
+        helper.waitForElementToBeVisible(LOCATOR);
+    }
+
+    @Benchmark
+    public void waitForElementToBeClickable() {
+        helper.waitForElementToBeClickable(LOCATOR);
+    }
+
+    @Benchmark
+    public void javascriptClick() {
+        helper.click(LOCATOR);
+    }
+
+    @Benchmark
+    public void enterText() {
+        helper.enterText(LOCATOR, "john");
+    }
+
+    @Benchmark
+    public void verifyContainsText() {
+        helper.verifyContainsText(LOCATOR, "Accounts");
+    }
+}
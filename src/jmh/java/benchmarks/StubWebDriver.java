@@ -0,0 +1,101 @@
+package benchmarks;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-memory WebDriver for benchmarks: every element exists, is displayed and enabled,
+ * and every command returns immediately, so only the framework's own work is measured.
+ * manage(), navigate() and switchTo() return stubs as well, so timeouts can be set on the driver.
+ */
+public class StubWebDriver {
+
+    public static final String ELEMENT_TEXT = "Accounts Overview";
+
+    private StubWebDriver() {
+    }
+
+    public static WebDriver create() {
+        WebElement element = (WebElement) Proxy.newProxyInstance(StubWebDriver.class.getClassLoader(),
+                new Class<?>[]{WebElement.class}, (proxy, method, args) -> elementCommand(proxy, method, args));
+        return (WebDriver) Proxy.newProxyInstance(StubWebDriver.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findElement":
+                            return element;
+                        case "findElements":
+                            return Collections.singletonList(element);
+                        case "getPageSource":
+                            return "<html><body>" + ELEMENT_TEXT + "</body></html>";
+                        case "toString":
+                            return "StubWebDriver";
+                        default:
+                            return defaultValue(proxy, method, args);
+                    }
+                });
+    }
+
+    private static Object elementCommand(Object element, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "isDisplayed":
+            case "isEnabled":
+                return true;
+            case "getText":
+                return ELEMENT_TEXT;
+            case "getTagName":
+                return "input";
+            case "toString":
+                return "StubWebElement";
+            default:
+                return defaultValue(element, method, args);
+        }
+    }
+
+    /**
+     * Value of a command the stub does not model: false, zero or empty, the proxy itself for fluent
+     * calls (e.g. Timeouts.implicitlyWait) and another stub for WebDriver's nested interfaces.
+     */
+    private static Object defaultValue(Object proxy, Method method, Object[] args) {
+        if (method.getName().equals("equals")) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode")) {
+            return System.identityHashCode(proxy);
+        }
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == Duration.class) {
+            return Duration.ZERO;
+        }
+        if (type == List.class) {
+            return Collections.emptyList();
+        }
+        if (type == Set.class) {
+            return Collections.emptySet();
+        }
+        if (type.isInstance(proxy)) {
+            return proxy;
+        }
+        if (type.isInterface() && type.getEnclosingClass() == WebDriver.class) {
+            return Proxy.newProxyInstance(StubWebDriver.class.getClassLoader(), new Class<?>[]{type},
+                    (stub, command, commandArgs) -> defaultValue(stub, command, commandArgs));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,176 @@
+package dataProviders;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * AccountPool hands out login accounts to concurrently running scenarios so that no two
+ * scenarios share a server-side session.
+ *
+ * Accounts are read from the environment file as indexed keys:
+ *   accountPool.1.userId=...
+ *   accountPool.1.password=...
+ *   accountPool.2.userId=...
+ * Size the pool to at least the number of parallel workers. When no pool is configured the single
+ * validUserId/validPassword pair becomes a pool of one.
+ *
+ * Leasing:
+ * - A lease is bound to the calling (scenario) thread; repeated lease() calls return the same account.
+ * - When an account is free the lease is granted without blocking.
+ * - When none are free, callers wait in FIFO order (fair semaphore) up to `accountLeaseTimeout` seconds.
+ * - release() returns the account; Hooks calls it during teardown.
+ *
+ * Metrics: lease count, contended leases, total/max wait time and time-weighted utilization.
+ */
+public class AccountPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountPool.class);
+
+    private final int size;
+    private final long leaseTimeoutSeconds;
+    private final Semaphore available;
+    private final Queue<Account> free = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Account> leased = new ThreadLocal<>();
+
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong contendedLeases = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Long::max, 0);
+    private final long createdAt = System.nanoTime();
+    private long lastChangeAt = createdAt;
+    private long busyAccountNanos;
+    private int inUse;
+
+    AccountPool(List<Account> accounts, long leaseTimeoutSeconds) {
+        if (accounts.isEmpty()) {
+            throw new RuntimeException("Account pool is empty, configure accountPool.<n>.userId/password or validUserId/validPassword");
+        }
+        this.size = accounts.size();
+        this.leaseTimeoutSeconds = leaseTimeoutSeconds;
+        this.available = new Semaphore(size, true);
+        this.free.addAll(accounts);
+    }
+
+    /**
+     * Builds the pool from the indexed accountPool.* keys, falling back to validUserId/validPassword.
+     */
+    static AccountPool fromConfig(ConfigFileReader config) {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 1; config.getProperty("accountPool." + i + ".userId", null) != null; i++) {
+            accounts.add(new Account(config.getProperty("accountPool." + i + ".userId"),
+                    config.getProperty("accountPool." + i + ".password")));
+        }
+        if (accounts.isEmpty()) {
+            accounts.add(new Account(config.getProperty("validUserId"), config.getProperty("validPassword")));
+        }
+        logger.info("Account pool initialised with {} account(s)", accounts.size());
+        return new AccountPool(accounts, Long.parseLong(config.getProperty("accountLeaseTimeout", "120")));
+    }
+
+    /**
+     * Leases an account for the calling thread, or returns the one it already holds.
+     * @return the leased account
+     */
+    public Account lease() {
+        Account current = leased.get();
+        if (current != null) {
+            return current;
+        }
+
+        long start = System.nanoTime();
+        try {
+            // tryAcquire(0, ...) honours fairness: it never jumps ahead of threads already waiting
+            if (!available.tryAcquire(0, TimeUnit.SECONDS)) {
+                contendedLeases.incrementAndGet();
+                if (!available.tryAcquire(leaseTimeoutSeconds, TimeUnit.SECONDS)) {
+                    throw new RuntimeException("No account became free within " + leaseTimeoutSeconds
+                            + "s, pool size " + size + " is smaller than the number of parallel scenarios");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for an account lease", e);
+        }
+
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulate(waited);
+        leases.incrementAndGet();
+
+        Account account = free.poll();
+        leased.set(account);
+        updateInUse(1);
+        return account;
+    }
+
+    /**
+     * Returns the calling thread's account to the pool. Does nothing if it holds no lease.
+     */
+    public void release() {
+        Account account = leased.get();
+        if (account == null) {
+            return;
+        }
+        leased.remove();
+        free.add(account);
+        updateInUse(-1);
+        available.release();
+    }
+
+    private synchronized void updateInUse(int delta) {
+        long now = System.nanoTime();
+        busyAccountNanos += inUse * (now - lastChangeAt);
+        lastChangeAt = now;
+        inUse += delta;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return the average fraction of accounts leased since the pool was created (0..1)
+     */
+    public synchronized double getUtilization() {
+        long now = System.nanoTime();
+        long busy = busyAccountNanos + inUse * (now - lastChangeAt);
+        long elapsed = now - createdAt;
+        return elapsed == 0 ? 0 : busy / (double) (elapsed * size);
+    }
+
+    public String getMetricsSummary() {
+        long count = leases.get();
+        return String.format("Account pool: size %d, %d leases (%d waited), avg wait %.1f ms, max wait %.1f ms, utilization %.1f%%",
+                size, count, contendedLeases.get(),
+                count == 0 ? 0 : totalWaitNanos.get() / (count * 1_000_000.0),
+                maxWaitNanos.get() / 1_000_000.0,
+                getUtilization() * 100);
+    }
+
+    public static class Account {
+        private final String userId;
+        private final String password;
+
+        public Account(String userId, String password) {
+            this.userId = userId;
+            this.password = password;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+    }
+}
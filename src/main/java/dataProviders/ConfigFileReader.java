@@ -5,7 +5,12 @@ import org.slf4j.LoggerFactory;
 import utilities.EnvUtility;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ConfigFileReader is a utility class designed to read environment-specific configuration
@@ -19,8 +24,11 @@ import java.util.Properties;
 public class ConfigFileReader {
     private static final Logger logger = LoggerFactory.getLogger(ConfigFileReader.class);
     private Properties properties;
+    private String environment;
     private static final String CONFIG_PATH = "src/test/resources/config/";
-    private static final String DEFAULT_ENV = "QA"; // Default to QA if not set
+    public static final String DEFAULT_ENV = "QA"; // Default to QA if not set
+    // Shared across readers of an environment; an environment matrix run leases each environment's own accounts
+    private static final Map<String, AccountPool> accountPools = new ConcurrentHashMap<>();
 
     public ConfigFileReader() {
         // Get environment from System Property (local) or Environment Variable (pipeline)
@@ -29,6 +37,7 @@ public class ConfigFileReader {
         if (environment == null || environment.trim().isEmpty()) {
             environment = DEFAULT_ENV; // Default to QA if not provided
         }
+        this.environment = environment;
 
         String propertyFilePath = CONFIG_PATH + "config_" + environment + ".properties";
 
@@ -50,6 +59,15 @@ public class ConfigFileReader {
         return value;
     }
 
+    /**
+     * Returns the value for an optional key, falling back to the given default when the key
+     * is missing or blank in the environment file.
+     */
+    public String getProperty(String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : value.trim();
+    }
+
     public int getIntProperty(String key) {
         return Integer.parseInt(getProperty(key));
     }
@@ -67,10 +85,31 @@ public class ConfigFileReader {
         return getProperty("url");
     }
 
+    /**
+     * @return the environment this reader's config file belongs to
+     */
+    public String getEnvironment() {
+        return environment;
+    }
+
     public String getBrowser() {
         return getProperty("browser");
     }
 
+    /**
+     * Returns the pool of valid login accounts, created from this environment's config on first use.
+     */
+    public AccountPool getAccountPool() {
+        return accountPools.computeIfAbsent(environment, env -> AccountPool.fromConfig(this));
+    }
+
+    /**
+     * @return the account pool of every environment that leased accounts in this run, by environment
+     */
+    public static Map<String, AccountPool> getAccountPools() {
+        return accountPools;
+    }
+
     public String getValidUserId() {
         return getProperty("validUserId");
     }
@@ -93,6 +132,239 @@ public class ConfigFileReader {
 
     public int getExplicitWait() { return Integer.parseInt(getProperty("explicitWait")); }
 
+    /**
+     * @return texts that mark an application error or blocked page, from the `|`-separated errorPageSignatures key
+     */
+    public List<String> getErrorPageSignatures() {
+        List<String> signatures = new ArrayList<>();
+        for (String signature : getProperty("errorPageSignatures", "").split("\\|")) {
+            if (!signature.trim().isEmpty()) {
+                signatures.add(signature.trim());
+            }
+        }
+        return signatures;
+    }
+
+    public boolean isScreenshotOnFailure() { return Boolean.parseBoolean(getProperty("screenshotOnFailure", "true")); }
+
+    public int getScreenshotWorkers() { return Integer.parseInt(getProperty("screenshotWorkers", "2")); }
+
+    public int getScreenshotQueueCapacity() { return Integer.parseInt(getProperty("screenshotQueueCapacity", "16")); }
+
+    public int getScreenshotMaxWidth() { return Integer.parseInt(getProperty("screenshotMaxWidth", "1280")); }
+
+    public int getSeedingThreads() { return Integer.parseInt(getProperty("seedingThreads", "8")); }
+
+    public String getScenarioLogOnPass() { return getProperty("scenarioLogOnPass", "compress"); }
+
+    public boolean isScreencastRecording() { return Boolean.parseBoolean(getProperty("screencastRecording", "false")); }
+
+    public int getScreencastMaxFps() { return Integer.parseInt(getProperty("screencastMaxFps", "4")); }
+
+    public int getScreencastBufferFrames() { return Integer.parseInt(getProperty("screencastBufferFrames", "120")); }
+
+    public int getScreencastQuality() { return Integer.parseInt(getProperty("screencastQuality", "60")); }
+
+    public int getScreencastMaxWidth() { return Integer.parseInt(getProperty("screencastMaxWidth", "1024")); }
+
+    public String getDbUrl() { return getProperty("dbUrl"); }
+
+    public String getDbUser() { return getProperty("dbUser", ""); }
+
+    public String getDbPassword() { return getProperty("dbPassword", ""); }
+
+    public int getDbPoolSize() { return Integer.parseInt(getProperty("dbPoolSize", "4")); }
+
+    public int getDbStatementCacheSize() { return Integer.parseInt(getProperty("dbStatementCacheSize", "32")); }
+
+    public int getDbConnectionTimeout() { return Integer.parseInt(getProperty("dbConnectionTimeout", "30")); }
+
+    public int getDbQueryTimeout() { return Integer.parseInt(getProperty("dbQueryTimeout", "30")); }
+
+    public boolean isAzurePublishing() { return Boolean.parseBoolean(getProperty("azurePublishing", "false")); }
+
+    /**
+     * Reads the storage connection string from AZURE_STORAGE_CONNECTION_STRING, then the environment file,
+     * and falls back to the local Azurite emulator.
+     */
+    public String getAzureStorageConnectionString() {
+        return Optional.ofNullable(EnvUtility.getAzureStorageConnectionString())
+                .orElse(getProperty("azureStorageConnectionString", "UseDevelopmentStorage=true"));
+    }
+
+    public String getAzureResultsTable() { return getProperty("azureResultsTable", "TestResults"); }
+
+    public String getAzureResultsContainer() { return getProperty("azureResultsContainer", "test-results"); }
+
+    public int getAzurePublishQueueCapacity() { return Integer.parseInt(getProperty("azurePublishQueueCapacity", "1000")); }
+
+    public int getAzureUploadThreads() { return Integer.parseInt(getProperty("azureUploadThreads", "4")); }
+
+    public int getAzureUploadQueueCapacity() { return Integer.parseInt(getProperty("azureUploadQueueCapacity", "16")); }
+
+    public int getAzureUploadBlockSizeMb() { return Integer.parseInt(getProperty("azureUploadBlockSizeMb", "4")); }
+
+    public int getAzurePublishTimeout() { return Integer.parseInt(getProperty("azurePublishTimeout", "60")); }
+
+    public String getDistWorkQueue() { return getProperty("distWorkQueue", "scenario-work"); }
+
+    public String getDistResultQueue() { return getProperty("distResultQueue", "scenario-results"); }
+
+    public int getDistVisibilityTimeout() { return Integer.parseInt(getProperty("distVisibilityTimeout", "300")); }
+
+    public int getDistMaxAttempts() { return Integer.parseInt(getProperty("distMaxAttempts", "3")); }
+
+    public int getDistWorkerThreads() { return Integer.parseInt(getProperty("distWorkerThreads", "2")); }
+
+    public int getDistWorkerIdleTimeout() { return Integer.parseInt(getProperty("distWorkerIdleTimeout", "60")); }
+
+    public int getDistPollInterval() { return Integer.parseInt(getProperty("distPollInterval", "2")); }
+
+    public int getDistRunTimeoutMinutes() { return Integer.parseInt(getProperty("distRunTimeoutMinutes", "60")); }
+
+    public boolean isPagePerformanceMetrics() { return Boolean.parseBoolean(getProperty("pagePerformanceMetrics", "false")); }
+
+    public long getPerfBudgetTtfbMs() { return Long.parseLong(getProperty("perfBudgetTtfbMs", "800")); }
+
+    public long getPerfBudgetFcpMs() { return Long.parseLong(getProperty("perfBudgetFcpMs", "1800")); }
+
+    public long getPerfBudgetLcpMs() { return Long.parseLong(getProperty("perfBudgetLcpMs", "2500")); }
+
+    public long getPerfBudgetLoadMs() { return Long.parseLong(getProperty("perfBudgetLoadMs", "4000")); }
+
+    public int getLoadUsers() { return Integer.parseInt(getProperty("loadUsers", "5")); }
+
+    public int getLoadRampUpSeconds() { return Integer.parseInt(getProperty("loadRampUpSeconds", "30")); }
+
+    public int getLoadDurationSeconds() { return Integer.parseInt(getProperty("loadDurationSeconds", "300")); }
+
+    public int getLoadIterations() { return Integer.parseInt(getProperty("loadIterations", "0")); }
+
+    public String getLoadTags() { return getProperty("loadTags", "@smoke"); }
+
+    public boolean isStepTracing() { return Boolean.parseBoolean(getProperty("stepTracing", "false")); }
+
+    public long getStepLatencyBudgetMs() { return Long.parseLong(getProperty("stepLatencyBudgetMs", "5000")); }
+
+    public int getStepTraceBufferKb() { return Integer.parseInt(getProperty("stepTraceBufferKb", "8192")); }
+
+    public String getStepTraceCategories() { return getProperty("stepTraceCategories", "devtools.timeline,v8.execute,blink.user_timing,loading,netlog"); }
+
+    public int getStepTraceMaxPerScenario() { return Integer.parseInt(getProperty("stepTraceMaxPerScenario", "3")); }
+
+    public boolean isStepTraceCompare() { return Boolean.parseBoolean(getProperty("stepTraceCompare", "false")); }
+
+    public boolean isReuseDrivers() { return Boolean.parseBoolean(getProperty("reuseDrivers", "false")); }
+
+    public boolean isMemoryWatchdog() { return Boolean.parseBoolean(getProperty("memoryWatchdog", "false")); }
+
+    public long getRecycleJsHeapMb() { return Long.parseLong(getProperty("recycleJsHeapMb", "256")); }
+
+    public long getRecycleDomNodes() { return Long.parseLong(getProperty("recycleDomNodes", "50000")); }
+
+    public long getRecycleRssMb() { return Long.parseLong(getProperty("recycleRssMb", "1536")); }
+
+    public int getMaxScenariosPerDriver() { return Integer.parseInt(getProperty("maxScenariosPerDriver", "0")); }
+
+    public int getSharedBrowserProcesses() { return Integer.parseInt(getProperty("sharedBrowserProcesses", "0")); }
+
+    public boolean isProfileTemplate() { return Boolean.parseBoolean(getProperty("profileTemplate", "false")); }
+
+    public boolean isProfileTemplateCompare() { return Boolean.parseBoolean(getProperty("profileTemplateCompare", "false")); }
+
+    /**
+     * @return extra URLs loaded while preparing the profile template, after getUrl()
+     */
+    public List<String> getProfileTemplateWarmUrls() {
+        List<String> urls = new ArrayList<>();
+        for (String url : getProperty("profileTemplateWarmUrls", "").split(",")) {
+            if (!url.trim().isEmpty()) {
+                urls.add(url.trim());
+            }
+        }
+        return urls;
+    }
+
+    public String getLatencyGate() { return getProperty("latencyGate", "off"); }
+
+    public String getLatencyHistoryFile() { return getProperty("latencyHistoryFile", "latency-history/step-latency.json"); }
+
+    public int getLatencyHistoryRuns() { return Integer.parseInt(getProperty("latencyHistoryRuns", "20")); }
+
+    public int getLatencyGateMinRuns() { return Integer.parseInt(getProperty("latencyGateMinRuns", "5")); }
+
+    public double getLatencyGateMads() { return Double.parseDouble(getProperty("latencyGateMads", "3")); }
+
+    public long getLatencyGateMinDeltaMs() { return Long.parseLong(getProperty("latencyGateMinDeltaMs", "250")); }
+
+    public boolean isFlakinessStore() { return Boolean.parseBoolean(getProperty("flakinessStore", "false")); }
+
+    public String getFlakinessDbUrl() { return getProperty("flakinessDbUrl", "jdbc:h2:file:./flakiness/flakiness;AUTO_SERVER=TRUE"); }
+
+    public int getFlakinessWindowDays() { return Integer.parseInt(getProperty("flakinessWindowDays", "30")); }
+
+    public int getFlakinessRetentionDays() { return Integer.parseInt(getProperty("flakinessRetentionDays", "180")); }
+
+    public int getFlakinessMinAttempts() { return Integer.parseInt(getProperty("flakinessMinAttempts", "5")); }
+
+    public double getFlakinessQuarantineRate() { return Double.parseDouble(getProperty("flakinessQuarantineRate", "0.2")); }
+
+    public int getFlakinessBrokenStreak() { return Integer.parseInt(getProperty("flakinessBrokenStreak", "3")); }
+
+    public int getCommandRetries() { return Integer.parseInt(getProperty("commandRetries", "2")); }
+
+    public long getCommandRetryDelayMs() { return Long.parseLong(getProperty("commandRetryDelayMs", "100")); }
+
+    public long getCommandRetryMaxDelayMs() { return Long.parseLong(getProperty("commandRetryMaxDelayMs", "1000")); }
+
+    public int getCommandBreakerFailures() { return Integer.parseInt(getProperty("commandBreakerFailures", "2")); }
+
+    public long getCommandBreakerOpenSeconds() { return Long.parseLong(getProperty("commandBreakerOpenSeconds", "60")); }
+
+    public boolean isProgressServer() { return Boolean.parseBoolean(getProperty("progressServer", "false")); }
+
+    public int getProgressServerPort() { return Integer.parseInt(getProperty("progressServerPort", "8085")); }
+
+    public String getProgressServerHost() { return getProperty("progressServerHost", "127.0.0.1"); }
+
+    public String getProgressServerAllowOrigin() { return getProperty("progressServerAllowOrigin", ""); }
+
+    public String getProxyMode() { return getProperty("proxyMode", "off"); }
+
+    public int getProxyPort() { return Integer.parseInt(getProperty("proxyPort", "0")); }
+
+    public String getProxyStoreDir() { return getProperty("proxyStoreDir", "target/proxy-store"); }
+
+    public boolean isProxyReplayAll() { return Boolean.parseBoolean(getProperty("proxyReplayAll", "false")); }
+
+    public String getProxyStaticPattern() { return getProperty("proxyStaticPattern", "\\.(css|js|png|jpe?g|gif|svg|ico|woff2?|ttf|eot)(\\?|$)"); }
+
+    /**
+     * @return regular expressions of URLs the recording proxy always forwards and never records
+     */
+    public List<String> getProxyPassthrough() {
+        List<String> patterns = new ArrayList<>();
+        for (String pattern : getProperty("proxyPassthrough", "").split(",")) {
+            if (!pattern.trim().isEmpty()) {
+                patterns.add(pattern.trim());
+            }
+        }
+        return patterns;
+    }
+
+    /**
+     * @return the device profile names of the device matrix, each defined by device.<name>.* keys
+     */
+    public List<String> getDeviceMatrix() {
+        List<String> profiles = new ArrayList<>();
+        for (String profile : getProperty("deviceMatrix", "").split(",")) {
+            if (!profile.trim().isEmpty()) {
+                profiles.add(profile.trim());
+            }
+        }
+        return profiles;
+    }
+
 
     private static Properties emailProperties = new Properties();
 
@@ -0,0 +1,237 @@
+package dataProviders;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.EnvUtility;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * CsvDataSource streams data rows from a CSV file (first line is the header) with commons-csv.
+ *
+ * Rows are read lazily through the parser, so memory stays flat regardless of file size.
+ * A source is looked up by name: `csvDataSource.<name>` in the environment config, or
+ * src/test/resources/testdata/<name>.csv by default.
+ *
+ * Splitting rows across workers:
+ * - Within a JVM, every scenario invocation is bound to one row index (see CsvScenarioExpander), and
+ *   row(index) reads it forward from a shared cursor, so invocations started in order read the file once.
+ * - Across JVMs, CSV_SHARD=index/count keeps only the rows where (row number % count == index).
+ *
+ * Scenarios bind to a source with the `@csv:<name>` tag; Hooks binds the invocation's row to the
+ * scenario thread and step definitions read it as a typed object with current(LoginRow.class).
+ */
+public class CsvDataSource implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvDataSource.class);
+    private static final String DEFAULT_DIR = "src/test/resources/testdata/";
+    private static final Map<String, CsvDataSource> sources = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Map<String, String>> currentRow = new ThreadLocal<>();
+    private static final ThreadLocal<Integer> currentRowIndex = new ThreadLocal<>();
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final String name;
+    private final File file;
+    private final int shardIndex;
+    private final int shardCount;
+    private Stream<Map<String, String>> cursorStream;
+    private Iterator<Map<String, String>> cursor;
+    private int cursorIndex; // index of the row the cursor returns next
+
+    private CsvDataSource(String name, File file) {
+        this.name = name;
+        this.file = file;
+        int[] shard = EnvUtility.getCsvShard();
+        this.shardIndex = shard[0];
+        this.shardCount = shard[1];
+    }
+
+    /**
+     * Returns the named source, resolving its file on first use.
+     * @param config The caller's config reader (FileReaderManager's), read for `csvDataSource.<name>`
+     */
+    public static CsvDataSource get(String name, ConfigFileReader config) {
+        return sources.computeIfAbsent(name, n -> {
+            String path = config.getProperty("csvDataSource." + n, DEFAULT_DIR + n + ".csv");
+            File file = new File(path);
+            if (!file.exists()) {
+                throw new RuntimeException("CSV data source '" + n + "' not found: " + path);
+            }
+            return new CsvDataSource(n, file);
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Opens an independent lazy stream over this JVM's shard. Close the stream to release the file.
+     */
+    public Stream<Map<String, String>> rows() {
+        CSVParser parser = openParser();
+        Iterator<CSVRecord> records = parser.iterator();
+        Iterator<Map<String, String>> shardRows = new Iterator<Map<String, String>>() {
+            private CSVRecord next = advance();
+
+            private CSVRecord advance() {
+                while (records.hasNext()) {
+                    CSVRecord record = records.next();
+                    // recordNumber is 1-based and excludes the header
+                    if ((record.getRecordNumber() - 1) % shardCount == shardIndex) {
+                        return record;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Map<String, String> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Map<String, String> row = next.toMap();
+                next = advance();
+                return row;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(shardRows, Spliterator.ORDERED), false)
+                .onClose(() -> closeQuietly(parser));
+    }
+
+    public <T> Stream<T> rows(Class<T> type) {
+        return rows().map(row -> convert(row, type));
+    }
+
+    /**
+     * Counts this JVM's rows with a streaming pass, without keeping them in memory.
+     */
+    public long count() {
+        try (Stream<Map<String, String>> rows = rows()) {
+            return rows.count();
+        }
+    }
+
+    /**
+     * Returns the row at the 0-based index of this JVM's shard; safe to call from parallel scenario threads.
+     * The shared cursor only moves forward and is reopened when an earlier row is asked for.
+     */
+    public synchronized Map<String, String> row(int index) {
+        if (cursor == null || index < cursorIndex) {
+            close();
+            cursorStream = rows();
+            cursor = cursorStream.iterator();
+        }
+        while (cursor.hasNext()) {
+            Map<String, String> row = cursor.next();
+            if (cursorIndex++ == index) {
+                if (!cursor.hasNext()) {
+                    // release the file as soon as the last row is handed out
+                    close();
+                }
+                return row;
+            }
+        }
+        close();
+        throw new RuntimeException("CSV data source '" + name + "' has no row " + (index + 1) + " in this shard");
+    }
+
+    private CSVParser openParser() {
+        try {
+            Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+            return CSVFormat.DEFAULT.builder()
+                    .setHeader()
+                    .setSkipHeaderRecord(true)
+                    .setIgnoreEmptyLines(true)
+                    .setTrim(true)
+                    .build()
+                    .parse(reader);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading CSV data source: " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (cursorStream != null) {
+            cursorStream.close();
+            cursorStream = null;
+        }
+        cursor = null;
+        cursorIndex = 0;
+    }
+
+    // ================================
+    // SCENARIO BINDING
+    // ================================
+
+    /**
+     * Binds the row at the index of the named source to the calling scenario thread.
+     */
+    public static Map<String, String> bind(String name, int index, ConfigFileReader config) {
+        Map<String, String> row = get(name, config).row(index);
+        currentRow.set(row);
+        currentRowIndex.set(index);
+        return row;
+    }
+
+    public static void unbind() {
+        currentRow.remove();
+        currentRowIndex.remove();
+    }
+
+    /**
+     * @return the 0-based index of the row bound to the current scenario, or null when none is bound
+     */
+    public static Integer currentIndex() {
+        return currentRowIndex.get();
+    }
+
+    /**
+     * @return the row bound to the current scenario, converted to the given type
+     */
+    public static <T> T current(Class<T> type) {
+        Map<String, String> row = currentRow.get();
+        if (row == null) {
+            throw new RuntimeException("No CSV row bound to this scenario, tag it with @csv:<name>");
+        }
+        return convert(row, type);
+    }
+
+    public static <T> T convert(Map<String, String> row, Class<T> type) {
+        return mapper.convertValue(row, type);
+    }
+
+    public static void closeAll() {
+        sources.values().forEach(CsvDataSource::close);
+        sources.clear();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.debug("Unable to close CSV parser", e);
+        }
+    }
+}
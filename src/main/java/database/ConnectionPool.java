@@ -0,0 +1,204 @@
+package database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ConnectionPool keeps a bounded set of JDBC connections for verification queries.
+ *
+ * - At most `maxSize` connections exist; callers wait up to `acquireTimeoutSeconds` for a free one.
+ * - Connections are opened lazily and reused most-recently-released first, so an idle pool
+ *   keeps using the same warm connection.
+ * - Each connection caches its prepared statements (LRU, `statementCacheSize` entries), so a
+ *   query that runs once per scenario is parsed and planned by the server only once per connection.
+ * - A connection that fails with a connection-level error (SQLState 08xxx) is discarded instead
+ *   of being returned to the pool.
+ *
+ * Works with any JDBC driver on the classpath: mssql-jdbc for SQL Server, or H2 in
+ * MODE=MSSQLServer for local runs without a server.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final int statementCacheSize;
+    private final long acquireTimeoutSeconds;
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger opened = new AtomicInteger();
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String user, String password, int maxSize, int statementCacheSize,
+                          long acquireTimeoutSeconds) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.statementCacheSize = statementCacheSize;
+        this.acquireTimeoutSeconds = acquireTimeoutSeconds;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Borrows a connection; close the returned connection to give it back.
+     */
+    public PooledConnection acquire() {
+        if (closed) {
+            throw new RuntimeException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutSeconds, TimeUnit.SECONDS)) {
+                throw new RuntimeException("No database connection became free within " + acquireTimeoutSeconds
+                        + "s, pool size " + maxSize);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (connection.isUsable()) {
+                    return connection;
+                }
+                connection.destroy();
+            }
+            return open();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection open() {
+        try {
+            Connection connection = DriverManager.getConnection(url, user, password);
+            logger.info("Opened database connection {}/{}", opened.incrementAndGet(), maxSize);
+            return new PooledConnection(connection);
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to open database connection: " + url, e);
+        }
+    }
+
+    private void release(PooledConnection connection) {
+        if (closed || connection.broken) {
+            connection.destroy();
+        } else {
+            idle.offerFirst(connection);
+        }
+        permits.release();
+    }
+
+    public int getOpenedCount() {
+        return opened.get();
+    }
+
+    /**
+     * Closes idle connections. Connections still borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            connection.destroy();
+        }
+    }
+
+    /**
+     * A borrowed connection with its own prepared statement cache.
+     */
+    public class PooledConnection implements AutoCloseable {
+
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements;
+        private boolean broken;
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+            this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > statementCacheSize) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * Returns the cached statement for the SQL, preparing it on first use, with its
+         * parameters cleared.
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null || statement.isClosed()) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            } else {
+                statement.clearParameters();
+            }
+            return statement;
+        }
+
+        /**
+         * Flags the connection for disposal when the error means the connection itself is unusable.
+         */
+        public void markFailed(SQLException e) {
+            if (e.getSQLState() != null && e.getSQLState().startsWith("08")) {
+                broken = true;
+            }
+        }
+
+        private boolean isUsable() {
+            try {
+                return !connection.isClosed() && connection.isValid(2);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void destroy() {
+            statements.values().forEach(this::closeQuietly);
+            statements.clear();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.debug("Unable to close database connection", e);
+            }
+            opened.decrementAndGet();
+        }
+
+        private void closeQuietly(PreparedStatement statement) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                logger.debug("Unable to close prepared statement", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package database;
+
+import dataProviders.ConfigFileReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * DbVerifier runs database checks for step definitions over a shared ConnectionPool.
+ *
+ * Single queries:
+ *   Map<String, Object> row = DbVerifier.getInstance().queryForRow("SELECT * FROM accounts WHERE id = ?", id);
+ *
+ * Batched assertions - every expectation becomes one scalar sub-select of a single statement,
+ * so a step checking five fields costs one round trip instead of five:
+ *   DbVerifier.getInstance().batch()
+ *           .expectValue("SELECT balance FROM accounts WHERE id = ?", "515.50", id)
+ *           .expectCount("transactions", "account_id = ?", 3, id)
+ *           .expectExists("customers", "username = ?", username)
+ *           .verify();
+ * All mismatches are reported together in one AssertionError.
+ *
+ * Every query is timed and logged; per-statement totals are logged by shutdown() at the end of the run.
+ * The query time starts once a connection is acquired; time spent waiting for the pool is reported
+ * separately, so a saturated pool is not mistaken for slow SQL.
+ *
+ * Connection settings come from the environment file (dbUrl, dbUser, dbPassword, dbPoolSize, ...).
+ * Pointing dbUrl at jdbc:h2:mem:verify;MODE=MSSQLServer;DB_CLOSE_DELAY=-1 runs the same SQL against
+ * an embedded database.
+ */
+public class DbVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(DbVerifier.class);
+    private static DbVerifier instance;
+
+    private final ConnectionPool pool;
+    private final int queryTimeoutSeconds;
+    private final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private final QueryStats poolWaits = new QueryStats();
+
+    public DbVerifier(ConnectionPool pool, int queryTimeoutSeconds) {
+        this.pool = pool;
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+    }
+
+    public static synchronized DbVerifier getInstance() {
+        if (instance == null) {
+            ConfigFileReader config = new ConfigFileReader();
+            ConnectionPool pool = new ConnectionPool(config.getDbUrl(), config.getDbUser(), config.getDbPassword(),
+                    config.getDbPoolSize(), config.getDbStatementCacheSize(), config.getDbConnectionTimeout());
+            instance = new DbVerifier(pool, config.getDbQueryTimeout());
+        }
+        return instance;
+    }
+
+    public List<Map<String, Object>> queryForList(String sql, Object... params) {
+        return execute(sql, Arrays.asList(params));
+    }
+
+    /**
+     * @return the first row, or null when the query returns no rows
+     */
+    public Map<String, Object> queryForRow(String sql, Object... params) {
+        List<Map<String, Object>> rows = queryForList(sql, params);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * @return the first column of the first row, or null when the query returns no rows
+     */
+    public Object queryForValue(String sql, Object... params) {
+        Map<String, Object> row = queryForRow(sql, params);
+        return row == null ? null : row.values().iterator().next();
+    }
+
+    public Batch batch() {
+        return new Batch();
+    }
+
+    private List<Map<String, Object>> execute(String sql, List<Object> params) {
+        long acquireStart = System.nanoTime();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        long waited;
+        long elapsed;
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            long start = System.nanoTime();
+            waited = start - acquireStart;
+            try {
+                PreparedStatement statement = connection.prepare(sql);
+                statement.setQueryTimeout(queryTimeoutSeconds);
+                for (int i = 0; i < params.size(); i++) {
+                    statement.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    ResultSetMetaData meta = resultSet.getMetaData();
+                    while (resultSet.next()) {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        for (int c = 1; c <= meta.getColumnCount(); c++) {
+                            row.put(meta.getColumnLabel(c), resultSet.getObject(c));
+                        }
+                        rows.add(row);
+                    }
+                }
+            } catch (SQLException e) {
+                connection.markFailed(e);
+                throw new RuntimeException("Database query failed: " + sql, e);
+            }
+            elapsed = System.nanoTime() - start;
+        }
+        stats.computeIfAbsent(sql, k -> new QueryStats()).record(elapsed);
+        poolWaits.record(waited);
+        logger.info("DB query took {} ms after {} ms waiting for a connection, {} row(s): {}",
+                elapsed / 1_000_000, waited / 1_000_000, rows.size(), sql);
+        return rows;
+    }
+
+    /**
+     * Compares numbers by value (so 515.5 matches "515.50") and everything else by its trimmed text.
+     */
+    static boolean matches(Object expected, Object actual) {
+        if (expected == null || actual == null) {
+            return expected == actual;
+        }
+        try {
+            return new BigDecimal(expected.toString().trim()).compareTo(new BigDecimal(actual.toString().trim())) == 0;
+        } catch (NumberFormatException e) {
+            return expected.toString().trim().equals(actual.toString().trim());
+        }
+    }
+
+    public String getMetricsSummary() {
+        StringBuilder summary = new StringBuilder("DB verification: ").append(pool.getOpenedCount())
+                .append(" open connection(s)")
+                .append(String.format(", pool wait total %.1f ms, max %.1f ms",
+                        poolWaits.totalNanos.get() / 1_000_000.0, poolWaits.maxNanos.get() / 1_000_000.0));
+        stats.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().totalNanos.get(), a.getValue().totalNanos.get()))
+                .forEach(e -> summary.append(System.lineSeparator()).append(String.format("  %d x avg %.1f ms, max %.1f ms: %s",
+                        e.getValue().count.get(), e.getValue().totalNanos.get() / (e.getValue().count.get() * 1_000_000.0),
+                        e.getValue().maxNanos.get() / 1_000_000.0, e.getKey())));
+        return summary.toString();
+    }
+
+    /**
+     * @return the longest execution of the statement in milliseconds, excluding the pool wait
+     */
+    double getMaxQueryMillis(String sql) {
+        QueryStats query = stats.get(sql);
+        return query == null ? 0 : query.maxNanos.get() / 1_000_000.0;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            logger.info(instance.getMetricsSummary());
+            instance.pool.close();
+            instance = null;
+        }
+    }
+
+    private static class QueryStats {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+        private void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulate(nanos);
+        }
+    }
+
+    /**
+     * Collects expectations and checks them all with one statement.
+     */
+    public class Batch {
+
+        private final List<String> descriptions = new ArrayList<>();
+        private final List<String> selects = new ArrayList<>();
+        private final List<Object> expected = new ArrayList<>();
+        private final List<Object> params = new ArrayList<>();
+
+        /**
+         * Expects a query returning a single value (one row, one column) to equal the expected value.
+         */
+        public Batch expectValue(String scalarSql, Object expectedValue, Object... queryParams) {
+            return add(scalarSql, scalarSql, expectedValue, queryParams);
+        }
+
+        public Batch expectCount(String table, String where, long expectedCount, Object... queryParams) {
+            return add("count of " + table + " where " + where,
+                    "SELECT COUNT(*) FROM " + table + " WHERE " + where, expectedCount, queryParams);
+        }
+
+        public Batch expectExists(String table, String where, Object... queryParams) {
+            return add("row in " + table + " where " + where,
+                    "SELECT CASE WHEN EXISTS (SELECT 1 FROM " + table + " WHERE " + where + ") THEN 1 ELSE 0 END",
+                    1, queryParams);
+        }
+
+        private Batch add(String description, String select, Object expectedValue, Object... queryParams) {
+            descriptions.add(description + " " + Arrays.toString(queryParams));
+            selects.add(select);
+            expected.add(expectedValue);
+            params.addAll(Arrays.asList(queryParams));
+            return this;
+        }
+
+        /**
+         * Runs every expectation in one round trip and throws an AssertionError listing all mismatches.
+         */
+        public void verify() {
+            if (selects.isEmpty()) {
+                return;
+            }
+            StringBuilder sql = new StringBuilder("SELECT ");
+            for (int i = 0; i < selects.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append('(').append(selects.get(i)).append(") AS c").append(i);
+            }
+            Map<String, Object> row = execute(sql.toString(), params).get(0);
+            Iterator<Object> actual = row.values().iterator();
+
+            List<String> failures = new ArrayList<>();
+            for (int i = 0; i < selects.size(); i++) {
+                Object value = actual.next();
+                if (!matches(expected.get(i), value)) {
+                    failures.add(descriptions.get(i) + ": expected <" + expected.get(i) + "> but was <" + value + ">");
+                }
+            }
+            if (!failures.isEmpty()) {
+                throw new AssertionError("Database verification failed (" + failures.size() + " of "
+                        + selects.size() + "):" + System.lineSeparator() + String.join(System.lineSeparator(), failures));
+            }
+            logger.info("Database verification passed, {} expectation(s)", selects.size());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package utilities;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -11,7 +13,8 @@ import java.util.Optional;
  *   - Environment variables (`System.getenv`)
  *
  * Primary Use Cases:
- *   - Determine the current environment: QA, PROD, etc.
+ *   - Determine the current environment: QA, PROD, etc.; in an environment matrix run (`TEST_ENVS`)
+ *     the environment bound to the calling scenario thread
  *   - Extract and format execution-level Cucumber tags
  *   - Format report subject lines with dynamic values
  *
@@ -23,16 +26,76 @@ public class EnvUtility {
     private static final String TEST_ENV = Optional.ofNullable(System.getProperty("TEST_ENV"))
             .orElse(System.getenv("TEST_ENV"));
 
+    // Reads the environments of an environment matrix run, comma separated (e.g. QA,UAT)
+    private static final String TEST_ENVS = Optional.ofNullable(System.getProperty("TEST_ENVS"))
+            .orElse(System.getenv("TEST_ENVS"));
+
+    // The environment EnvironmentMatrixRunner bound to the calling scenario thread, overriding TEST_ENV
+    private static final ThreadLocal<String> boundEnvironment = new ThreadLocal<>();
+
     // Reads the Cucumber tag from system property or environment variable
     private static final String CUCUMBER_TAG = Optional.ofNullable(System.getProperty("CUCUMBER_TAG"))
             .orElse(System.getenv("CUCUMBER_TAG"));
 
+    // Reads the git ref that change-based selection diffs against
+    private static final String IMPACT_BASE_REF = Optional.ofNullable(System.getProperty("IMPACT_BASE_REF"))
+            .orElse(System.getenv("IMPACT_BASE_REF"));
+
+    // Reads the CSV shard assigned to this JVM, formatted as index/count (e.g. 0/4)
+    private static final String CSV_SHARD = Optional.ofNullable(System.getProperty("CSV_SHARD"))
+            .orElse(System.getenv("CSV_SHARD"));
+
+    // Reads the Azure Storage connection string used for publishing results (kept out of the config files)
+    private static final String AZURE_STORAGE_CONNECTION_STRING = Optional.ofNullable(System.getProperty("AZURE_STORAGE_CONNECTION_STRING"))
+            .orElse(System.getenv("AZURE_STORAGE_CONNECTION_STRING"));
+
+    // Reads the CI build id (Azure Pipelines sets BUILD_BUILDID), grouping a run with its reruns
+    private static final String BUILD_ID = Optional.ofNullable(System.getProperty("BUILD_ID"))
+            .orElse(System.getenv("BUILD_BUILDID"));
+
     /**
-     * Retrieves the configured test environment.
+     * Retrieves the configured test environment, or the one bound to the calling thread in a matrix run.
      * @return the environment name as a String (e.g., QA, PROD)
      */
     public static String getTestEnvironment() {
-        return TEST_ENV;
+        String bound = boundEnvironment.get();
+        return bound != null ? bound : TEST_ENV;
+    }
+
+    /**
+     * Retrieves the environments to run against concurrently in an environment matrix run.
+     * @return the environment names, empty when TEST_ENVS is not set
+     */
+    public static List<String> getEnvironmentMatrix() {
+        List<String> environments = new ArrayList<>();
+        if (TEST_ENVS != null) {
+            for (String environment : TEST_ENVS.split(",")) {
+                if (!environment.trim().isEmpty() && !environments.contains(environment.trim())) {
+                    environments.add(environment.trim());
+                }
+            }
+        }
+        return environments;
+    }
+
+    /**
+     * Binds an environment to the calling scenario thread; config, URL, credentials and drivers follow it.
+     */
+    public static void bindEnvironment(String environment) {
+        boundEnvironment.set(environment);
+    }
+
+    public static void unbindEnvironment() {
+        boundEnvironment.remove();
+    }
+
+    /**
+     * Names the environments of the whole run, for report titles.
+     * @return the matrix environments joined by commas, otherwise TEST_ENV
+     */
+    public static String getRunEnvironments() {
+        List<String> matrix = getEnvironmentMatrix();
+        return matrix.isEmpty() ? TEST_ENV : String.join(",", matrix);
     }
 
     /**
@@ -46,12 +109,63 @@ public class EnvUtility {
                 .orElse("SANITY");
     }
 
+    /**
+     * Retrieves the CSV shard of this JVM when data rows are split across several agents.
+     * @return {index, count}, or {0, 1} when not sharded
+     * @throws RuntimeException when CSV_SHARD is not <index>/<count> with 0 <= index < count
+     */
+    public static int[] getCsvShard() {
+        return parseCsvShard(CSV_SHARD);
+    }
+
+    static int[] parseCsvShard(String shard) {
+        if (shard == null || shard.trim().isEmpty()) {
+            return new int[]{0, 1};
+        }
+        String[] parts = shard.trim().split("/");
+        if (parts.length != 2 || !parts[0].trim().matches("\\d{1,9}") || !parts[1].trim().matches("\\d{1,9}")) {
+            throw new RuntimeException("Invalid CSV_SHARD '" + shard + "', expected <index>/<count>, e.g. 0/2");
+        }
+        int index = Integer.parseInt(parts[0].trim());
+        int count = Integer.parseInt(parts[1].trim());
+        if (count < 1 || index >= count) {
+            throw new RuntimeException("Invalid CSV_SHARD '" + shard + "', the index must be below the shard count");
+        }
+        return new int[]{index, count};
+    }
+
+    /**
+     * Retrieves the Azure Storage connection string for result publishing.
+     * @return the connection string, or null when not set
+     */
+    public static String getAzureStorageConnectionString() {
+        return AZURE_STORAGE_CONNECTION_STRING;
+    }
+
+    /**
+     * Retrieves the git ref used as the base for change-based scenario selection.
+     * @return the configured ref, or "origin/main" when not set
+     */
+    public static String getImpactBaseRef() {
+        return Optional.ofNullable(IMPACT_BASE_REF)
+                .filter(ref -> !ref.trim().isEmpty())
+                .orElse("origin/main");
+    }
+
+    /**
+     * Retrieves the CI build this run belongs to; a rerun of failed scenarios shares it with the first run.
+     * @return the build id, or null outside CI
+     */
+    public static String getBuildId() {
+        return BUILD_ID;
+    }
+
     /**
      * Checks if the current environment is 'PROD'
      * @return true if in PROD environment
      */
     public static boolean isProd() {
-        return "PROD".equalsIgnoreCase(TEST_ENV);
+        return "PROD".equalsIgnoreCase(getTestEnvironment());
     }
 
     /**
@@ -59,7 +173,7 @@ public class EnvUtility {
      * @return true if in QA environment
      */
     public static boolean isQA() {
-        return "QA".equalsIgnoreCase(TEST_ENV);
+        return "QA".equalsIgnoreCase(getTestEnvironment());
     }
 
     /**
@@ -68,6 +182,6 @@ public class EnvUtility {
      * @return a formatted subject string
      */
     public static String getReportSubject() {
-        return String.format("Automation Test Report [%s] - %s", TEST_ENV, CUCUMBER_TAG);
+        return String.format("Automation Test Report [%s] - %s", getRunEnvironments(), CUCUMBER_TAG);
     }
 }
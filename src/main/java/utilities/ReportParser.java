@@ -11,20 +11,24 @@ import java.util.*;
 public class ReportParser {
 
     public static Map<String, Object> getReportSummary() {
+        // Dynamically find the latest Extent Report
+        File latestReport = getLatestReport();
+
+        if (latestReport == null) {
+            System.out.println("No report found.");
+            return new HashMap<>();
+        }
+        return summarize(latestReport);
+    }
+
+    // Method to count passed/failed scenarios in a Spark report
+    public static Map<String, Object> summarize(File report) {
         Map<String, Object> reportData = new HashMap<>();
         int pass = 0, fail = 0;
         List<String> failedScenarios = new ArrayList<>();
 
         try {
-            // Dynamically find the latest Extent Report
-            File latestReport = getLatestReport();
-
-            if (latestReport == null) {
-                System.out.println("No report found.");
-                return reportData;
-            }
-
-            Document doc = Jsoup.parse(latestReport, "UTF-8");
+            Document doc = Jsoup.parse(report, "UTF-8");
 
             // Update selectors based on your Spark Report HTML structure
             Elements testNodes = doc.select("li.test"); // Adjust if necessary
@@ -1,21 +1,28 @@
 package utilities;
 
+import dataProviders.AccountPool;
+
 /**
  * ScenarioContext is a utility class used to maintain context information
- * during test execution, specifically the currently executing feature name.
+ * during test execution, specifically the currently executing feature name
+ * and the login account leased by the running scenario.
  *
  * It uses a static variable to store the feature name globally across
  * the test run, allowing different components (e.g., logging, reporting)
  * to access or update this context as needed.
  *
  * Note:
- * - This class is not thread-safe. In parallel execution environments,
+ * - The feature name is not thread-safe. In parallel execution environments,
  *   consider using ThreadLocal to avoid context leakage across threads.
+ * - The leased account is bound to the scenario thread: a step leases it from
+ *   the AccountPool and stores it here, page objects read it, and Hooks clears
+ *   it when the account is released in teardown.
  */
 
 public class ScenarioContext {
 
     private static String currentFeature;
+    private static final ThreadLocal<AccountPool.Account> leasedAccount = new ThreadLocal<>();
 
     public static void setCurrentFeature(String featureName) {
         currentFeature = featureName;
@@ -25,4 +32,30 @@ public class ScenarioContext {
         return currentFeature;
     }
 
+    public static void setLeasedAccount(AccountPool.Account account) {
+        leasedAccount.set(account);
+    }
+
+    /**
+     * @return the account leased by the current scenario thread
+     */
+    public static AccountPool.Account getLeasedAccount() {
+        AccountPool.Account account = leasedAccount.get();
+        if (account == null) {
+            throw new RuntimeException("No account leased for this scenario, lease one from the AccountPool before logging in");
+        }
+        return account;
+    }
+
+    /**
+     * @return whether the current scenario thread leased an account
+     */
+    public static boolean hasLeasedAccount() {
+        return leasedAccount.get() != null;
+    }
+
+    public static void clearLeasedAccount() {
+        leasedAccount.remove();
+    }
+
 }
@@ -7,6 +7,12 @@ package utilities;
  * Fields:
  * - scenarioName: Holds the name or title of the executed test scenario.
  * - status: Represents the result status of the scenario (e.g., "Passed", "Failed").
+ * - deviceProfile: Device profile the scenario ran under in a device matrix run, otherwise null.
+ * - location: Feature file and line of the scenario, which identifies it across runs.
+ * - durationMs: Wall-clock time of the scenario including its hooks.
+ * - failureSignature: Normalised failing step and error of a failed scenario, otherwise null.
+ * - environment: Environment (config_<env>.properties) the scenario ran against.
+ * - finishedAt: Epoch millis at which the scenario finished, 0 when unknown.
  *
  * This class is typically used in test reporting mechanisms to log or analyze
  * individual scenario results after execution.
@@ -15,12 +21,43 @@ package utilities;
 public class ScenarioResult {
     private String scenarioName;
     private String status;
+    private String deviceProfile;
+    private String location;
+    private long durationMs;
+    private String failureSignature;
+    private String environment;
+    private long finishedAt;
 
     public ScenarioResult(String scenarioName, String status) {
         this.scenarioName = scenarioName;
         this.status = status;
     }
 
+    public ScenarioResult(String scenarioName, String status, String deviceProfile) {
+        this(scenarioName, status);
+        this.deviceProfile = deviceProfile;
+    }
+
+    public ScenarioResult(String scenarioName, String status, String deviceProfile, String location, long durationMs,
+                          String failureSignature) {
+        this(scenarioName, status, deviceProfile);
+        this.location = location;
+        this.durationMs = durationMs;
+        this.failureSignature = failureSignature;
+    }
+
+    public ScenarioResult(String scenarioName, String status, String deviceProfile, String location, long durationMs,
+                          String failureSignature, String environment) {
+        this(scenarioName, status, deviceProfile, location, durationMs, failureSignature);
+        this.environment = environment;
+    }
+
+    public ScenarioResult(String scenarioName, String status, String deviceProfile, String location, long durationMs,
+                          String failureSignature, String environment, long finishedAt) {
+        this(scenarioName, status, deviceProfile, location, durationMs, failureSignature, environment);
+        this.finishedAt = finishedAt;
+    }
+
     public String getScenarioName() {
         return scenarioName;
     }
@@ -28,4 +65,28 @@ public class ScenarioResult {
     public String getStatus() {
         return status;
     }
+
+    public String getDeviceProfile() {
+        return deviceProfile;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public String getFailureSignature() {
+        return failureSignature;
+    }
+
+    public String getEnvironment() {
+        return environment;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
 }
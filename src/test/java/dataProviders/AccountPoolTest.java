@@ -0,0 +1,52 @@
+package dataProviders;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import utilities.ScenarioContext;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class AccountPoolTest {
+
+    @Test
+    public void leaseIsBoundToTheThreadUntilReleased() throws Exception {
+        AccountPool pool = new AccountPool(Arrays.asList(new AccountPool.Account("a", "pa"), new AccountPool.Account("b", "pb")), 5);
+
+        AccountPool.Account mine = pool.lease();
+        Assert.assertSame(pool.lease(), mine, "repeated leases return the thread's account");
+        AccountPool.Account other = CompletableFuture.supplyAsync(pool::lease).get(5, TimeUnit.SECONDS);
+        Assert.assertNotEquals(other.getUserId(), mine.getUserId());
+
+        pool.release();
+        Assert.assertTrue(pool.getMetricsSummary().startsWith("Account pool: size 2, 2 leases (0 waited)"), pool.getMetricsSummary());
+    }
+
+    @Test
+    public void leaseFailsWhenNoAccountFreesUp() throws Exception {
+        AccountPool pool = new AccountPool(Arrays.asList(new AccountPool.Account("a", "pa")), 0);
+        pool.lease();
+        CompletableFuture<AccountPool.Account> blocked = CompletableFuture.supplyAsync(pool::lease);
+        try {
+            blocked.get(5, TimeUnit.SECONDS);
+            Assert.fail("the only account is leased");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause().getMessage().startsWith("No account became free"), e.getCause().getMessage());
+        } finally {
+            pool.release();
+        }
+    }
+
+    @Test
+    public void scenarioContextHoldsTheExplicitLease() {
+        AccountPool pool = new AccountPool(Arrays.asList(new AccountPool.Account("a", "pa")), 5);
+        ScenarioContext.setLeasedAccount(pool.lease());
+        Assert.assertEquals(ScenarioContext.getLeasedAccount().getUserId(), "a");
+
+        pool.release();
+        ScenarioContext.clearLeasedAccount();
+        Assert.assertThrows(RuntimeException.class, ScenarioContext::getLeasedAccount);
+    }
+}
@@ -0,0 +1,43 @@
+package dataProviders;
+
+import managers.FileReaderManager;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+public class CsvDataSourceTest {
+
+    @AfterMethod(alwaysRun = true)
+    public void cleanUp() {
+        CsvDataSource.unbind();
+        CsvDataSource.closeAll();
+    }
+
+    @Test
+    public void rowsAreReadByIndexInAnyOrder() {
+        CsvDataSource logins = CsvDataSource.get("logins", FileReaderManager.getInstance().getConfigReader());
+        Assert.assertEquals(logins.row(2).get("username"), "invalid_user_02");
+        Assert.assertEquals(logins.row(0).get("username"), "john", "an earlier row reopens the cursor");
+        Assert.assertEquals(logins.row(1).get("username"), "invalid_user_01");
+        Assert.assertEquals(logins.row(1).get("username"), "invalid_user_01", "the same row can be bound again");
+    }
+
+    @Test
+    public void bindingKeepsTheRowIndex() {
+        CsvDataSource.bind("logins", 3, FileReaderManager.getInstance().getConfigReader());
+        Assert.assertEquals(CsvDataSource.currentIndex(), Integer.valueOf(3));
+        Assert.assertEquals(CsvDataSource.current(Map.class).get("password"), "wrong_pass_03");
+
+        CsvDataSource.unbind();
+        Assert.assertNull(CsvDataSource.currentIndex());
+    }
+
+    @Test
+    public void rowBeyondTheFileFails() {
+        long rows = CsvDataSource.get("logins", FileReaderManager.getInstance().getConfigReader()).count();
+        RuntimeException failure = Assert.expectThrows(RuntimeException.class, () -> CsvDataSource.get("logins", FileReaderManager.getInstance().getConfigReader()).row((int) rows));
+        Assert.assertTrue(failure.getMessage().contains("has no row " + (rows + 1)), failure.getMessage());
+    }
+}
@@ -0,0 +1,49 @@
+package dataSeeding;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.math.BigDecimal;
+
+/**
+ * Account mirrors the Parabank account resource returned by the bank REST service.
+ * Type is CHECKING, SAVINGS or LOAN.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Account {
+    private long id;
+    private long customerId;
+    private String type;
+    private BigDecimal balance;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(long customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
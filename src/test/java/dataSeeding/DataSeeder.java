@@ -0,0 +1,201 @@
+package dataSeeding;
+
+import dataProviders.ConfigFileReader;
+import managers.FileReaderManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * DataSeeder sets up Parabank preconditions through the REST service instead of the UI.
+ *
+ * - Requests run on a shared worker pool over one pooled HTTP client (ParabankApiClient).
+ * - Parabank has no bulk endpoints, so runConcurrently() issues independent requests side by side
+ *   over the pooled connections and waits for all of them.
+ * - Account lookups are batched per customer: concurrent account() fixtures of one customer share a
+ *   single accounts listing, which is refreshed after an account is opened.
+ * - fixture() caches idempotent setup (a registered customer, a funded account) for the whole run,
+ *   so scenarios that need the same precondition trigger at most one request; concurrent callers
+ *   share the in-flight result. Failed fixtures are evicted so a later scenario can retry.
+ *
+ * Step definitions call it before their UI steps, e.g.
+ *   Customer customer = DataSeeder.getInstance().customer("seed_user", "seed_pass");
+ *   Account savings = DataSeeder.getInstance().account(customer, "SAVINGS");
+ *
+ * The service root comes from `apiBaseUrl` (defaults to the bank service next to `url`), so the
+ * engine can be pointed at a local stub server.
+ */
+public class DataSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSeeder.class);
+    private static DataSeeder instance;
+
+    private final ParabankApiClient api;
+    private final ExecutorService workers;
+    private final Map<String, CompletableFuture<Object>> fixtures = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<List<Account>>> accountListings = new ConcurrentHashMap<>();
+
+    public DataSeeder(ParabankApiClient api, int threads) {
+        this.api = api;
+        AtomicInteger threadId = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "data-seeder-" + threadId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static synchronized DataSeeder getInstance() {
+        if (instance == null) {
+            ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+            String siteUrl = config.getUrl().substring(0, config.getUrl().lastIndexOf('/'));
+            String apiBaseUrl = config.getProperty("apiBaseUrl", siteUrl + "/services/bank");
+            int threads = config.getSeedingThreads();
+            instance = new DataSeeder(new ParabankApiClient(apiBaseUrl, siteUrl, threads * 2), threads);
+        }
+        return instance;
+    }
+
+    public ParabankApiClient getApi() {
+        return api;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> request) {
+        return CompletableFuture.supplyAsync(request, workers);
+    }
+
+    /**
+     * Runs independent requests concurrently and returns their results in input order.
+     */
+    public <T> List<T> runConcurrently(List<Supplier<T>> requests) {
+        List<CompletableFuture<T>> futures = new ArrayList<>();
+        for (Supplier<T> request : requests) {
+            futures.add(submit(request));
+        }
+        List<T> results = new ArrayList<>();
+        for (CompletableFuture<T> future : futures) {
+            results.add(join(future));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the cached result for the key, creating it once per run.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T fixture(String key, Supplier<T> factory) {
+        CompletableFuture<Object> future = fixtures.computeIfAbsent(key,
+                k -> CompletableFuture.supplyAsync(() -> (Object) factory.get(), workers));
+        try {
+            return (T) join(future);
+        } catch (RuntimeException e) {
+            fixtures.remove(key, future);
+            throw e;
+        }
+    }
+
+    // ================================
+    // FIXTURES
+    // ================================
+
+    /**
+     * Returns the customer for the credentials, registering it first if it does not exist yet.
+     */
+    public Customer customer(String username, String password) {
+        return fixture("customer:" + username, () -> {
+            Customer existing = api.findCustomer(username, password);
+            if (existing != null) {
+                return existing;
+            }
+            api.registerCustomer(username, password);
+            return api.login(username, password);
+        });
+    }
+
+    /**
+     * Returns an account of the given type for the customer, opening one from the customer's
+     * first account when none exists.
+     */
+    public Account account(Customer customer, String type) {
+        return fixture("account:" + customer.getId() + ":" + type.toUpperCase(), () -> {
+            List<Account> accounts = accountsOf(customer.getId());
+            for (Account account : accounts) {
+                if (type.equalsIgnoreCase(account.getType())) {
+                    return account;
+                }
+            }
+            if (accounts.isEmpty()) {
+                throw new RuntimeException("Customer " + customer.getId() + " has no account to fund a new "
+                        + type + " account from");
+            }
+            Account created = api.createAccount(customer.getId(), type, accounts.get(0).getId());
+            accountListings.remove(customer.getId());
+            return created;
+        });
+    }
+
+    /**
+     * Lists the customer's accounts once for all concurrent callers. The first caller fetches the
+     * listing on its own thread, so callers running on the worker pool never wait for a queued task.
+     */
+    private List<Account> accountsOf(long customerId) {
+        CompletableFuture<List<Account>> mine = new CompletableFuture<>();
+        CompletableFuture<List<Account>> listing = accountListings.putIfAbsent(customerId, mine);
+        if (listing == null) {
+            listing = mine;
+            try {
+                mine.complete(api.getAccounts(customerId));
+            } catch (RuntimeException e) {
+                accountListings.remove(customerId, mine);
+                mine.completeExceptionally(e);
+            }
+        }
+        return join(listing);
+    }
+
+    /**
+     * Opens several accounts concurrently, all funded from the same source account.
+     */
+    public List<Account> openAccounts(Customer customer, String type, long fromAccountId, int count) {
+        List<Supplier<Account>> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            requests.add(() -> api.createAccount(customer.getId(), type, fromAccountId));
+        }
+        List<Account> opened = runConcurrently(requests);
+        accountListings.remove(customer.getId());
+        return opened;
+    }
+
+    public void transfer(long fromAccountId, long toAccountId, BigDecimal amount) {
+        join(submit(() -> {
+            api.transfer(fromAccountId, toAccountId, amount);
+            return null;
+        }));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause
+                    : new RuntimeException("Data seeding failed", cause);
+        }
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.workers.shutdownNow();
+            instance.api.close();
+            logger.info("Data seeder stopped, {} fixtures cached this run", instance.fixtures.size());
+            instance = null;
+        }
+    }
+}
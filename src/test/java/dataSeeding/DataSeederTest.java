@@ -0,0 +1,115 @@
+package dataSeeding;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the seeder against a stub Parabank served by the JDK HTTP server.
+ */
+public class DataSeederTest {
+
+    private HttpServer server;
+    private DataSeeder seeder;
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<String> accounts = new CopyOnWriteArrayList<>();
+    private volatile boolean registered;
+
+    @BeforeMethod
+    public void startStub() throws IOException {
+        calls.clear();
+        accounts.clear();
+        registered = false;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/parabank/", this::handle);
+        server.start();
+        String site = "http://127.0.0.1:" + server.getAddress().getPort() + "/parabank";
+        seeder = new DataSeeder(new ParabankApiClient(site + "/services/bank", site, 4), 4);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stopStub() {
+        seeder.getApi().close();
+        server.stop(0);
+    }
+
+    @Test
+    public void customerIsRegisteredOnceForConcurrentCallers() {
+        CompletableFuture<Customer> first = CompletableFuture.supplyAsync(() -> seeder.customer("seed user", "p/w"));
+        Customer second = seeder.customer("seed user", "p/w");
+
+        Assert.assertEquals(first.join().getId(), 7);
+        Assert.assertEquals(second.getId(), 7);
+        Assert.assertEquals(count("POST /parabank/register.htm"), 1);
+        // One lookup before registering and one login after, with the path segments encoded
+        Assert.assertEquals(count("GET /parabank/services/bank/login/seed user/p/w"), 2);
+    }
+
+    @Test
+    public void accountLookupsOfOneCustomerShareAListing() {
+        accounts.add("{\"id\":100,\"customerId\":7,\"type\":\"CHECKING\"}");
+        Customer customer = new Customer();
+        customer.setId(7);
+
+        CompletableFuture<Account> checking = CompletableFuture.supplyAsync(() -> seeder.account(customer, "CHECKING"));
+        Account savings = seeder.account(customer, "SAVINGS");
+
+        Assert.assertEquals(checking.join().getId(), 100);
+        Assert.assertEquals(savings.getType(), "SAVINGS");
+        Assert.assertEquals(count("POST /parabank/services/bank/createAccount"), 1);
+        Assert.assertTrue(count("GET /parabank/services/bank/customers/7/accounts") <= 2);
+    }
+
+    @Test
+    public void accountNeedsAFundingAccount() {
+        Customer customer = new Customer();
+        customer.setId(7);
+        RuntimeException failure = Assert.expectThrows(RuntimeException.class, () -> seeder.account(customer, "SAVINGS"));
+        Assert.assertTrue(failure.getMessage().contains("has no account to fund"), failure.getMessage());
+    }
+
+    private int count(String call) {
+        AtomicInteger count = calls.get(call);
+        return count == null ? 0 : count.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        calls.computeIfAbsent(exchange.getRequestMethod() + " " + path, k -> new AtomicInteger()).incrementAndGet();
+        if (path.equals("/parabank/register.htm")) {
+            registered = true;
+            reply(exchange, 200, "<html/>");
+        } else if (path.startsWith("/parabank/services/bank/login/")) {
+            reply(exchange, registered ? 200 : 400, registered ? "{\"id\":7,\"firstName\":\"Seed\"}" : "Invalid username and/or password");
+        } else if (path.equals("/parabank/services/bank/customers/7/accounts")) {
+            reply(exchange, 200, "[" + String.join(",", accounts) + "]");
+        } else if (path.equals("/parabank/services/bank/createAccount")) {
+            String account = "{\"id\":" + (200 + accounts.size()) + ",\"customerId\":7,\"type\":\"SAVINGS\"}";
+            accounts.add(account);
+            reply(exchange, 200, account);
+        } else {
+            reply(exchange, 404, "");
+        }
+    }
+
+    private static void reply(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
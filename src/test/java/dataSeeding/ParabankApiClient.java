@@ -0,0 +1,188 @@
+package dataSeeding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ParabankApiClient wraps the Parabank bank REST service (and the registration form, which has
+ * no REST equivalent).
+ *
+ * All requests share one Apache HTTP client built with a pooling connection manager, so concurrent
+ * seeding requests reuse keep-alive connections instead of opening a socket per call.
+ * The client is thread-safe; close() releases the pooled connections.
+ */
+public class ParabankApiClient implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParabankApiClient.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private final String apiBaseUrl;
+    private final String siteUrl;
+    private final CloseableHttpClient client;
+
+    /**
+     * @param apiBaseUrl     Bank service root, e.g. https://parabank.parasoft.com/parabank/services/bank
+     * @param siteUrl        Application root used for form-only operations, e.g. https://parabank.parasoft.com/parabank
+     * @param maxConnections Size of the shared connection pool
+     */
+    public ParabankApiClient(String apiBaseUrl, String siteUrl, int maxConnections) {
+        this.apiBaseUrl = apiBaseUrl;
+        this.siteUrl = siteUrl;
+
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+        pool.setMaxTotal(maxConnections);
+        pool.setDefaultMaxPerRoute(maxConnections);
+        this.client = HttpClientBuilder.create().setConnectionManager(pool).build();
+    }
+
+    public Customer login(String username, String password) {
+        Reply reply = execute(new HttpGet(api(null, "login", username, password)));
+        return expectOk(reply, "login " + username).as(Customer.class);
+    }
+
+    /**
+     * @return the customer, or null if the credentials are not registered
+     */
+    public Customer findCustomer(String username, String password) {
+        Reply reply = execute(new HttpGet(api(null, "login", username, password)));
+        return reply.status == 200 ? reply.as(Customer.class) : null;
+    }
+
+    public List<Account> getAccounts(long customerId) {
+        Reply reply = execute(new HttpGet(api(null, "customers", String.valueOf(customerId), "accounts")));
+        return Arrays.asList(expectOk(reply, "list accounts of " + customerId).as(Account[].class));
+    }
+
+    /**
+     * Opens a new account funded from an existing one.
+     * @param type "CHECKING" or "SAVINGS"
+     */
+    public Account createAccount(long customerId, String type, long fromAccountId) {
+        Reply reply = execute(new HttpPost(api(Arrays.asList(
+                new BasicNameValuePair("customerId", String.valueOf(customerId)),
+                new BasicNameValuePair("newAccountType", "SAVINGS".equalsIgnoreCase(type) ? "1" : "0"),
+                new BasicNameValuePair("fromAccountId", String.valueOf(fromAccountId))), "createAccount")));
+        return expectOk(reply, "create " + type + " account for " + customerId).as(Account.class);
+    }
+
+    public void transfer(long fromAccountId, long toAccountId, BigDecimal amount) {
+        Reply reply = execute(new HttpPost(api(Arrays.asList(
+                new BasicNameValuePair("fromAccountId", String.valueOf(fromAccountId)),
+                new BasicNameValuePair("toAccountId", String.valueOf(toAccountId)),
+                new BasicNameValuePair("amount", amount.toPlainString())), "transfer")));
+        expectOk(reply, "transfer " + amount + " from " + fromAccountId + " to " + toAccountId);
+    }
+
+    public void deposit(long accountId, BigDecimal amount) {
+        Reply reply = execute(new HttpPost(api(Arrays.asList(
+                new BasicNameValuePair("accountId", String.valueOf(accountId)),
+                new BasicNameValuePair("amount", amount.toPlainString())), "deposit")));
+        expectOk(reply, "deposit " + amount + " into " + accountId);
+    }
+
+    /**
+     * Registers a customer through the sign-up form, which has no REST equivalent in Parabank.
+     */
+    public void registerCustomer(String username, String password) {
+        List<NameValuePair> form = Arrays.asList(
+                new BasicNameValuePair("customer.firstName", "Seed"),
+                new BasicNameValuePair("customer.lastName", username),
+                new BasicNameValuePair("customer.address.street", "1 Seed Street"),
+                new BasicNameValuePair("customer.address.city", "Seedville"),
+                new BasicNameValuePair("customer.address.state", "CA"),
+                new BasicNameValuePair("customer.address.zipCode", "90001"),
+                new BasicNameValuePair("customer.phoneNumber", "5550100"),
+                new BasicNameValuePair("customer.ssn", "000-00-0000"),
+                new BasicNameValuePair("customer.username", username),
+                new BasicNameValuePair("customer.password", password),
+                new BasicNameValuePair("repeatedPassword", password));
+        HttpPost post = new HttpPost(URI.create(siteUrl + "/register.htm"));
+        post.setEntity(new UrlEncodedFormEntity(form, StandardCharsets.UTF_8));
+        expectOk(execute(post), "register " + username);
+        logger.info("Registered seed customer {}", username);
+    }
+
+    @Override
+    public void close() {
+        try {
+            client.close();
+        } catch (IOException e) {
+            logger.warn("Unable to close the data seeding HTTP client", e);
+        }
+    }
+
+    /**
+     * Builds a bank service URI; path segments are encoded, so user names and passwords are safe to pass.
+     */
+    private URI api(List<NameValuePair> query, String... path) {
+        try {
+            URIBuilder builder = new URIBuilder(apiBaseUrl);
+            List<String> segments = new ArrayList<>(builder.getPathSegments());
+            segments.addAll(Arrays.asList(path));
+            builder.setPathSegments(segments);
+            if (query != null) {
+                builder.addParameters(query);
+            }
+            return builder.build();
+        } catch (URISyntaxException e) {
+            throw new RuntimeException("Invalid apiBaseUrl " + apiBaseUrl, e);
+        }
+    }
+
+    private Reply execute(HttpUriRequest request) {
+        request.setHeader("Accept", "application/json");
+        try (CloseableHttpResponse response = client.execute(request)) {
+            String body = response.getEntity() == null ? "" : EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            return new Reply(response.getStatusLine().getStatusCode(), body);
+        } catch (IOException e) {
+            throw new RuntimeException("Data seeding request failed: " + request.getMethod() + " " + request.getURI(), e);
+        }
+    }
+
+    private static Reply expectOk(Reply reply, String action) {
+        if (reply.status != 200) {
+            throw new RuntimeException("Data seeding request failed (" + action + "): HTTP "
+                    + reply.status + " " + reply.body);
+        }
+        return reply;
+    }
+
+    private static class Reply {
+        private final int status;
+        private final String body;
+
+        private Reply(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        private <T> T as(Class<T> type) {
+            try {
+                return mapper.readValue(body, type);
+            } catch (IOException e) {
+                throw new RuntimeException("Unexpected data seeding response: " + body, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package database;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the verifier against an embedded H2 database in SQL Server compatibility mode.
+ */
+public class DbVerifierTest {
+
+    private static final String URL = "jdbc:h2:mem:db_verifier_test;MODE=MSSQLServer;DB_CLOSE_DELAY=-1";
+    private ConnectionPool pool;
+    private DbVerifier verifier;
+
+    @BeforeClass
+    public void createSchema() throws Exception {
+        pool = new ConnectionPool(URL, "sa", "", 1, 8, 10);
+        verifier = new DbVerifier(pool, 5);
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            connection.prepare("CREATE TABLE accounts (id INT PRIMARY KEY, customer VARCHAR(40), balance DECIMAL(10, 2))").execute();
+            connection.prepare("INSERT INTO accounts VALUES (13344, 'john', 515.50), (13455, 'john', 100.00)").execute();
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void closePool() {
+        pool.close();
+    }
+
+    @Test
+    public void singleQueries() {
+        Map<String, Object> row = verifier.queryForRow("SELECT id, customer FROM accounts WHERE id = ?", 13344);
+        Assert.assertTrue(row.containsValue("john"), row.toString());
+        Assert.assertEquals(verifier.queryForValue("SELECT COUNT(*) FROM accounts WHERE customer = ?", "john").toString(), "2");
+        Assert.assertNull(verifier.queryForRow("SELECT id FROM accounts WHERE id = ?", -1));
+    }
+
+    @Test
+    public void batchChecksEveryExpectationInOneStatement() {
+        verifier.batch()
+                .expectValue("SELECT balance FROM accounts WHERE id = ?", "515.5", 13344)
+                .expectCount("accounts", "customer = ?", 2, "john")
+                .expectExists("accounts", "id = ?", 13455)
+                .verify();
+
+        AssertionError failure = Assert.expectThrows(AssertionError.class, () -> verifier.batch()
+                .expectValue("SELECT balance FROM accounts WHERE id = ?", "1.00", 13344)
+                .expectCount("accounts", "customer = ?", 5, "john")
+                .expectExists("accounts", "id = ?", 13455)
+                .verify());
+        Assert.assertTrue(failure.getMessage().startsWith("Database verification failed (2 of 3)"), failure.getMessage());
+    }
+
+    @Test
+    public void statementsAreCachedPerConnection() throws Exception {
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            PreparedStatement first = connection.prepare("SELECT balance FROM accounts WHERE id = ?");
+            Assert.assertSame(connection.prepare("SELECT balance FROM accounts WHERE id = ?"), first);
+        }
+        Assert.assertEquals(pool.getOpenedCount(), 1);
+    }
+
+    @Test
+    public void poolWaitIsNotCountedAsQueryTime() throws Exception {
+        String sql = "SELECT customer FROM accounts WHERE id = ?";
+        CountDownLatch held = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            ConnectionPool.PooledConnection connection = pool.acquire();
+            try {
+                held.countDown();
+                Thread.sleep(700);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                connection.close();
+            }
+        });
+        Assert.assertTrue(held.await(5, TimeUnit.SECONDS));
+
+        verifier.queryForValue(sql, 13344); // Waits for the only connection
+        holder.get(5, TimeUnit.SECONDS);
+
+        Assert.assertTrue(verifier.getMaxQueryMillis(sql) < 500, "query time " + verifier.getMaxQueryMillis(sql));
+        Assert.assertTrue(verifier.getMetricsSummary().contains("pool wait total"), verifier.getMetricsSummary());
+    }
+}
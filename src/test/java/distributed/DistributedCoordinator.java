@@ -0,0 +1,106 @@
+package distributed;
+
+import dataProviders.ConfigFileReader;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import managers.FileReaderManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.CsvScenarioExpander;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DistributedCoordinator turns the runner's tag-filtered scenarios into work items and collects
+ * the workers' results.
+ *
+ * Every scenario invocation (one per data row for `@csv:<name>` scenarios) becomes one message on
+ * the work queue, tagged with a run id so results of concurrent runs do not mix. awaitResults() waits until each item has a final result or the run
+ * timeout (`distRunTimeoutMinutes`) expires; items without a result are reported as TIMED_OUT.
+ */
+public class DistributedCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedCoordinator.class);
+
+    private final ScenarioQueues queues;
+    private final String runId = UUID.randomUUID().toString();
+    private final Map<String, WorkItem> items = new LinkedHashMap<>();
+    private final Duration runTimeout;
+    private final long pollIntervalMs;
+
+    public DistributedCoordinator(ScenarioQueues queues, Duration runTimeout, long pollIntervalMs) {
+        this.queues = queues;
+        this.runTimeout = runTimeout;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    public static DistributedCoordinator fromConfig() {
+        ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+        return new DistributedCoordinator(ScenarioQueues.fromConfig(config),
+                Duration.ofMinutes(config.getDistRunTimeoutMinutes()), TimeUnit.SECONDS.toMillis(config.getDistPollInterval()));
+    }
+
+    /**
+     * Queues one work item per scenario of the TestNG data provider rows.
+     * @return the number of queued items
+     */
+    public int enqueue(Object[][] scenarios) {
+        for (Object[] scenario : scenarios) {
+            Pickle pickle = ((PickleWrapper) scenario[0]).getPickle();
+            CsvScenarioExpander.CsvRowScenario row = CsvScenarioExpander.rowOf((PickleWrapper) scenario[0]);
+            enqueue(ResultCollector.location(pickle.getUri(), pickle.getLine()),
+                    row == null ? pickle.getName() : pickle.getName() + CsvScenarioExpander.rowLabel(row.getRow()),
+                    row == null ? null : row.getRow());
+        }
+        logger.info("Run {}: queued {} scenario(s) for distributed execution", runId, items.size());
+        return items.size();
+    }
+
+    WorkItem enqueue(String location, String name, Integer csvRow) {
+        WorkItem item = new WorkItem(runId, String.valueOf(items.size() + 1), location, name);
+        item.setCsvRow(csvRow);
+        queues.sendWork(item);
+        items.put(item.getItemId(), item);
+        return item;
+    }
+
+    /**
+     * Waits for a final result for every queued item.
+     * @return one result per item, in queue order
+     */
+    public List<WorkResult> awaitResults() {
+        Map<String, WorkResult> finals = new HashMap<>();
+        long deadline = System.nanoTime() + runTimeout.toNanos();
+        while (finals.size() < items.size() && System.nanoTime() < deadline) {
+            List<WorkResult> received = queues.receiveResults(runId, Duration.ofSeconds(30));
+            for (WorkResult result : received) {
+                logger.info("{} {} on attempt {} by {}", result.getLocation(), result.getStatus(),
+                        result.getAttempt(), result.getWorker());
+                if (result.isFinalResult()) {
+                    finals.put(result.getItemId(), result);
+                }
+            }
+            if (received.isEmpty()) {
+                sleep(pollIntervalMs);
+            }
+        }
+
+        List<WorkResult> results = new ArrayList<>();
+        for (WorkItem item : items.values()) {
+            results.add(finals.getOrDefault(item.getItemId(), new WorkResult(item, "TIMED_OUT", null, 0, true)));
+        }
+        logger.info("Run {}: {} of {} scenario(s) reported a final result", runId, finals.size(), items.size());
+        return results;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Coordinator interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package distributed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+import utilities.ScenarioResult;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class DistributedExchangeTest {
+
+    private static final String AZURITE = "UseDevelopmentStorage=true";
+
+    @Test
+    public void workResultKeepsTheScenarioResultOnTheWire() throws IOException {
+        WorkItem item = new WorkItem("run", "1", "src/test/resources/features/Login.feature:7", "Login [row 2]");
+        ScenarioResult scenario = new ScenarioResult("Login [row 2]", "FAILED", "pixel7",
+                "src/test/resources/features/Login.feature:7", 1234, "AssertionError: title", "QA", 1700000000000L);
+
+        ObjectMapper mapper = new ObjectMapper();
+        WorkResult received = mapper.readValue(mapper.writeValueAsString(
+                new WorkResult(item, "FAILED", "worker-1", 999, true, scenario)), WorkResult.class);
+
+        assertSameResult(received.toScenarioResult(), scenario);
+    }
+
+    @Test
+    public void collectorAttachesTheHooksResultToTheOutcome() {
+        ResultCollector.drain();
+        ScenarioResult scenario = new ScenarioResult("Login", "PASSED", null, "a.feature:3", 10, null, "QA");
+        ResultCollector.attach("a.feature:3", scenario);
+
+        Assert.assertTrue(ResultCollector.drain().isEmpty(), "a result without an outcome is not reported");
+
+        ResultCollector.attach("a.feature:3", scenario);
+        ResultCollector.finished("a.feature:3", "PASSED", 12);
+        ResultCollector.finished("b.feature:5", "SKIPPED", 0);
+        Map<String, ResultCollector.Outcome> outcomes = ResultCollector.drain();
+        Assert.assertSame(outcomes.get("a.feature:3").result, scenario);
+        Assert.assertNull(outcomes.get("b.feature:5").result);
+    }
+
+    @Test
+    public void coordinatorReportsWhatTheWorkerRecorded() {
+        if (!reachable(10001)) {
+            throw new SkipException("Azurite is not running on 127.0.0.1:10001");
+        }
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        ScenarioQueues queues = new ScenarioQueues(AZURITE, "work-" + suffix, "results-" + suffix);
+        DistributedCoordinator coordinator = new DistributedCoordinator(queues, Duration.ofSeconds(30), 100);
+        WorkItem queued = coordinator.enqueue("src/test/resources/features/Login.feature:7", "Login [row 2]", 2);
+
+        ScenarioQueues.Lease lease = queues.receiveWork(1, Duration.ofSeconds(30)).get(0);
+        Assert.assertEquals(lease.getItem().getCsvRow(), Integer.valueOf(2));
+        ScenarioResult scenario = new ScenarioResult(queued.getName(), "FAILED", "pixel7", queued.getLocation(),
+                1234, "AssertionError: title", "QA");
+        new DistributedWorker(queues, 1, 1, Duration.ofSeconds(30), 1000, 100)
+                .report(lease, new ResultCollector.Outcome("FAILED", 999, scenario, null));
+
+        List<WorkResult> results = coordinator.awaitResults();
+        Assert.assertEquals(results.size(), 1);
+        Assert.assertNotNull(results.get(0).getWorker(), "the worker's result, not a timeout");
+        assertSameResult(results.get(0).toScenarioResult(), scenario);
+    }
+
+    private static void assertSameResult(ScenarioResult actual, ScenarioResult expected) {
+        Assert.assertEquals(actual.getScenarioName(), expected.getScenarioName());
+        Assert.assertEquals(actual.getStatus(), expected.getStatus());
+        Assert.assertEquals(actual.getDeviceProfile(), expected.getDeviceProfile());
+        Assert.assertEquals(actual.getLocation(), expected.getLocation());
+        Assert.assertEquals(actual.getDurationMs(), expected.getDurationMs());
+        Assert.assertEquals(actual.getFailureSignature(), expected.getFailureSignature());
+        Assert.assertEquals(actual.getEnvironment(), expected.getEnvironment());
+        Assert.assertEquals(actual.getFinishedAt(), expected.getFinishedAt());
+    }
+
+    private static boolean reachable(int port) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("127.0.0.1", port), 500);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
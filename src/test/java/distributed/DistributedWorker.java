@@ -0,0 +1,222 @@
+package distributed;
+
+import dataProviders.ConfigFileReader;
+import io.cucumber.core.cli.Main;
+import managers.FileReaderManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.CsvScenarioExpander;
+import utils.StepLatencyHistory;
+import utils.StepLatencyListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * DistributedWorker pulls scenarios off the work queue and runs them locally.
+ *
+ * Each round leases up to `distWorkerThreads` items and runs them as one Cucumber run with that
+ * many threads, so every worker owns a browser pool of that size.
+ *
+ * Lease and retry semantics:
+ * - Leases are renewed at half the visibility timeout while the batch runs, so long scenarios
+ *   are not handed to a second worker.
+ * - If the worker dies, its leases expire and the items become visible to other workers.
+ * - An item delivered more than `distMaxAttempts` times (crashed workers) is reported ABANDONED.
+ * - A failed item is re-queued as a new attempt until `distMaxAttempts` is reached; only the
+ *   last attempt is reported as final.
+ * - The item is deleted only after its result has been sent.
+ *
+ * The worker exits after `distWorkerIdleTimeout` seconds without work.
+ */
+public class DistributedWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedWorker.class);
+    private static final File WORK_DIR = new File("target/distributed");
+    private static volatile boolean active;
+
+    private final ScenarioQueues queues;
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName();
+    private final int threads;
+    private final int maxAttempts;
+    private final Duration visibilityTimeout;
+    private final long idleTimeoutMs;
+    private final long pollIntervalMs;
+    private int batchNumber;
+
+    public DistributedWorker(ScenarioQueues queues, int threads, int maxAttempts, Duration visibilityTimeout,
+                             long idleTimeoutMs, long pollIntervalMs) {
+        this.queues = queues;
+        this.threads = threads;
+        this.maxAttempts = maxAttempts;
+        this.visibilityTimeout = visibilityTimeout;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    public static DistributedWorker fromConfig() {
+        ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+        return new DistributedWorker(ScenarioQueues.fromConfig(config), config.getDistWorkerThreads(),
+                config.getDistMaxAttempts(), Duration.ofSeconds(config.getDistVisibilityTimeout()),
+                TimeUnit.SECONDS.toMillis(config.getDistWorkerIdleTimeout()),
+                TimeUnit.SECONDS.toMillis(config.getDistPollInterval()));
+    }
+
+    /**
+     * @return true while this JVM runs as a worker; Hooks skips the run-level email then
+     */
+    public static boolean isActive() {
+        return active;
+    }
+
+    public void run() {
+        active = true;
+        StepLatencyHistory.detach("DistributedWorker"); // The coordinator gates the samples sent with the results
+        ScheduledExecutorService renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "work-lease-renewer");
+            t.setDaemon(true);
+            return t;
+        });
+        logger.info("Worker {} started with {} browser thread(s)", workerId, threads);
+        long idleSince = System.currentTimeMillis();
+        int executed = 0;
+        try {
+            while (System.currentTimeMillis() - idleSince < idleTimeoutMs) {
+                List<ScenarioQueues.Lease> leases = runnable(queues.receiveWork(threads, visibilityTimeout));
+                if (leases.isEmpty()) {
+                    sleep(pollIntervalMs);
+                    continue;
+                }
+
+                long renewEvery = Math.max(1, visibilityTimeout.getSeconds() / 2);
+                ScheduledFuture<?> renewal = renewer.scheduleAtFixedRate(() -> renew(leases), renewEvery, renewEvery, TimeUnit.SECONDS);
+                Map<ScenarioQueues.Lease, ResultCollector.Outcome> outcomes;
+                try {
+                    outcomes = execute(leases);
+                } finally {
+                    renewal.cancel(false);
+                }
+                leases.forEach(lease -> report(lease, outcomes.get(lease)));
+                executed += leases.size();
+                idleSince = System.currentTimeMillis();
+            }
+        } finally {
+            renewer.shutdownNow();
+            logger.info("Worker {} stopped after {} scenario(s), idle for {}s", workerId, executed, idleTimeoutMs / 1000);
+        }
+    }
+
+    /**
+     * Drops items that crashed workers too often, reporting them as abandoned.
+     */
+    private List<ScenarioQueues.Lease> runnable(List<ScenarioQueues.Lease> leases) {
+        List<ScenarioQueues.Lease> runnable = new ArrayList<>();
+        for (ScenarioQueues.Lease lease : leases) {
+            if (lease.getDequeueCount() > maxAttempts) {
+                logger.warn("Abandoning {} after {} deliveries", lease.getItem().getLocation(), lease.getDequeueCount());
+                queues.sendResult(new WorkResult(lease.getItem(), "ABANDONED", workerId, 0, true));
+                queues.complete(lease);
+            } else {
+                runnable.add(lease);
+            }
+        }
+        return runnable;
+    }
+
+    /**
+     * Cucumber runs a location at most once per run, so data rows of one CSV scenario are spread over
+     * consecutive runs, each row assigned to the location before its run starts.
+     */
+    private Map<ScenarioQueues.Lease, ResultCollector.Outcome> execute(List<ScenarioQueues.Lease> leases) {
+        Map<ScenarioQueues.Lease, ResultCollector.Outcome> outcomes = new IdentityHashMap<>();
+        List<ScenarioQueues.Lease> pending = leases;
+        while (!pending.isEmpty()) {
+            Map<String, ScenarioQueues.Lease> round = new LinkedHashMap<>();
+            List<ScenarioQueues.Lease> later = new ArrayList<>();
+            for (ScenarioQueues.Lease lease : pending) {
+                if (round.putIfAbsent(lease.getItem().getLocation(), lease) != null) {
+                    later.add(lease);
+                }
+            }
+            Map<String, ResultCollector.Outcome> byLocation = executeRound(new ArrayList<>(round.values()));
+            round.forEach((location, lease) -> outcomes.put(lease, byLocation.get(location)));
+            pending = later;
+        }
+        return outcomes;
+    }
+
+    private Map<String, ResultCollector.Outcome> executeRound(List<ScenarioQueues.Lease> leases) {
+        File rerunFile = new File(WORK_DIR, "worker-" + workerId.replaceAll("[^A-Za-z0-9]", "_") + "-" + (++batchNumber) + ".txt");
+        try {
+            WORK_DIR.mkdirs();
+            Files.write(rerunFile.toPath(), leases.stream().map(l -> l.getItem().getLocation()).collect(Collectors.toList()));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write work file: " + rerunFile, e);
+        }
+
+        String[] args = {
+                "--glue", "stepDefinitions",
+                "--threads", String.valueOf(Math.min(threads, leases.size())),
+                "--plugin", ResultCollector.class.getName(),
+                "--plugin", StepLatencyListener.class.getName(),
+                "--plugin", "json:" + rerunFile.getPath().replace(".txt", ".json"),
+                "--monochrome",
+                "@" + rerunFile.getPath()
+        };
+        ResultCollector.drain();
+        for (ScenarioQueues.Lease lease : leases) {
+            if (lease.getItem().getCsvRow() != null) {
+                CsvScenarioExpander.assign(lease.getItem().getLocation(), lease.getItem().getCsvRow());
+            }
+        }
+        Main.run(args, Thread.currentThread().getContextClassLoader());
+        return ResultCollector.drain();
+    }
+
+    private void renew(List<ScenarioQueues.Lease> leases) {
+        for (ScenarioQueues.Lease lease : leases) {
+            try {
+                queues.renew(lease, visibilityTimeout);
+            } catch (RuntimeException e) {
+                logger.warn("Unable to renew lease on {}", lease.getItem().getLocation(), e);
+            }
+        }
+    }
+
+    void report(ScenarioQueues.Lease lease, ResultCollector.Outcome outcome) {
+        WorkItem item = lease.getItem();
+        String status = outcome == null ? "NOT_RUN" : outcome.status;
+        boolean retry = !"PASSED".equals(status) && item.getAttempt() < maxAttempts;
+        if (retry) {
+            queues.sendWork(item.nextAttempt());
+        }
+        WorkResult result = new WorkResult(item, status, workerId, outcome == null ? 0 : outcome.durationMs, !retry,
+                outcome == null ? null : outcome.result);
+        result.setLatency(outcome == null ? null : outcome.latency);
+        queues.sendResult(result);
+        queues.complete(lease);
+        logger.info("{} {} on attempt {}{}", item.getLocation(), status, item.getAttempt(), retry ? ", re-queued" : "");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Worker interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package distributed;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestCaseFinished;
+import utilities.ScenarioResult;
+import utils.StepLatencyHistory;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cucumber plugin that records the status of every finished scenario by location, so
+ * DistributedWorker can report the outcome of each work item it ran. Hooks attaches the full
+ * ScenarioResult of each scenario, which travels to the coordinator with the outcome together with
+ * the step latency samples StepLatencyHistory kept for the scenario.
+ */
+public class ResultCollector implements ConcurrentEventListener {
+
+    private static final Map<String, Outcome> outcomes = new ConcurrentHashMap<>();
+    private static final Map<String, ScenarioResult> results = new ConcurrentHashMap<>();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseFinished.class, event -> finished(
+                location(event.getTestCase().getUri(), event.getTestCase().getLocation().getLine()),
+                event.getResult().getStatus().name(), event.getResult().getDuration().toMillis()));
+    }
+
+    static void finished(String location, String status, long durationMs) {
+        outcomes.put(location, new Outcome(status, durationMs));
+    }
+
+    /**
+     * Builds the rerun-style location used as work item key: a path relative to the working
+     * directory for feature files on disk, the URI itself otherwise.
+     */
+    public static String location(URI uri, int line) {
+        if ("file".equals(uri.getScheme())) {
+            Path path = Paths.get(uri);
+            Path base = Paths.get("").toAbsolutePath();
+            String relative = path.startsWith(base) ? base.relativize(path).toString() : path.toString();
+            return relative.replace('\\', '/') + ":" + line;
+        }
+        return uri + ":" + line;
+    }
+
+    /**
+     * Attaches what Hooks recorded for the scenario at the location to its outcome.
+     */
+    public static void attach(String location, ScenarioResult result) {
+        results.put(location, result);
+    }
+
+    /**
+     * @return the outcomes recorded since the previous call
+     */
+    static synchronized Map<String, Outcome> drain() {
+        Map<String, Outcome> drained = new HashMap<>(outcomes);
+        outcomes.keySet().removeAll(drained.keySet());
+        Map<String, StepLatencyHistory.Samples> latency = StepLatencyHistory.takeDetached();
+        drained.replaceAll((location, outcome) -> new Outcome(outcome.status, outcome.durationMs, results.remove(location),
+                latency.get(location)));
+        results.clear();
+        return drained;
+    }
+
+    static class Outcome {
+        final String status;
+        final long durationMs;
+        final ScenarioResult result;
+        final StepLatencyHistory.Samples latency;
+
+        Outcome(String status, long durationMs) {
+            this(status, durationMs, null, null);
+        }
+
+        Outcome(String status, long durationMs, ScenarioResult result, StepLatencyHistory.Samples latency) {
+            this.status = status;
+            this.durationMs = durationMs;
+            this.result = result;
+            this.latency = latency;
+        }
+    }
+}
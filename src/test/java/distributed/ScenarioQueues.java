@@ -0,0 +1,130 @@
+package distributed;
+
+import com.azure.storage.queue.QueueClient;
+import com.azure.storage.queue.QueueClientBuilder;
+import com.azure.storage.queue.models.QueueMessageItem;
+import com.azure.storage.queue.models.UpdateMessageResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dataProviders.ConfigFileReader;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ScenarioQueues wraps the two Azure Storage queues used for distributed execution:
+ * - the work queue, holding one WorkItem per scenario to run;
+ * - the result queue, holding one WorkResult per finished attempt.
+ *
+ * Receiving a work item leases it: the message stays invisible to other workers for the
+ * visibility timeout and reappears if the worker dies before deleting it.
+ */
+public class ScenarioQueues {
+
+    private static final int MAX_RECEIVE = 32; // Azure Queue limit per receive call
+    private final QueueClient work;
+    private final QueueClient results;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public ScenarioQueues(String connectionString, String workQueue, String resultQueue) {
+        this.work = new QueueClientBuilder().connectionString(connectionString).queueName(workQueue).buildClient();
+        this.results = new QueueClientBuilder().connectionString(connectionString).queueName(resultQueue).buildClient();
+        this.work.createIfNotExists();
+        this.results.createIfNotExists();
+    }
+
+    public static ScenarioQueues fromConfig(ConfigFileReader config) {
+        return new ScenarioQueues(config.getAzureStorageConnectionString(), config.getDistWorkQueue(), config.getDistResultQueue());
+    }
+
+    public void sendWork(WorkItem item) {
+        work.sendMessage(toJson(item));
+    }
+
+    public void sendResult(WorkResult result) {
+        results.sendMessage(toJson(result));
+    }
+
+    /**
+     * Leases up to `max` work items for the visibility timeout.
+     */
+    public List<Lease> receiveWork(int max, Duration visibilityTimeout) {
+        List<Lease> leases = new ArrayList<>();
+        for (QueueMessageItem message : work.receiveMessages(Math.min(max, MAX_RECEIVE), visibilityTimeout, null, null)) {
+            leases.add(new Lease(message, fromJson(message.getBody().toString(), WorkItem.class)));
+        }
+        return leases;
+    }
+
+    /**
+     * Extends a lease by another visibility timeout; the lease keeps the new pop receipt.
+     */
+    public void renew(Lease lease, Duration visibilityTimeout) {
+        UpdateMessageResult updated = work.updateMessage(lease.messageId, lease.popReceipt, null, visibilityTimeout);
+        lease.popReceipt = updated.getPopReceipt();
+    }
+
+    public void complete(Lease lease) {
+        work.deleteMessage(lease.messageId, lease.popReceipt);
+    }
+
+    /**
+     * Takes up to 32 results off the result queue; results of other runs are left for their coordinator.
+     */
+    public List<WorkResult> receiveResults(String runId, Duration visibilityTimeout) {
+        List<WorkResult> received = new ArrayList<>();
+        for (QueueMessageItem message : results.receiveMessages(MAX_RECEIVE, visibilityTimeout, null, null)) {
+            WorkResult result = fromJson(message.getBody().toString(), WorkResult.class);
+            if (runId.equals(result.getRunId())) {
+                received.add(result);
+                results.deleteMessage(message.getMessageId(), message.getPopReceipt());
+            }
+        }
+        return received;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unable to serialise queue message", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return mapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unreadable queue message: " + json, e);
+        }
+    }
+
+    /**
+     * A received work item and the receipt needed to renew or delete it.
+     */
+    public static class Lease {
+        private final String messageId;
+        private final long dequeueCount;
+        private final WorkItem item;
+        private volatile String popReceipt;
+
+        private Lease(QueueMessageItem message, WorkItem item) {
+            this.messageId = message.getMessageId();
+            this.popReceipt = message.getPopReceipt();
+            this.dequeueCount = message.getDequeueCount();
+            this.item = item;
+        }
+
+        public WorkItem getItem() {
+            return item;
+        }
+
+        /**
+         * @return how often the message has been delivered, more than once after a worker crashed
+         */
+        public long getDequeueCount() {
+            return dequeueCount;
+        }
+    }
+}
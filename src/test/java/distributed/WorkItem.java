@@ -0,0 +1,90 @@
+package distributed;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One scenario to run, as placed on the work queue by the coordinator.
+ * The location is a rerun-style `path:line` so a worker can select the scenario directly; an
+ * invocation of a `@csv:<name>` scenario also carries its data row index.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class WorkItem {
+
+    private String runId;
+    private String itemId;
+    private String location;
+    private String name;
+    private Integer csvRow;
+    private int attempt = 1;
+
+    public WorkItem() {
+    }
+
+    public WorkItem(String runId, String itemId, String location, String name) {
+        this.runId = runId;
+        this.itemId = itemId;
+        this.location = location;
+        this.name = name;
+    }
+
+    /**
+     * @return a copy of this item for the next execution attempt
+     */
+    public WorkItem nextAttempt() {
+        WorkItem next = new WorkItem(runId, itemId, location, name);
+        next.csvRow = csvRow;
+        next.attempt = attempt + 1;
+        return next;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the CSV data row index, or null for a scenario without a data source
+     */
+    public Integer getCsvRow() {
+        return csvRow;
+    }
+
+    public void setCsvRow(Integer csvRow) {
+        this.csvRow = csvRow;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public void setAttempt(int attempt) {
+        this.attempt = attempt;
+    }
+}
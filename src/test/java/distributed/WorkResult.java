@@ -0,0 +1,180 @@
+package distributed;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import utilities.ScenarioResult;
+import utils.StepLatencyHistory;
+
+/**
+ * The outcome of one execution attempt, as placed on the result queue by a worker.
+ * `finalResult` is false when the worker has re-queued the item for another attempt.
+ * Besides the status it carries everything the worker's Hooks recorded for the scenario (device
+ * profile, environment, failure signature), so the coordinator reports the same ScenarioResult a
+ * local run would, and the scenario's step latency samples for the coordinator's latency gate.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class WorkResult {
+
+    private String runId;
+    private String itemId;
+    private String location;
+    private String name;
+    private String status;
+    private int attempt;
+    private String worker;
+    private long durationMs;
+    private boolean finalResult;
+    private String deviceProfile;
+    private String environment;
+    private String failureSignature;
+    private long finishedAt;
+    private StepLatencyHistory.Samples latency;
+
+    public WorkResult() {
+    }
+
+    public WorkResult(WorkItem item, String status, String worker, long durationMs, boolean finalResult) {
+        this.runId = item.getRunId();
+        this.itemId = item.getItemId();
+        this.location = item.getLocation();
+        this.name = item.getName();
+        this.attempt = item.getAttempt();
+        this.status = status;
+        this.worker = worker;
+        this.durationMs = durationMs;
+        this.finalResult = finalResult;
+    }
+
+    /**
+     * @param scenario what the worker's Hooks recorded for the attempt, or null when the scenario did not run
+     */
+    public WorkResult(WorkItem item, String status, String worker, long durationMs, boolean finalResult,
+                      ScenarioResult scenario) {
+        this(item, status, worker, durationMs, finalResult);
+        if (scenario != null) {
+            this.durationMs = scenario.getDurationMs();
+            this.deviceProfile = scenario.getDeviceProfile();
+            this.environment = scenario.getEnvironment();
+            this.failureSignature = scenario.getFailureSignature();
+            this.finishedAt = scenario.getFinishedAt();
+        }
+    }
+
+    /**
+     * @return the result as the coordinator's Hooks report it
+     */
+    public ScenarioResult toScenarioResult() {
+        return new ScenarioResult(name, status, deviceProfile, location, durationMs, failureSignature, environment, finishedAt);
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public void setRunId(String runId) {
+        this.runId = runId;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public void setAttempt(int attempt) {
+        this.attempt = attempt;
+    }
+
+    public String getWorker() {
+        return worker;
+    }
+
+    public void setWorker(String worker) {
+        this.worker = worker;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public boolean isFinalResult() {
+        return finalResult;
+    }
+
+    public void setFinalResult(boolean finalResult) {
+        this.finalResult = finalResult;
+    }
+
+    public String getDeviceProfile() {
+        return deviceProfile;
+    }
+
+    public void setDeviceProfile(String deviceProfile) {
+        this.deviceProfile = deviceProfile;
+    }
+
+    public String getEnvironment() {
+        return environment;
+    }
+
+    public void setEnvironment(String environment) {
+        this.environment = environment;
+    }
+
+    public String getFailureSignature() {
+        return failureSignature;
+    }
+
+    public void setFailureSignature(String failureSignature) {
+        this.failureSignature = failureSignature;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(long finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public StepLatencyHistory.Samples getLatency() {
+        return latency;
+    }
+
+    public void setLatency(StepLatencyHistory.Samples latency) {
+        this.latency = latency;
+    }
+}
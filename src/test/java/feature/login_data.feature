@@ -0,0 +1,10 @@
+Feature: Data-Driven User Login
+
+  Credentials come from the `logins` CSV data source; the scenario runs once per row.
+
+  @csv:logins
+  Scenario: Login with credentials from the logins data source
+    Given verify user is on Login Page
+    When user enters the username and password from the data row
+    And click on Login Button
+    Then user should see the outcome expected by the data row
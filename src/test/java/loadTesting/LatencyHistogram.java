@@ -0,0 +1,75 @@
+package loadTesting;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Fixed-size, lock-free latency histogram with logarithmic buckets (about 2% precision).
+ * Memory stays constant however many samples are recorded, so long load runs can keep
+ * one histogram per step without growing.
+ */
+public class LatencyHistogram {
+
+    private static final double BASE = 1.02;
+    private static final int BUCKETS = 800; // 1.02^800 ms covers well beyond any step timeout
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong sumMillis = new AtomicLong();
+    private final LongAccumulator maxMillis = new LongAccumulator(Long::max, 0);
+
+    public void record(long millis, boolean error) {
+        int bucket = millis <= 0 ? 0 : (int) Math.min(BUCKETS - 1, Math.log(millis + 1) / Math.log(BASE));
+        counts.incrementAndGet(bucket);
+        total.incrementAndGet();
+        sumMillis.addAndGet(millis);
+        maxMillis.accumulate(millis);
+        if (error) {
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * @param percentile 0..100
+     * @return the upper bound of the bucket holding the percentile, in milliseconds
+     */
+    public long percentile(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(maxMillis.get(), (long) Math.pow(BASE, i + 1) - 1);
+            }
+        }
+        return maxMillis.get();
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public double getErrorRate() {
+        long count = total.get();
+        return count == 0 ? 0 : errors.get() / (double) count;
+    }
+
+    public long getMean() {
+        long count = total.get();
+        return count == 0 ? 0 : sumMillis.get() / count;
+    }
+
+    public long getMax() {
+        return maxMillis.get();
+    }
+}
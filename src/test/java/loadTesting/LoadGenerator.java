@@ -0,0 +1,170 @@
+package loadTesting;
+
+import dataProviders.ConfigFileReader;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+import managers.FileReaderManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.BaseTest;
+import utils.DriverPool;
+import utils.MemoryWatchdog;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LoadGenerator replays the existing Cucumber scenarios as a synthetic load test.
+ *
+ * - `loadUsers` virtual users run concurrently, started evenly over `loadRampUpSeconds`.
+ * - The features are parsed and the scenarios selected by `loadTags` are resolved once per load run;
+ *   each user then replays them in turn through the normal step definitions, until
+ *   `loadDurationSeconds` has passed or, when `loadIterations` is above zero, until that many
+ *   scenario executions have been completed across all users.
+ * - Every user keeps one lean headless Chrome session for all of its iterations (BaseTest launches
+ *   it with newSession() through DriverPool, which keeps it between iterations); it is quit when
+ *   the user stops, or earlier when MemoryWatchdog recycles it.
+ * - LoadMetrics records step and scenario latencies in fixed-size histograms; the summary
+ *   (throughput, error rates, p50/p90/p95/p99 per step) is logged and written to target/load-report.json.
+ *
+ * While a load run is active, run-level hooks (report flush, email) are skipped and Hooks keeps no
+ * per-scenario results; LoadMetrics holds the only record of the iterations.
+ */
+public class LoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final File REPORT_FILE = new File("target/load-report.json");
+    private static volatile boolean running;
+
+    private final int users;
+    private final long rampUpMs;
+    private final long durationMs;
+    private final int iterations;
+    private final String tags;
+
+    public LoadGenerator(int users, long rampUpMs, long durationMs, int iterations, String tags) {
+        this.users = users;
+        this.rampUpMs = rampUpMs;
+        this.durationMs = durationMs;
+        this.iterations = iterations;
+        this.tags = tags;
+    }
+
+    public static LoadGenerator fromConfig() {
+        ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+        return new LoadGenerator(config.getLoadUsers(), TimeUnit.SECONDS.toMillis(config.getLoadRampUpSeconds()),
+                TimeUnit.SECONDS.toMillis(config.getLoadDurationSeconds()), config.getLoadIterations(), config.getLoadTags());
+    }
+
+    public static boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return a new lean browser session for a virtual user
+     */
+    public static WebDriver newSession() {
+        ChromeOptions options = BaseTest.headlessOptions();
+        // Keep each session small: no images, extensions or background traffic, one renderer
+        options.addArguments("--blink-settings=imagesEnabled=false", "--disable-extensions",
+                "--disable-background-networking", "--renderer-process-limit=1", "--window-size=1280,800");
+        return new ChromeDriver(options);
+    }
+
+    public void run() {
+        LoadMetrics.reset();
+        System.setProperty("cucumber.publish.quiet", "true");
+        running = true;
+        TestNGCucumberRunner cucumber = new TestNGCucumberRunner(LoadGenerator.class, cucumberOptions()::get);
+        List<Pickle> scenarios = new ArrayList<>();
+        for (Object[] scenario : cucumber.provideScenarios()) {
+            scenarios.add(((PickleWrapper) scenario[0]).getPickle());
+        }
+        if (scenarios.isEmpty()) {
+            cucumber.finish();
+            running = false;
+            throw new RuntimeException("No scenarios match loadTags " + tags);
+        }
+
+        AtomicLong remaining = new AtomicLong(iterations);
+        long start = System.currentTimeMillis();
+        long end = start + durationMs;
+        AtomicInteger userId = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(users, r -> new Thread(r, "load-user-" + userId.incrementAndGet()));
+        logger.info("Load run: {} user(s), ramp-up {}s, {}, {} scenario(s)", users, rampUpMs / 1000,
+                iterations > 0 ? iterations + " iteration(s)" : durationMs / 1000 + "s", scenarios.size());
+
+        for (int i = 0; i < users; i++) {
+            long delay = users == 1 ? 0 : rampUpMs * i / users;
+            int firstScenario = i;
+            pool.execute(() -> {
+                try {
+                    Thread.sleep(delay);
+                    // Users start at different scenarios so a short run still covers all of them
+                    for (int next = firstScenario; iterations > 0 ? remaining.getAndDecrement() > 0 : System.currentTimeMillis() < end; next++) {
+                        runIteration(cucumber, scenarios.get(next % scenarios.size()));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    DriverPool.quitCurrent();
+                }
+            });
+        }
+
+        pool.shutdown();
+        try {
+            long budget = iterations > 0 ? Long.MAX_VALUE : durationMs + rampUpMs + TimeUnit.MINUTES.toMillis(5);
+            if (!pool.awaitTermination(budget, TimeUnit.MILLISECONDS)) {
+                logger.warn("Virtual users still running after the load duration, stopping them");
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            cucumber.finish();
+            running = false;
+        }
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("users", users);
+        run.put("rampUpSeconds", rampUpMs / 1000);
+        run.put("durationSeconds", iterations > 0 ? null : durationMs / 1000);
+        run.put("requestedIterations", iterations > 0 ? iterations : null);
+        run.put("tags", tags);
+        LoadMetrics.writeReport(REPORT_FILE, run, (System.currentTimeMillis() - start) / 1000.0);
+        MemoryWatchdog.writeReport();
+    }
+
+    private Map<String, String> cucumberOptions() {
+        Map<String, String> options = new HashMap<>();
+        options.put("cucumber.features", "src/test/java/feature");
+        options.put("cucumber.glue", "stepDefinitions");
+        options.put("cucumber.filter.tags", tags);
+        options.put("cucumber.plugin", LoadMetrics.class.getName());
+        options.put("cucumber.ansi-colors.disabled", "true");
+        return options;
+    }
+
+    private static void runIteration(TestNGCucumberRunner cucumber, Pickle scenario) {
+        try {
+            cucumber.runScenario(scenario);
+        } catch (RuntimeException | AssertionError e) {
+            // Already counted by LoadMetrics; the user carries on with its next scenario
+            logger.debug("Load iteration of {} failed", scenario.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package loadTesting;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Cucumber plugin that feeds step and scenario timings of load iterations into shared histograms.
+ *
+ * Steps are keyed by their Gherkin text, scenarios by name. Skipped steps (after an earlier
+ * failure) are not counted; failed, undefined and ambiguous results count as errors.
+ */
+public class LoadMetrics implements ConcurrentEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadMetrics.class);
+    private static final Map<String, LatencyHistogram> steps = new ConcurrentSkipListMap<>();
+    private static final Map<String, LatencyHistogram> scenarios = new ConcurrentHashMap<>();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepFinished.class, event -> {
+            if (event.getTestStep() instanceof PickleStepTestStep) {
+                stepFinished(((PickleStepTestStep) event.getTestStep()).getStep().getText(), event.getResult());
+            }
+        });
+        publisher.registerHandlerFor(TestCaseFinished.class,
+                event -> scenarioFinished(event.getTestCase().getName(), event.getResult()));
+    }
+
+    static void stepFinished(String step, Result result) {
+        if (result.getStatus() != Status.SKIPPED) {
+            record(steps, step, result);
+        }
+    }
+
+    static void scenarioFinished(String scenario, Result result) {
+        record(scenarios, scenario, result);
+    }
+
+    private static void record(Map<String, LatencyHistogram> histograms, String key, Result result) {
+        histograms.computeIfAbsent(key, k -> new LatencyHistogram())
+                .record(result.getDuration().toMillis(), result.getStatus() != Status.PASSED && result.getStatus() != Status.SKIPPED);
+    }
+
+    public static void reset() {
+        steps.clear();
+        scenarios.clear();
+    }
+
+    /**
+     * @return completed scenario iterations across all virtual users
+     */
+    public static long getIterations() {
+        return scenarios.values().stream().mapToLong(LatencyHistogram::getCount).sum();
+    }
+
+    public static long getFailedIterations() {
+        return scenarios.values().stream().mapToLong(LatencyHistogram::getErrors).sum();
+    }
+
+    /**
+     * Logs a per-step latency table and writes the full report as JSON.
+     */
+    static void writeReport(File file, Map<String, Object> run, double elapsedSeconds) {
+        long iterations = getIterations();
+        run.put("elapsedSeconds", Math.round(elapsedSeconds));
+        run.put("iterations", iterations);
+        run.put("failedIterations", getFailedIterations());
+        run.put("throughputPerMinute", elapsedSeconds == 0 ? 0 : Math.round(iterations * 60 / elapsedSeconds * 10) / 10.0);
+        run.put("scenarios", summarize(scenarios));
+        run.put("steps", summarize(steps));
+
+        StringBuilder table = new StringBuilder(String.format("%nLoad run: %d iteration(s) in %ds, %.1f/min, %d failed%n",
+                iterations, Math.round(elapsedSeconds), run.get("throughputPerMinute"), getFailedIterations()));
+        table.append(String.format("%-60s %7s %7s %7s %7s %7s %7s%n", "Step", "count", "err%", "p50", "p90", "p99", "max"));
+        steps.forEach((step, h) -> table.append(String.format("%-60.60s %7d %6.1f%% %7d %7d %7d %7d%n", step, h.getCount(),
+                h.getErrorRate() * 100, h.percentile(50), h.percentile(90), h.percentile(99), h.getMax())));
+        logger.info("{}", table);
+
+        try {
+            file.getParentFile().mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, run);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write load report: " + file, e);
+        }
+    }
+
+    private static Map<String, Object> summarize(Map<String, LatencyHistogram> histograms) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        histograms.forEach((name, h) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", h.getCount());
+            stats.put("errors", h.getErrors());
+            stats.put("errorRate", h.getErrorRate());
+            stats.put("meanMs", h.getMean());
+            stats.put("p50Ms", h.percentile(50));
+            stats.put("p90Ms", h.percentile(90));
+            stats.put("p95Ms", h.percentile(95));
+            stats.put("p99Ms", h.percentile(99));
+            stats.put("maxMs", h.getMax());
+            summary.put(name, stats);
+        });
+        return summary;
+    }
+}
@@ -0,0 +1,53 @@
+package loadTesting;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cucumber.plugin.event.Result;
+import io.cucumber.plugin.event.Status;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+
+public class LoadMetricsTest {
+
+    @BeforeMethod
+    public void setUp() {
+        LoadMetrics.reset();
+    }
+
+    @Test
+    public void iterationsAreCountedPerScenarioExecution() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            LoadMetrics.stepFinished("I login", result(Status.PASSED, 100 + i));
+            LoadMetrics.scenarioFinished("Login", result(Status.PASSED, 300));
+        }
+        LoadMetrics.stepFinished("I open the account", result(Status.FAILED, 50));
+        LoadMetrics.stepFinished("I see the balance", result(Status.SKIPPED, 0));
+        LoadMetrics.scenarioFinished("Accounts overview", result(Status.FAILED, 80));
+
+        Assert.assertEquals(LoadMetrics.getIterations(), 4);
+        Assert.assertEquals(LoadMetrics.getFailedIterations(), 1);
+
+        File file = File.createTempFile("load-report", ".json");
+        try {
+            LoadMetrics.writeReport(file, new LinkedHashMap<>(), 60);
+            JsonNode report = new ObjectMapper().readTree(file);
+            Assert.assertEquals(report.get("iterations").asLong(), 4);
+            Assert.assertEquals(report.get("throughputPerMinute").asDouble(), 4.0);
+            Assert.assertEquals(report.get("steps").get("I login").get("count").asLong(), 3);
+            Assert.assertEquals(report.get("steps").get("I open the account").get("errors").asLong(), 1);
+            Assert.assertFalse(report.get("steps").has("I see the balance"), "skipped steps are not timed");
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static Result result(Status status, long millis) {
+        return new Result(status, Duration.ofMillis(millis), null);
+    }
+}
@@ -1,6 +1,10 @@
 package managers;
 
 import dataProviders.ConfigFileReader;
+import utilities.EnvUtility;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * FileReaderManager implements a Singleton pattern to manage the centralized access
@@ -9,11 +13,15 @@ import dataProviders.ConfigFileReader;
  *
  * This promotes consistency in accessing environment-specific configurations and avoids
  * unnecessary multiple initializations.
+ *
+ * One reader is kept per environment and handed out by the calling thread's environment
+ * (EnvUtility.getTestEnvironment(), ConfigFileReader.DEFAULT_ENV when not set), so the scenario
+ * threads of an environment matrix run each read their own environment's config file.
  */
 
 public class FileReaderManager {
     private static FileReaderManager fileReaderManager = new FileReaderManager();
-    private static ConfigFileReader configFileReader;
+    private static final Map<String, ConfigFileReader> configFileReaders = new ConcurrentHashMap<>();
 
     private FileReaderManager() {
     }
@@ -23,6 +31,10 @@ public class FileReaderManager {
     }
 
     public ConfigFileReader getConfigReader() {
-        return (configFileReader == null) ? new ConfigFileReader() : configFileReader;
+        String environment = EnvUtility.getTestEnvironment();
+        if (environment == null || environment.trim().isEmpty()) {
+            environment = ConfigFileReader.DEFAULT_ENV;
+        }
+        return configFileReaders.computeIfAbsent(environment, env -> new ConfigFileReader());
     }
 }
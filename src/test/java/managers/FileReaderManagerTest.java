@@ -0,0 +1,26 @@
+package managers;
+
+import dataProviders.ConfigFileReader;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import utilities.EnvUtility;
+
+public class FileReaderManagerTest {
+
+    @AfterMethod(alwaysRun = true)
+    public void unbind() {
+        EnvUtility.unbindEnvironment();
+    }
+
+    @Test
+    public void blankEnvironmentSharesTheDefaultEnvironmentsReader() {
+        EnvUtility.bindEnvironment(ConfigFileReader.DEFAULT_ENV);
+        ConfigFileReader qa = FileReaderManager.getInstance().getConfigReader();
+        EnvUtility.bindEnvironment(" ");
+        ConfigFileReader blank = FileReaderManager.getInstance().getConfigReader();
+
+        Assert.assertSame(blank, qa);
+        Assert.assertEquals(blank.getEnvironment(), ConfigFileReader.DEFAULT_ENV);
+    }
+}
@@ -1,9 +1,11 @@
 package pageObjects;
 
+import dataProviders.AccountPool;
 import managers.FileReaderManager;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import reUsableComponent.SeleniumHelper;
+import utilities.ScenarioContext;
 
 public class LoginPage extends SeleniumHelper {
 	WebDriver driver;
@@ -21,11 +23,13 @@ public class LoginPage extends SeleniumHelper {
 
 
 
+	// Uses the account the scenario leased, see LoginSteps
 	public void loginWithValidCredentials(){
+		AccountPool.Account account = ScenarioContext.getLeasedAccount();
 		waitForElementToBeVisible(TEXT_USERNAME);
-		enterText(TEXT_USERNAME, FileReaderManager.getInstance().getConfigReader().getValidUserId());
+		enterText(TEXT_USERNAME, account.getUserId());
 		waitForElementToBeVisible(TEXT_PASSWORD);
-		enterText(TEXT_PASSWORD, FileReaderManager.getInstance().getConfigReader().getValidPassword());
+		enterText(TEXT_PASSWORD, account.getPassword());
 	}
 
 	public void validationMessage(String expected){
@@ -43,9 +47,16 @@ public class LoginPage extends SeleniumHelper {
 		enterText(TEXT_PASSWORD, FileReaderManager.getInstance().getConfigReader().getInvalidPassword());
 	}
 
+	public void loginWith(String userId, String password){
+		waitForElementToBeVisible(TEXT_USERNAME);
+		enterText(TEXT_USERNAME, userId);
+		waitForElementToBeVisible(TEXT_PASSWORD);
+		enterText(TEXT_PASSWORD, password);
+	}
+
 	public void clickLogin(){
 		waitForElementToBeVisible(BTN_LOGIN);
-		click(BTN_LOGIN);
+		clickAndMeasureNavigation(BTN_LOGIN);
 	}
 
 
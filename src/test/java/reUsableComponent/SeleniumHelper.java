@@ -9,9 +9,15 @@ import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
+import utils.BrowserContextPool;
+import utils.CommandRetry;
+import utils.PagePerformanceCollector;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * SeleniumHelper provides a collection of utility methods to abstract and simplify
@@ -23,6 +29,16 @@ import java.util.List;
  * - Text verification with exact and partial match support
  * - Dropdown interaction via Select class
  * - Wait management using WebDriverWait and ExpectedConditions
+ * - Fast failure on application error pages: while a wait's condition is not met yet, every poll also
+ *   checks the page title and text for the `errorPageSignatures` from config (e.g. "HTTP Status 500").
+ *   A match aborts the wait at once instead of timing out. Text verifications skip the signatures
+ *   contained in the text they expect, so a scenario asserting an error message still sees it.
+ * - Element lookups go through the same explicit wait; BaseTest runs with `implicitWait=0` so the
+ *   implicit wait does not stack on top of every explicit wait poll
+ * - Transient failures (stale or intercepted elements, driver I/O hiccups) are retried with jittered
+ *   backoff, and a dead browser session fails every later action at once (see CommandRetry). Clicks
+ *   and Enter are retried only when the browser rejected them, and actions on a WebElement passed in
+ *   do not retry a stale element
  * - Window handling for parent/child switching
  * - Custom logging and structured exception handling for better debugging
  *
@@ -40,28 +56,98 @@ public class SeleniumHelper {
 
     private WebDriver driver;
     private WebDriverWait wait;
+    private final CommandRetry retry;
+    private final List<String> errorPageSignatures;
     String parent;
     private static final long EXPLICIT_WAIT = FileReaderManager.getInstance().getConfigReader().getExplicitWait();
+    private static final List<String> ERROR_PAGE_SIGNATURES = FileReaderManager.getInstance().getConfigReader().getErrorPageSignatures();
+    // One round trip per unsatisfied poll; textContent avoids the layout that innerText would force
+    private static final String ERROR_PAGE_SCRIPT =
+            "var title = document.title || '', text = document.body ? document.body.textContent : '';"
+            + "for (var i = 0; i < arguments[0].length; i++) {"
+            + "  if (title.indexOf(arguments[0][i]) >= 0 || text.indexOf(arguments[0][i]) >= 0) return arguments[0][i];"
+            + "}"
+            + "return null;";
     private static final Logger logger = LoggerFactory.getLogger(SeleniumHelper.class);
 
     public SeleniumHelper(WebDriver driver) {
+        this(driver, ERROR_PAGE_SIGNATURES);
+    }
+
+    SeleniumHelper(WebDriver driver, List<String> errorPageSignatures) {
         this.driver = driver;
         this.wait = new WebDriverWait(driver, Duration.ofSeconds(EXPLICIT_WAIT));
+        this.retry = CommandRetry.of(driver);
+        this.errorPageSignatures = errorPageSignatures;
     }
 
     // ================================
     // WAIT UTILITIES
     // ================================
     public void waitForElementToBeClickable(By loc) {
-        wait.until(ExpectedConditions.elementToBeClickable(loc));
+        until(ExpectedConditions.elementToBeClickable(loc));
     }
 
     public void waitForElementToBeVisible(By loc) {
-        wait.until(ExpectedConditions.visibilityOfElementLocated(loc));
+        until(ExpectedConditions.visibilityOfElementLocated(loc));
     }
 
     public void waitForElementToBeVisible(WebElement ele) {
-        wait.until(ExpectedConditions.visibilityOf(ele));
+        until(ExpectedConditions.visibilityOf(ele));
+    }
+
+    /**
+     * Waits for the condition with the explicit wait, aborting as soon as the page turns into a known
+     * error page. The error page check only runs on polls where the condition is not met yet.
+     */
+    public <T> T until(Function<WebDriver, T> condition) {
+        return until(condition, errorPageSignatures);
+    }
+
+    private <T> T until(Function<WebDriver, T> condition, List<String> signatures) {
+        return wait.until(d -> {
+            T value;
+            try {
+                value = condition.apply(d);
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                failOnErrorPage(condition, signatures);
+                throw e; // Ignored by the wait, which polls again
+            }
+            if (value == null || Boolean.FALSE.equals(value)) {
+                failOnErrorPage(condition, signatures);
+            }
+            return value;
+        });
+    }
+
+    private WebElement find(By loc) {
+        return until(ExpectedConditions.presenceOfElementLocated(loc));
+    }
+
+    /**
+     * Looks the element up for a text verification: signatures that occur in an expected text are the
+     * page the scenario asserts, not an error to abort on.
+     */
+    private WebElement find(By loc, String... expectedTexts) {
+        List<String> signatures = new ArrayList<>(errorPageSignatures);
+        signatures.removeIf(signature -> Arrays.stream(expectedTexts).anyMatch(expected -> expected != null && expected.contains(signature)));
+        return until(ExpectedConditions.presenceOfElementLocated(loc), signatures);
+    }
+
+    private void failOnErrorPage(Object waitingFor, List<String> signatures) {
+        if (signatures.isEmpty()) {
+            return;
+        }
+        Object signature;
+        try {
+            signature = ((JavascriptExecutor) driver).executeScript(ERROR_PAGE_SCRIPT, signatures);
+        } catch (WebDriverException e) {
+            return; // Page is navigating, the next poll checks again
+        }
+        if (signature != null) {
+            throw new RuntimeException("Application error page detected while waiting for " + waitingFor
+                    + ": found '" + signature + "' on " + driver.getCurrentUrl() + " (title '" + driver.getTitle() + "')");
+        }
     }
 
     // ================================
@@ -69,8 +155,8 @@ public class SeleniumHelper {
     // ================================
     public void clickElement(By loc) {
         try {
-            waitForElementToBeClickable(loc);
-            driver.findElement(loc).click();
+            waitForElementToBeClickable(loc); // Once: a retry must not spend another full wait
+            retry.runOnce(() -> find(loc).click());
         } catch (Exception e) {
             throw new RuntimeException("Unable to click element: " + loc, e);
         }
@@ -78,8 +164,8 @@ public class SeleniumHelper {
 
     public void clickElement(WebElement ele) {
         try {
-            waitForElementToBeClickable((By) ele);
-            ele.click();
+            until(ExpectedConditions.elementToBeClickable(ele));
+            retry.runOnceOnElement(ele::click);
         } catch (Exception e) {
             throw new RuntimeException("Unable to click element", e);
         }
@@ -87,18 +173,26 @@ public class SeleniumHelper {
 
     public void click(By loc) {
         try {
-            WebElement ele = driver.findElement(loc);
-            ((JavascriptExecutor) driver).executeScript("arguments[0].click();", ele);
+            retry.runOnce(() -> ((JavascriptExecutor) driver).executeScript("arguments[0].click();", find(loc)));
         } catch (Exception e) {
             throw new RuntimeException("JavaScript click failed: " + loc, e);
         }
     }
 
+    /**
+     * JavaScript click on an element that navigates to a new page; the new page's load
+     * timings are recorded by PagePerformanceCollector when page metrics are enabled.
+     */
+    public void clickAndMeasureNavigation(By loc) {
+        Object marker = PagePerformanceCollector.navigationMarker(driver);
+        click(loc);
+        PagePerformanceCollector.captureNavigation(driver, marker);
+    }
+
     public void click(By loc, int timeToWait) {
         try {
             Thread.sleep(timeToWait * 1000);
-            WebElement ele = driver.findElement(loc);
-            ((JavascriptExecutor) driver).executeScript("arguments[0].click();", ele);
+            retry.runOnce(() -> ((JavascriptExecutor) driver).executeScript("arguments[0].click();", find(loc)));
         } catch (Exception e) {
             throw new RuntimeException("JavaScript click failed: " + loc, e);
         }
@@ -106,7 +200,7 @@ public class SeleniumHelper {
 
     public void click(WebElement loc) {
         try {
-            ((JavascriptExecutor) driver).executeScript("arguments[0].click();", loc);
+            retry.runOnceOnElement(() -> ((JavascriptExecutor) driver).executeScript("arguments[0].click();", loc));
         } catch (Exception e) {
             throw new RuntimeException("JavaScript click failed: " + loc, e);
         }
@@ -114,7 +208,7 @@ public class SeleniumHelper {
 
     public void verifyTextUsingContains(By loc, String expectedText) {
         try {
-            String actualText = driver.findElement(loc).getText();
+            String actualText = retry.get(() -> find(loc, expectedText).getText());
             Assert.assertTrue(actualText.contains(expectedText));
         } catch (Exception e) {
             throw new RuntimeException("Unable to get Text Value");
@@ -123,8 +217,7 @@ public class SeleniumHelper {
 
     public void clickUsingActions(By loc) {
         try {
-            WebElement ele = driver.findElement(loc);
-            new Actions(driver).moveToElement(ele).click().perform();
+            retry.runOnce(() -> new Actions(driver).moveToElement(find(loc)).click().perform());
         } catch (Exception e) {
             throw new RuntimeException("Action click failed: " + loc, e);
         }
@@ -141,8 +234,7 @@ public class SeleniumHelper {
 
     public void clickUsingActions(WebElement loc) {
         try {
-
-            new Actions(driver).moveToElement(loc).click().perform();
+            retry.runOnceOnElement(() -> new Actions(driver).moveToElement(loc).click().perform());
         } catch (Exception e) {
             throw new RuntimeException("Action click failed: " + loc, e);
         }
@@ -159,9 +251,7 @@ public class SeleniumHelper {
 
     public void clearUsingActions(By loc) {
         try {
-            WebElement ele = driver.findElement(loc);
-
-            new Actions(driver).moveToElement(ele).click().sendKeys(Keys.chord(Keys.CONTROL + "a")).sendKeys(Keys.BACK_SPACE).click().perform();
+            retry.runOnce(() -> new Actions(driver).moveToElement(find(loc)).click().sendKeys(Keys.chord(Keys.CONTROL + "a")).sendKeys(Keys.BACK_SPACE).click().perform());
         } catch (Exception e) {
             throw new RuntimeException("Action click failed: " + loc, e);
         }
@@ -169,8 +259,7 @@ public class SeleniumHelper {
 
     public void clickUsingJavaScriptExecutor(WebElement loc) {
         try {
-            JavascriptExecutor js = (JavascriptExecutor) driver;
-            js.executeScript("arguments[0].click();", loc);
+            retry.runOnceOnElement(() -> ((JavascriptExecutor) driver).executeScript("arguments[0].click();", loc));
         } catch (Exception e) {
             throw new RuntimeException("Unable to click");
         }
@@ -191,12 +280,12 @@ public class SeleniumHelper {
     // ================================
     public void enterText(By loc, String text) {
         try {
-            WebElement ele = driver.findElement(loc);
-            ele.click();
-//            clickUsingActions(loc);
-            ele.clear();
-
-            ele.sendKeys(text);
+            retry.run(() -> { // Idempotent: the field is cleared before every attempt
+                WebElement ele = find(loc);
+                ele.click();
+                ele.clear();
+                ele.sendKeys(text);
+            });
         } catch (Exception e) {
             throw new RuntimeException("Unable to enter text in: " + loc, e);
         }
@@ -204,7 +293,7 @@ public class SeleniumHelper {
 
     public void enterTextWithoutClick(By loc, String text) {
         try {
-            WebElement ele = driver.findElement(loc);
+            WebElement ele = find(loc);
             ele.sendKeys(text);
         } catch (Exception e) {
             throw new RuntimeException("Unable to enter text in: " + loc, e);
@@ -213,8 +302,10 @@ public class SeleniumHelper {
 
     public void enterText(WebElement loc, String text) {
         try {
-            loc.clear();
-            loc.sendKeys(text);
+            retry.runOnElement(() -> {
+                loc.clear();
+                loc.sendKeys(text);
+            });
         } catch (Exception e) {
             throw new RuntimeException("Unable to enter text in: " + loc, e);
         }
@@ -222,7 +313,7 @@ public class SeleniumHelper {
 
     public void pressEnter(By loc) {
         try {
-            driver.findElement(loc).sendKeys(Keys.ENTER);
+            retry.runOnce(() -> find(loc).sendKeys(Keys.ENTER));
         } catch (Exception e) {
             throw new RuntimeException("Unable to press Enter on: " + loc, e);
         }
@@ -236,18 +327,19 @@ public class SeleniumHelper {
         }
     }
 
+    // Counts what is on the page right now; with no implicit wait an absent element counts as 0 at once
     public int validateWebElementCount(By loc) {
         List<WebElement> count = driver.findElements(loc);
         return count.size();
     }
 
     public void pressEscButton() {
-        driver.findElement(By.cssSelector("body")).sendKeys(Keys.CONTROL, Keys.ESCAPE);
+        find(By.cssSelector("body")).sendKeys(Keys.CONTROL, Keys.ESCAPE);
     }
 
     public void windowScrollToBottom() {
         try {
-            driver.findElement(By.cssSelector("body")).sendKeys(Keys.CONTROL, Keys.END);
+            find(By.cssSelector("body")).sendKeys(Keys.CONTROL, Keys.END);
         } catch (Exception e) {
             throw new RuntimeException("Unable to scroll to the Bottom");
         }
@@ -262,7 +354,7 @@ public class SeleniumHelper {
     }
 
     public void selectDataFromList(By loc, String expected) {
-        List<WebElement> list = driver.findElements(loc);
+        List<WebElement> list = until(ExpectedConditions.presenceOfAllElementsLocatedBy(loc));
         for (int i = 0; i < list.size(); i++) {
             if (list.get(i).getText().equalsIgnoreCase(expected)) {
                 list.get(i).click();
@@ -276,7 +368,7 @@ public class SeleniumHelper {
     // ================================
     public void verifyText(By loc, String expectedText) {
         try {
-            String actualText = driver.findElement(loc).getText().trim();
+            String actualText = retry.get(() -> find(loc, expectedText).getText()).trim();
             Assert.assertEquals(actualText, expectedText.trim(), "Text mismatch!");
         } catch (Exception e) {
             throw new RuntimeException("Text verification failed: " + loc, e);
@@ -306,7 +398,7 @@ public class SeleniumHelper {
 
     public void verifyText(By ele, String[] expectedTexts) {
         try {
-            String actualText = driver.findElement(ele).getText().trim();
+            String actualText = retry.get(() -> find(ele, expectedTexts).getText()).trim();
             if (actualText == null || actualText.isEmpty()) {
                 throw new RuntimeException("Element text is null or empty");
             }
@@ -326,7 +418,7 @@ public class SeleniumHelper {
 
     public void verifyTextBreak(By ele, String[] expectedTexts) {
         try {
-            String actualText = driver.findElement(ele).getText().trim();
+            String actualText = retry.get(() -> find(ele, expectedTexts).getText()).trim();
             if (actualText == null || actualText.isEmpty()) {
                 throw new RuntimeException("Element text is null or empty");
             }
@@ -347,7 +439,7 @@ public class SeleniumHelper {
     public void verifyText(By ele, String[] expectedTexts, int timeToWait) {
         try {
             Thread.sleep(timeToWait * 1000);
-            String actualText = driver.findElement(ele).getText().trim();
+            String actualText = retry.get(() -> find(ele, expectedTexts).getText()).trim();
             if (actualText == null || actualText.isEmpty()) {
                 throw new RuntimeException("Element text is null or empty");
             }
@@ -367,7 +459,7 @@ public class SeleniumHelper {
 
     public void verifyContainsText(By loc, String expectedText) {
         try {
-            String actualText = driver.findElement(loc).getText().trim();
+            String actualText = retry.get(() -> find(loc, expectedText).getText()).trim();
             Assert.assertTrue(actualText.contains(expectedText.trim()), "Text does not contain expected value!");
         } catch (Exception e) {
             throw new RuntimeException("Text verification failed: " + loc, e);
@@ -388,7 +480,7 @@ public class SeleniumHelper {
     // ================================
     public void selectByVisibleText(By loc, String visibleText) {
         try {
-            new Select(driver.findElement(loc)).selectByVisibleText(visibleText);
+            retry.run(() -> new Select(find(loc)).selectByVisibleText(visibleText));
         } catch (Exception e) {
             throw new RuntimeException("Dropdown selection failed: " + loc, e);
         }
@@ -396,7 +488,7 @@ public class SeleniumHelper {
 
     public void selectByIndex(By loc, int index) {
         try {
-            new Select(driver.findElement(loc)).selectByIndex(index);
+            retry.run(() -> new Select(find(loc)).selectByIndex(index));
         } catch (Exception e) {
             throw new RuntimeException("Dropdown selection failed: " + loc, e);
         }
@@ -404,7 +496,7 @@ public class SeleniumHelper {
 
     public void selectByValue(By loc, String value) {
         try {
-            new Select(driver.findElement(loc)).selectByValue(value);
+            retry.run(() -> new Select(find(loc)).selectByValue(value));
         } catch (Exception e) {
             throw new RuntimeException("Dropdown selection failed: " + loc, e);
         }
@@ -415,7 +507,7 @@ public class SeleniumHelper {
     // ================================
     public void switchToChildWindow() {
         parent = driver.getWindowHandle();
-        for (String handle : driver.getWindowHandles()) {
+        for (String handle : BrowserContextPool.windowHandles(driver)) { // Only this worker's windows in a shared browser
             if (!handle.equals(parent)) {
                 driver.switchTo().window(handle);
                 break;
@@ -433,7 +525,7 @@ public class SeleniumHelper {
 
     public void pressEnterByLoc(By loc) {
         try {
-            driver.findElement(loc).sendKeys(Keys.ENTER);
+            retry.runOnce(() -> find(loc).sendKeys(Keys.ENTER));
         } catch (Exception e) {
             throw new RuntimeException("Unable to press Enter key on the element with locator: ");
         }
@@ -0,0 +1,89 @@
+package reUsableComponent;
+
+import enums.LoginPageConstants;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import pageObjects.LoginPage;
+import utils.CommandRetry;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the helper's waits against a scripted driver showing Parabank's failed-login page, whose
+ * message "An internal error has occurred and has been logged." is rendered a poll after the page.
+ */
+public class SeleniumHelperTest {
+
+    private static final String PAGE_TEXT = "Error! " + LoginPageConstants.VALIDATION_MESSAGE;
+    private static final By MESSAGE = By.xpath("//h1/following-sibling::p");
+    private static final List<String> SIGNATURES = Arrays.asList("An internal error has occurred", "HTTP Status 500");
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private WebDriver driver;
+
+    @BeforeMethod
+    public void setUp() {
+        lookups.set(0);
+        WebElement message = (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{WebElement.class},
+                (proxy, method, args) -> method.getName().equals("getText") ? LoginPageConstants.VALIDATION_MESSAGE : null);
+        driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findElement":
+                            if (args[0].equals(MESSAGE) && lookups.incrementAndGet() > 1) {
+                                return message;
+                            }
+                            throw new NoSuchElementException("not rendered yet: " + args[0]);
+                        case "executeScript":
+                            return ((List<?>) ((Object[]) args[1])[0]).stream()
+                                    .filter(signature -> PAGE_TEXT.contains((String) signature)).findFirst().orElse(null);
+                        case "getCurrentUrl":
+                            return "https://parabank/login.htm";
+                        case "getTitle":
+                            return "ParaBank | Error";
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        CommandRetry.forget(driver);
+    }
+
+    @Test
+    public void negativeLoginSeesItsErrorMessageWithDefaultSignatures() {
+        new LoginPage(driver).validationMessage(LoginPageConstants.VALIDATION_MESSAGE);
+        Assert.assertEquals(lookups.get(), 2, "the message was waited for, not found at once");
+    }
+
+    @Test
+    public void expectedErrorMessageIsNotTreatedAsAnErrorPage() {
+        new SeleniumHelper(driver, SIGNATURES).verifyContainsText(MESSAGE, LoginPageConstants.VALIDATION_MESSAGE);
+        Assert.assertEquals(lookups.get(), 2);
+    }
+
+    @Test
+    public void waitForAnotherElementFailsFastOnTheErrorPage() {
+        long start = System.nanoTime();
+        RuntimeException failure = Assert.expectThrows(RuntimeException.class,
+                () -> new SeleniumHelper(driver, SIGNATURES).waitForElementToBeVisible(By.xpath("//h2")));
+        Assert.assertTrue(failure.getMessage().contains("found 'An internal error has occurred'"), failure.getMessage());
+        Assert.assertTrue(System.nanoTime() - start < 2_000_000_000L, "must not run out the explicit wait");
+    }
+}
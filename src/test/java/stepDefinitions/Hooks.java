@@ -1,20 +1,50 @@
 package stepDefinitions;
 
+import com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter;
+import dataProviders.ConfigFileReader;
+import dataProviders.CsvDataSource;
+import dataSeeding.DataSeeder;
+import loadTesting.LoadGenerator;
+import distributed.DistributedWorker;
+import distributed.ResultCollector;
+import database.DbVerifier;
 import io.cucumber.java.After;
 import io.cucumber.java.AfterAll;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
 import managers.FileReaderManager;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import utilities.ScenarioContext;
 import utilities.EmailConnector;
+import utilities.EnvUtility;
+import utilities.ReportParser;
 import utilities.ScenarioResult;
+import utils.AzureResultPublisher;
+import utils.CommandRetry;
+import utils.CsvScenarioExpander;
+import utils.DeviceProfile;
+import utils.DriverPool;
 import utils.EmailUtil;
+import utils.FlakinessStore;
+import utils.MemoryWatchdog;
+import utils.RecordingProxy;
+import utils.RunProgressServer;
+import utils.StepLatencyHistory;
+import utils.PagePerformanceCollector;
+import utils.ScenarioLogRouter;
+import utils.ScreencastRecorder;
+import utils.ScreenshotPipeline;
+import utils.StepTraceRecorder;
 import utils.TestContextSetup;
 
 import javax.mail.Store;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -29,41 +59,104 @@ import java.util.List;
  *
  * 2. Scenario Results Management:
  *    - After each scenario, captures its name and execution status into a list (`scenarioResults`).
+ *      On a distributed worker the result is handed to `ResultCollector` instead and reported by the coordinator.
  *    - Provides static methods to retrieve execution metrics:
  *      - `getPassCount()` - Count of passed scenarios.
  *      - `getFailCount()` - Count of failed scenarios.
  *      - `getTotalCount()` - Total executed scenarios.
  *      - `getFailedScenarios()` - List of names of failed scenarios.
+ *    - Under `DeviceMatrixRunner` each result carries its device profile, which is also assigned to the
+ *      Extent scenario as its device; failed scenarios are listed as `[profile] name`.
+ *    - With `progressServer` on, `RunProgressServer` is told when each scenario starts and finishes,
+ *      for its live JSON/SSE endpoints; this only touches atomics and lock-free queues.
+ *    - When `azurePublishing` is on, each result is also queued for `AzureResultPublisher`, which
+ *      writes it to Azure Table storage off the scenario thread.
  *
- * 3. Post Execution Handling:
+ * 3. Scenario-Scoped Logging:
+ *    - `ScenarioLogRouter` puts feature and scenario ids into the MDC first thing in `@Before` and
+ *      closes the per-scenario log file last thing in `@After`, linking it into the report.
+ *
+ * 4. Failure Screenshots:
+ *    - A high-order `@After` hook runs before driver teardown and only grabs the raw screenshot bytes.
+ *    - Encoding, deduplication, disk writes and report linking happen on `ScreenshotPipeline` workers.
+ *    - When screencast recording is enabled, the buffered frames are saved as a GIF only for failed
+ *      scenarios, and the recorder's overhead is logged to the scenario for every run.
+ *    - When step tracing is enabled, `StepLatencyListener` writes and links a DevTools trace for every
+ *      step over its latency budget; the trace session is stopped here before the driver is quit.
+ *    - Scenarios whose SeleniumHelper commands were retried (`CommandRetry`) get the retry count and
+ *      the time lost to failed attempts logged to the scenario.
+ *
+ * 5. Driver Teardown and Account Leasing:
+ *    - `tearDown` hands the driver back to `DriverPool`, which quits it, or resets it for the worker's next
+ *      scenario when `reuseDrivers=true` (and during load runs) unless `MemoryWatchdog` asks for a recycle.
+ *    - The valid-login step leases an account from `AccountPool` and stores it in `ScenarioContext`;
+ *      `tearDown` releases it and clears the context; scenarios that leased nothing leave the pools untouched.
+ *
+ * 6. Environment Matrix:
+ *    - In an `EnvironmentMatrixRunner` run each scenario is assigned its environment as an Extent category,
+ *      and its result carries the environment for the per-environment email breakdown and failure list.
+ *    - Account pool metrics are logged for every environment that leased accounts.
+ *
+ * 7. Data-Driven Scenarios:
+ *    - Scenarios tagged `@csv:<name>` get their invocation's row of that `CsvDataSource` bound in `@Before`
+ *      and released in `@After`; step definitions read it with `CsvDataSource.current(...)`.
+ *    - The row number is added to the report and result names, and failed rows are written for
+ *      `FailedScenarioRunner`.
+ *
+ * 8. Post Execution Handling:
+ *    - `@AfterAll` drains the screenshot pipeline so every link is in place before the report is flushed.
+ *    - Drivers still kept by `DriverPool` are quit and the browser memory curves are written.
  *    - `@AfterAll` hook uses `Runtime.getRuntime().addShutdownHook()` to delay execution of email reporting.
+ *    - `@AfterAll` writes every result to the `FlakinessStore` (location, duration, failure signature
+ *      from the first failing step) when `flakinessStore` is on.
+ *    - `@AfterAll` also runs the step latency gate; with `latencyGate=fail` a regression fails the run
+ *      after the email hook is registered.
+ *    - The same shutdown hook uploads the finished report to Azure Blob storage and waits for queued results.
+ *    - Distributed workers skip the email; the coordinator sends one for the whole run.
+ *    - During a load run every iteration is a separate Cucumber run, so the run-level work is skipped.
  *    - Connects to Gmail using credentials from config and sends an email with the execution report.
  *
  * Notes:
  * - `@Before` and `@After` hooks are Cucumber lifecycle annotations.
- * - The static context (`scenarioResults`, `scenario`) makes this class unsuitable for parallel test execution.
+ * - Scenarios run in parallel: `getScenario()` returns the scenario of the calling thread, and
+ *   `scenarioResults` is a synchronized list shared by every scenario thread of the run.
  * - Email connection is established using a separate utility (`EmailConnector`) and sent via `EmailUtil`.
- * - Consider refactoring for thread-safety in parallel execution environments.
  */
 
 public class Hooks {
 
     private static Logger logger = LoggerFactory.getLogger(Hooks.class);
-    private static Scenario scenario;
-    private static List<ScenarioResult> scenarioResults = new ArrayList<>();
+    private static final ThreadLocal<Scenario> scenario = new ThreadLocal<>();
+    private static List<ScenarioResult> scenarioResults = Collections.synchronizedList(new ArrayList<>());
     public TestContextSetup testContextSetup;
+    private long scenarioStartedAt;
+
+    static {
+        ScreenshotPipeline.onWritten(file -> AzureResultPublisher.publishFile(file, "screenshots/" + file.getName()));
+    }
 
     public Hooks(TestContextSetup testContextSetup){
         this.testContextSetup=testContextSetup;
     }
 
+    // Lower order runs first for @Before, so everything the scenario logs lands in its own file
+    @Before(order = 0)
+    public void startScenarioLog(Scenario scenario) {
+        ScenarioLogRouter.start(scenario);
+    }
+
     @Before
     public void before(Scenario scenario) {
-        Hooks.scenario = scenario;
+        Hooks.scenario.set(scenario);
+        scenarioStartedAt = System.currentTimeMillis();
+        RunProgressServer.scenarioStarted(scenario);
     }
 
+    /**
+     * @return the scenario running on the calling thread, or null outside a scenario
+     */
     public static Scenario getScenario() {
-        return scenario;
+        return scenario.get();
     }
 
     @Before
@@ -72,10 +165,71 @@ public class Hooks {
         ScenarioContext.setCurrentFeature(featureName);
     }
 
+    @Before
+    public void assignDeviceProfile() {
+        DeviceProfile profile = DeviceProfile.current();
+        if (profile != null && ExtentCucumberAdapter.getCurrentScenario() != null) {
+            ExtentCucumberAdapter.getCurrentScenario().assignDevice(profile.getName());
+        }
+    }
+
+    @Before
+    public void assignEnvironment() {
+        if (!EnvUtility.getEnvironmentMatrix().isEmpty() && ExtentCucumberAdapter.getCurrentScenario() != null) {
+            ExtentCucumberAdapter.getCurrentScenario().assignCategory(EnvUtility.getTestEnvironment());
+        }
+    }
+
+    @Before
+    public void bindCsvRow(Scenario scenario) {
+        String source = CsvScenarioExpander.getSourceName(scenario.getSourceTagNames());
+        if (source != null) {
+            int row = CsvScenarioExpander.takeRow(ResultCollector.location(scenario.getUri(), scenario.getLine()));
+            logger.info("Bound data row {} {} from CSV source '{}'", row + 1, CsvDataSource.bind(source, row,
+                    FileReaderManager.getInstance().getConfigReader()), source);
+            if (ExtentCucumberAdapter.getCurrentScenario() != null) {
+                ExtentCucumberAdapter.getCurrentScenario().getModel().setName(scenario.getName() + CsvScenarioExpander.rowLabel(row));
+            }
+        }
+    }
+
+    @After
+    public void reportCommandRetries(Scenario scenario) {
+        String retries = CommandRetry.takeScenarioStats();
+        if (retries != null) {
+            scenario.log(retries);
+            logger.info("{} - {}", scenario.getName(), retries);
+        }
+    }
+
+    // Low order runs late for @After, so the results still see the bound row
+    @After(order = 1)
+    public void unbindCsvRow() {
+        CsvDataSource.unbind();
+    }
+
     @After
     public void after_Scenario(Scenario scenario) {
-        ScenarioResult result = new ScenarioResult(scenario.getName(), scenario.getStatus().toString());
-        scenarioResults.add(result);
+        DeviceProfile profile = DeviceProfile.current();
+        String location = new File("").getAbsoluteFile().toURI().relativize(scenario.getUri()) + ":" + scenario.getLine();
+        String failureSignature = FlakinessStore.takeFailureSignature();
+        Integer csvRow = CsvDataSource.currentIndex();
+        if (csvRow != null && scenario.isFailed()) {
+            CsvScenarioExpander.recordFailedRow(ResultCollector.location(scenario.getUri(), scenario.getLine()), csvRow);
+        }
+        String name = csvRow == null ? scenario.getName() : scenario.getName() + CsvScenarioExpander.rowLabel(csvRow);
+        ScenarioResult result = new ScenarioResult(name, scenario.getStatus().toString(),
+                profile == null ? null : profile.getName(), location, System.currentTimeMillis() - scenarioStartedAt,
+                scenario.isFailed() ? failureSignature : null, FileReaderManager.getInstance().getConfigReader().getEnvironment(),
+                System.currentTimeMillis());
+        if (DistributedWorker.isActive()) {
+            // The coordinator reports it; the worker only sends it with the item's outcome
+            ResultCollector.attach(ResultCollector.location(scenario.getUri(), scenario.getLine()), result);
+        } else if (!LoadGenerator.isRunning()) { // LoadMetrics aggregates load iterations
+            scenarioResults.add(result);
+        }
+        RunProgressServer.scenarioFinished(scenario, result.getDeviceProfile());
+        AzureResultPublisher.publishScenario(scenario);
     }
 
     public static List<ScenarioResult> getScenarioResults() {
@@ -98,15 +252,100 @@ public class Hooks {
         List<String> failedScenarios = new ArrayList<>();
         scenarioResults.stream()
                 .filter(r -> r.getStatus().equalsIgnoreCase("FAILED"))
-                .forEach(r -> failedScenarios.add(r.getScenarioName()));
+                .forEach(r -> failedScenarios.add((EnvUtility.getEnvironmentMatrix().isEmpty() ? "" : "[" + r.getEnvironment() + "] ")
+                        + (r.getDeviceProfile() == null ? "" : "[" + r.getDeviceProfile() + "] ") + r.getScenarioName()));
         return failedScenarios;
     }
 
+    // Higher order runs first for @After: the page is captured first, then the screencast and the
+    // step trace are stopped, all before tearDown quits the driver
+    @After(order = 20030)
+    public void captureFailureScreenshot(Scenario scenario) {
+        if (!scenario.isFailed() || !FileReaderManager.getInstance().getConfigReader().isScreenshotOnFailure()) {
+            return;
+        }
+        try {
+            byte[] png = ((TakesScreenshot) testContextSetup.driver).getScreenshotAs(OutputType.BYTES);
+            ScreenshotPipeline.getInstance().submit(png, scenario.getName(), ExtentCucumberAdapter.getCurrentScenario());
+        } catch (Exception e) {
+            logger.warn("Unable to capture failure screenshot for {}", scenario.getName(), e);
+        }
+    }
+
+    @After(order = 20020)
+    public void saveScreencast(Scenario scenario) {
+        ScreencastRecorder recorder = testContextSetup.baseTest.screencastRecorder;
+        if (recorder == null) {
+            return;
+        }
+        recorder.stop();
+        if (scenario.isFailed()) {
+            try {
+                File recording = recorder.saveAsGif(scenario.getName());
+                if (recording != null && ExtentCucumberAdapter.getCurrentScenario() != null) {
+                    ExtentCucumberAdapter.getCurrentScenario().addScreenCaptureFromPath(recording.getAbsolutePath(), "Screencast");
+                }
+            } catch (Exception e) {
+                logger.warn("Unable to save screencast for {}", scenario.getName(), e);
+            }
+        }
+        scenario.log(recorder.getOverheadSummary());
+        logger.info("{} - {}", scenario.getName(), recorder.getOverheadSummary());
+    }
+
+    @After(order = 20010)
+    public void stopStepTracing(Scenario scenario) {
+        StepTraceRecorder recorder = testContextSetup.baseTest.stepTraceRecorder;
+        if (recorder == null) {
+            return;
+        }
+        recorder.stop();
+        scenario.log(recorder.getOverheadSummary());
+    }
+
+    // Lower order runs last for @After, after the driver teardown has been logged
+    @After(order = 0)
+    public void finishScenarioLog(Scenario scenario) {
+        ScenarioLogRouter.finish(scenario);
+        Hooks.scenario.remove();
+    }
+
     @AfterAll
     public static void afterExecution() {
+        if (LoadGenerator.isRunning()) {
+            return; // Other virtual users are still using the shared pipelines
+        }
+        ScreenshotPipeline.drain(30);
+        ScenarioLogRouter.completeRun(10);
+        DataSeeder.shutdown();
+        CsvDataSource.closeAll();
+        DbVerifier.shutdown();
+        PagePerformanceCollector.writeReport();
+        DriverPool.quitAll();
+        RecordingProxy.shutdown();
+        MemoryWatchdog.writeReport();
+        if (StepTraceRecorder.getRunOverheadSummary() != null) {
+            logger.info(StepTraceRecorder.getRunOverheadSummary());
+        }
+        RunProgressServer.runFinished();
+        ConfigFileReader.getAccountPools().forEach((environment, pool) -> logger.info("{}: {}", environment, pool.getMetricsSummary()));
+        if (DistributedWorker.isActive()) {
+            return; // A worker finishes one Cucumber run per batch, the coordinator reports the run
+        }
+        CsvScenarioExpander.writeFailedRows();
+        RuntimeException latencyRegression = null;
+        try {
+            StepLatencyHistory.complete();
+        } catch (RuntimeException e) {
+            latencyRegression = e; // Rethrown once the email hook is registered, so the offenders are still mailed
+        }
+        FlakinessStore.recordRun(scenarioResults);
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             try {
                 Thread.sleep(5000);
+                File report = ReportParser.getLatestReport();
+                AzureResultPublisher.completeRun(report == null ? Collections.emptyList() : Collections.singletonList(report),
+                        FileReaderManager.getInstance().getConfigReader().getAzurePublishTimeout());
                 String username = FileReaderManager.getInstance().getConfigReader().getEmailUserName();
                 String password = FileReaderManager.getInstance().getConfigReader().getEmailPassword();
 
@@ -121,11 +360,22 @@ public class Hooks {
                 e.printStackTrace();
             }
         }));
+        if (latencyRegression != null) {
+            throw latencyRegression;
+        }
     }
 
     @After
     public void tearDown(){
-        testContextSetup.baseTest.initializeDriver().quit();
+        try {
+            WebDriver driver = testContextSetup.baseTest.initializeDriver();
+            DriverPool.release(driver); // Quit, or kept for this worker's next scenario when drivers are reused
+        } finally {
+            if (ScenarioContext.hasLeasedAccount()) {
+                FileReaderManager.getInstance().getConfigReader().getAccountPool().release();
+                ScenarioContext.clearLeasedAccount();
+            }
+        }
     }
 
 }
@@ -1,12 +1,16 @@
 package stepDefinitions;
 
+import dataProviders.CsvDataSource;
 import enums.LoginPageConstants;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
+import managers.FileReaderManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pageObjects.LoginPage;
+import testData.LoginRow;
+import utilities.ScenarioContext;
 import utils.TestContextSetup;
 
 public class LoginSteps {
@@ -26,6 +30,8 @@ public class LoginSteps {
 
     @When("user enters Valid username and password")
     public void user_enters_valid_username_and_password() {
+        // Leased for the rest of the scenario, released in Hooks.tearDown
+        ScenarioContext.setLeasedAccount(FileReaderManager.getInstance().getConfigReader().getAccountPool().lease());
         logger.info("User Entered Credentials");
         loginPage.loginWithValidCredentials();
         logger.info("User Entered Credentials");
@@ -58,4 +64,20 @@ public class LoginSteps {
         loginPage.validationMessage(LoginPageConstants.VALIDATION_MESSAGE);
     }
 
+    @When("user enters the username and password from the data row")
+    public void user_enters_the_username_and_password_from_the_data_row() {
+        LoginRow row = CsvDataSource.current(LoginRow.class);
+        logger.info("User Entering Credentials for data row {}", row);
+        loginPage.loginWith(row.getUsername(), row.getPassword());
+    }
+
+    @Then("user should see the outcome expected by the data row")
+    public void user_should_see_the_outcome_expected_by_the_data_row() {
+        if (CsvDataSource.current(LoginRow.class).expectsSuccess()) {
+            user_should_see_the_home_page();
+        } else {
+            user_should_see_the_error_message();
+        }
+    }
+
 }
@@ -0,0 +1,51 @@
+package testData;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One row of the `logins` CSV data source (src/test/resources/testdata/logins.csv).
+ * Column headers map to fields by name.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LoginRow {
+
+    private String username;
+    private String password;
+    private String expectedOutcome;
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    /**
+     * @return "success" when the login should reach the home page, "error" otherwise
+     */
+    public String getExpectedOutcome() {
+        return expectedOutcome;
+    }
+
+    public void setExpectedOutcome(String expectedOutcome) {
+        this.expectedOutcome = expectedOutcome;
+    }
+
+    public boolean expectsSuccess() {
+        return "success".equalsIgnoreCase(expectedOutcome);
+    }
+
+    @Override
+    public String toString() {
+        return username + " (" + expectedOutcome + ")";
+    }
+}
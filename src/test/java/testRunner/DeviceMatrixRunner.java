@@ -0,0 +1,46 @@
+package testRunner;
+
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.PickleWrapper;
+import managers.FileReaderManager;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import utils.DeviceMatrixExpander;
+import utils.DeviceProfile;
+import utils.RunProgressServer;
+
+/**
+ * The DeviceMatrixRunner runs TestRunner's scenarios once per device profile in `deviceMatrix`,
+ * with all invocations in parallel on TestNG's data provider threads.
+ *
+ * Each invocation's profile is bound to its thread before the scenario starts; BaseTest then
+ * emulates that device (viewport, pixel ratio, touch, user agent) in the driver it takes from
+ * DriverPool, so with reuseDrivers=true or sharedBrowserProcesses the matrix runs on warm browsers.
+ * Results are reported per profile in the Extent device view and the summary email.
+ *
+ * Usage: mvn test -Dtest=DeviceMatrixRunner -Ddataproviderthreadcount=6
+ */
+public class DeviceMatrixRunner extends TestRunner {
+
+    @DataProvider(parallel = true)
+    @Override
+    public Object[][] scenarios() {
+        Object[][] scenarios = DeviceMatrixExpander.expand(super.scenarios(),
+                DeviceProfile.matrixFromConfig(FileReaderManager.getInstance().getConfigReader()));
+        RunProgressServer.plan(scenarios);
+        return scenarios;
+    }
+
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios", dataProvider = "scenarios")
+    @Override
+    public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        if (pickleWrapper instanceof DeviceMatrixExpander.DeviceScenario) {
+            DeviceProfile.bind(((DeviceMatrixExpander.DeviceScenario) pickleWrapper).getProfile());
+        }
+        try {
+            super.runScenario(pickleWrapper, featureWrapper);
+        } finally {
+            DeviceProfile.unbind();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package testRunner;
+
+import distributed.DistributedCoordinator;
+import distributed.WorkResult;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.DataProvider;
+import stepDefinitions.Hooks;
+import utils.StepLatencyHistory;
+
+/**
+ * The DistributedCoordinatorRunner queues TestRunner's tag-filtered scenarios on the work queue
+ * instead of running them, then waits for DistributedWorkerRunner processes to report back.
+ *
+ * The collected results are added to the Hooks results before the run finishes, so the summary
+ * email covers every scenario regardless of which worker ran it, and their step latency samples
+ * to StepLatencyHistory, so the latency gate judges the distributed run here.
+ *
+ * Usage:
+ *   mvn test -Dtest=DistributedCoordinatorRunner -Dcucumber.filter.tags="@regression"
+ *   mvn test -Dtest=DistributedWorkerRunner      (once per agent, or several times locally)
+ */
+public class DistributedCoordinatorRunner extends TestRunner {
+
+    private DistributedCoordinator coordinator;
+
+    @DataProvider(parallel = false)
+    @Override
+    public Object[][] scenarios() {
+        coordinator = DistributedCoordinator.fromConfig();
+        coordinator.enqueue(super.scenarios());
+        return new Object[0][]; // Nothing runs in this JVM
+    }
+
+    @AfterClass(alwaysRun = true)
+    @Override
+    public void tearDownClass() {
+        if (coordinator != null) {
+            for (WorkResult result : coordinator.awaitResults()) {
+                Hooks.getScenarioResults().add(result.toScenarioResult());
+                StepLatencyHistory.add(result.getLatency());
+            }
+        }
+        super.tearDownClass();
+    }
+}
@@ -0,0 +1,19 @@
+package testRunner;
+
+import distributed.DistributedWorker;
+import org.testng.annotations.Test;
+
+/**
+ * The DistributedWorkerRunner turns this JVM into a worker: it pulls scenarios queued by
+ * DistributedCoordinatorRunner, runs them with its own browser pool and reports the results.
+ * It exits once the queue has been empty for `distWorkerIdleTimeout` seconds.
+ *
+ * Usage: mvn test -Dtest=DistributedWorkerRunner
+ */
+public class DistributedWorkerRunner {
+
+    @Test
+    public void work() {
+        DistributedWorker.fromConfig().run();
+    }
+}
@@ -0,0 +1,49 @@
+package testRunner;
+
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.PickleWrapper;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import utilities.EnvUtility;
+import utils.EnvironmentMatrixExpander;
+import utils.RunProgressServer;
+
+/**
+ * The EnvironmentMatrixRunner runs TestRunner's scenarios once per environment in `TEST_ENVS`,
+ * with all invocations in parallel on TestNG's data provider threads, instead of one Maven build
+ * per environment.
+ *
+ * Each invocation's environment is bound to its thread before the scenario starts, so everything
+ * the scenario reads through FileReaderManager comes from that environment's config_<env>.properties:
+ * URL, browser, waits and the accounts leased from its own AccountPool. DriverPool replaces a reused
+ * driver when its thread moves to another environment. Results are reported per environment in the
+ * Extent categories and the summary email.
+ *
+ * Run-level services (database verifier, data seeder, recording proxy, progress server, email
+ * settings) are started once and keep the config of TEST_ENV (QA when not set).
+ *
+ * Usage: mvn test -Dtest=EnvironmentMatrixRunner -DTEST_ENVS=QA,UAT -Ddataproviderthreadcount=6
+ */
+public class EnvironmentMatrixRunner extends TestRunner {
+
+    @DataProvider(parallel = true)
+    @Override
+    public Object[][] scenarios() {
+        Object[][] scenarios = EnvironmentMatrixExpander.expand(super.scenarios(), EnvUtility.getEnvironmentMatrix());
+        RunProgressServer.plan(scenarios);
+        return scenarios;
+    }
+
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios", dataProvider = "scenarios")
+    @Override
+    public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        if (pickleWrapper instanceof EnvironmentMatrixExpander.EnvironmentScenario) {
+            EnvUtility.bindEnvironment(((EnvironmentMatrixExpander.EnvironmentScenario) pickleWrapper).getEnvironment());
+        }
+        try {
+            super.runScenario(pickleWrapper, featureWrapper);
+        } finally {
+            EnvUtility.unbindEnvironment();
+        }
+    }
+}
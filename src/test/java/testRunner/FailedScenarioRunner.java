@@ -3,6 +3,11 @@ package testRunner;
 
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.PickleWrapper;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import utils.CsvScenarioExpander;
 
 /**
  * The FailedScenarioRunner class is responsible for executing only the scenarios
@@ -10,6 +15,7 @@ import io.cucumber.testng.CucumberOptions;
  *
  * It uses the rerun file (failed_scenarios.txt) generated by the main TestRunner
  * to selectively rerun failed test cases and produce fresh reports.
+ * Scenarios tagged @csv:<name> rerun only the rows listed in failed_csv_rows.txt.
  */
 @CucumberOptions(
         features = "@target/failed_scenarios.txt", // Path to rerun file containing failed scenarios
@@ -17,9 +23,27 @@ import io.cucumber.testng.CucumberOptions;
         plugin = {
                 "pretty",                                      // Clean readable console output
                 "html:target/failed-cucumber-reports.html",    // HTML report for rerun
-                "json:target/failed-cucumber.json"             // JSON report for integration or analytics
+                "json:target/failed-cucumber.json",            // JSON report for integration or analytics
+                "utils.StepLatencyListener"                    // Traces steps over their latency budget
         },
         monochrome = true // Enables clean console output without unnecessary characters
 )
 public class FailedScenarioRunner extends AbstractTestNGCucumberTests {
+
+    @DataProvider(parallel = false)
+    @Override
+    public Object[][] scenarios() {
+        return CsvScenarioExpander.expandFailed(super.scenarios(), CsvScenarioExpander.FAILED_ROWS_FILE);
+    }
+
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios", dataProvider = "scenarios")
+    @Override
+    public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        CsvScenarioExpander.bindInvocation(pickleWrapper);
+        try {
+            super.runScenario(pickleWrapper, featureWrapper);
+        } finally {
+            CsvScenarioExpander.unbindInvocation();
+        }
+    }
 }
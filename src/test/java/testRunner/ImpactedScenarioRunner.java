@@ -0,0 +1,37 @@
+package testRunner;
+
+import io.cucumber.testng.CucumberOptions;
+import org.testng.ITestContext;
+import org.testng.annotations.BeforeClass;
+import utilities.EnvUtility;
+import utils.ImpactAnalyzer;
+
+/**
+ * The ImpactedScenarioRunner class executes only the scenarios affected by the changes
+ * between the working tree and a base git ref (IMPACT_BASE_REF, default origin/main).
+ *
+ * Before Cucumber loads its features, ImpactAnalyzer maps feature steps to step definitions,
+ * page objects, SeleniumHelper methods and config keys, writes the affected scenarios to
+ * target/impacted_scenarios.txt and prints the selected/skipped counts with their reasons.
+ *
+ * Everything else comes from TestRunner: its tag filter (or -Dcucumber.filter.tags), glue and plugins
+ * are inherited, and @csv:<name> scenarios are expanded and bound per row, so the selection only
+ * narrows what a normal run would execute.
+ *
+ * Usage: mvn test -Dtest=ImpactedScenarioRunner -DIMPACT_BASE_REF=origin/main
+ */
+@CucumberOptions(
+        features = "@" + ImpactAnalyzer.SELECTION_FILE // Rerun-format file produced by ImpactAnalyzer
+)
+public class ImpactedScenarioRunner extends TestRunner {
+
+    /**
+     * Runs the impact analysis so the selection file exists before Cucumber reads its options.
+     */
+    @BeforeClass(alwaysRun = true)
+    @Override
+    public void setUpClass(ITestContext context) {
+        ImpactAnalyzer.analyze(EnvUtility.getImpactBaseRef()).writeSelection();
+        super.setUpClass(context);
+    }
+}
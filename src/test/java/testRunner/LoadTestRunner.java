@@ -0,0 +1,19 @@
+package testRunner;
+
+import loadTesting.LoadGenerator;
+import org.testng.annotations.Test;
+
+/**
+ * The LoadTestRunner replays the scenarios selected by `loadTags` as a load test with
+ * `loadUsers` concurrent headless sessions, using the normal step definitions.
+ * Throughput, error rates and per-step latency percentiles go to target/load-report.json.
+ *
+ * Usage: mvn test -Dtest=LoadTestRunner
+ */
+public class LoadTestRunner {
+
+    @Test
+    public void generateLoad() {
+        LoadGenerator.fromConfig().run();
+    }
+}
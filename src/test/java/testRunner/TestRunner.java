@@ -1,7 +1,13 @@
 package testRunner;
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.PickleWrapper;
 import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import utils.CsvScenarioExpander;
+import utils.RunProgressServer;
+import utils.StepLatencyHistory;
 
 /**
  * The TestRunner class is the main entry point for executing Cucumber feature files using TestNG.
@@ -15,19 +21,40 @@ import org.testng.annotations.DataProvider;
         tags = "@smoke",                   // Filters scenarios to run only those tagged with @sanity
         plugin = {
                 "com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter:", // Extent report plugin
-                "rerun:target/failed_scenarios.txt"                                     // Rerun file for failed scenarios
+                "rerun:target/failed_scenarios.txt",                                    // Rerun file for failed scenarios
+                "utils.StepLatencyListener"                                             // Traces steps over their latency budget
         }
 )
 public class TestRunner extends AbstractTestNGCucumberTests {
     /**
      * DataProvider to supply scenarios for TestNG execution.
      * Overrides default behavior and allows for parallel execution if needed.
+     * Scenarios tagged @csv:<name> are repeated once per row of that CSV data source.
+     * The scenarios are handed to RunProgressServer, which starts here when progressServer=true, and
+     * the runner class names the StepLatencyHistory keys of the run.
      *
      * @return 2D array of scenario objects
      */
     @DataProvider(parallel = false)
     @Override
     public Object[][] scenarios() {
-        return super.scenarios(); // Return the default scenarios provided by AbstractTestNGCucumberTests
+        Object[][] scenarios = CsvScenarioExpander.expand(super.scenarios()); // Default scenarios, one per CSV row where bound
+        RunProgressServer.plan(scenarios);
+        StepLatencyHistory.setRunner(getClass().getSimpleName());
+        return scenarios;
+    }
+
+    /**
+     * Runs one scenario invocation, handing a CSV row invocation's row to the scenario's hooks.
+     */
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios", dataProvider = "scenarios")
+    @Override
+    public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        CsvScenarioExpander.bindInvocation(pickleWrapper);
+        try {
+            super.runScenario(pickleWrapper, featureWrapper);
+        } finally {
+            CsvScenarioExpander.unbindInvocation();
+        }
     }
 }
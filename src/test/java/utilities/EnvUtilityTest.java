@@ -0,0 +1,23 @@
+package utilities;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class EnvUtilityTest {
+
+    @Test
+    public void csvShardIsParsed() {
+        Assert.assertEquals(EnvUtility.parseCsvShard(null), new int[]{0, 1});
+        Assert.assertEquals(EnvUtility.parseCsvShard(" "), new int[]{0, 1});
+        Assert.assertEquals(EnvUtility.parseCsvShard("1/3"), new int[]{1, 3});
+        Assert.assertEquals(EnvUtility.parseCsvShard(" 0 / 2 "), new int[]{0, 2});
+    }
+
+    @Test
+    public void malformedCsvShardIsRejected() {
+        for (String shard : new String[]{"2", "a/2", "1/0", "2/2", "-1/2", "1/2/3", "99999999999/2"}) {
+            RuntimeException failure = Assert.expectThrows(RuntimeException.class, () -> EnvUtility.parseCsvShard(shard));
+            Assert.assertTrue(failure.getMessage().startsWith("Invalid CSV_SHARD"), shard + ": " + failure.getMessage());
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package utils;
+
+import com.azure.data.tables.TableClient;
+import com.azure.data.tables.TableServiceClient;
+import com.azure.data.tables.TableServiceClientBuilder;
+import com.azure.data.tables.models.TableEntity;
+import com.azure.data.tables.models.TableTransactionAction;
+import com.azure.data.tables.models.TableTransactionActionType;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobServiceClientBuilder;
+import com.azure.storage.blob.models.BlobHttpHeaders;
+import com.azure.storage.blob.models.ParallelTransferOptions;
+import dataProviders.ConfigFileReader;
+import io.cucumber.java.Scenario;
+import managers.FileReaderManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.EnvUtility;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AzureResultPublisher copies run results to Azure Storage without slowing the scenarios down.
+ *
+ * - Hooks hands over one row per scenario, ScreenshotPipeline hands over every screenshot it writes.
+ *   Both only enqueue into a bounded queue; a full queue drops the item after a short wait
+ *   instead of blocking the scenario thread.
+ * - A single drainer thread groups rows by partition (run + feature) and writes each group as a
+ *   table batch transaction of up to 100 entities, committing early after a short linger.
+ * - Files are uploaded as block blobs under <container>/<runId>/ on a small upload pool; each
+ *   file is split into blocks that are sent in parallel. The pool's queue holds at most
+ *   `azureUploadQueueCapacity` files; when it is full the drainer uploads the next file itself,
+ *   which slows the drainer down and lets the bounded queue push back on the producers.
+ * - The SDK clients are built, and the table and container created, on the drainer thread, so the
+ *   first scenario to publish only pays for an enqueue. If the connection string is invalid or the
+ *   storage account is unreachable, publishing turns itself off and queued items are dropped.
+ * - completeRun() enqueues the Spark report, waits up to the given timeout for the drainer to empty
+ *   the queue, stops the drainer and only then shuts the upload pool down.
+ *
+ * Enabled with `azurePublishing=true`. The connection string comes from AZURE_STORAGE_CONNECTION_STRING
+ * (or `azureStorageConnectionString`) and defaults to the local Azurite emulator.
+ * Publishing failures are logged and never fail a scenario.
+ */
+public class AzureResultPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AzureResultPublisher.class);
+    private static final int MAX_TRANSACTION_SIZE = 100; // Azure Table limit per batch transaction
+    private static final long LINGER_MS = 2000;
+    private static final long OFFER_TIMEOUT_MS = 500;
+    private static AzureResultPublisher instance;
+    private static boolean disabled;
+
+    private final String connectionString;
+    private final String tableName;
+    private final String containerName;
+    private TableClient table;               // set by the drainer before it submits anything
+    private BlobContainerClient container;   // set by the drainer before it submits any upload
+    private final ParallelTransferOptions transferOptions;
+    private final BlockingQueue<Object> queue;
+    private final ExecutorService uploads;
+    private final Thread drainer;
+    private final String runId;
+    private final Map<String, List<TableTransactionAction>> pending = new HashMap<>(); // drainer thread only
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong blobsUploaded = new AtomicLong();
+    private final AtomicLong bytesUploaded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean stopping;
+    private volatile boolean unreachable;
+
+    // Builds no SDK clients; the drainer thread does that before it writes anything
+    AzureResultPublisher(String connectionString, ConfigFileReader config) {
+        this.connectionString = connectionString;
+        this.tableName = config.getAzureResultsTable();
+        this.containerName = config.getAzureResultsContainer();
+
+        long blockSize = config.getAzureUploadBlockSizeMb() * 1024L * 1024L;
+        this.transferOptions = new ParallelTransferOptions()
+                .setBlockSizeLong(blockSize)
+                .setMaxSingleUploadSizeLong(blockSize)
+                .setMaxConcurrency(config.getAzureUploadThreads());
+        this.queue = new ArrayBlockingQueue<>(config.getAzurePublishQueueCapacity());
+
+        AtomicInteger threadId = new AtomicInteger();
+        this.uploads = new ThreadPoolExecutor(config.getAzureUploadThreads(), config.getAzureUploadThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getAzureUploadQueueCapacity()), r -> {
+            Thread t = new Thread(r, "azure-upload-" + threadId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.runId = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date())
+                + "-" + Optional.ofNullable(EnvUtility.getRunEnvironments()).orElse("QA").replace(',', '-');
+        this.drainer = new Thread(this::drain, "azure-result-publisher");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+        logger.info("Publishing results to Azure Storage as run {}", runId);
+    }
+
+    /**
+     * @return the publisher, or null when publishing is off or the storage account is unreachable
+     */
+    private static synchronized AzureResultPublisher getInstance() {
+        if (instance == null && !disabled) {
+            ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+            if (!config.isAzurePublishing()) {
+                disabled = true;
+                return null;
+            }
+            instance = new AzureResultPublisher(config.getAzureStorageConnectionString(), config);
+        }
+        return instance;
+    }
+
+    /**
+     * Queues the scenario's result row. Returns immediately unless the queue is full.
+     */
+    public static void publishScenario(Scenario scenario) {
+        AzureResultPublisher publisher = getInstance();
+        if (publisher == null) {
+            return;
+        }
+        String feature = new File(scenario.getUri().getPath()).getName();
+        // Keys may not contain / \ # ? or control characters
+        TableEntity entity = new TableEntity(publisher.runId + "_" + feature.replaceAll("[^A-Za-z0-9_.-]", "_"),
+                String.format("%06d_L%d", publisher.sequence.incrementAndGet(), scenario.getLine()))
+                .addProperty("Scenario", scenario.getName())
+                .addProperty("Status", scenario.getStatus().toString())
+                .addProperty("Feature", feature)
+                .addProperty("Tags", String.join(" ", scenario.getSourceTagNames()))
+                .addProperty("Thread", Thread.currentThread().getName())
+                .addProperty("RunId", publisher.runId);
+        publisher.enqueue(entity, scenario.getName());
+    }
+
+    /**
+     * Queues a file for upload as <runId>/<blobName>.
+     */
+    public static void publishFile(File file, String blobName) {
+        AzureResultPublisher publisher = getInstance();
+        if (publisher != null) {
+            publisher.enqueue(new BlobUpload(file, blobName), blobName);
+        }
+    }
+
+    void enqueue(Object item, String description) {
+        if (unreachable) {
+            dropped.incrementAndGet();
+            return;
+        }
+        try {
+            if (stopping || !queue.offer(item, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                dropped.incrementAndGet();
+                logger.warn("Azure result queue full, dropping {}", description);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        try {
+            TableServiceClient tableService = new TableServiceClientBuilder().connectionString(connectionString).buildClient();
+            tableService.createTableIfNotExists(tableName);
+            table = tableService.getTableClient(tableName);
+            container = new BlobServiceClientBuilder().connectionString(connectionString).buildClient()
+                    .getBlobContainerClient(containerName);
+            container.createIfNotExists();
+        } catch (RuntimeException e) {
+            unreachable = true;
+            dropped.addAndGet(queue.size());
+            queue.clear();
+            logger.error("Azure result publishing disabled, invalid connection string or storage account not reachable", e);
+            return;
+        }
+        long lastCommit = System.currentTimeMillis();
+        while (!(stopping && queue.isEmpty())) {
+            Object item;
+            try {
+                item = queue.poll(LINGER_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (item instanceof TableEntity) {
+                TableEntity entity = (TableEntity) item;
+                List<TableTransactionAction> partition = pending.computeIfAbsent(entity.getPartitionKey(), k -> new ArrayList<>());
+                partition.add(new TableTransactionAction(TableTransactionActionType.UPSERT_REPLACE, entity));
+                if (partition.size() >= MAX_TRANSACTION_SIZE) {
+                    commit(entity.getPartitionKey());
+                }
+            } else if (item instanceof BlobUpload) {
+                BlobUpload upload = (BlobUpload) item;
+                try {
+                    uploads.execute(() -> upload(upload));
+                } catch (RejectedExecutionException e) {
+                    failed.incrementAndGet(); // Only after completeRun() gave up on a stuck drainer
+                    logger.error("Upload pool already stopped, skipping {}", upload.file);
+                }
+            }
+            if (item == null || System.currentTimeMillis() - lastCommit >= LINGER_MS) {
+                new ArrayList<>(pending.keySet()).forEach(this::commit);
+                lastCommit = System.currentTimeMillis();
+            }
+        }
+        new ArrayList<>(pending.keySet()).forEach(this::commit);
+    }
+
+    private void commit(String partitionKey) {
+        List<TableTransactionAction> actions = pending.remove(partitionKey);
+        if (actions == null || actions.isEmpty()) {
+            return;
+        }
+        try {
+            table.submitTransaction(actions);
+            transactions.incrementAndGet();
+            rowsWritten.addAndGet(actions.size());
+        } catch (RuntimeException e) {
+            failed.addAndGet(actions.size());
+            logger.error("Failed to write {} result row(s) to partition {}", actions.size(), partitionKey, e);
+        }
+    }
+
+    private void upload(BlobUpload upload) {
+        try {
+            String contentType = Optional.ofNullable(Files.probeContentType(upload.file.toPath())).orElse("application/octet-stream");
+            container.getBlobClient(runId + "/" + upload.blobName).uploadFromFile(upload.file.getPath(), transferOptions,
+                    new BlobHttpHeaders().setContentType(contentType), null, null, null, null);
+            blobsUploaded.incrementAndGet();
+            bytesUploaded.addAndGet(upload.file.length());
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            logger.error("Failed to upload {}", upload.file, e);
+        }
+    }
+
+    /**
+     * Queues the final report, then waits for all queued rows and uploads to finish.
+     * @param reportFiles    Report files to upload, missing files are skipped
+     * @param timeoutSeconds Maximum time to wait for pending work
+     */
+    public static synchronized void completeRun(List<File> reportFiles, long timeoutSeconds) {
+        if (instance == null) {
+            return;
+        }
+        instance.complete(reportFiles, timeoutSeconds);
+        instance = null;
+    }
+
+    void complete(List<File> reportFiles, long timeoutSeconds) {
+        for (File file : reportFiles) {
+            if (file.isFile()) {
+                enqueue(new BlobUpload(file, "report/" + file.getName()), file.getName());
+            }
+        }
+        stopping = true;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        try {
+            // The drainer is the only thread submitting uploads, so it must be stopped before the pool is
+            drainer.join(TimeUnit.SECONDS.toMillis(timeoutSeconds));
+            boolean drained = !drainer.isAlive();
+            if (!drained) {
+                drainer.interrupt();
+                drainer.join(TimeUnit.SECONDS.toMillis(5));
+            }
+            uploads.shutdown();
+            if (!drained || !uploads.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                logger.warn("Azure result publishing did not finish within {}s, {} item(s) still queued",
+                        timeoutSeconds, queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info(getSummary());
+    }
+
+    String getSummary() {
+        return String.format("Azure results for run %s: %d row(s) in %d transaction(s), %d blob(s) (%d KB), %d dropped, %d failed",
+                runId, rowsWritten.get(), transactions.get(), blobsUploaded.get(), bytesUploaded.get() / 1024,
+                dropped.get(), failed.get());
+    }
+
+    String getRunId() {
+        return runId;
+    }
+
+    static class BlobUpload {
+        private final File file;
+        private final String blobName;
+
+        BlobUpload(File file, String blobName) {
+            this.file = file;
+            this.blobName = blobName;
+        }
+    }
+}
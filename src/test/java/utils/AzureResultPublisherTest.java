@@ -0,0 +1,80 @@
+package utils;
+
+import com.azure.data.tables.models.TableEntity;
+import com.azure.storage.blob.BlobServiceClientBuilder;
+import dataProviders.ConfigFileReader;
+import managers.FileReaderManager;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.Collections;
+
+public class AzureResultPublisherTest {
+
+    private static final String AZURITE = "UseDevelopmentStorage=true";
+    private static final String UNREACHABLE = "DefaultEndpointsProtocol=http;AccountName=devstoreaccount1;"
+            + "AccountKey=Eby8vdM02xNOcqFlqUwJPLlmEtlCDXJ1OUzFT50uSRZ6IFsuFq2UVErCz4I6tq/K1SZFPTOtr/KBHBeksoGMGw==;"
+            + "BlobEndpoint=http://127.0.0.1:1/devstoreaccount1;TableEndpoint=http://127.0.0.1:1/devstoreaccount1";
+
+    private final ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+
+    @Test
+    public void storageIsNotContactedOnTheCallingThread() {
+        TableEntity entity = new TableEntity("partition", "row");
+        AzureResultPublisher publisher = new AzureResultPublisher(UNREACHABLE, config);
+        long start = System.nanoTime();
+        publisher.enqueue(entity, "row");
+        Assert.assertTrue(System.nanoTime() - start < 50_000_000L, "enqueueing must not build clients or wait for the network");
+
+        publisher.complete(Collections.emptyList(), 10);
+        Assert.assertTrue(publisher.getSummary().contains(": 0 row(s) in 0 transaction(s)"), publisher.getSummary());
+    }
+
+    @Test
+    public void invalidConnectionStringOnlyDisablesPublishing() {
+        AzureResultPublisher publisher = new AzureResultPublisher("not a connection string", config);
+        publisher.complete(Collections.emptyList(), 10);
+        publisher.enqueue(new TableEntity("partition", "row"), "row");
+        Assert.assertTrue(publisher.getSummary().contains("1 dropped"), publisher.getSummary());
+    }
+
+    @Test
+    public void rowsAndFilesLandInAzurite() throws IOException {
+        if (!reachable(10000) || !reachable(10002)) {
+            throw new SkipException("Azurite is not running on 127.0.0.1:10000/10002");
+        }
+        AzureResultPublisher publisher = new AzureResultPublisher(AZURITE, config);
+        for (int i = 0; i < 150; i++) {
+            publisher.enqueue(new TableEntity(publisher.getRunId() + "_test", String.format("%06d", i))
+                    .addProperty("Status", "PASSED"), "row " + i);
+        }
+        File file = File.createTempFile("azure-publisher", ".txt");
+        Files.write(file.toPath(), "report".getBytes());
+        try {
+            publisher.enqueue(new AzureResultPublisher.BlobUpload(file, "report/" + file.getName()), file.getName());
+            publisher.complete(Collections.emptyList(), 60);
+        } finally {
+            file.delete();
+        }
+
+        Assert.assertTrue(publisher.getSummary().contains(": 150 row(s) in 2 transaction(s), 1 blob(s)"), publisher.getSummary());
+        Assert.assertTrue(new BlobServiceClientBuilder().connectionString(AZURITE).buildClient()
+                .getBlobContainerClient(config.getAzureResultsContainer())
+                .getBlobClient(publisher.getRunId() + "/report/" + file.getName()).exists());
+    }
+
+    private static boolean reachable(int port) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("127.0.0.1", port), 500);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -1,71 +1,118 @@
 package utils;
 
+import loadTesting.LoadGenerator;
 import managers.FileReaderManager;
-import org.openqa.selenium.Dimension;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
 
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * BaseTest class handles the initialization and configuration of WebDriver instances.
  * It supports multiple browser types and sets timeout values and default behaviors
  * required for consistent browser session management.
+ * Browsers are launched through DriverPool, which hands a worker's previous session back
+ * when `reuseDrivers=true` instead of launching a new one for every scenario.
  */
 public class BaseTest {
     public WebDriver driver; // Instance of WebDriver for test execution
-    public List<Dimension> screenDimensionsList; // Used to emulate mobile device resolutions
-    public long implicitWait; // Timeout for implicit wait
+    public long implicitWait; // Timeout for implicit wait, 0 by default since SeleniumHelper waits explicitly
     public long pageLoadTimeout; // Timeout for page load
+    public ScreencastRecorder screencastRecorder; // Rolling DevTools screencast, only when screencastRecording=true
+    public StepTraceRecorder stepTraceRecorder; // Background DevTools trace for slow steps, only when stepTracing=true
 
     /**
      * Initializes WebDriver based on the browser name configured in the properties file.
      * Supports Chrome, Firefox, Edge, Headless Chrome, and a mobile emulation (iPhone).
      * Sets all browser session configurations including timeouts and window size.
+     * Under DeviceMatrixRunner the scenario's device profile is emulated in the driver first.
      *
      * @return WebDriver instance ready for use in test execution.
      */
     public WebDriver initializeDriver() {
         if (driver == null) {
-            String browser = FileReaderManager.getInstance().getConfigReader().getBrowser();
+            implicitWait = FileReaderManager.getInstance().getConfigReader().getImplicitWait();
+            pageLoadTimeout = FileReaderManager.getInstance().getConfigReader().getPageLoadTimeout();
+            driver = DriverPool.acquire(this::createDriver);
 
-            if (browser.equalsIgnoreCase("Chrome")) {
-                ChromeOptions options = new ChromeOptions();
-                options.setAcceptInsecureCerts(true);
-                driver = new ChromeDriver(options);
-            } else if (browser.equalsIgnoreCase("Firefox")) {
-                driver = new FirefoxDriver();
-            } else if (browser.equalsIgnoreCase("Edge")) {
-                driver = new EdgeDriver();
-            } else if (browser.equalsIgnoreCase("Headless")) {
-                ChromeOptions options = new ChromeOptions();
-                options.addArguments("--headless", "--no-sandbox", "--disable-dev-shm-usage", "--disable-gpu");
-                options.setAcceptInsecureCerts(true);
-                driver = new ChromeDriver(options);
-            } else if (browser.equalsIgnoreCase("Iphone")) {
-                screenDimensionsList = new ArrayList<>();
-                screenDimensionsList.add(new Dimension(375, 667)); // Emulates iPhone screen resolution
-                driver = new ChromeDriver();
-                for (Dimension d : screenDimensionsList) {
-                    driver.manage().window().setSize(d);
-                }
+            // Per-scenario session setup
+            DeviceProfile profile = DeviceProfile.current();
+            if (profile != null) {
+                profile.apply(driver);
             }
-
-            // Common browser session setup
-            driver.manage().window().maximize();
+            if (driver instanceof ChromeDriver && !LoadGenerator.isRunning() && FileReaderManager.getInstance().getConfigReader().isScreencastRecording()) {
+                screencastRecorder = ScreencastRecorder.start(driver);
+            }
+            if (driver instanceof ChromeDriver && !LoadGenerator.isRunning() && FileReaderManager.getInstance().getConfigReader().isStepTracing()) {
+                stepTraceRecorder = StepTraceRecorder.start(driver);
+            }
+            long loadStart = System.nanoTime();
             driver.get(FileReaderManager.getInstance().getConfigReader().getUrl());
-            implicitWait = FileReaderManager.getInstance().getConfigReader().getImplicitWait();
-            pageLoadTimeout = FileReaderManager.getInstance().getConfigReader().getPageLoadTimeout();
-            driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(pageLoadTimeout));
-            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(implicitWait));
+            ProfileTemplate.firstPageLoaded(System.nanoTime() - loadStart);
+            PagePerformanceCollector.capture(driver);
             driver.manage().deleteAllCookies();
         }
 
         return driver;
     }
+
+    /**
+     * Launches a new browser for the configured browser name and applies the session-wide settings.
+     */
+    private WebDriver createDriver() {
+        String browser = FileReaderManager.getInstance().getConfigReader().getBrowser();
+        WebDriver newDriver;
+
+        if (LoadGenerator.isRunning()) {
+            newDriver = LoadGenerator.newSession(); // Reused by every iteration of this virtual user
+        } else if (BrowserContextPool.isEnabled() && (browser.equalsIgnoreCase("Chrome") || browser.equalsIgnoreCase("Headless"))) {
+            ChromeOptions options = browser.equalsIgnoreCase("Headless") ? headlessOptions() : new ChromeOptions();
+            options.setAcceptInsecureCerts(true);
+            RecordingProxy.apply(options); // Set on the shared hosts, so it covers every context in them
+            newDriver = BrowserContextPool.newWorkerDriver(options); // Isolated context in a shared browser process
+        } else if (browser.equalsIgnoreCase("Chrome")) {
+            ChromeOptions options = new ChromeOptions();
+            options.setAcceptInsecureCerts(true);
+            RecordingProxy.apply(options); // Record/replay of the application's responses when proxyMode is set
+            newDriver = ProfileTemplate.launch(options); // Clone of the prepared profile when profileTemplate=true
+        } else if (browser.equalsIgnoreCase("Firefox")) {
+            newDriver = new FirefoxDriver(RecordingProxy.apply(new FirefoxOptions()));
+        } else if (browser.equalsIgnoreCase("Edge")) {
+            newDriver = new EdgeDriver(RecordingProxy.apply(new EdgeOptions()));
+        } else if (browser.equalsIgnoreCase("Headless")) {
+            newDriver = ProfileTemplate.launch(RecordingProxy.apply(headlessOptions()));
+        } else if (browser.equalsIgnoreCase("Iphone")) {
+            // Chrome mobile emulation (viewport, pixel ratio, touch, user agent) from the device.iphone.* profile
+            ChromeOptions options = new ChromeOptions();
+            options.setAcceptInsecureCerts(true);
+            options.setExperimentalOption("mobileEmulation",
+                    DeviceProfile.fromConfig(FileReaderManager.getInstance().getConfigReader(), "iphone").toMobileEmulation());
+            newDriver = ProfileTemplate.launch(RecordingProxy.apply(options));
+        } else {
+            throw new RuntimeException("Unsupported browser in configuration: " + browser);
+        }
+
+        // Common browser session setup; maximizing an emulated device would only resize the desktop window around it
+        if (!browser.equalsIgnoreCase("Iphone")) {
+            newDriver.manage().window().maximize();
+        }
+        newDriver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(pageLoadTimeout));
+        newDriver.manage().timeouts().implicitlyWait(Duration.ofSeconds(implicitWait));
+        return newDriver;
+    }
+
+    /**
+     * Chrome options for headless execution, shared with the load generator's sessions.
+     */
+    public static ChromeOptions headlessOptions() {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless", "--no-sandbox", "--disable-dev-shm-usage", "--disable-gpu");
+        options.setAcceptInsecureCerts(true);
+        return options;
+    }
 }
@@ -0,0 +1,237 @@
+package utils;
+
+import managers.FileReaderManager;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BrowserContextPool runs many workers inside a few shared Chrome processes.
+ *
+ * With `sharedBrowserProcesses=N` (N > 0), N host browsers are launched on first use. Every worker gets:
+ * - its own isolated browser context in one of the hosts (DevTools `Target.createBrowserContext`,
+ *   the same mechanism as an incognito window), so cookies, storage and cache are not shared;
+ * - its own ChromeDriver session attached to that host through `debuggerAddress` and switched to the
+ *   context's tab, so workers drive their tabs concurrently without sharing a "current window".
+ * All sessions share one chromedriver process.
+ *
+ * Between scenarios renew() swaps the worker's context for a fresh one, which takes milliseconds
+ * and gives the next scenario a clean cookie jar without any reset script. Hosts are assigned round
+ * robin and quit in shutdown().
+ *
+ * Context and attach timings are summarised at shutdown; DriverPool's summary adds scenarios/minute
+ * and memory per worker for comparison with one browser process per worker.
+ */
+public class BrowserContextPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrowserContextPool.class);
+    private static final List<HostBrowser> hosts = new ArrayList<>();
+    private static final Map<WebDriver, Context> contexts = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextHost = new AtomicInteger();
+    private static final AtomicLong contextsCreated = new AtomicLong();
+    private static final AtomicLong contextNanos = new AtomicLong();
+    private static final AtomicLong attaches = new AtomicLong();
+    private static final AtomicLong attachNanos = new AtomicLong();
+    private static ChromeDriverService service;
+
+    public static boolean isEnabled() {
+        return FileReaderManager.getInstance().getConfigReader().getSharedBrowserProcesses() > 0;
+    }
+
+    /**
+     * Attaches a new session to one of the host browsers and gives it a fresh isolated context.
+     * @param hostOptions options used to launch the hosts the first time this is called
+     */
+    public static WebDriver newWorkerDriver(ChromeOptions hostOptions) {
+        HostBrowser host = nextHost(hostOptions);
+        ChromeOptions options = new ChromeOptions();
+        options.setExperimentalOption("debuggerAddress", host.debuggerAddress);
+        long start = System.nanoTime();
+        ChromeDriver driver = new ChromeDriver(service, options);
+        attachNanos.addAndGet(System.nanoTime() - start);
+        attaches.incrementAndGet();
+
+        Context context = host.newContext();
+        driver.switchTo().window(context.targetId);
+        contexts.put(driver, context);
+        return driver;
+    }
+
+    public static boolean owns(WebDriver driver) {
+        return contexts.containsKey(driver);
+    }
+
+    /**
+     * Moves the worker to a brand-new context and throws the old one away with everything in it.
+     */
+    public static void renew(WebDriver driver) {
+        Context old = contexts.get(driver);
+        Context fresh = old.host.newContext();
+        driver.switchTo().window(fresh.targetId);
+        contexts.put(driver, fresh);
+        old.host.dispose(old);
+    }
+
+    /**
+     * @return the handles of the windows in the driver's own context; the attached session can also
+     *         see the tabs of every other worker in the same host
+     */
+    public static Set<String> windowHandles(WebDriver driver) {
+        Context context = contexts.get(driver);
+        if (context == null) {
+            return driver.getWindowHandles();
+        }
+        Set<String> handles = new LinkedHashSet<>();
+        for (Map<String, Object> target : context.host.targets()) {
+            if ("page".equals(target.get("type")) && context.browserContextId.equals(target.get("browserContextId"))) {
+                handles.add((String) target.get("targetId"));
+            }
+        }
+        return handles;
+    }
+
+    /**
+     * Detaches the worker's session and disposes of its context. The host browser keeps running.
+     */
+    public static void close(WebDriver driver) {
+        Context context = contexts.remove(driver);
+        try {
+            driver.quit(); // With debuggerAddress this ends the session without closing the browser
+        } finally {
+            if (context != null) {
+                context.host.dispose(context);
+            }
+        }
+    }
+
+    private static synchronized HostBrowser nextHost(ChromeOptions hostOptions) {
+        int processes = FileReaderManager.getInstance().getConfigReader().getSharedBrowserProcesses();
+        if (service == null) {
+            service = ChromeDriverService.createDefaultService();
+            try {
+                service.start();
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to start chromedriver for shared browser processes", e);
+            }
+        }
+        if (hosts.size() < processes) {
+            hosts.add(new HostBrowser(new ChromeDriver(service, hostOptions)));
+            logger.info("Started shared browser process {} of {}", hosts.size(), processes);
+        }
+        return hosts.get(Math.floorMod(nextHost.getAndIncrement(), hosts.size()));
+    }
+
+    /**
+     * @return the host browsers, whose processes hold every worker's context
+     */
+    static synchronized List<WebDriver> getHostDrivers() {
+        List<WebDriver> drivers = new ArrayList<>();
+        hosts.forEach(host -> drivers.add(host.driver));
+        return drivers;
+    }
+
+    /**
+     * Quits the host browsers and the shared chromedriver, logging the context timings.
+     */
+    public static synchronized void shutdown() {
+        if (hosts.isEmpty()) {
+            return;
+        }
+        new ArrayList<>(contexts.keySet()).forEach(BrowserContextPool::close);
+        logger.info(String.format("Browser contexts: %d shared process(es), %d context(s) avg %.1f ms, %d session attach(es) avg %.1f ms",
+                hosts.size(), contextsCreated.get(), average(contextNanos, contextsCreated),
+                attaches.get(), average(attachNanos, attaches)));
+        for (HostBrowser host : hosts) {
+            try {
+                host.driver.quit();
+            } catch (RuntimeException e) {
+                logger.warn("Unable to quit shared browser process", e);
+            }
+        }
+        hosts.clear();
+        if (service != null) {
+            service.stop();
+            service = null;
+        }
+    }
+
+    private static double average(AtomicLong nanos, AtomicLong count) {
+        return count.get() == 0 ? 0 : nanos.get() / (count.get() * 1_000_000.0);
+    }
+
+    private static class HostBrowser {
+        private final ChromeDriver driver;
+        private final DevTools devTools;
+        private final String debuggerAddress;
+
+        @SuppressWarnings("unchecked")
+        private HostBrowser(ChromeDriver driver) {
+            this.driver = driver;
+            Capabilities capabilities = driver.getCapabilities();
+            this.debuggerAddress = (String) ((Map<String, Object>) capabilities.getCapability("goog:chromeOptions")).get("debuggerAddress");
+            // No page session is attached, so Target commands go to the browser itself
+            this.devTools = driver.getDevTools();
+        }
+
+        private synchronized Context newContext() {
+            long start = System.nanoTime();
+            Map<String, Object> created = send("Target.createBrowserContext", Collections.singletonMap("disposeOnDetach", false));
+            String browserContextId = (String) created.get("browserContextId");
+            Map<String, Object> params = new HashMap<>();
+            params.put("url", "about:blank");
+            params.put("browserContextId", browserContextId);
+            String targetId = (String) send("Target.createTarget", params).get("targetId");
+            contextNanos.addAndGet(System.nanoTime() - start);
+            contextsCreated.incrementAndGet();
+            return new Context(this, browserContextId, targetId);
+        }
+
+        private synchronized void dispose(Context context) {
+            try {
+                send("Target.disposeBrowserContext", Collections.singletonMap("browserContextId", context.browserContextId));
+            } catch (RuntimeException e) {
+                logger.warn("Unable to dispose browser context {}", context.browserContextId, e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized List<Map<String, Object>> targets() {
+            return (List<Map<String, Object>>) send("Target.getTargets", Collections.emptyMap()).get("targetInfos");
+        }
+
+        private Map<String, Object> send(String method, Map<String, Object> params) {
+            return devTools.send(new Command<Map<String, Object>>(method, params, input -> input.read(Json.MAP_TYPE)));
+        }
+    }
+
+    private static class Context {
+        private final HostBrowser host;
+        private final String browserContextId;
+        private final String targetId;
+
+        private Context(HostBrowser host, String browserContextId, String targetId) {
+            this.host = host;
+            this.browserContextId = browserContextId;
+            this.targetId = targetId;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package utils;
+
+import dataProviders.ConfigFileReader;
+import dev.failsafe.CircuitBreaker;
+import dev.failsafe.CircuitBreakerOpenException;
+import dev.failsafe.Failsafe;
+import dev.failsafe.FailsafeException;
+import dev.failsafe.FailsafeExecutor;
+import dev.failsafe.RetryPolicy;
+import dev.failsafe.function.CheckedPredicate;
+import dev.failsafe.function.CheckedRunnable;
+import dev.failsafe.function.CheckedSupplier;
+import managers.FileReaderManager;
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.interactions.MoveTargetOutOfBoundsException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * CommandRetry runs SeleniumHelper actions through a failsafe retry policy and a per-driver circuit breaker.
+ *
+ * Every failure is classified:
+ * - retryable: a stale or intercepted/not-yet-interactable element, or an I/O hiccup between the
+ *   client and the driver. The action (including its element lookup) is retried up to
+ *   `commandRetries` times with jittered exponential backoff from `commandRetryDelayMs` to
+ *   `commandRetryMaxDelayMs`.
+ * - fatal: the browser session is gone (no such session, browser unreachable, tab crashed, driver
+ *   connection refused). Never retried; `commandBreakerFailures` of them open the driver's circuit
+ *   breaker, after which every action on that driver fails immediately for `commandBreakerOpenSeconds`
+ *   instead of spending its explicit wait on a dead session.
+ * - anything else (timeouts after a full wait, assertion failures, application error pages) fails
+ *   at once, as before.
+ *
+ * Not every command may be sent twice. A click or an Enter that submits a form goes through
+ * runOnce(): it is retried only when the browser rejected the command (stale, intercepted, not
+ * interactable element), never after an I/O error, which may have cut off the response of a command
+ * the page already acted on. Commands on a WebElement the caller holds (runOnElement(),
+ * runOnceOnElement()) do not retry a stale element either, since the same reference stays stale;
+ * only the By overloads look the element up again.
+ *
+ * Retries, the time lost to failed attempts and breaker rejections are counted per scenario thread;
+ * Hooks logs them into the scenario with takeScenarioStats().
+ */
+public class CommandRetry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommandRetry.class);
+    private static final Pattern DEAD_BROWSER = Pattern.compile(
+            "chrome not reachable|disconnected: |session deleted|tab crashed|page crash|browser has closed|Connection refused",
+            Pattern.CASE_INSENSITIVE);
+    private static final Map<WebDriver, CommandRetry> byDriver = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Stats> scenarioStats = ThreadLocal.withInitial(Stats::new);
+
+    private final FailsafeExecutor<Object> executor;
+    private final FailsafeExecutor<Object> onceExecutor;
+    private final FailsafeExecutor<Object> elementExecutor;
+    private final FailsafeExecutor<Object> elementOnceExecutor;
+
+    private CommandRetry(WebDriver driver, ConfigFileReader config) {
+        String session = driver.toString();
+        CircuitBreaker<Object> breaker = CircuitBreaker.builder()
+                .handleIf(CommandRetry::isFatal)
+                .withFailureThreshold(config.getCommandBreakerFailures())
+                .withDelay(Duration.ofSeconds(config.getCommandBreakerOpenSeconds()))
+                .onOpen(event -> logger.warn("Browser session {} looks dead, failing its commands fast", session))
+                .build();
+        // One breaker per driver, whichever retry policy the command uses
+        this.executor = executor(config, CommandRetry::isRetryable, breaker);
+        this.onceExecutor = executor(config, CommandRetry::isRejected, breaker);
+        this.elementExecutor = executor(config, failure -> isRetryable(failure) && !(failure instanceof StaleElementReferenceException), breaker);
+        this.elementOnceExecutor = executor(config, failure -> isRejected(failure) && !(failure instanceof StaleElementReferenceException), breaker);
+    }
+
+    private static FailsafeExecutor<Object> executor(ConfigFileReader config, CheckedPredicate<Throwable> retryable,
+                                                     CircuitBreaker<Object> breaker) {
+        RetryPolicy<Object> retryPolicy = RetryPolicy.builder()
+                .handleIf(retryable)
+                .withMaxRetries(config.getCommandRetries())
+                .withBackoff(Duration.ofMillis(config.getCommandRetryDelayMs()), Duration.ofMillis(config.getCommandRetryMaxDelayMs()))
+                .withJitter(0.5)
+                .onRetry(event -> logger.info("Retrying command after {} (attempt {})",
+                        event.getLastException().getClass().getSimpleName(), event.getAttemptCount() + 1))
+                .build();
+        // The breaker is innermost, so every attempt is checked against it and its rejection is not retried
+        return Failsafe.with(retryPolicy).compose(breaker);
+    }
+
+    /**
+     * @return the retry executor of the driver, shared by every helper that drives it
+     */
+    public static CommandRetry of(WebDriver driver) {
+        return byDriver.computeIfAbsent(driver, d -> new CommandRetry(d, FileReaderManager.getInstance().getConfigReader()));
+    }
+
+    /**
+     * Sets up the driver's retry executor from the given config instead of the calling thread's
+     * environment, e.g. for benchmarks and tests that build their own driver.
+     */
+    public static CommandRetry register(WebDriver driver, ConfigFileReader config) {
+        CommandRetry retry = new CommandRetry(driver, config);
+        byDriver.put(driver, retry);
+        return retry;
+    }
+
+    /**
+     * Drops the driver's breaker when the driver is quit.
+     */
+    public static void forget(WebDriver driver) {
+        byDriver.remove(driver);
+    }
+
+    /**
+     * Runs an idempotent action that looks its element up itself.
+     */
+    public void run(CheckedRunnable action) {
+        run(executor, action);
+    }
+
+    /**
+     * Runs an action that must not take effect twice, e.g. a click, retried only when the browser rejected it.
+     */
+    public void runOnce(CheckedRunnable action) {
+        run(onceExecutor, action);
+    }
+
+    /**
+     * Runs an idempotent action on an element the caller holds; a stale element is not retried.
+     */
+    public void runOnElement(CheckedRunnable action) {
+        run(elementExecutor, action);
+    }
+
+    /**
+     * Runs an action that must not take effect twice on an element the caller holds.
+     */
+    public void runOnceOnElement(CheckedRunnable action) {
+        run(elementOnceExecutor, action);
+    }
+
+    public <T> T get(CheckedSupplier<T> action) {
+        return call(executor, action);
+    }
+
+    private void run(FailsafeExecutor<Object> executor, CheckedRunnable action) {
+        call(executor, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T call(FailsafeExecutor<Object> executor, CheckedSupplier<T> action) {
+        Stats stats = scenarioStats.get();
+        long start = System.nanoTime();
+        long[] lastAttemptStart = {start};
+        int[] attempts = {0};
+        try {
+            return (T) executor.get(context -> {
+                lastAttemptStart[0] = System.nanoTime();
+                attempts[0] = context.getAttemptCount() + 1;
+                return action.get();
+            });
+        } catch (CircuitBreakerOpenException e) {
+            stats.rejected++;
+            throw new RuntimeException("Browser session is not responding, command skipped", e);
+        } catch (FailsafeException e) {
+            throw new RuntimeException(e.getCause()); // A checked exception of the action
+        } finally {
+            if (attempts[0] > 1) {
+                stats.commandsRetried++;
+                stats.retries += attempts[0] - 1;
+                stats.retryNanos += lastAttemptStart[0] - start;
+            }
+        }
+    }
+
+    static boolean isFatal(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof NoSuchSessionException || t instanceof SessionNotCreatedException
+                    || t instanceof UnreachableBrowserException || t instanceof ConnectException) {
+                return true;
+            }
+            if (t instanceof WebDriverException && t.getMessage() != null && DEAD_BROWSER.matcher(t.getMessage()).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isRetryable(Throwable failure) {
+        return isRejected(failure)
+                || (!isFatal(failure) && failure instanceof WebDriverException && failure.getCause() instanceof IOException);
+    }
+
+    /**
+     * @return true when the browser refused the command before acting on it, so sending it again cannot repeat it
+     */
+    static boolean isRejected(Throwable failure) {
+        if (isFatal(failure)) {
+            return false;
+        }
+        return failure instanceof StaleElementReferenceException
+                || failure instanceof ElementClickInterceptedException
+                || failure instanceof ElementNotInteractableException
+                || failure instanceof MoveTargetOutOfBoundsException;
+    }
+
+    /**
+     * @return the calling scenario thread's retry figures since the last call, or null when nothing was retried
+     */
+    public static String takeScenarioStats() {
+        Stats stats = scenarioStats.get();
+        scenarioStats.remove();
+        if (stats.retries == 0 && stats.rejected == 0) {
+            return null;
+        }
+        return String.format("Command retries: %d retr%s over %d command(s), %d ms spent on failed attempts%s",
+                stats.retries, stats.retries == 1 ? "y" : "ies", stats.commandsRetried, stats.retryNanos / 1_000_000,
+                stats.rejected == 0 ? "" : ", " + stats.rejected + " command(s) rejected by the open circuit breaker");
+    }
+
+    private static class Stats {
+        private int commandsRetried;
+        private int retries;
+        private long retryNanos;
+        private int rejected;
+    }
+}
@@ -0,0 +1,92 @@
+package utils;
+
+import dataProviders.ConfigFileReader;
+import dev.failsafe.function.CheckedRunnable;
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class CommandRetryTest {
+
+    private WebDriver driver;
+
+    @BeforeMethod
+    public void setUp() {
+        driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{WebDriver.class},
+                (proxy, method, args) -> method.getName().equals("equals") ? proxy == args[0]
+                        : method.getName().equals("hashCode") ? System.identityHashCode(proxy) : null);
+        CommandRetry.takeScenarioStats();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        CommandRetry.forget(driver);
+    }
+
+    @Test
+    public void registeredExecutorIsSharedByTheDriversHelpers() {
+        CommandRetry registered = CommandRetry.register(driver, new ConfigFileReader());
+        Assert.assertSame(CommandRetry.of(driver), registered);
+    }
+
+    @Test
+    public void staleElementIsRetriedUpToTheConfiguredCount() {
+        ConfigFileReader config = new ConfigFileReader();
+        CommandRetry retry = CommandRetry.register(driver, config);
+        int[] calls = {0};
+        Assert.assertThrows(StaleElementReferenceException.class, () -> retry.run(() -> {
+            calls[0]++;
+            throw new StaleElementReferenceException("stale");
+        }));
+        Assert.assertEquals(calls[0], config.getCommandRetries() + 1);
+        Assert.assertNotNull(CommandRetry.takeScenarioStats());
+    }
+
+    @Test
+    public void ioErrorIsRetriedOnlyForIdempotentCommands() {
+        CommandRetry retry = CommandRetry.register(driver, new ConfigFileReader());
+        Supplier<RuntimeException> ioError = () -> new WebDriverException(new IOException("connection reset"));
+
+        Assert.assertEquals(attempts(retry::run, ioError), new ConfigFileReader().getCommandRetries() + 1);
+        Assert.assertEquals(attempts(retry::runOnce, ioError), 1, "the click may have gone through");
+        Assert.assertEquals(attempts(retry::runOnceOnElement, ioError), 1);
+    }
+
+    @Test
+    public void staleElementIsRetriedOnlyWhenLookedUpAgain() {
+        CommandRetry retry = CommandRetry.register(driver, new ConfigFileReader());
+        int retries = new ConfigFileReader().getCommandRetries();
+        Supplier<RuntimeException> stale = () -> new StaleElementReferenceException("stale");
+
+        Assert.assertEquals(attempts(retry::runOnce, stale), retries + 1, "the browser rejected the command");
+        Assert.assertEquals(attempts(retry::runOnElement, stale), 1);
+        Assert.assertEquals(attempts(retry::runOnceOnElement, stale), 1);
+    }
+
+    @Test
+    public void interceptedClickOnAHeldElementIsRetried() {
+        CommandRetry retry = CommandRetry.register(driver, new ConfigFileReader());
+
+        Assert.assertEquals(attempts(retry::runOnceOnElement, () -> new ElementClickInterceptedException("overlay")),
+                new ConfigFileReader().getCommandRetries() + 1);
+    }
+
+    private static int attempts(Consumer<CheckedRunnable> run, Supplier<RuntimeException> failure) {
+        int[] calls = {0};
+        Assert.assertThrows(RuntimeException.class, () -> run.accept(() -> {
+            calls[0]++;
+            throw failure.get();
+        }));
+        return calls[0];
+    }
+}
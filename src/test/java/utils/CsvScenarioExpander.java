@@ -0,0 +1,226 @@
+package utils;
+
+import dataProviders.CsvDataSource;
+import distributed.ResultCollector;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import managers.FileReaderManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * CsvScenarioExpander turns a scenario tagged `@csv:<name>` into one TestNG invocation per row of
+ * the named CsvDataSource, so a single scenario replaces a hand-written `Examples:` table.
+ *
+ * Only the row count is read here (a streaming pass). Each invocation is a CsvRowScenario carrying
+ * its row index, which also appears in the TestNG and report names. The row reaches the scenario
+ * thread in one of two ways, and Hooks binds it in `@Before` with takeRow():
+ * - TestNG runners call bindInvocation() with the invocation before running it.
+ * - Plain Cucumber runs (distributed workers) assign() rows by scenario location beforehand.
+ * A tagged scenario started without either gets the first row.
+ *
+ * Failed rows are written to `target/failed_csv_rows.txt` next to the rerun file, so
+ * FailedScenarioRunner repeats only the rows that failed.
+ */
+public class CsvScenarioExpander {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvScenarioExpander.class);
+    public static final String CSV_TAG_PREFIX = "@csv:";
+    public static final File FAILED_ROWS_FILE = new File("target/failed_csv_rows.txt");
+    private static final ThreadLocal<Integer> invocationRow = new ThreadLocal<>();
+    private static final Map<String, Queue<Integer>> assignedRows = new ConcurrentHashMap<>();
+    private static final List<String> failedRows = new CopyOnWriteArrayList<>();
+
+    public static Object[][] expand(Object[][] scenarios) {
+        List<Object[]> expanded = new ArrayList<>();
+        for (Object[] scenario : scenarios) {
+            PickleWrapper pickle = (PickleWrapper) scenario[0];
+            String source = getSourceName(pickle.getPickle().getTags());
+            if (source == null) {
+                expanded.add(scenario);
+                continue;
+            }
+            long rows = CsvDataSource.get(source, FileReaderManager.getInstance().getConfigReader()).count();
+            for (int row = 0; row < rows; row++) {
+                expanded.add(new Object[]{new CsvRowScenario(pickle, row), scenario[1]});
+            }
+        }
+        return expanded.toArray(new Object[0][]);
+    }
+
+    /**
+     * Like expand(), but keeps only the rows listed for each scenario in the failed rows file.
+     * Scenarios without listed rows get all their rows.
+     */
+    public static Object[][] expandFailed(Object[][] scenarios, File failedRowsFile) {
+        Map<String, Set<Integer>> failed = readFailedRows(failedRowsFile);
+        List<Object[]> expanded = new ArrayList<>();
+        for (Object[] scenario : expand(scenarios)) {
+            CsvRowScenario row = rowOf((PickleWrapper) scenario[0]);
+            Set<Integer> rows = row == null ? null : failed.get(location(row.getPickle()));
+            if (rows == null || rows.contains(row.getRow())) {
+                expanded.add(scenario);
+            }
+        }
+        return expanded.toArray(new Object[0][]);
+    }
+
+    /**
+     * @return the data source named by the first `@csv:` tag, or null when there is none
+     */
+    public static String getSourceName(Iterable<String> tags) {
+        for (String tag : tags) {
+            if (tag.startsWith(CSV_TAG_PREFIX)) {
+                return tag.substring(CSV_TAG_PREFIX.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the CSV row invocation, unwrapping device and environment matrix copies, or null
+     */
+    public static CsvRowScenario rowOf(PickleWrapper pickle) {
+        if (pickle instanceof DeviceMatrixExpander.DeviceScenario) {
+            return rowOf(((DeviceMatrixExpander.DeviceScenario) pickle).getPickleWrapper());
+        }
+        if (pickle instanceof EnvironmentMatrixExpander.EnvironmentScenario) {
+            return rowOf(((EnvironmentMatrixExpander.EnvironmentScenario) pickle).getPickleWrapper());
+        }
+        return pickle instanceof CsvRowScenario ? (CsvRowScenario) pickle : null;
+    }
+
+    /**
+     * Hands the invocation's row to the scenario that the calling thread runs next.
+     */
+    public static void bindInvocation(PickleWrapper pickle) {
+        CsvRowScenario row = rowOf(pickle);
+        if (row == null) {
+            invocationRow.remove();
+        } else {
+            invocationRow.set(row.getRow());
+        }
+    }
+
+    public static void unbindInvocation() {
+        invocationRow.remove();
+    }
+
+    /**
+     * Queues a row for the next run of the scenario at the location, for runs without TestNG invocations.
+     */
+    public static void assign(String location, int row) {
+        assignedRows.computeIfAbsent(location, l -> new ConcurrentLinkedQueue<>()).add(row);
+    }
+
+    /**
+     * @return the row for the scenario starting on the calling thread: its invocation's row, the next
+     * row assigned to its location, or the first row
+     */
+    public static int takeRow(String location) {
+        Integer row = invocationRow.get();
+        if (row != null) {
+            invocationRow.remove();
+            return row;
+        }
+        Queue<Integer> assigned = assignedRows.get(location);
+        row = assigned == null ? null : assigned.poll();
+        return row == null ? 0 : row;
+    }
+
+    /**
+     * @return the suffix that tells the invocations of one CSV scenario apart, e.g. " [row 3]"
+     */
+    public static String rowLabel(int row) {
+        return " [row " + (row + 1) + "]";
+    }
+
+    public static void recordFailedRow(String location, int row) {
+        failedRows.add(location + " " + row);
+    }
+
+    /**
+     * Writes the failed rows of this run; an empty run removes the previous file.
+     */
+    public static void writeFailedRows() {
+        try {
+            if (failedRows.isEmpty()) {
+                Files.deleteIfExists(FAILED_ROWS_FILE.toPath());
+                return;
+            }
+            FAILED_ROWS_FILE.getParentFile().mkdirs();
+            Files.write(FAILED_ROWS_FILE.toPath(), failedRows);
+        } catch (IOException e) {
+            logger.warn("Unable to write failed CSV rows to {}", FAILED_ROWS_FILE, e);
+        } finally {
+            failedRows.clear();
+        }
+    }
+
+    static Map<String, Set<Integer>> readFailedRows(File file) {
+        Map<String, Set<Integer>> rows = new LinkedHashMap<>();
+        if (!file.exists()) {
+            return rows;
+        }
+        try {
+            for (String line : Files.readAllLines(file.toPath())) {
+                int space = line.lastIndexOf(' ');
+                if (space > 0) {
+                    rows.computeIfAbsent(line.substring(0, space), l -> new TreeSet<>())
+                            .add(Integer.parseInt(line.substring(space + 1).trim()));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new RuntimeException("Unable to read failed CSV rows from " + file, e);
+        }
+        return rows;
+    }
+
+    private static String location(Pickle pickle) {
+        return ResultCollector.location(pickle.getUri(), pickle.getLine());
+    }
+
+    /**
+     * A scenario invocation bound to one row of its CSV data source.
+     */
+    public static class CsvRowScenario implements PickleWrapper {
+        private final PickleWrapper pickle;
+        private final int row;
+
+        CsvRowScenario(PickleWrapper pickle, int row) {
+            this.pickle = pickle;
+            this.row = row;
+        }
+
+        @Override
+        public Pickle getPickle() {
+            return pickle.getPickle();
+        }
+
+        /**
+         * @return the 0-based row index within this JVM's shard of the data source
+         */
+        public int getRow() {
+            return row;
+        }
+
+        @Override
+        public String toString() {
+            return pickle + rowLabel(row); // Shown as the TestNG parameter
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package utils;
+
+import io.cucumber.testng.PickleWrapper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+public class CsvScenarioExpanderTest {
+
+    private static final PickleWrapper PICKLE = () -> null;
+
+    @Test
+    public void rowIsFoundThroughMatrixCopies() {
+        CsvScenarioExpander.CsvRowScenario row = new CsvScenarioExpander.CsvRowScenario(PICKLE, 4);
+        PickleWrapper copy = new DeviceMatrixExpander.DeviceScenario(new EnvironmentMatrixExpander.EnvironmentScenario(row, "UAT"), null);
+
+        Assert.assertSame(CsvScenarioExpander.rowOf(copy), row);
+        Assert.assertNull(CsvScenarioExpander.rowOf(PICKLE));
+        Assert.assertTrue(row.toString().endsWith(" [row 5]"), row.toString());
+    }
+
+    @Test
+    public void invocationRowWinsOverAssignedRows() {
+        CsvScenarioExpander.assign("feature/login_data.feature:9", 2);
+        CsvScenarioExpander.bindInvocation(new CsvScenarioExpander.CsvRowScenario(PICKLE, 5));
+
+        Assert.assertEquals(CsvScenarioExpander.takeRow("feature/login_data.feature:9"), 5);
+        Assert.assertEquals(CsvScenarioExpander.takeRow("feature/login_data.feature:9"), 2, "then the assigned row");
+        Assert.assertEquals(CsvScenarioExpander.takeRow("feature/login_data.feature:9"), 0, "then the first row");
+    }
+
+    @Test
+    public void failedRowsAreReadBack() throws IOException {
+        File file = File.createTempFile("failed_csv_rows", ".txt");
+        try {
+            Files.write(file.toPath(), Arrays.asList("feature/login_data.feature:9 3", "feature/login_data.feature:9 0", "feature/other.feature:4 1"));
+            Map<String, Set<Integer>> rows = CsvScenarioExpander.readFailedRows(file);
+            Assert.assertEquals(rows.get("feature/login_data.feature:9"), Set.of(0, 3));
+            Assert.assertEquals(rows.get("feature/other.feature:4"), Set.of(1));
+        } finally {
+            file.delete();
+        }
+    }
+}
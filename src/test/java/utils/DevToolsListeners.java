@@ -0,0 +1,71 @@
+package utils;
+
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.json.Json;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * DevToolsListeners lets the recorders of a driver share its DevTools connection.
+ *
+ * Selenium can only clear every listener of a connection at once, so a recorder stopping with
+ * devTools.clearListeners() would silence the others (ScreencastRecorder and StepTraceRecorder run
+ * side by side). Here each event gets a single Selenium listener that hands the event to the
+ * handlers currently subscribed, and a recorder cancels only its own subscriptions.
+ */
+final class DevToolsListeners {
+
+    private static final Map<DevTools, DevToolsListeners> byConnection = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribes the handler to the DevTools event, e.g. "Page.screencastFrame".
+     */
+    static Subscription subscribe(DevTools devTools, String event, Consumer<Map<String, Object>> handler) {
+        return byConnection.computeIfAbsent(devTools, d -> new DevToolsListeners()).subscribe(event, handler,
+                dispatcher -> devTools.addListener(new Event<Map<String, Object>>(event, input -> input.read(Json.MAP_TYPE)), dispatcher));
+    }
+
+    /**
+     * @param register adds the event's Selenium listener; called for the first subscription of the event only
+     */
+    Subscription subscribe(String event, Consumer<Map<String, Object>> handler,
+                           Consumer<Consumer<Map<String, Object>>> register) {
+        List<Subscription> handlers = subscriptions.computeIfAbsent(event, name -> {
+            List<Subscription> subscribed = new CopyOnWriteArrayList<>();
+            register.accept(data -> subscribed.forEach(subscription -> subscription.handler.accept(data)));
+            return subscribed;
+        });
+        Subscription subscription = new Subscription(handlers, handler);
+        handlers.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * One handler's registration for one event.
+     */
+    static final class Subscription {
+        private final List<Subscription> handlers;
+        private final Consumer<Map<String, Object>> handler;
+
+        private Subscription(List<Subscription> handlers, Consumer<Map<String, Object>> handler) {
+            this.handlers = handlers;
+            this.handler = handler;
+        }
+
+        /**
+         * Stops delivering the event to this handler; the other subscribers keep receiving it.
+         */
+        void cancel() {
+            handlers.remove(this);
+        }
+    }
+}
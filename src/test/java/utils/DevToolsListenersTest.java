@@ -0,0 +1,67 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class DevToolsListenersTest {
+
+    private DevToolsListeners listeners;
+    private Map<String, Consumer<Map<String, Object>>> registered;
+
+    @BeforeMethod
+    public void setUp() {
+        listeners = new DevToolsListeners();
+        registered = new HashMap<>();
+    }
+
+    @Test
+    public void cancellingOneSubscriptionKeepsTheOthers() {
+        List<Object> screencast = new ArrayList<>();
+        List<Object> trace = new ArrayList<>();
+        DevToolsListeners.Subscription frames = subscribe("Page.screencastFrame", screencast::add);
+        subscribe("Tracing.dataCollected", trace::add);
+        DevToolsListeners.Subscription second = subscribe("Tracing.dataCollected", trace::add);
+
+        Assert.assertEquals(registered.size(), 2, "one Selenium listener per event");
+        fire("Page.screencastFrame");
+        fire("Tracing.dataCollected");
+        Assert.assertEquals(screencast.size(), 1);
+        Assert.assertEquals(trace.size(), 2);
+
+        frames.cancel();
+        second.cancel();
+        fire("Page.screencastFrame");
+        fire("Tracing.dataCollected");
+        Assert.assertEquals(screencast.size(), 1, "a cancelled handler receives nothing");
+        Assert.assertEquals(trace.size(), 3, "the remaining tracing handler still receives its events");
+    }
+
+    @Test
+    public void resubscribingReusesTheEventsListener() {
+        List<Object> received = new ArrayList<>();
+        subscribe("Page.screencastFrame", received::add).cancel();
+        subscribe("Page.screencastFrame", received::add);
+
+        fire("Page.screencastFrame");
+        Assert.assertEquals(registered.size(), 1);
+        Assert.assertEquals(received.size(), 1);
+    }
+
+    private DevToolsListeners.Subscription subscribe(String event, Consumer<Map<String, Object>> handler) {
+        return listeners.subscribe(event, handler, dispatcher -> {
+            Assert.assertNull(registered.put(event, dispatcher), "registered twice: " + event);
+        });
+    }
+
+    private void fire(String event) {
+        registered.get(event).accept(Collections.singletonMap("event", event));
+    }
+}
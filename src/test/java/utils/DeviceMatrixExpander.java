@@ -0,0 +1,62 @@
+package utils;
+
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DeviceMatrixExpander turns every scenario invocation into one invocation per device profile.
+ *
+ * Each copy carries its profile in a DeviceScenario wrapper, which DeviceMatrixRunner binds to the
+ * scenario thread before Cucumber runs it. A CSV row invocation keeps its row in every copy, so
+ * each data row runs on every profile.
+ */
+public class DeviceMatrixExpander {
+
+    public static Object[][] expand(Object[][] scenarios, List<DeviceProfile> profiles) {
+        if (profiles.isEmpty()) {
+            return scenarios;
+        }
+        List<Object[]> expanded = new ArrayList<>();
+        for (Object[] scenario : scenarios) {
+            PickleWrapper pickle = (PickleWrapper) scenario[0];
+            for (DeviceProfile profile : profiles) {
+                expanded.add(new Object[]{new DeviceScenario(pickle, profile), scenario[1]});
+            }
+        }
+        return expanded.toArray(new Object[0][]);
+    }
+
+    /**
+     * A scenario invocation bound to one device profile.
+     */
+    public static class DeviceScenario implements PickleWrapper {
+        private final PickleWrapper pickle;
+        private final DeviceProfile profile;
+
+        DeviceScenario(PickleWrapper pickle, DeviceProfile profile) {
+            this.pickle = pickle;
+            this.profile = profile;
+        }
+
+        @Override
+        public Pickle getPickle() {
+            return pickle.getPickle();
+        }
+
+        public DeviceProfile getProfile() {
+            return profile;
+        }
+
+        public PickleWrapper getPickleWrapper() {
+            return pickle;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + profile.getName() + "] " + pickle; // Shown as the TestNG parameter
+        }
+    }
+}
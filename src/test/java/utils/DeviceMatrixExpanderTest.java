@@ -0,0 +1,82 @@
+package utils;
+
+import dataProviders.ConfigFileReader;
+import io.cucumber.testng.PickleWrapper;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class DeviceMatrixExpanderTest {
+
+    private static final DeviceProfile DESKTOP = new DeviceProfile("desktop", 1366, 768, 1, false, false, null);
+    private static final DeviceProfile PHONE = new DeviceProfile("phone", 390, 844, 3, true, true, "PhoneAgent/1.0");
+
+    @Test
+    public void everyInvocationRunsOncePerProfile() {
+        PickleWrapper first = () -> null;
+        PickleWrapper second = () -> null;
+        Object feature = new Object();
+        Object[][] expanded = DeviceMatrixExpander.expand(new Object[][]{{first, feature}, {second, feature}}, Arrays.asList(DESKTOP, PHONE));
+
+        Assert.assertEquals(expanded.length, 4);
+        String[] profiles = {"desktop", "phone", "desktop", "phone"};
+        PickleWrapper[] pickles = {first, first, second, second};
+        for (int i = 0; i < expanded.length; i++) {
+            DeviceMatrixExpander.DeviceScenario scenario = (DeviceMatrixExpander.DeviceScenario) expanded[i][0];
+            Assert.assertEquals(scenario.getProfile().getName(), profiles[i]);
+            Assert.assertSame(scenario.getPickleWrapper(), pickles[i]);
+            Assert.assertSame(expanded[i][1], feature);
+        }
+    }
+
+    @Test
+    public void csvRowIsKeptInEveryProfileCopy() {
+        CsvScenarioExpander.CsvRowScenario row = new CsvScenarioExpander.CsvRowScenario(() -> null, 2);
+        Object[][] expanded = DeviceMatrixExpander.expand(new Object[][]{{row, null}}, Arrays.asList(DESKTOP, PHONE));
+
+        for (Object[] scenario : expanded) {
+            Assert.assertSame(CsvScenarioExpander.rowOf((PickleWrapper) scenario[0]), row);
+        }
+    }
+
+    @Test
+    public void emptyMatrixLeavesTheScenariosAlone() {
+        Object[][] scenarios = {{(PickleWrapper) () -> null, null}};
+        Assert.assertSame(DeviceMatrixExpander.expand(scenarios, Collections.emptyList()), scenarios);
+    }
+
+    @Test
+    public void profilesAreReadFromTheEnvironmentFile() {
+        List<DeviceProfile> profiles = DeviceProfile.matrixFromConfig(new ConfigFileReader());
+
+        Assert.assertEquals(profiles.stream().map(DeviceProfile::getName).collect(Collectors.toList()),
+                Arrays.asList("desktop", "iphone", "pixel"));
+        Assert.assertEquals(profiles.get(1).toString(), "iphone (390x844@3.0, mobile)");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> metrics = (Map<String, Object>) profiles.get(1).toMobileEmulation().get("deviceMetrics");
+        Assert.assertEquals(metrics.get("touch"), true, "touch defaults to the mobile flag");
+        Assert.assertTrue(((String) profiles.get(1).toMobileEmulation().get("userAgent")).contains("iPhone"));
+    }
+
+    @Test
+    public void profileIsBoundToTheScenarioThread() throws InterruptedException {
+        DeviceProfile.bind(PHONE);
+        try {
+            DeviceProfile[] seenElsewhere = new DeviceProfile[1];
+            Thread other = new Thread(() -> seenElsewhere[0] = DeviceProfile.current());
+            other.start();
+            other.join();
+
+            Assert.assertSame(DeviceProfile.current(), PHONE);
+            Assert.assertNull(seenElsewhere[0]);
+        } finally {
+            DeviceProfile.unbind();
+        }
+        Assert.assertNull(DeviceProfile.current());
+    }
+}
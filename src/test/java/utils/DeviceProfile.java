@@ -0,0 +1,198 @@
+package utils;
+
+import dataProviders.ConfigFileReader;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DeviceProfile is one entry of the device matrix: viewport, pixel ratio, touch and user agent.
+ *
+ * Profiles are read from the environment file:
+ *   deviceMatrix=desktop,iphone
+ *   device.iphone.width=390
+ *   device.iphone.height=844
+ *   device.iphone.pixelRatio=3
+ *   device.iphone.mobile=true
+ *   device.iphone.touch=true          (defaults to the mobile flag)
+ *   device.iphone.userAgent=...       (optional)
+ *
+ * A profile is applied in one of two ways:
+ * - apply() switches an already running Chrome session to the profile through the DevTools
+ *   Emulation domain, so matrix scenarios reuse warm drivers from DriverPool; clear() undoes it
+ *   before the driver goes to the next scenario.
+ * - toMobileEmulation() gives the `mobileEmulation` Chrome option for a browser launched for one
+ *   device only (browser=Iphone).
+ *
+ * DeviceMatrixRunner binds the profile of each scenario invocation to its thread with bind().
+ */
+public class DeviceProfile {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeviceProfile.class);
+    private static final ThreadLocal<DeviceProfile> current = new ThreadLocal<>();
+    private static final Set<WebDriver> emulating = ConcurrentHashMap.newKeySet();
+
+    private final String name;
+    private final int width;
+    private final int height;
+    private final double pixelRatio;
+    private final boolean mobile;
+    private final boolean touch;
+    private final String userAgent;
+
+    public DeviceProfile(String name, int width, int height, double pixelRatio, boolean mobile, boolean touch, String userAgent) {
+        this.name = name;
+        this.width = width;
+        this.height = height;
+        this.pixelRatio = pixelRatio;
+        this.mobile = mobile;
+        this.touch = touch;
+        this.userAgent = userAgent;
+    }
+
+    public static DeviceProfile fromConfig(ConfigFileReader config, String name) {
+        String prefix = "device." + name + ".";
+        boolean mobile = Boolean.parseBoolean(config.getProperty(prefix + "mobile", "false"));
+        return new DeviceProfile(name,
+                Integer.parseInt(config.getProperty(prefix + "width")),
+                Integer.parseInt(config.getProperty(prefix + "height")),
+                Double.parseDouble(config.getProperty(prefix + "pixelRatio", "1")),
+                mobile,
+                Boolean.parseBoolean(config.getProperty(prefix + "touch", String.valueOf(mobile))),
+                config.getProperty(prefix + "userAgent", null));
+    }
+
+    /**
+     * @return the profiles listed in `deviceMatrix`, in order
+     */
+    public static List<DeviceProfile> matrixFromConfig(ConfigFileReader config) {
+        List<DeviceProfile> profiles = new ArrayList<>();
+        for (String name : config.getDeviceMatrix()) {
+            profiles.add(fromConfig(config, name));
+        }
+        return profiles;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // ================================
+    // THREAD BINDING
+    // ================================
+
+    public static void bind(DeviceProfile profile) {
+        current.set(profile);
+    }
+
+    public static void unbind() {
+        current.remove();
+    }
+
+    /**
+     * @return the profile of the scenario running on this thread, or null outside the device matrix
+     */
+    public static DeviceProfile current() {
+        return current.get();
+    }
+
+    // ================================
+    // EMULATION
+    // ================================
+
+    /**
+     * Emulates this device in the driver's current page session.
+     */
+    public void apply(WebDriver driver) {
+        if (!(driver instanceof HasDevTools)) {
+            logger.warn("Device profile '{}' needs DevTools, {} runs without emulation", name, driver.getClass().getSimpleName());
+            return;
+        }
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("width", width);
+        metrics.put("height", height);
+        metrics.put("deviceScaleFactor", pixelRatio);
+        metrics.put("mobile", mobile);
+        devTools.send(new Command<Void>("Emulation.setDeviceMetricsOverride", metrics));
+        setTouch(devTools, touch);
+        if (userAgent != null) {
+            devTools.send(new Command<Void>("Emulation.setUserAgentOverride", Collections.singletonMap("userAgent", userAgent)));
+        }
+        emulating.add(driver);
+    }
+
+    /**
+     * Removes any device emulation applied to the driver, so it can serve a scenario without a profile.
+     */
+    public static void clear(WebDriver driver) {
+        if (!emulating.remove(driver)) {
+            return;
+        }
+        try {
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            devTools.send(new Command<Void>("Emulation.clearDeviceMetricsOverride", Collections.emptyMap()));
+            setTouch(devTools, false);
+            // An empty user agent removes the override
+            devTools.send(new Command<Void>("Emulation.setUserAgentOverride", Collections.singletonMap("userAgent", "")));
+        } catch (RuntimeException e) {
+            logger.debug("Unable to clear device emulation", e);
+        }
+    }
+
+    /**
+     * Drops the driver from the emulation bookkeeping when it is quit.
+     */
+    public static void forget(WebDriver driver) {
+        emulating.remove(driver);
+    }
+
+    private static void setTouch(DevTools devTools, boolean enabled) {
+        Map<String, Object> touchParams = new HashMap<>();
+        touchParams.put("enabled", enabled);
+        if (enabled) {
+            touchParams.put("maxTouchPoints", 5);
+        }
+        devTools.send(new Command<Void>("Emulation.setTouchEmulationEnabled", touchParams));
+        Map<String, Object> mouseParams = new HashMap<>();
+        mouseParams.put("enabled", enabled);
+        mouseParams.put("configuration", "mobile");
+        devTools.send(new Command<Void>("Emulation.setEmitTouchEventsForMouse", mouseParams));
+    }
+
+    /**
+     * @return the `mobileEmulation` Chrome option for a browser dedicated to this device
+     */
+    public Map<String, Object> toMobileEmulation() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("width", width);
+        metrics.put("height", height);
+        metrics.put("pixelRatio", pixelRatio);
+        metrics.put("mobile", mobile);
+        metrics.put("touch", touch);
+        Map<String, Object> emulation = new HashMap<>();
+        emulation.put("deviceMetrics", metrics);
+        if (userAgent != null) {
+            emulation.put("userAgent", userAgent);
+        }
+        return emulation;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + width + "x" + height + "@" + pixelRatio + (mobile ? ", mobile" : "") + ")";
+    }
+}
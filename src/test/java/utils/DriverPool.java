@@ -0,0 +1,215 @@
+package utils;
+
+import dataProviders.ConfigFileReader;
+import loadTesting.LoadGenerator;
+import managers.FileReaderManager;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.EnvUtility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * DriverPool keeps one browser session per worker thread alive across scenarios.
+ *
+ * - With `reuseDrivers=true` (and always during a load run) BaseTest takes its driver from
+ *   acquire(), and Hooks hands it back with release() instead of quitting it.
+ * - release() resets the session for the next scenario (extra windows closed, cookies and web storage
+ *   cleared) unless MemoryWatchdog says it has grown too large, in which case it is quit and the
+ *   thread's next scenario launches a fresh one.
+ * - Without reuse, release() still lets the watchdog sample the driver before quitting it, so the
+ *   memory report covers every driver when `memoryWatchdog=true`.
+ * - With `sharedBrowserProcesses` set, drivers are sessions inside BrowserContextPool's shared
+ *   browsers; release() then swaps the worker into a fresh browser context instead of resetting it.
+ * - A driver belongs to the environment it was launched for; in an environment matrix run acquire()
+ *   quits it and launches a new one when its thread's next scenario targets another environment.
+ *
+ * quitAll() closes whatever is still open at the end of the run and logs launch cost, scenarios
+ * per minute and browser memory per worker, so the two modes can be compared on the same agent.
+ */
+public class DriverPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverPool.class);
+    private static final ThreadLocal<PooledDriver> current = new ThreadLocal<>();
+    private static final Map<WebDriver, PooledDriver> live = new ConcurrentHashMap<>();
+    private static final AtomicInteger driverIds = new AtomicInteger();
+    private static final AtomicLong launchNanos = new AtomicLong();
+    private static final AtomicLong scenarios = new AtomicLong();
+    private static volatile long firstLaunchAt;
+    private static volatile MemoryWatchdog watchdog;
+
+    public static boolean isReusing() {
+        return LoadGenerator.isRunning() || BrowserContextPool.isEnabled()
+                || FileReaderManager.getInstance().getConfigReader().isReuseDrivers();
+    }
+
+    /**
+     * @return the calling thread's live driver, or a new one from the factory
+     */
+    public static WebDriver acquire(Supplier<WebDriver> factory) {
+        PooledDriver pooled = current.get();
+        String environment = EnvUtility.getTestEnvironment();
+        if (pooled != null && live.containsKey(pooled.driver) && !Objects.equals(pooled.environment, environment)) {
+            logger.info("Replacing {} of environment {} for a scenario on {}", pooled.id, pooled.environment, environment);
+            quit(pooled.driver);
+        }
+        if (pooled == null || !live.containsKey(pooled.driver)) {
+            long start = System.nanoTime();
+            if (firstLaunchAt == 0) {
+                firstLaunchAt = System.currentTimeMillis();
+            }
+            WebDriver driver = factory.get();
+            long launch = System.nanoTime() - start;
+            launchNanos.addAndGet(launch);
+            pooled = new PooledDriver("driver-" + driverIds.incrementAndGet(), driver, environment);
+            if (getWatchdog() != null) {
+                MemoryWatchdog.launched(pooled.id, launch / 1_000_000);
+            }
+            current.set(pooled);
+            live.put(driver, pooled);
+        }
+        return pooled.driver;
+    }
+
+    /**
+     * Hands the driver back after a scenario: keeps it for the thread's next scenario or quits it.
+     */
+    public static void release(WebDriver driver) {
+        PooledDriver pooled = live.get(driver);
+        String recycleReason = null;
+        scenarios.incrementAndGet();
+        if (pooled != null) {
+            pooled.scenarios++;
+            MemoryWatchdog memory = getWatchdog();
+            if (memory != null) {
+                recycleReason = memory.check(pooled.id, driver, pooled.scenarios);
+            }
+        }
+        if (pooled == null || !isReusing() || recycleReason != null) {
+            quit(driver);
+            return;
+        }
+        try {
+            DeviceProfile.clear(driver);
+            if (BrowserContextPool.owns(driver)) {
+                BrowserContextPool.renew(driver);
+            } else {
+                reset(driver);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Unable to reset {} for reuse, quitting it", pooled.id, e);
+            quit(driver);
+        }
+    }
+
+    private static MemoryWatchdog getWatchdog() {
+        if (watchdog == null) {
+            ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+            if (!config.isMemoryWatchdog()) {
+                return null;
+            }
+            watchdog = new MemoryWatchdog(config);
+        }
+        return watchdog;
+    }
+
+    private static void reset(WebDriver driver) {
+        String main = driver.getWindowHandles().iterator().next();
+        for (String handle : driver.getWindowHandles()) {
+            if (!handle.equals(main)) {
+                driver.switchTo().window(handle).close();
+            }
+        }
+        driver.switchTo().window(main);
+        driver.manage().deleteAllCookies();
+        ((JavascriptExecutor) driver).executeScript("try { localStorage.clear(); sessionStorage.clear(); } catch (e) {}");
+        driver.get("about:blank");
+    }
+
+    /**
+     * Quits the driver and forgets it, so its thread launches a new one on the next acquire().
+     */
+    public static void quit(WebDriver driver) {
+        PooledDriver pooled = live.remove(driver);
+        if (pooled != null && current.get() == pooled) {
+            current.remove();
+        }
+        DeviceProfile.forget(driver);
+        CommandRetry.forget(driver);
+        try {
+            if (BrowserContextPool.owns(driver)) {
+                BrowserContextPool.close(driver);
+            } else {
+                driver.quit();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Unable to quit driver", e);
+        }
+        ProfileTemplate.discard(driver);
+    }
+
+    /**
+     * Quits the calling thread's driver, if it has one.
+     */
+    public static void quitCurrent() {
+        PooledDriver pooled = current.get();
+        if (pooled != null) {
+            quit(pooled.driver);
+        }
+    }
+
+    /**
+     * Quits every driver still open, e.g. those of idle worker threads at the end of the run.
+     */
+    public static void quitAll() {
+        if (driverIds.get() > 0) {
+            logger.info(getSummary());
+        }
+        live.keySet().forEach(DriverPool::quit);
+        current.remove();
+        BrowserContextPool.shutdown();
+        ProfileTemplate.shutdown();
+    }
+
+    /**
+     * Launch cost, throughput and the current browser memory divided over the live worker drivers.
+     */
+    static String getSummary() {
+        int workers = live.size();
+        List<WebDriver> browsers = BrowserContextPool.isEnabled() ? BrowserContextPool.getHostDrivers() : new ArrayList<>(live.keySet());
+        long rss = 0;
+        for (WebDriver browser : browsers) {
+            rss += Math.max(0, MemoryWatchdog.browserRssBytes(browser));
+        }
+        double minutes = firstLaunchAt == 0 ? 0 : (System.currentTimeMillis() - firstLaunchAt) / 60000.0;
+        return String.format("Driver pool (%s): %d driver launch(es) avg %.0f ms, %d scenario(s), %.1f scenarios/min, "
+                        + "browser memory %s for %d live worker(s)",
+                BrowserContextPool.isEnabled() ? "shared browser contexts" : "one browser per worker",
+                driverIds.get(), launchNanos.get() / (driverIds.get() * 1_000_000.0), scenarios.get(),
+                minutes == 0 ? 0 : scenarios.get() / minutes,
+                rss == 0 || workers == 0 ? "n/a" : String.format("%.0f MB, %.0f MB per worker", rss / 1048576.0, rss / 1048576.0 / workers),
+                workers);
+    }
+
+    private static class PooledDriver {
+        private final String id;
+        private final WebDriver driver;
+        private final String environment;
+        private int scenarios;
+
+        private PooledDriver(String id, WebDriver driver, String environment) {
+            this.id = id;
+            this.driver = driver;
+            this.environment = environment;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import managers.FileReaderManager;
 import stepDefinitions.Hooks;
 import utilities.EnvUtility;
 import utilities.ReportParser;
+import utilities.ScenarioResult;
 
 import javax.mail.*;
 import javax.mail.internet.*;
@@ -13,7 +14,9 @@ import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 
 /**
  * Utility class responsible for constructing and sending an HTML email
@@ -36,7 +39,7 @@ public class EmailUtil {
         // Load credentials and environment info
         final String username = FileReaderManager.getInstance().getConfigReader().getEmailUserName();
         final String password = FileReaderManager.getInstance().getConfigReader().getEmailPassword();
-        final String environment = EnvUtility.getTestEnvironment();
+        final String environment = EnvUtility.getRunEnvironments();
         final String tag = EnvUtility.getCucumberTag();
 
         // Define recipient list
@@ -53,50 +56,8 @@ public class EmailUtil {
         String timeStamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
         String subject = "📊 Automation Execution Summary | " + environment + " | " + tag + " | " + timeStamp;
 
-        // Fetch execution data from Hooks
-        int passCount = Hooks.getPassCount();
-        int failCount = Hooks.getFailCount();
-        int total = Hooks.getTotalCount();
-        double passPercentage = total != 0 ? (passCount * 100.0) / total : 0;
-        double failPercentage = total != 0 ? (failCount * 100.0) / total : 0;
-        List<String> failedScenarios = Hooks.getFailedScenarios();
-
-        // Build the HTML message body
-        StringBuilder body = new StringBuilder();
-        body.append("<html><body>")
-                .append("<h2>📊 <u>Automation Test Execution Summary</u></h2>")
-                .append("<p><b>🌐 Environment:</b> ").append(environment).append("</p>")
-                .append(" 🏷️ <b>Tag:</b> ").append(tag).append("</p>")
-                .append("<p><b>⏰ Execution Time:</b> ").append(timeStamp).append("</p>")
-                .append("<hr>")
-                .append("<p><b>🎯 Total Scenarios Executed:</b> ").append(total).append("</p>")
-                .append("<p><b>🟢 Passed Scenarios:</b> <span style='color:green;'>").append(passCount)
-                .append(" (").append(String.format("%.2f", passPercentage)).append("%)</span></p>")
-                .append("<p><b>🔴 Failed Scenarios:</b> <span style='color:red;'>").append(failCount)
-                .append(" (").append(String.format("%.2f", failPercentage)).append("%)</span></p>")
-                .append("<hr>")
-                .append("<h3>⚠️ Failed Scenarios:</h3>");
-
-        if (failedScenarios.isEmpty()) {
-            body.append("<p>✅ All Scenarios Passed</p>");
-        } else {
-            body.append("<ul>");
-            for (String scenario : failedScenarios) {
-                body.append("<li>").append(scenario).append("</li>");
-            }
-            body.append("</ul>");
-        }
-
-        // Append closing remarks and branding
-        body.append("<br><p>The detailed execution report is attached for your reference. ")
-                .append("<b><i>Please Download the attached report and open it in Browser</i></b>. ")
-                .append("Kindly review the report and let me know if any further clarification is required.</p>")
-                .append("<h4>📌 Next Steps:</h4>")
-                .append("<p><b><i>Consistently Expanding Automation Scope for Enhanced Future Efficiency</i></b></p>")
-                .append("<br><p>Best Regards,<br>")
-                .append("<b>Vedant Shukla</b><br>")
-                .append("<b>Automation Engineer</b></p>")
-                .append("</body></html>");
+        // Build the HTML message body from the Hooks results
+        String body = buildSummaryBody(environment, tag, timeStamp);
 
         // Create mail session with authentication
         Session session = Session.getInstance(prop, new Authenticator() {
@@ -124,7 +85,7 @@ public class EmailUtil {
 
             // Set email body and attachment
             MimeBodyPart messageBodyPart = new MimeBodyPart();
-            messageBodyPart.setContent(body.toString(), "text/html; charset=utf-8");
+            messageBodyPart.setContent(body, "text/html; charset=utf-8");
 
             File latestReport = ReportParser.getLatestReport();
             MimeBodyPart attachmentPart = new MimeBodyPart();
@@ -146,4 +107,127 @@ public class EmailUtil {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Builds the HTML summary body with execution counts, pass/fail percentages and
+     * the list of failed scenarios collected by Hooks.
+     *
+     * @return the HTML email body
+     */
+    public static String buildSummaryBody(String environment, String tag, String timeStamp) {
+        // Fetch execution data from Hooks
+        int passCount = Hooks.getPassCount();
+        int failCount = Hooks.getFailCount();
+        int total = Hooks.getTotalCount();
+        double passPercentage = total != 0 ? (passCount * 100.0) / total : 0;
+        double failPercentage = total != 0 ? (failCount * 100.0) / total : 0;
+        List<String> failedScenarios = Hooks.getFailedScenarios();
+
+        // Build the HTML message body
+        StringBuilder body = new StringBuilder();
+        body.append("<html><body>")
+                .append("<h2>📊 <u>Automation Test Execution Summary</u></h2>")
+                .append("<p><b>🌐 Environment:</b> ").append(environment).append("</p>")
+                .append(" 🏷️ <b>Tag:</b> ").append(tag).append("</p>")
+                .append("<p><b>⏰ Execution Time:</b> ").append(timeStamp).append("</p>")
+                .append("<hr>")
+                .append("<p><b>🎯 Total Scenarios Executed:</b> ").append(total).append("</p>")
+                .append("<p><b>🟢 Passed Scenarios:</b> <span style='color:green;'>").append(passCount)
+                .append(" (").append(String.format("%.2f", passPercentage)).append("%)</span></p>")
+                .append("<p><b>🔴 Failed Scenarios:</b> <span style='color:red;'>").append(failCount)
+                .append(" (").append(String.format("%.2f", failPercentage)).append("%)</span></p>")
+                .append("<hr>")
+                .append("<h3>⚠️ Failed Scenarios:</h3>");
+
+        if (failedScenarios.isEmpty()) {
+            body.append("<p>✅ All Scenarios Passed</p>");
+        } else {
+            body.append("<ul>");
+            for (String scenario : failedScenarios) {
+                body.append("<li>").append(scenario).append("</li>");
+            }
+            body.append("</ul>");
+        }
+
+        // Pass/fail per device profile for device matrix runs
+        Map<String, int[]> byProfile = new TreeMap<>();
+        synchronized (Hooks.getScenarioResults()) {
+            for (ScenarioResult result : Hooks.getScenarioResults()) {
+                if (result.getDeviceProfile() != null) {
+                    int[] counts = byProfile.computeIfAbsent(result.getDeviceProfile(), p -> new int[2]);
+                    counts[result.getStatus().equalsIgnoreCase("PASSED") ? 0 : 1]++;
+                }
+            }
+        }
+        if (!byProfile.isEmpty()) {
+            body.append("<h3>📱 Results by Device Profile:</h3><ul>");
+            for (Map.Entry<String, int[]> entry : byProfile.entrySet()) {
+                body.append("<li><b>").append(entry.getKey()).append(":</b> ")
+                        .append("<span style='color:green;'>").append(entry.getValue()[0]).append(" passed</span>, ")
+                        .append("<span style='color:red;'>").append(entry.getValue()[1]).append(" not passed</span></li>");
+            }
+            body.append("</ul>");
+        }
+
+        // Pass/fail per environment for environment matrix runs
+        Map<String, int[]> byEnvironment = new TreeMap<>();
+        synchronized (Hooks.getScenarioResults()) {
+            for (ScenarioResult result : Hooks.getScenarioResults()) {
+                if (result.getEnvironment() != null) {
+                    int[] counts = byEnvironment.computeIfAbsent(result.getEnvironment(), e -> new int[2]);
+                    counts[result.getStatus().equalsIgnoreCase("PASSED") ? 0 : 1]++;
+                }
+            }
+        }
+        if (byEnvironment.size() > 1 || !EnvUtility.getEnvironmentMatrix().isEmpty()) {
+            body.append("<h3>🌍 Results by Environment:</h3><ul>");
+            for (Map.Entry<String, int[]> entry : byEnvironment.entrySet()) {
+                body.append("<li><b>").append(entry.getKey()).append(":</b> ")
+                        .append("<span style='color:green;'>").append(entry.getValue()[0]).append(" passed</span>, ")
+                        .append("<span style='color:red;'>").append(entry.getValue()[1]).append(" not passed</span></li>");
+            }
+            body.append("</ul>");
+        }
+
+        // Pages whose median load timings exceed the configured budgets
+        List<PagePerformanceCollector.PageSummary> slowPages = PagePerformanceCollector.getPagesOverBudget();
+        if (!slowPages.isEmpty()) {
+            body.append("<h3>🐢 Pages Over Performance Budget:</h3><ul>");
+            for (PagePerformanceCollector.PageSummary page : slowPages) {
+                body.append("<li>[").append(page.environment).append("] ").append(page.url).append(" - median ");
+                for (String metric : page.overBudget) {
+                    body.append("<span style='color:red;'>").append(metric).append(" ")
+                            .append(Math.round(page.median.get(metric))).append(" ms</span> ");
+                }
+                body.append("(").append(page.samples).append(" samples)</li>");
+            }
+            body.append("</ul>");
+        }
+
+        // Steps and scenarios slower than their median over previous runs
+        List<StepLatencyHistory.Regression> regressions = StepLatencyHistory.getRegressions();
+        if (!regressions.isEmpty()) {
+            body.append("<h3>📈 Latency Regressions:</h3><ul>");
+            for (StepLatencyHistory.Regression regression : regressions) {
+                body.append("<li>").append(regression.kind).append(" <b>").append(regression.name).append("</b> - ")
+                        .append("<span style='color:red;'>").append(regression.currentMs).append(" ms</span>")
+                        .append(String.format(" vs baseline %.0f ms (MAD %.0f ms, %d runs)", regression.baselineMs, regression.madMs, regression.runs))
+                        .append("</li>");
+            }
+            body.append("</ul>");
+        }
+
+        // Append closing remarks and branding
+        body.append("<br><p>The detailed execution report is attached for your reference. ")
+                .append("<b><i>Please Download the attached report and open it in Browser</i></b>. ")
+                .append("Kindly review the report and let me know if any further clarification is required.</p>")
+                .append("<h4>📌 Next Steps:</h4>")
+                .append("<p><b><i>Consistently Expanding Automation Scope for Enhanced Future Efficiency</i></b></p>")
+                .append("<br><p>Best Regards,<br>")
+                .append("<b>Vedant Shukla</b><br>")
+                .append("<b>Automation Engineer</b></p>")
+                .append("</body></html>");
+
+        return body.toString();
+    }
 }
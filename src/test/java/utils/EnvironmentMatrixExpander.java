@@ -0,0 +1,69 @@
+package utils;
+
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EnvironmentMatrixExpander turns every scenario invocation into one invocation per environment.
+ *
+ * Each copy carries its environment in an EnvironmentScenario wrapper, which EnvironmentMatrixRunner
+ * binds to the scenario thread before Cucumber runs it. The invocations are ordered environment by
+ * environment, so a worker thread mostly keeps one environment and DriverPool rarely has to replace a
+ * reused driver. A CSV row invocation keeps its row in every copy, so each data row runs in every
+ * environment.
+ */
+public class EnvironmentMatrixExpander {
+
+    public static Object[][] expand(Object[][] scenarios, List<String> environments) {
+        if (environments.isEmpty()) {
+            return scenarios;
+        }
+        Map<String, List<Object[]>> byEnvironment = new LinkedHashMap<>();
+        environments.forEach(environment -> byEnvironment.put(environment, new ArrayList<>()));
+        for (Object[] scenario : scenarios) {
+            PickleWrapper pickle = (PickleWrapper) scenario[0];
+            for (String environment : environments) {
+                byEnvironment.get(environment).add(new Object[]{new EnvironmentScenario(pickle, environment), scenario[1]});
+            }
+        }
+        List<Object[]> expanded = new ArrayList<>();
+        byEnvironment.values().forEach(expanded::addAll);
+        return expanded.toArray(new Object[0][]);
+    }
+
+    /**
+     * A scenario invocation bound to one environment.
+     */
+    public static class EnvironmentScenario implements PickleWrapper {
+        private final PickleWrapper pickle;
+        private final String environment;
+
+        EnvironmentScenario(PickleWrapper pickle, String environment) {
+            this.pickle = pickle;
+            this.environment = environment;
+        }
+
+        @Override
+        public Pickle getPickle() {
+            return pickle.getPickle();
+        }
+
+        public String getEnvironment() {
+            return environment;
+        }
+
+        public PickleWrapper getPickleWrapper() {
+            return pickle;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + environment + "] " + pickle; // Shown as the TestNG parameter
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package utils;
+
+import dataProviders.ConfigFileReader;
+import database.ConnectionPool;
+import managers.FileReaderManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utilities.EnvUtility;
+import utilities.ScenarioResult;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FlakinessStore keeps every scenario attempt of every run in an embedded, file-backed H2 database
+ * (`flakinessDbUrl`), so chronic flakes can be told apart from genuinely broken scenarios.
+ *
+ * Hooks writes the run's results at the end of the run (recordRun): status, duration, environment,
+ * device profile, failure signature and finish time per attempt, with the run id and the CI build id
+ * (EnvUtility.getBuildId()), which groups a run with its FailedScenarioRunner rerun. Scenarios are
+ * identified by feature file and line, device profile and environment (scenarioKey()), so a scenario
+ * failing on one device or environment only is not averaged with its other runs. Attempts older than
+ * `flakinessRetentionDays` are pruned.
+ *
+ * Queries over the last `windowDays`:
+ * - getScenarioStats(): per scenario attempts, failures, flake rate (share of builds in which it
+ *   both failed and passed), flip rate (share of consecutive attempts whose status changed), the
+ *   current failure streak and the mean time between failures
+ * - getQuarantineCandidates(): scenarios that flake at least `flakinessQuarantineRate` of the time
+ *   over at least `flakinessMinAttempts` attempts and are not currently failing
+ *   `flakinessBrokenStreak` times in a row (those are broken, not flaky)
+ * - getTopFailureSignatures(): the most frequent failures and how many scenarios share them
+ *
+ * Every query is an aggregate over the indexes on (scenario_key, finished_at), (finished_at) and
+ * (build_id, scenario_key, status), so it stays fast with thousands of runs in the file. The report
+ * can be printed without running the suite:
+ *   mvn -q exec:java -Dexec.mainClass=utils.FlakinessStore -Dexec.classpathScope=test
+ */
+public class FlakinessStore implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlakinessStore.class);
+    private static final ThreadLocal<String> failureSignature = new ThreadLocal<>();
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS attempts ("
+                    + "id BIGINT AUTO_INCREMENT PRIMARY KEY, run_id VARCHAR(64) NOT NULL, build_id VARCHAR(128) NOT NULL, "
+                    + "scenario_key VARCHAR(512) NOT NULL, scenario_name VARCHAR(1024), device_profile VARCHAR(64), "
+                    + "environment VARCHAR(32), status VARCHAR(16) NOT NULL, duration_ms BIGINT, "
+                    + "failure_signature VARCHAR(512), finished_at BIGINT NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS attempts_scenario_time ON attempts (scenario_key, finished_at)",
+            "CREATE INDEX IF NOT EXISTS attempts_time ON attempts (finished_at)",
+            "CREATE INDEX IF NOT EXISTS attempts_build ON attempts (build_id, scenario_key, status)",
+            "CREATE INDEX IF NOT EXISTS attempts_signature ON attempts (failure_signature)"
+    };
+
+    private static final String INSERT = "INSERT INTO attempts (run_id, build_id, scenario_key, scenario_name, device_profile, "
+            + "environment, status, duration_ms, failure_signature, finished_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Status flips need the previous attempt of the same scenario, read in index order
+    private static final String SCENARIO_STATS = "SELECT scenario_key, MAX(scenario_name) AS scenario_name, COUNT(*) AS attempts, "
+            + "SUM(CASE WHEN status = 'FAILED' THEN 1 ELSE 0 END) AS failures, "
+            + "SUM(CASE WHEN previous_status IS NOT NULL AND previous_status <> status THEN 1 ELSE 0 END) AS flips, "
+            + "MIN(CASE WHEN status = 'FAILED' THEN finished_at END) AS first_failure, "
+            + "MAX(CASE WHEN status = 'FAILED' THEN finished_at END) AS last_failure, "
+            + "MAX(CASE WHEN status = 'PASSED' THEN finished_at END) AS last_pass, "
+            + "AVG(duration_ms) AS avg_duration_ms "
+            + "FROM (SELECT id, scenario_key, scenario_name, status, finished_at, duration_ms, "
+            + "      LAG(status) OVER (PARTITION BY scenario_key ORDER BY finished_at, id) AS previous_status "
+            + "      FROM attempts WHERE finished_at >= ? AND status IN ('PASSED', 'FAILED') AND (CAST(? AS VARCHAR) IS NULL OR scenario_key = ?)) a "
+            + "GROUP BY scenario_key";
+
+    private static final String FLAKY_BUILDS = "SELECT scenario_key, COUNT(*) AS builds, "
+            + "SUM(CASE WHEN passed > 0 AND failed > 0 THEN 1 ELSE 0 END) AS flaky_builds "
+            + "FROM (SELECT scenario_key, build_id, "
+            + "      SUM(CASE WHEN status = 'PASSED' THEN 1 ELSE 0 END) AS passed, "
+            + "      SUM(CASE WHEN status = 'FAILED' THEN 1 ELSE 0 END) AS failed "
+            + "      FROM attempts WHERE finished_at >= ? AND (CAST(? AS VARCHAR) IS NULL OR scenario_key = ?) GROUP BY build_id, scenario_key) b "
+            + "GROUP BY scenario_key";
+
+    private static final String FAILURE_STREAKS = "SELECT a.scenario_key, COUNT(*) AS streak FROM attempts a "
+            + "WHERE a.finished_at >= ? AND a.status = 'FAILED' AND (CAST(? AS VARCHAR) IS NULL OR a.scenario_key = ?) "
+            + "AND a.finished_at > COALESCE((SELECT MAX(p.finished_at) FROM attempts p "
+            + "    WHERE p.scenario_key = a.scenario_key AND p.status = 'PASSED'), 0) "
+            + "GROUP BY a.scenario_key";
+
+    private static final String TOP_SIGNATURES = "SELECT failure_signature, COUNT(*) AS failures, COUNT(DISTINCT scenario_key) AS scenarios, "
+            + "MAX(finished_at) AS last_seen FROM attempts WHERE finished_at >= ? AND failure_signature IS NOT NULL "
+            + "GROUP BY failure_signature ORDER BY failures DESC LIMIT ?";
+
+    private final ConnectionPool pool;
+    private final ConfigFileReader config;
+
+    public FlakinessStore(ConfigFileReader config) {
+        this.config = config;
+        this.pool = new ConnectionPool(config.getFlakinessDbUrl(), "sa", "", 1, 16, 30);
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            for (String ddl : SCHEMA) {
+                connection.prepare(ddl).execute();
+            }
+        } catch (SQLException e) {
+            pool.close();
+            throw new RuntimeException("Unable to open flakiness store " + config.getFlakinessDbUrl(), e);
+        }
+    }
+
+    // ================================
+    // RECORDING
+    // ================================
+
+    /**
+     * Remembers why the scenario on this thread failed; called by StepLatencyListener for the failing step.
+     */
+    static void stepFailed(String step, Throwable error) {
+        if (failureSignature.get() != null) {
+            return; // Later failures (e.g. in @After hooks) are consequences of the first
+        }
+        String message = error == null ? "" : error.getClass().getSimpleName() + ": " + String.valueOf(error.getMessage()).split("\\R")[0];
+        // Ids, counts and timings differ between occurrences of the same failure
+        String signature = (step + " | " + message).replaceAll("0x[0-9a-fA-F]+|\\d+", "#");
+        failureSignature.set(signature.length() > 500 ? signature.substring(0, 500) : signature);
+    }
+
+    static void clearFailure() {
+        failureSignature.remove();
+    }
+
+    /**
+     * @return the failure signature of the scenario that just finished on this thread, or null
+     */
+    public static String takeFailureSignature() {
+        String signature = failureSignature.get();
+        failureSignature.remove();
+        return signature;
+    }
+
+    /**
+     * Writes the run's scenario results as attempts and prints the quarantine candidates.
+     * Does nothing unless flakinessStore=true.
+     */
+    public static void recordRun(List<ScenarioResult> results) {
+        ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+        if (!config.isFlakinessStore() || results.isEmpty()) {
+            return;
+        }
+        try (FlakinessStore store = new FlakinessStore(config)) {
+            store.record(results);
+            List<ScenarioStats> candidates = store.getQuarantineCandidates(config.getFlakinessWindowDays());
+            if (!candidates.isEmpty()) {
+                logger.warn("Quarantine candidates over the last {} days:", config.getFlakinessWindowDays());
+                candidates.forEach(stats -> logger.warn("  {}", stats));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Unable to update the flakiness store", e);
+        }
+    }
+
+    void record(List<ScenarioResult> results) {
+        record(results, EnvUtility.getBuildId());
+    }
+
+    void record(List<ScenarioResult> results, String build) {
+        String runId = UUID.randomUUID().toString();
+        String buildId = build == null ? runId : build;
+        long now = System.currentTimeMillis();
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            PreparedStatement insert = connection.prepare(INSERT);
+            Connection jdbc = insert.getConnection();
+            jdbc.setAutoCommit(false); // One transaction per run instead of one per attempt
+            try {
+                synchronized (results) {
+                    for (ScenarioResult result : results) {
+                        insert.setString(1, runId);
+                        insert.setString(2, buildId);
+                        insert.setString(3, scenarioKey(result));
+                        insert.setString(4, result.getScenarioName());
+                        insert.setString(5, result.getDeviceProfile());
+                        insert.setString(6, environment(result));
+                        insert.setString(7, result.getStatus());
+                        insert.setLong(8, result.getDurationMs());
+                        insert.setString(9, result.getFailureSignature());
+                        insert.setLong(10, result.getFinishedAt() == 0 ? now : result.getFinishedAt());
+                        insert.addBatch();
+                    }
+                }
+                insert.executeBatch();
+                PreparedStatement prune = connection.prepare("DELETE FROM attempts WHERE finished_at < ?");
+                prune.setLong(1, now - TimeUnit.DAYS.toMillis(config.getFlakinessRetentionDays()));
+                prune.executeUpdate();
+                jdbc.commit();
+            } catch (SQLException e) {
+                jdbc.rollback();
+                throw e;
+            } finally {
+                jdbc.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to record run in the flakiness store", e);
+        }
+    }
+
+    /**
+     * @return feature file and line of the scenario, with its device profile (if any) and environment
+     */
+    public static String scenarioKey(ScenarioResult result) {
+        String location = result.getLocation() == null ? result.getScenarioName() : result.getLocation();
+        return location + (result.getDeviceProfile() == null ? "" : " [" + result.getDeviceProfile() + "]") + " @" + environment(result);
+    }
+
+    private static String environment(ScenarioResult result) {
+        if (result.getEnvironment() != null) {
+            return result.getEnvironment();
+        }
+        return FileReaderManager.getInstance().getConfigReader().getEnvironment();
+    }
+
+    // ================================
+    // QUERIES
+    // ================================
+
+    /**
+     * @return statistics of every scenario with attempts in the window
+     */
+    public List<ScenarioStats> getScenarioStats(int windowDays) {
+        return new ArrayList<>(stats(windowDays, null).values());
+    }
+
+    /**
+     * @return the statistics of one scenario (see scenarioKey()), or null when it has no attempts in the window
+     */
+    public ScenarioStats getScenarioStats(String scenarioKey, int windowDays) {
+        return stats(windowDays, scenarioKey).get(scenarioKey);
+    }
+
+    /**
+     * @return flaky but not broken scenarios with enough history, most flaky first
+     */
+    public List<ScenarioStats> getQuarantineCandidates(int windowDays) {
+        List<ScenarioStats> candidates = new ArrayList<>();
+        for (ScenarioStats stats : stats(windowDays, null).values()) {
+            if (stats.attempts >= config.getFlakinessMinAttempts()
+                    && Math.max(stats.getFlakeRate(), stats.getFlipRate()) >= config.getFlakinessQuarantineRate()
+                    && stats.failureStreak < config.getFlakinessBrokenStreak()) {
+                candidates.add(stats);
+            }
+        }
+        candidates.sort((a, b) -> Double.compare(Math.max(b.getFlakeRate(), b.getFlipRate()), Math.max(a.getFlakeRate(), a.getFlipRate())));
+        return candidates;
+    }
+
+    /**
+     * @return the most frequent failure signatures with their failure and scenario counts
+     */
+    public List<Map<String, Object>> getTopFailureSignatures(int windowDays, int limit) {
+        List<Map<String, Object>> signatures = new ArrayList<>();
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            PreparedStatement statement = connection.prepare(TOP_SIGNATURES);
+            statement.setLong(1, since(windowDays));
+            statement.setInt(2, limit);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    Map<String, Object> signature = new LinkedHashMap<>();
+                    signature.put("signature", rows.getString("failure_signature"));
+                    signature.put("failures", rows.getLong("failures"));
+                    signature.put("scenarios", rows.getLong("scenarios"));
+                    signature.put("lastSeen", rows.getLong("last_seen"));
+                    signatures.add(signature);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to query failure signatures", e);
+        }
+        return signatures;
+    }
+
+    private Map<String, ScenarioStats> stats(int windowDays, String scenarioKey) {
+        Map<String, ScenarioStats> stats = new LinkedHashMap<>();
+        long since = since(windowDays);
+        try (ConnectionPool.PooledConnection connection = pool.acquire()) {
+            try (ResultSet rows = query(connection, SCENARIO_STATS, since, scenarioKey)) {
+                while (rows.next()) {
+                    ScenarioStats row = new ScenarioStats(rows.getString("scenario_key"), rows.getString("scenario_name"));
+                    row.attempts = rows.getLong("attempts");
+                    row.failures = rows.getLong("failures");
+                    row.flips = rows.getLong("flips");
+                    row.firstFailureAt = rows.getLong("first_failure");
+                    row.lastFailureAt = rows.getLong("last_failure");
+                    row.lastPassAt = rows.getLong("last_pass");
+                    row.avgDurationMs = rows.getDouble("avg_duration_ms");
+                    stats.put(row.scenarioKey, row);
+                }
+            }
+            try (ResultSet rows = query(connection, FLAKY_BUILDS, since, scenarioKey)) {
+                while (rows.next()) {
+                    ScenarioStats row = stats.get(rows.getString("scenario_key"));
+                    if (row != null) {
+                        row.builds = rows.getLong("builds");
+                        row.flakyBuilds = rows.getLong("flaky_builds");
+                    }
+                }
+            }
+            try (ResultSet rows = query(connection, FAILURE_STREAKS, since, scenarioKey)) {
+                while (rows.next()) {
+                    ScenarioStats row = stats.get(rows.getString("scenario_key"));
+                    if (row != null) {
+                        row.failureStreak = rows.getLong("streak");
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to query the flakiness store", e);
+        }
+        return stats;
+    }
+
+    private static ResultSet query(ConnectionPool.PooledConnection connection, String sql, long since, String scenarioKey) throws SQLException {
+        PreparedStatement statement = connection.prepare(sql);
+        statement.setLong(1, since);
+        statement.setString(2, scenarioKey);
+        statement.setString(3, scenarioKey);
+        return statement.executeQuery();
+    }
+
+    private static long since(int windowDays) {
+        return System.currentTimeMillis() - TimeUnit.DAYS.toMillis(windowDays);
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * Prints the quarantine candidates and the top failure signatures of the store.
+     */
+    public static void main(String[] args) {
+        ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+        int windowDays = args.length > 0 ? Integer.parseInt(args[0]) : config.getFlakinessWindowDays();
+        try (FlakinessStore store = new FlakinessStore(config)) {
+            System.out.println("Quarantine candidates (last " + windowDays + " days):");
+            store.getQuarantineCandidates(windowDays).forEach(stats -> System.out.println("  " + stats));
+            System.out.println("Top failure signatures:");
+            store.getTopFailureSignatures(windowDays, 10).forEach(signature -> System.out.println("  " + signature));
+        }
+    }
+
+    /**
+     * Attempt statistics of one scenario over a window.
+     */
+    public static class ScenarioStats {
+        public final String scenarioKey;
+        public final String scenarioName;
+        public long attempts;
+        public long failures;
+        public long flips;
+        public long builds;
+        public long flakyBuilds;
+        public long failureStreak;
+        public long firstFailureAt;
+        public long lastFailureAt;
+        public long lastPassAt;
+        public double avgDurationMs;
+
+        ScenarioStats(String scenarioKey, String scenarioName) {
+            this.scenarioKey = scenarioKey;
+            this.scenarioName = scenarioName;
+        }
+
+        /**
+         * @return share of builds in which the scenario both failed and passed (e.g. passed on rerun)
+         */
+        public double getFlakeRate() {
+            return builds == 0 ? 0 : (double) flakyBuilds / builds;
+        }
+
+        /**
+         * @return share of consecutive attempts whose status differs from the previous one
+         */
+        public double getFlipRate() {
+            return attempts < 2 ? 0 : (double) flips / (attempts - 1);
+        }
+
+        /**
+         * @return mean hours between failures in the window, or -1 with fewer than two failures
+         */
+        public double getMtbfHours() {
+            return failures < 2 ? -1 : (lastFailureAt - firstFailureAt) / (double) TimeUnit.HOURS.toMillis(1) / (failures - 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%s): %d attempts, %d failed, flake rate %.0f%%, flip rate %.0f%%, failure streak %d, MTBF %s",
+                    scenarioName, scenarioKey, attempts, failures, getFlakeRate() * 100, getFlipRate() * 100, failureStreak,
+                    getMtbfHours() < 0 ? "n/a" : String.format("%.1f h", getMtbfHours()));
+        }
+    }
+}
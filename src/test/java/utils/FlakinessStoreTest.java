@@ -0,0 +1,92 @@
+package utils;
+
+import dataProviders.ConfigFileReader;
+import distributed.WorkItem;
+import distributed.WorkResult;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import utilities.ScenarioResult;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records attempts in an in-memory H2 database and checks the statistics queries.
+ */
+public class FlakinessStoreTest {
+
+    private static final String URL = "jdbc:h2:mem:flakiness_store_test;DB_CLOSE_DELAY=-1";
+    private static final String LOGIN = "src/test/java/feature/Login.feature:7";
+    private final long start = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+    private final ConfigFileReader config = new ConfigFileReader() {
+        @Override
+        public String getFlakinessDbUrl() {
+            return URL;
+        }
+    };
+    private FlakinessStore store;
+
+    @BeforeClass
+    public void openStore() {
+        new FlakinessStore(config).close();
+        store = new FlakinessStore(config); // The schema is created only once
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void closeStore() {
+        store.close();
+    }
+
+    @Test
+    public void flipsFollowTheFinishTimeOfEachAttempt() {
+        // Listed in a different order than they finished: failed, passed on rerun in build 1, passed in build 2
+        store.record(Arrays.asList(
+                attempt(LOGIN, null, "PASSED", start + 2000),
+                attempt(LOGIN, null, "FAILED", start + 1000)), "build-1");
+        store.record(Collections.singletonList(attempt(LOGIN, null, "PASSED", start + 3000)), "build-2");
+
+        FlakinessStore.ScenarioStats stats = store.getScenarioStats(LOGIN + " @QA", 1);
+        Assert.assertEquals(stats.attempts, 3);
+        Assert.assertEquals(stats.failures, 1);
+        Assert.assertEquals(stats.flips, 1);
+        Assert.assertEquals(stats.builds, 2);
+        Assert.assertEquals(stats.flakyBuilds, 1);
+        Assert.assertEquals(stats.getFlakeRate(), 0.5);
+        Assert.assertEquals(stats.failureStreak, 0);
+        Assert.assertEquals(stats.lastFailureAt, start + 1000);
+        Assert.assertEquals(stats.lastPassAt, start + 3000);
+    }
+
+    @Test
+    public void deviceProfilesAndEnvironmentsAreSeparateScenarios() {
+        String transfer = "src/test/java/feature/Transfer.feature:12";
+        store.record(Arrays.asList(
+                attempt(transfer, "phone", "FAILED", start + 1000),
+                attempt(transfer, null, "PASSED", start + 1000),
+                new ScenarioResult("Transfer", "PASSED", null, transfer, 10, null, "UAT", start + 1000)), "build-3");
+
+        Assert.assertEquals(store.getScenarioStats(transfer + " [phone] @QA", 1).failureStreak, 1);
+        Assert.assertEquals(store.getScenarioStats(transfer + " @QA", 1).failures, 0);
+        Assert.assertEquals(store.getScenarioStats(transfer + " @UAT", 1).attempts, 1);
+    }
+
+    @Test
+    public void distributedResultsKeepLocationAndFinishTime() {
+        WorkItem item = new WorkItem("run", "1", "src/test/java/feature/Search.feature:4", "Search");
+        ScenarioResult onWorker = new ScenarioResult("Search", "PASSED", null, item.getLocation(), 10, null, "QA", start + 500);
+        ScenarioResult reported = new WorkResult(item, "PASSED", "worker-1", 10, true, onWorker).toScenarioResult();
+        store.record(Collections.singletonList(reported), "build-4");
+
+        FlakinessStore.ScenarioStats stats = store.getScenarioStats("src/test/java/feature/Search.feature:4 @QA", 1);
+        Assert.assertNotNull(stats);
+        Assert.assertEquals(stats.lastPassAt, start + 500);
+    }
+
+    private static ScenarioResult attempt(String location, String device, String status, long finishedAt) {
+        return new ScenarioResult("Scenario", status, device, location, 10,
+                "FAILED".equals(status) ? "Then I see # accounts | AssertionError" : null, "QA", finishedAt);
+    }
+}
@@ -0,0 +1,983 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cucumber.gherkin.GherkinParser;
+import io.cucumber.messages.types.Examples;
+import io.cucumber.messages.types.Feature;
+import io.cucumber.messages.types.FeatureChild;
+import io.cucumber.messages.types.GherkinDocument;
+import io.cucumber.messages.types.RuleChild;
+import io.cucumber.messages.types.Scenario;
+import io.cucumber.messages.types.Step;
+import io.cucumber.messages.types.TableCell;
+import io.cucumber.messages.types.TableRow;
+import io.cucumber.messages.types.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ImpactAnalyzer selects only the scenarios affected by a change set instead of re-running
+ * the full tagged suite.
+ *
+ * It builds a static map by scanning the sources:
+ *   feature step -> step definition method (stepDefinitions.*) -> page object methods (pageObjects.*)
+ *   -> SeleniumHelper methods, plus the config keys read along that path.
+ *
+ * Feature files are read with Cucumber's Gherkin parser, so a scenario owns its tag lines, its
+ * examples and the Background steps of its feature and rule.
+ *
+ * The map is intersected with `git diff <base>` plus the untracked files of the working tree:
+ *   - Changed lines are mapped to the methods that contain them; changes outside a method body
+ *     (fields, imports, static initializers) mark the whole class as changed.
+ *   - Changed keys in config_*.properties select the scenarios that read them.
+ *   - Changes to shared infrastructure (Hooks, utils, managers, runners, pom.xml) select everything.
+ *   - Steps without a matching step definition are selected conservatively.
+ *   - When nothing is selected the full suite runs, so an analysis gap cannot turn into an empty run.
+ *
+ * Parsed per-file facts are cached in target/impact-map.json keyed by content hash, so a
+ * re-run only re-parses files that changed since the previous analysis.
+ *
+ * The selection is written in Cucumber rerun format to target/impacted_scenarios.txt and is
+ * consumed by ImpactedScenarioRunner.
+ */
+public class ImpactAnalyzer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImpactAnalyzer.class);
+
+    private static final String FEATURE_DIR = "src/test/java/feature";
+    private static final String[] SOURCE_DIRS = {"src/test/java", "src/main/java"};
+    private static final String CONFIG_READER = "src/main/java/dataProviders/ConfigFileReader.java";
+    private static final String CACHE_FILE = "target/impact-map.json";
+    public static final String SELECTION_FILE = "target/impacted_scenarios.txt";
+
+    // Changes under these paths cannot be narrowed down to individual steps
+    private static final List<String> GLOBAL_PATHS = Arrays.asList(
+            "pom.xml",
+            "src/test/java/stepDefinitions/Hooks.java",
+            "src/test/java/utils/",
+            "src/test/java/managers/",
+            "src/test/java/testRunner/",
+            "src/main/java/");
+
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "if", "for", "while", "switch", "catch", "return", "new", "else", "try", "synchronized", "throw"));
+
+    private static final Pattern CLASS_DECL = Pattern.compile("^\\s*(?:(?:public|abstract|final)\\s+)*class\\s+(\\w+)(?:\\s+extends\\s+(\\w+))?");
+    private static final Pattern METHOD_DECL = Pattern.compile(
+            "^\\s*(?:(?:public|protected|private|static|final|synchronized|abstract)\\s+)*(?:[\\w<>\\[\\],.? ]+\\s+)?(\\w+)\\s*\\([^;]*\\)\\s*(?:throws\\s+[\\w., ]+)?\\s*\\{");
+    private static final Pattern FIELD_DECL = Pattern.compile(
+            "^\\s*(?:(?:public|protected|private|static|final)\\s+)*(\\w+)(?:<[^>]*>)?\\s+(\\w+)\\s*(?:=[^;]*)?;");
+    private static final Pattern STEP_ANNOTATION = Pattern.compile(
+            "@(?:Given|When|Then|And|But)\\(\"((?:[^\"\\\\]|\\\\.)*)\"\\)");
+    private static final Pattern QUALIFIED_CALL = Pattern.compile("\\b(\\w+)\\s*\\.\\s*(\\w+)\\s*\\(");
+    private static final Pattern CHAINED_CALL = Pattern.compile("\\)\\s*\\.\\s*(\\w+)\\s*\\(");
+    private static final Pattern UNQUALIFIED_CALL = Pattern.compile("(?<![.\\w])(\\w+)\\s*\\(");
+    private static final Pattern PROPERTY_LITERAL = Pattern.compile("getProperty\\(\"([\\w.]+)\"");
+    private static final Pattern CONFIG_GETTER = Pattern.compile(
+            "public\\s+\\w+\\s+((?:get|is)\\w+)\\(\\)\\s*\\{\\s*return\\s+(?:[\\w.]+\\()*getProperty\\(\"([\\w.]+)\"");
+    private static final Pattern HUNK = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+(\\d+)(?:,(\\d+))? @@");
+
+    private final String baseRef;
+    private final Map<String, SourceFacts> sources = new LinkedHashMap<>();
+    private final Map<String, String> classToPath = new HashMap<>();
+    private final Map<String, String> getterToKey = new HashMap<>();
+    private final List<StepBinding> bindings = new ArrayList<>();
+    private final List<ScenarioSelection> selections = new ArrayList<>();
+
+    private ImpactAnalyzer(String baseRef) {
+        this.baseRef = baseRef;
+    }
+
+    /**
+     * Runs the full analysis against the given base ref.
+     * @param baseRef git ref to diff the working tree against (e.g. origin/main)
+     * @return the analyzer holding the per-scenario selection
+     */
+    public static ImpactAnalyzer analyze(String baseRef) {
+        ImpactAnalyzer analyzer = new ImpactAnalyzer(baseRef);
+        analyzer.loadSources();
+        analyzer.selectScenarios();
+        return analyzer;
+    }
+
+    public List<ScenarioSelection> getSelections() {
+        return selections;
+    }
+
+    public long getSelectedCount() {
+        return selections.stream().filter(s -> s.selected).count();
+    }
+
+    public long getSkippedCount() {
+        return selections.size() - getSelectedCount();
+    }
+
+    /**
+     * Writes the selected scenarios in Cucumber rerun format and prints the selection summary.
+     */
+    public void writeSelection() {
+        try {
+            Path selectionFile = Paths.get(SELECTION_FILE);
+            Files.createDirectories(selectionFile.getParent());
+            Files.write(selectionFile, rerunContent(selections).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write impacted scenario file: " + SELECTION_FILE, e);
+        }
+
+        logger.info(summary());
+    }
+
+    /**
+     * @return the selected scenarios in Cucumber rerun format, or every feature file when none is selected
+     */
+    static String rerunContent(List<ScenarioSelection> selections) {
+        Map<String, List<String>> linesByFeature = new LinkedHashMap<>();
+        for (ScenarioSelection s : selections) {
+            if (s.selected) {
+                linesByFeature.computeIfAbsent(s.featurePath, k -> new ArrayList<>()).add(String.valueOf(s.line));
+            }
+        }
+        StringBuilder rerun = new StringBuilder();
+        if (linesByFeature.isEmpty()) {
+            logger.warn("Impact analysis selected no scenario, running the full suite");
+            selections.stream().map(s -> s.featurePath).distinct()
+                    .forEach(feature -> rerun.append(feature).append('\n'));
+            return rerun.length() == 0 ? FEATURE_DIR + '\n' : rerun.toString();
+        }
+        linesByFeature.forEach((feature, lines) ->
+                rerun.append(feature).append(':').append(String.join(":", lines)).append('\n'));
+        return rerun.toString();
+    }
+
+    public String summary() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Impact analysis against %s: %d selected, %d skipped (%d total)%n",
+                baseRef, getSelectedCount(), getSkippedCount(), selections.size()));
+        for (ScenarioSelection s : selections) {
+            out.append(String.format("  [%s] %s:%d %s%n", s.selected ? "SELECTED" : "SKIPPED",
+                    s.featurePath, s.line, s.name));
+            for (String reason : s.reasons) {
+                out.append("      - ").append(reason).append(System.lineSeparator());
+            }
+        }
+        return out.toString();
+    }
+
+    // ================================
+    // SOURCE MAP
+    // ================================
+    private void loadSources() {
+        Map<String, SourceFacts> cache = readCache();
+        int reparsed = 0;
+
+        for (String dir : SOURCE_DIRS) {
+            for (Path file : listFiles(Paths.get(dir), ".java")) {
+                String path = normalize(file);
+                String content = read(file);
+                String hash = sha1(content);
+                SourceFacts facts = cache.get(path);
+                if (facts == null || !hash.equals(facts.hash)) {
+                    facts = parseSource(path, content);
+                    facts.hash = hash;
+                    reparsed++;
+                }
+                sources.put(path, facts);
+                if (facts.className != null) {
+                    classToPath.put(facts.className, path);
+                }
+            }
+        }
+        logger.info("Impact map: {} source files, {} re-parsed since last run", sources.size(), reparsed);
+        writeCache();
+
+        Path configReader = Paths.get(CONFIG_READER);
+        if (Files.exists(configReader)) {
+            Matcher m = CONFIG_GETTER.matcher(read(configReader));
+            while (m.find()) {
+                getterToKey.put(m.group(1), m.group(2));
+            }
+        }
+
+        for (SourceFacts facts : sources.values()) {
+            for (MethodFacts method : facts.methods) {
+                for (String pattern : method.stepPatterns) {
+                    bindings.add(new StepBinding(pattern, facts.className + "#" + method.name));
+                }
+            }
+        }
+    }
+
+    static SourceFacts parseSource(String path, String content) {
+        SourceFacts facts = new SourceFacts();
+        facts.path = path;
+        String[] lines = content.split("\r?\n", -1);
+        List<String> pendingSteps = new ArrayList<>();
+        StringBuilder outsideMethods = new StringBuilder();
+        int depth = 0;
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            if (facts.className == null) {
+                Matcher cls = CLASS_DECL.matcher(line);
+                if (cls.find()) {
+                    facts.className = cls.group(1);
+                    facts.superClass = cls.group(2);
+                }
+            }
+
+            if (depth == 1) {
+                Matcher step = STEP_ANNOTATION.matcher(line);
+                while (step.find()) {
+                    pendingSteps.add(step.group(1).replace("\\\"", "\"").replace("\\\\", "\\"));
+                }
+                Matcher method = METHOD_DECL.matcher(line);
+                if (method.find() && !KEYWORDS.contains(method.group(1))) {
+                    int end = findBlockEnd(lines, i);
+                    MethodFacts mf = new MethodFacts();
+                    mf.name = method.group(1);
+                    mf.startLine = i + 1;
+                    mf.endLine = end + 1;
+                    mf.stepPatterns = new ArrayList<>(pendingSteps);
+                    collectUsages(joinLines(lines, i, end), mf.calls, mf.propertyKeys);
+                    facts.methods.add(mf);
+                    pendingSteps.clear();
+                    i = end;
+                    continue;
+                }
+                Matcher field = FIELD_DECL.matcher(line);
+                if (field.find()) {
+                    facts.fieldTypes.put(field.group(2), field.group(1));
+                }
+            }
+            outsideMethods.append(line).append('\n');
+            depth += braceDelta(line);
+        }
+        collectUsages(outsideMethods.toString(), facts.classCalls, facts.classPropertyKeys);
+        return facts;
+    }
+
+    private static void collectUsages(String body, List<String> calls, List<String> propertyKeys) {
+        String code = stripStrings(body);
+        Matcher qualified = QUALIFIED_CALL.matcher(code);
+        while (qualified.find()) {
+            calls.add(qualified.group(1) + "." + qualified.group(2));
+        }
+        // Calls on an expression result, e.g. getConfigReader().getValidUserId(), keep only the method name
+        Matcher chained = CHAINED_CALL.matcher(code);
+        while (chained.find()) {
+            calls.add("?." + chained.group(1));
+        }
+        Matcher unqualified = UNQUALIFIED_CALL.matcher(code);
+        while (unqualified.find()) {
+            if (!KEYWORDS.contains(unqualified.group(1))) {
+                calls.add(unqualified.group(1));
+            }
+        }
+        Matcher property = PROPERTY_LITERAL.matcher(body);
+        while (property.find()) {
+            propertyKeys.add(property.group(1));
+        }
+    }
+
+    private static int findBlockEnd(String[] lines, int start) {
+        int depth = 0;
+        boolean opened = false;
+        for (int i = start; i < lines.length; i++) {
+            for (char c : stripStrings(lines[i]).toCharArray()) {
+                if (c == '{') {
+                    depth++;
+                    opened = true;
+                } else if (c == '}') {
+                    depth--;
+                }
+            }
+            if (opened && depth <= 0) {
+                return i;
+            }
+        }
+        return lines.length - 1;
+    }
+
+    private static int braceDelta(String line) {
+        int delta = 0;
+        for (char c : stripStrings(line).toCharArray()) {
+            if (c == '{') delta++;
+            else if (c == '}') delta--;
+        }
+        return delta;
+    }
+
+    private static String stripStrings(String code) {
+        String noStrings = code.replaceAll("\"(?:[^\"\\\\]|\\\\.)*\"", "\"\"").replaceAll("'(?:[^'\\\\]|\\\\.)'", "''");
+        return noStrings.replaceAll("//[^\n]*", "");
+    }
+
+    private static String joinLines(String[] lines, int from, int to) {
+        return String.join("\n", Arrays.copyOfRange(lines, from, to + 1));
+    }
+
+    // ================================
+    // REACHABILITY
+    // ================================
+
+    /**
+     * Walks the call graph from a step definition method and returns every reachable
+     * Class#method node, plus Class#&lt;class&gt; markers for the classes touched on the way.
+     */
+    private Set<String> reachableFrom(String entry) {
+        Set<String> visited = new LinkedHashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(entry);
+        while (!queue.isEmpty()) {
+            String node = queue.poll();
+            if (!visited.add(node)) {
+                continue;
+            }
+            String className = node.substring(0, node.indexOf('#'));
+            for (String cls = className; cls != null; cls = superOf(cls)) {
+                visited.add(cls + "#<class>");
+            }
+            MethodFacts method = findMethod(className, node.substring(node.indexOf('#') + 1));
+            if (method == null) {
+                continue;
+            }
+            SourceFacts owner = sources.get(classToPath.get(className));
+            for (String call : method.calls) {
+                String resolved = resolveCall(owner, call);
+                if (resolved != null) {
+                    queue.add(resolved);
+                }
+            }
+        }
+        return visited;
+    }
+
+    private String resolveCall(SourceFacts owner, String call) {
+        int dot = call.indexOf('.');
+        if (dot < 0) {
+            String declaring = declaringClass(owner.className, call);
+            return declaring == null ? null : declaring + "#" + call;
+        }
+        String qualifier = call.substring(0, dot);
+        String methodName = call.substring(dot + 1);
+        String type = fieldType(owner.className, qualifier);
+        if (type == null && classToPath.containsKey(qualifier)) {
+            type = qualifier;
+        }
+        if (type == null) {
+            return null;
+        }
+        String declaring = declaringClass(type, methodName);
+        return declaring == null ? null : declaring + "#" + methodName;
+    }
+
+    private String declaringClass(String className, String methodName) {
+        for (String cls = className; cls != null; cls = superOf(cls)) {
+            if (findMethod(cls, methodName) != null) {
+                return cls;
+            }
+        }
+        return null;
+    }
+
+    private String fieldType(String className, String field) {
+        for (String cls = className; cls != null; cls = superOf(cls)) {
+            SourceFacts facts = sources.get(classToPath.get(cls));
+            if (facts != null && facts.fieldTypes.containsKey(field)) {
+                return facts.fieldTypes.get(field);
+            }
+        }
+        return null;
+    }
+
+    private String superOf(String className) {
+        SourceFacts facts = sources.get(classToPath.get(className));
+        return facts == null ? null : facts.superClass;
+    }
+
+    private MethodFacts findMethod(String className, String methodName) {
+        SourceFacts facts = sources.get(classToPath.get(className));
+        if (facts == null) {
+            return null;
+        }
+        for (MethodFacts method : facts.methods) {
+            if (method.name.equals(methodName)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the config keys read by the given nodes, either through a ConfigFileReader
+     * getter (e.g. getValidUserId -> validUserId) or a literal getProperty("key") call.
+     */
+    private Set<String> configKeysOf(Set<String> nodes) {
+        Set<String> keys = new TreeSet<>();
+        for (String node : nodes) {
+            String className = node.substring(0, node.indexOf('#'));
+            String member = node.substring(node.indexOf('#') + 1);
+            SourceFacts facts = sources.get(classToPath.get(className));
+            if (facts == null) {
+                continue;
+            }
+            List<String> calls = facts.classCalls;
+            List<String> literals = facts.classPropertyKeys;
+            if (!"<class>".equals(member)) {
+                MethodFacts method = findMethod(className, member);
+                if (method == null) {
+                    continue;
+                }
+                calls = method.calls;
+                literals = method.propertyKeys;
+            }
+            keys.addAll(literals);
+            for (String call : calls) {
+                String name = call.substring(call.indexOf('.') + 1);
+                if (getterToKey.containsKey(name)) {
+                    keys.add(getterToKey.get(name));
+                }
+            }
+        }
+        return keys;
+    }
+
+    // ================================
+    // SELECTION
+    // ================================
+    private void selectScenarios() {
+        ChangeSet changes = diff();
+
+        for (Path featureFile : listFiles(Paths.get(FEATURE_DIR), ".feature")) {
+            String featurePath = normalize(featureFile);
+            List<ScenarioSelection> scenarios = parseFeature(featurePath, read(featureFile));
+            Set<Integer> changedLines = changes.changedLines.get(featurePath);
+
+            for (ScenarioSelection scenario : scenarios) {
+                if (changes.globalReason != null) {
+                    scenario.select(changes.globalReason);
+                    continue;
+                }
+                if (changedLines != null) {
+                    for (int line : changedLines) {
+                        if (scenario.covers(line)) {
+                            scenario.select("feature file changed at line " + line);
+                            break;
+                        }
+                    }
+                }
+                for (String step : scenario.steps) {
+                    StepBinding binding = bind(step);
+                    if (binding == null) {
+                        scenario.select("no step definition matches '" + step + "'");
+                        continue;
+                    }
+                    Set<String> reached = reachableFrom(binding.method);
+                    for (String node : reached) {
+                        if (changes.isChanged(node)) {
+                            scenario.select("step '" + step + "' reaches changed " + node.replace("#<class>", ""));
+                        }
+                    }
+                    for (String key : configKeysOf(reached)) {
+                        if (changes.changedKeys.contains(key)) {
+                            scenario.select("step '" + step + "' reads changed config key '" + key + "'");
+                        }
+                    }
+                }
+                if (!scenario.selected) {
+                    scenario.reasons.add("no changed code or config reachable from its steps");
+                }
+            }
+            selections.addAll(scenarios);
+        }
+    }
+
+    private StepBinding bind(String stepText) {
+        for (StepBinding binding : bindings) {
+            if (binding.regex.matcher(stepText).matches()) {
+                return binding;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a feature into one selection per scenario; an outline is one selection with the steps of
+     * all its example rows. A scenario covers its lines from its first tag up to the next scenario or
+     * rule, the header and Background of its rule, and the feature header before the first scenario.
+     */
+    static List<ScenarioSelection> parseFeature(String featurePath, String content) {
+        List<ScenarioSelection> scenarios = new ArrayList<>();
+        Optional<Feature> feature = GherkinParser.builder().includeSource(false).includePickles(false).build()
+                .parse(featurePath, content.getBytes(StandardCharsets.UTF_8))
+                .map(envelope -> envelope.getGherkinDocument().flatMap(GherkinDocument::getFeature))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .findFirst();
+        if (!feature.isPresent()) {
+            logger.warn("Unable to parse {}, none of its scenarios can be selected", featurePath);
+            return scenarios;
+        }
+
+        List<Scenario> ordered = new ArrayList<>();
+        Map<Scenario, List<Step>> backgrounds = new IdentityHashMap<>();
+        Map<Scenario, int[]> ruleHeaders = new IdentityHashMap<>();
+        TreeSet<Integer> boundaries = new TreeSet<>();
+        List<Step> featureBackground = new ArrayList<>();
+        for (FeatureChild child : feature.get().getChildren()) {
+            child.getBackground().ifPresent(background -> featureBackground.addAll(background.getSteps()));
+            child.getScenario().ifPresent(scenario -> {
+                ordered.add(scenario);
+                backgrounds.put(scenario, featureBackground);
+            });
+            child.getRule().ifPresent(rule -> {
+                int ruleStart = startLine(rule.getLocation().getLine(), rule.getTags());
+                boundaries.add(ruleStart);
+                List<Step> ruleBackground = new ArrayList<>(featureBackground);
+                List<Scenario> ruleScenarios = new ArrayList<>();
+                for (RuleChild ruleChild : rule.getChildren()) {
+                    ruleChild.getBackground().ifPresent(background -> ruleBackground.addAll(background.getSteps()));
+                    ruleChild.getScenario().ifPresent(ruleScenarios::add);
+                }
+                for (Scenario scenario : ruleScenarios) {
+                    ordered.add(scenario);
+                    backgrounds.put(scenario, ruleBackground);
+                    ruleHeaders.put(scenario, new int[]{ruleStart, startLine(ruleScenarios.get(0)) - 1});
+                }
+            });
+        }
+        ordered.forEach(scenario -> boundaries.add(startLine(scenario)));
+
+        int lineCount = content.split("\r?\n", -1).length;
+        int headerEnd = boundaries.isEmpty() ? lineCount : boundaries.first() - 1;
+        for (Scenario scenario : ordered) {
+            int start = startLine(scenario);
+            Integer next = boundaries.higher(start);
+            ScenarioSelection selection = new ScenarioSelection(featurePath, scenario.getLocation().getLine().intValue(),
+                    scenario.getName());
+            selection.ranges.add(new int[]{1, headerEnd});
+            selection.ranges.add(new int[]{start, next == null ? lineCount : next - 1});
+            if (ruleHeaders.containsKey(scenario)) {
+                selection.ranges.add(ruleHeaders.get(scenario));
+            }
+            backgrounds.get(scenario).forEach(step -> selection.steps.add(step.getText()));
+            selection.steps.addAll(stepTexts(scenario));
+            scenarios.add(selection);
+        }
+        return scenarios;
+    }
+
+    // A scenario starts at its first tag line, so a changed tag selects the scenario it belongs to
+    private static int startLine(Scenario scenario) {
+        return startLine(scenario.getLocation().getLine(), scenario.getTags());
+    }
+
+    private static int startLine(Long keywordLine, List<Tag> tags) {
+        int start = keywordLine.intValue();
+        for (Tag tag : tags) {
+            start = Math.min(start, tag.getLocation().getLine().intValue());
+        }
+        return start;
+    }
+
+    /**
+     * Returns the scenario's step texts, with an outline's placeholders filled in from every example row.
+     */
+    private static List<String> stepTexts(Scenario scenario) {
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (Examples examples : scenario.getExamples()) {
+            if (!examples.getTableHeader().isPresent()) {
+                continue;
+            }
+            List<TableCell> header = examples.getTableHeader().get().getCells();
+            for (TableRow row : examples.getTableBody()) {
+                Map<String, String> values = new LinkedHashMap<>();
+                for (int i = 0; i < header.size() && i < row.getCells().size(); i++) {
+                    values.put("<" + header.get(i).getValue() + ">", row.getCells().get(i).getValue());
+                }
+                rows.add(values);
+            }
+        }
+        if (rows.isEmpty()) {
+            rows.add(Collections.emptyMap());
+        }
+        List<String> texts = new ArrayList<>();
+        for (Step step : scenario.getSteps()) {
+            for (Map<String, String> values : rows) {
+                String text = step.getText();
+                for (Map.Entry<String, String> value : values.entrySet()) {
+                    text = text.replace(value.getKey(), value.getValue());
+                }
+                if (!texts.contains(text)) {
+                    texts.add(text);
+                }
+            }
+        }
+        return texts;
+    }
+
+    // ================================
+    // GIT DIFF
+    // ================================
+    private ChangeSet diff() {
+        ChangeSet changes = new ChangeSet();
+        List<String> changedFiles;
+        Set<String> untracked;
+        try {
+            changedFiles = new ArrayList<>(git("diff", "--name-only", baseRef, "--"));
+            // New files are not in the diff until they are added
+            untracked = new HashSet<>(git("ls-files", "--others", "--exclude-standard"));
+            changedFiles.addAll(untracked);
+        } catch (RuntimeException e) {
+            logger.warn("git diff against {} failed, selecting every scenario", baseRef, e);
+            changes.globalReason = "git diff against " + baseRef + " unavailable";
+            return changes;
+        }
+
+        for (String file : changedFiles) {
+            if (GLOBAL_PATHS.stream().anyMatch(file::startsWith)) {
+                changes.globalReason = "shared infrastructure changed: " + file;
+            } else if (file.matches(".*config/config_\\w+\\.properties")) {
+                changes.changedKeys.addAll(changedConfigKeys(file));
+            } else if (file.endsWith(".feature") || file.endsWith(".java")) {
+                changes.changedLines.put(file, untracked.contains(file) ? allLines(file) : changedLines(file));
+            }
+        }
+
+        for (Map.Entry<String, Set<Integer>> entry : changes.changedLines.entrySet()) {
+            SourceFacts facts = sources.get(entry.getKey());
+            if (facts == null || facts.className == null) {
+                continue;
+            }
+            Set<Integer> lines = entry.getValue();
+            for (int line : lines) {
+                MethodFacts owner = null;
+                for (MethodFacts method : facts.methods) {
+                    if (line >= method.startLine && line <= method.endLine) {
+                        owner = method;
+                    }
+                }
+                if (owner == null) {
+                    changes.changedClasses.add(facts.className);
+                } else {
+                    changes.changedMethods.add(facts.className + "#" + owner.name);
+                }
+            }
+        }
+
+        // A changed config key used by driver setup or other shared code affects every scenario,
+        // and so does a key that cannot be traced to any reader (e.g. indexed accountPool.* keys)
+        Set<String> usedAnywhere = new HashSet<>();
+        for (SourceFacts facts : sources.values()) {
+            if (facts.path.equals(CONFIG_READER)) {
+                continue;
+            }
+            Set<String> used = new HashSet<>(facts.classPropertyKeys);
+            for (MethodFacts method : facts.methods) {
+                used.addAll(method.propertyKeys);
+                for (String call : method.calls) {
+                    String name = call.substring(call.indexOf('.') + 1);
+                    if (getterToKey.containsKey(name)) {
+                        used.add(getterToKey.get(name));
+                    }
+                }
+            }
+            usedAnywhere.addAll(used);
+            if (GLOBAL_PATHS.stream().noneMatch(facts.path::startsWith)) {
+                continue;
+            }
+            for (String key : changes.changedKeys) {
+                if (used.contains(key)) {
+                    changes.globalReason = "config key '" + key + "' is read by " + facts.className;
+                }
+            }
+        }
+        for (String key : changes.changedKeys) {
+            if (!usedAnywhere.contains(key)) {
+                changes.globalReason = "config key '" + key + "' is not traced to specific steps";
+            }
+        }
+        return changes;
+    }
+
+    private Set<Integer> changedLines(String file) {
+        Set<Integer> lines = new TreeSet<>();
+        for (String line : git("diff", "-U0", baseRef, "--", file)) {
+            Matcher hunk = HUNK.matcher(line);
+            if (hunk.find()) {
+                int start = Integer.parseInt(hunk.group(1));
+                int count = hunk.group(2) == null ? 1 : Integer.parseInt(hunk.group(2));
+                // Pure deletions (count 0) are attributed to the line they were removed at
+                for (int i = start; i < start + Math.max(count, 1); i++) {
+                    lines.add(i);
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static Set<Integer> allLines(String file) {
+        Set<Integer> lines = new TreeSet<>();
+        int count = read(Paths.get(file)).split("\r?\n", -1).length;
+        for (int i = 1; i <= count; i++) {
+            lines.add(i);
+        }
+        return lines;
+    }
+
+    private Set<String> changedConfigKeys(String file) {
+        Properties before = new Properties();
+        Properties after = new Properties();
+        try {
+            before.load(new StringReader(String.join("\n", git("show", baseRef + ":" + file))));
+        } catch (RuntimeException | IOException e) {
+            logger.debug("{} does not exist at {}", file, baseRef);
+        }
+        if (Files.exists(Paths.get(file))) {
+            try (Reader reader = Files.newBufferedReader(Paths.get(file))) {
+                after.load(reader);
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading configuration file: " + file, e);
+            }
+        }
+        Set<String> keys = new TreeSet<>();
+        Set<String> allKeys = new HashSet<>(before.stringPropertyNames());
+        allKeys.addAll(after.stringPropertyNames());
+        for (String key : allKeys) {
+            if (!Objects.equals(before.getProperty(key), after.getProperty(key))) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static List<String> git(String... args) {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            List<String> output;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                output = reader.lines().collect(Collectors.toList());
+            }
+            if (process.waitFor() != 0) {
+                throw new RuntimeException("git " + String.join(" ", args) + " failed: " + String.join("\n", output));
+            }
+            return output;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to run git", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running git", e);
+        }
+    }
+
+    // ================================
+    // CACHE
+    // ================================
+    private Map<String, SourceFacts> readCache() {
+        File cacheFile = new File(CACHE_FILE);
+        if (!cacheFile.exists()) {
+            return new HashMap<>();
+        }
+        try {
+            SourceFacts[] cached = new ObjectMapper().readValue(cacheFile, SourceFacts[].class);
+            Map<String, SourceFacts> cache = new HashMap<>();
+            for (SourceFacts facts : cached) {
+                cache.put(facts.path, facts);
+            }
+            return cache;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable impact map cache {}", CACHE_FILE, e);
+            return new HashMap<>();
+        }
+    }
+
+    private void writeCache() {
+        try {
+            File cacheFile = new File(CACHE_FILE);
+            cacheFile.getParentFile().mkdirs();
+            new ObjectMapper().writeValue(cacheFile, sources.values());
+        } catch (IOException e) {
+            logger.warn("Unable to write impact map cache {}", CACHE_FILE, e);
+        }
+    }
+
+    // ================================
+    // FILE HELPERS
+    // ================================
+    private static List<Path> listFiles(Path dir, String extension) {
+        if (!Files.isDirectory(dir)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(p -> p.toString().endsWith(extension)).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to list " + dir, e);
+        }
+    }
+
+    private static String read(Path file) {
+        try {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read " + file, e);
+        }
+    }
+
+    private static String normalize(Path file) {
+        return file.toString().replace('\\', '/');
+    }
+
+    private static String sha1(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            throw new RuntimeException("SHA-1 not available", e);
+        }
+    }
+
+    /**
+     * Converts a Cucumber expression (or an anchored regex) into a Pattern that matches step text.
+     */
+    static Pattern toRegex(String expression) {
+        if (expression.startsWith("^") || expression.endsWith("$")) {
+            return Pattern.compile(expression);
+        }
+        StringBuilder regex = new StringBuilder();
+        Matcher m = Pattern.compile("\\{(int|float|word|string|)}|\\(([^)]*)\\)").matcher(expression);
+        int last = 0;
+        while (m.find()) {
+            regex.append(Pattern.quote(expression.substring(last, m.start())));
+            if (m.group(2) != null) {
+                regex.append("(?:").append(Pattern.quote(m.group(2))).append(")?");
+            } else {
+                switch (m.group(1)) {
+                    case "int": regex.append("-?\\d+"); break;
+                    case "float": regex.append("-?\\d*\\.?\\d+"); break;
+                    case "word": regex.append("\\S+"); break;
+                    case "string": regex.append("(?:\"[^\"]*\"|'[^']*')"); break;
+                    default: regex.append(".*"); break;
+                }
+            }
+            last = m.end();
+        }
+        regex.append(Pattern.quote(expression.substring(last)));
+        return Pattern.compile(regex.toString());
+    }
+
+    // ================================
+    // MODEL
+    // ================================
+
+    /** Cached facts for one source file; public fields so Jackson can round-trip the cache. */
+    public static class SourceFacts {
+        public String path;
+        public String hash;
+        public String className;
+        public String superClass;
+        public Map<String, String> fieldTypes = new HashMap<>();
+        public List<MethodFacts> methods = new ArrayList<>();
+        public List<String> classCalls = new ArrayList<>();
+        public List<String> classPropertyKeys = new ArrayList<>();
+    }
+
+    public static class MethodFacts {
+        public String name;
+        public int startLine;
+        public int endLine;
+        public List<String> stepPatterns = new ArrayList<>();
+        public List<String> calls = new ArrayList<>();
+        public List<String> propertyKeys = new ArrayList<>();
+    }
+
+    private static class StepBinding {
+        private final Pattern regex;
+        private final String method;
+
+        StepBinding(String expression, String method) {
+            this.regex = toRegex(expression);
+            this.method = method;
+        }
+    }
+
+    private static class ChangeSet {
+        private String globalReason;
+        private final Map<String, Set<Integer>> changedLines = new HashMap<>();
+        private final Set<String> changedClasses = new HashSet<>();
+        private final Set<String> changedMethods = new HashSet<>();
+        private final Set<String> changedKeys = new TreeSet<>();
+
+        boolean isChanged(String node) {
+            String className = node.substring(0, node.indexOf('#'));
+            return changedMethods.contains(node) || (node.endsWith("#<class>") && changedClasses.contains(className));
+        }
+    }
+
+    /** Selection outcome for one scenario, with the reasons that led to it. */
+    public static class ScenarioSelection {
+        private final String featurePath;
+        private final int line;
+        private final String name;
+        private final List<String> steps = new ArrayList<>();
+        private final Set<String> reasons = new LinkedHashSet<>();
+        private final List<int[]> ranges = new ArrayList<>();
+        private boolean selected;
+
+        ScenarioSelection(String featurePath, int line, String name) {
+            this.featurePath = featurePath;
+            this.line = line;
+            this.name = name;
+        }
+
+        boolean covers(int line) {
+            return ranges.stream().anyMatch(range -> line >= range[0] && line <= range[1]);
+        }
+
+        void select(String reason) {
+            selected = true;
+            reasons.add(reason);
+        }
+
+        public String getFeaturePath() {
+            return featurePath;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<String> getSteps() {
+            return steps;
+        }
+
+        public boolean isSelected() {
+            return selected;
+        }
+
+        public Set<String> getReasons() {
+            return reasons;
+        }
+    }
+}
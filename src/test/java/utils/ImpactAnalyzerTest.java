@@ -0,0 +1,74 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ImpactAnalyzerTest {
+
+    private static final String FEATURE = String.join("\n",
+            "Feature: Login",                               // 1
+            "",                                             // 2
+            "  Background:",                                // 3
+            "    Given verify user is on Login Page",       // 4
+            "",                                             // 5
+            "  @smoke",                                     // 6
+            "  Scenario: Valid login",                      // 7
+            "    When user enters Valid username and password", // 8
+            "",                                             // 9
+            "  @smoke @negative",                           // 10
+            "  Scenario Outline: Invalid login",            // 11
+            "    When user enters \"<user>\" and \"<password>\"", // 12
+            "    Examples:",                                // 13
+            "      | user | password |",                    // 14
+            "      | bob  | wrong    |");                    // 15
+
+    @Test
+    public void tagLinesBelongToTheScenarioBelowThem() {
+        List<ImpactAnalyzer.ScenarioSelection> scenarios = ImpactAnalyzer.parseFeature("login.feature", FEATURE);
+
+        Assert.assertEquals(scenarios.size(), 2);
+        Assert.assertEquals(scenarios.get(1).getLine(), 11);
+        Assert.assertFalse(scenarios.get(0).covers(10), "the second scenario's tag line is not part of the first");
+        Assert.assertTrue(scenarios.get(1).covers(10));
+        Assert.assertTrue(scenarios.get(0).covers(8));
+    }
+
+    @Test
+    public void featureHeaderAndBackgroundCoverEveryScenario() {
+        for (ImpactAnalyzer.ScenarioSelection scenario : ImpactAnalyzer.parseFeature("login.feature", FEATURE)) {
+            Assert.assertTrue(scenario.covers(4), scenario.getName());
+        }
+    }
+
+    @Test
+    public void outlineStepsAreExpandedFromTheirExamples() {
+        ImpactAnalyzer.ScenarioSelection outline = ImpactAnalyzer.parseFeature("login.feature", FEATURE).get(1);
+
+        Assert.assertEquals(outline.getSteps(), Arrays.asList(
+                "verify user is on Login Page", "user enters \"bob\" and \"wrong\""));
+        Assert.assertTrue(ImpactAnalyzer.toRegex("user enters {string} and {string}")
+                .matcher(outline.getSteps().get(1)).matches());
+        Assert.assertTrue(outline.covers(15), "an example row belongs to its outline");
+    }
+
+    @Test
+    public void emptySelectionFallsBackToEveryFeature() {
+        List<ImpactAnalyzer.ScenarioSelection> scenarios = ImpactAnalyzer.parseFeature("a.feature", FEATURE);
+
+        Assert.assertEquals(ImpactAnalyzer.rerunContent(scenarios), "a.feature\n");
+        Assert.assertEquals(ImpactAnalyzer.rerunContent(Collections.emptyList()), "src/test/java/feature\n");
+    }
+
+    @Test
+    public void selectedScenariosAreWrittenByLine() {
+        List<ImpactAnalyzer.ScenarioSelection> scenarios = ImpactAnalyzer.parseFeature("a.feature", FEATURE);
+        scenarios.get(1).select("changed");
+
+        Assert.assertEquals(ImpactAnalyzer.rerunContent(scenarios), "a.feature:11\n");
+        Assert.assertEquals(Arrays.asList(scenarios.get(1).getReasons().toArray()), Collections.singletonList("changed"));
+    }
+}
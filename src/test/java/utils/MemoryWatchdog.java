@@ -0,0 +1,247 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dataProviders.ConfigFileReader;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MemoryWatchdog samples the memory of live browser sessions between scenarios and decides when
+ * DriverPool should recycle a driver instead of handing it to the next scenario.
+ *
+ * Each sample combines:
+ * - DevTools `Performance.getMetrics` of the driven page: JS heap used/total, DOM nodes, documents
+ *   and event listeners (Chrome/Edge only)
+ * - Resident set size of the whole browser, i.e. the browser process found by the profile directory
+ *   Chrome reports in its capabilities plus all of its child processes (Linux only, read from /proc)
+ *
+ * Performance metrics are enabled only for the duration of the sample, so DevTools does not keep
+ * collecting them while the scenarios run.
+ *
+ * Drivers of BrowserContextPool are tabs in a host browser shared with other workers; the host's RSS
+ * says nothing about one worker, so only their own page's JS heap and DOM figures are sampled and
+ * `recycleRssMb` does not apply to them.
+ *
+ * A driver is recycled once any sample crosses `recycleJsHeapMb`, `recycleDomNodes` or
+ * `recycleRssMb` (0 disables a limit), or after `maxScenariosPerDriver` scenarios.
+ *
+ * Every driver's curve, together with its launch time and recycle reason, is written to
+ * target/browser-memory.json by writeReport() so the thresholds can be tuned against startup cost.
+ */
+public class MemoryWatchdog {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemoryWatchdog.class);
+    private static final File REPORT_FILE = new File("target/browser-memory.json");
+    private static final double MB = 1024 * 1024;
+    private static final Map<String, DriverCurve> curves = new ConcurrentHashMap<>();
+
+    private final long jsHeapLimitMb;
+    private final long domNodeLimit;
+    private final long rssLimitMb;
+    private final int maxScenarios;
+
+    MemoryWatchdog(ConfigFileReader config) {
+        this(config.getRecycleJsHeapMb(), config.getRecycleDomNodes(), config.getRecycleRssMb(), config.getMaxScenariosPerDriver());
+    }
+
+    MemoryWatchdog(long jsHeapLimitMb, long domNodeLimit, long rssLimitMb, int maxScenarios) {
+        this.jsHeapLimitMb = jsHeapLimitMb;
+        this.domNodeLimit = domNodeLimit;
+        this.rssLimitMb = rssLimitMb;
+        this.maxScenarios = maxScenarios;
+    }
+
+    /**
+     * Registers a newly launched driver so its curve starts with the launch cost.
+     */
+    static void launched(String driverId, long launchMillis) {
+        curves.put(driverId, new DriverCurve(launchMillis));
+    }
+
+    /**
+     * Samples the driver after a scenario and records the point on its curve.
+     * @param scenarios scenarios the driver has run so far
+     * @return the reason to recycle the driver now, or null to keep it
+     */
+    String check(String driverId, WebDriver driver, int scenarios) {
+        return check(driverId, sample(driver, BrowserContextPool.owns(driver)), scenarios);
+    }
+
+    String check(String driverId, Map<String, Object> sample, int scenarios) {
+        sample.put("scenarios", scenarios);
+        DriverCurve curve = curves.computeIfAbsent(driverId, id -> new DriverCurve(0));
+        curve.samples.add(sample);
+
+        String reason = null;
+        if (jsHeapLimitMb > 0 && number(sample, "jsHeapUsedMb") > jsHeapLimitMb) {
+            reason = "JS heap " + sample.get("jsHeapUsedMb") + " MB over " + jsHeapLimitMb + " MB";
+        } else if (domNodeLimit > 0 && number(sample, "domNodes") > domNodeLimit) {
+            reason = "DOM nodes " + sample.get("domNodes") + " over " + domNodeLimit;
+        } else if (rssLimitMb > 0 && number(sample, "rssMb") > rssLimitMb) {
+            reason = "browser RSS " + sample.get("rssMb") + " MB over " + rssLimitMb + " MB";
+        } else if (maxScenarios > 0 && scenarios >= maxScenarios) {
+            reason = "ran " + scenarios + " scenarios";
+        }
+        if (reason != null) {
+            curve.recycleReason = reason;
+            logger.info("Recycling {}: {}", driverId, reason);
+        }
+        return reason;
+    }
+
+    /**
+     * @param sharedProcess true when the driver's browser process also holds other workers' contexts
+     * @return the current memory figures of the driver; metrics that are unavailable are left out
+     */
+    static Map<String, Object> sample(WebDriver driver, boolean sharedProcess) {
+        Map<String, Object> sample = new LinkedHashMap<>();
+        sample.put("time", System.currentTimeMillis());
+        if (driver instanceof HasDevTools) {
+            try {
+                Map<String, Double> metrics = pageMetrics(((HasDevTools) driver).getDevTools());
+                sample.put("jsHeapUsedMb", round(metrics.getOrDefault("JSHeapUsedSize", 0.0) / MB));
+                sample.put("jsHeapTotalMb", round(metrics.getOrDefault("JSHeapTotalSize", 0.0) / MB));
+                sample.put("domNodes", metrics.getOrDefault("Nodes", 0.0).longValue());
+                sample.put("documents", metrics.getOrDefault("Documents", 0.0).longValue());
+                sample.put("eventListeners", metrics.getOrDefault("JSEventListeners", 0.0).longValue());
+            } catch (Exception e) {
+                logger.debug("Unable to read DevTools performance metrics", e);
+            }
+        }
+        long rss = sharedProcess ? -1 : browserRssBytes(driver);
+        if (rss >= 0) {
+            sample.put("rssMb", round(rss / MB));
+        }
+        return sample;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Double> pageMetrics(DevTools devTools) {
+        devTools.createSessionIfThereIsNotOne();
+        devTools.send(new Command<Void>("Performance.enable", Collections.emptyMap()));
+        Map<String, Object> result;
+        try {
+            result = devTools.send(new Command<Map<String, Object>>("Performance.getMetrics",
+                    Collections.emptyMap(), input -> input.read(Json.MAP_TYPE)));
+        } finally {
+            devTools.send(new Command<Void>("Performance.disable", Collections.emptyMap()));
+        }
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        for (Map<String, Object> metric : (List<Map<String, Object>>) result.get("metrics")) {
+            metrics.put((String) metric.get("name"), ((Number) metric.get("value")).doubleValue());
+        }
+        return metrics;
+    }
+
+    /**
+     * Sums the RSS of the browser process that owns the driver's profile directory and its children.
+     * @return bytes, or -1 when the browser process cannot be found or /proc is not available
+     */
+    @SuppressWarnings("unchecked")
+    static long browserRssBytes(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities) || !new File("/proc/self/status").exists()) {
+            return -1;
+        }
+        Capabilities capabilities = ((HasCapabilities) driver).getCapabilities();
+        Object vendor = Optional.ofNullable(capabilities.getCapability("chrome"))
+                .orElse(capabilities.getCapability("msedge"));
+        if (!(vendor instanceof Map) || ((Map<String, Object>) vendor).get("userDataDir") == null) {
+            return -1;
+        }
+        String profileFlag = "--user-data-dir=" + ((Map<String, Object>) vendor).get("userDataDir");
+        return ProcessHandle.allProcesses()
+                .filter(p -> p.info().commandLine().map(cmd -> cmd.contains(profileFlag) && !cmd.contains("--type=")).orElse(false))
+                .findFirst()
+                .map(browser -> rssBytes(browser.pid())
+                        + browser.descendants().mapToLong(child -> Math.max(0, rssBytes(child.pid()))).sum())
+                .orElse(-1L);
+    }
+
+    private static long rssBytes(long pid) {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc", String.valueOf(pid), "status"), StandardCharsets.UTF_8)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Unable to read RSS of process {}", pid, e);
+        }
+        return 0;
+    }
+
+    private static double number(Map<String, Object> sample, String key) {
+        Object value = sample.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    /**
+     * Writes every driver's memory curve to target/browser-memory.json and logs a one-line summary.
+     */
+    public static void writeReport() {
+        if (curves.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> drivers = new ArrayList<>();
+        long launchMillis = 0;
+        int recycled = 0;
+        int scenarios = 0;
+        for (Map.Entry<String, DriverCurve> entry : new LinkedHashMap<>(curves).entrySet()) {
+            DriverCurve curve = entry.getValue();
+            Map<String, Object> driver = new LinkedHashMap<>();
+            driver.put("id", entry.getKey());
+            driver.put("launchMs", curve.launchMillis);
+            driver.put("recycleReason", curve.recycleReason);
+            driver.put("samples", curve.samples);
+            drivers.add(driver);
+            launchMillis += curve.launchMillis;
+            recycled += curve.recycleReason == null ? 0 : 1;
+            scenarios += curve.samples.size();
+        }
+        logger.info("Browser memory: {} driver(s) for {} scenario(s), {} recycled, avg launch {} ms -> {}",
+                drivers.size(), scenarios, recycled, launchMillis / drivers.size(), REPORT_FILE.getPath());
+        try {
+            REPORT_FILE.getParentFile().mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(REPORT_FILE, Collections.singletonMap("drivers", drivers));
+        } catch (IOException e) {
+            logger.warn("Unable to write browser memory report", e);
+        }
+        curves.clear();
+    }
+
+    private static class DriverCurve {
+        private final long launchMillis;
+        private final List<Map<String, Object>> samples = Collections.synchronizedList(new ArrayList<>());
+        private volatile String recycleReason;
+
+        private DriverCurve(long launchMillis) {
+            this.launchMillis = launchMillis;
+        }
+    }
+}
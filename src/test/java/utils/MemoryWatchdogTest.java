@@ -0,0 +1,66 @@
+package utils;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.ImmutableCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class MemoryWatchdogTest {
+
+    private final MemoryWatchdog watchdog = new MemoryWatchdog(256, 50000, 1536, 0);
+
+    @Test
+    public void sharedContextIsRecycledOnItsOwnHeapOnly() {
+        Map<String, Object> sample = new LinkedHashMap<>();
+        sample.put("jsHeapUsedMb", 40.0);
+        sample.put("domNodes", 1200L);
+        Assert.assertNull(watchdog.check("driver-1", sample, 3));
+
+        sample.put("jsHeapUsedMb", 300.0);
+        Assert.assertEquals(watchdog.check("driver-1", sample, 4), "JS heap 300.0 MB over 256 MB");
+    }
+
+    @Test
+    public void ownBrowserIsRecycledOnRss() {
+        Map<String, Object> sample = new LinkedHashMap<>();
+        sample.put("jsHeapUsedMb", 40.0);
+        sample.put("rssMb", 2048.0);
+        Assert.assertEquals(watchdog.check("driver-2", sample, 1), "browser RSS 2048.0 MB over 1536 MB");
+    }
+
+    @Test
+    public void hostRssIsNotSampledForASharedContext() throws IOException, InterruptedException {
+        if (!new File("/proc/self/status").exists()) {
+            throw new SkipException("Browser RSS is read from /proc");
+        }
+        String profile = new File(System.getProperty("java.io.tmpdir"), "memory-watchdog-test").getAbsolutePath();
+        // Stands in for the browser: a process started with the profile directory on its command line
+        Process browser = new ProcessBuilder("sh", "-c", "sleep 30; :", "--user-data-dir=" + profile).start();
+        try {
+            WebDriver driver = driverWithProfile(profile);
+            Assert.assertTrue((Double) MemoryWatchdog.sample(driver, false).get("rssMb") > 0);
+            Assert.assertFalse(MemoryWatchdog.sample(driver, true).containsKey("rssMb"));
+        } finally {
+            browser.destroy();
+            browser.waitFor(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static WebDriver driverWithProfile(String profile) {
+        Capabilities capabilities = new ImmutableCapabilities("chrome", Collections.singletonMap("userDataDir", profile));
+        return (WebDriver) Proxy.newProxyInstance(MemoryWatchdogTest.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, HasCapabilities.class},
+                (proxy, method, args) -> method.getName().equals("getCapabilities") ? capabilities : null);
+    }
+}
@@ -0,0 +1,267 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dataProviders.ConfigFileReader;
+import managers.FileReaderManager;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * PagePerformanceCollector records how fast application pages load during functional runs.
+ *
+ * - capture() reads Navigation Timing, paint timings (FP/FCP), Largest Contentful Paint and a
+ *   resource-timing summary in one async script call once the page has loaded.
+ * - Samples are aggregated per environment and URL (query string dropped) across all scenarios of
+ *   the run, so an environment matrix run does not mix the timings of its environments.
+ * - A sample over any budget (`perfBudget*Ms` of the scenario's environment) is flagged as a warning
+ *   on the current Extent scenario; pages whose median breaches a budget are listed in the summary email.
+ * - writeReport() stores the per-page aggregates as target/page-performance.json.
+ *
+ * Opt-in with `pagePerformanceMetrics=true`; otherwise every call returns immediately.
+ */
+public class PagePerformanceCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(PagePerformanceCollector.class);
+    private static final File REPORT_FILE = new File("target/page-performance.json");
+    private static final String[] METRICS = {"ttfb", "fcp", "lcp", "domContentLoaded", "load"};
+
+    // Resolves after one task so the buffered LCP observer has delivered its entries
+    private static final String COLLECT_SCRIPT =
+            "var done = arguments[arguments.length - 1];"
+            + "var nav = performance.getEntriesByType('navigation')[0] || {};"
+            + "var result = {url: location.href, timeOrigin: performance.timeOrigin,"
+            + "  ttfb: nav.responseStart, domContentLoaded: nav.domContentLoadedEventEnd, load: nav.loadEventEnd,"
+            + "  transferSize: nav.transferSize};"
+            + "performance.getEntriesByType('paint').forEach(function (p) {"
+            + "  result[p.name === 'first-contentful-paint' ? 'fcp' : 'fp'] = p.startTime; });"
+            + "var resources = performance.getEntriesByType('resource');"
+            + "result.resourceCount = resources.length;"
+            + "result.resourceBytes = resources.reduce(function (sum, r) { return sum + (r.transferSize || 0); }, 0);"
+            + "result.slowestResources = resources.slice().sort(function (a, b) { return b.duration - a.duration; })"
+            + "  .slice(0, 3).map(function (r) { return r.name + ' (' + Math.round(r.duration) + ' ms)'; });"
+            + "try {"
+            + "  new PerformanceObserver(function (list) {"
+            + "    var entries = list.getEntries(); result.lcp = entries[entries.length - 1].startTime;"
+            + "  }).observe({type: 'largest-contentful-paint', buffered: true});"
+            + "} catch (e) {}"
+            + "setTimeout(function () { done(result); }, 50);";
+
+    private static final Map<String, PageStats> pages = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, Object> lastTimeOrigin = Collections.synchronizedMap(new WeakHashMap<>());
+    private static Boolean enabled;
+    private static Map<String, Long> budgets;
+
+    private static synchronized boolean isEnabled() {
+        if (enabled == null) {
+            configure(FileReaderManager.getInstance().getConfigReader().isPagePerformanceMetrics(), null);
+        }
+        return enabled;
+    }
+
+    /**
+     * @return the budgets set with configure(), otherwise those of the calling thread's environment
+     */
+    private static Map<String, Long> budgets(ConfigFileReader config) {
+        if (budgets != null) {
+            return budgets;
+        }
+        Map<String, Long> configured = new LinkedHashMap<>();
+        configured.put("ttfb", config.getPerfBudgetTtfbMs());
+        configured.put("fcp", config.getPerfBudgetFcpMs());
+        configured.put("lcp", config.getPerfBudgetLcpMs());
+        configured.put("load", config.getPerfBudgetLoadMs());
+        return configured;
+    }
+
+    /**
+     * Replaces the configured switch and budgets (null: each environment's own) and drops every sample collected so far.
+     */
+    static synchronized void configure(boolean enabled, Map<String, Long> budgets) {
+        PagePerformanceCollector.enabled = enabled;
+        PagePerformanceCollector.budgets = budgets;
+        pages.clear();
+        lastTimeOrigin.clear();
+    }
+
+    /**
+     * @return a marker for the current document, to pass to captureNavigation(); null when disabled
+     */
+    public static Object navigationMarker(WebDriver driver) {
+        return isEnabled() ? timeOrigin(driver) : null;
+    }
+
+    /**
+     * Waits for the navigation started after navigationMarker() to load, then captures it.
+     */
+    public static void captureNavigation(WebDriver driver, Object marker) {
+        if (marker == null) {
+            return;
+        }
+        try {
+            new WebDriverWait(driver, Duration.ofSeconds(FileReaderManager.getInstance().getConfigReader().getPageLoadTimeout()))
+                    .until(d -> !marker.equals(timeOrigin(d)) && "complete".equals(
+                            ((JavascriptExecutor) d).executeScript("return document.readyState")));
+        } catch (RuntimeException e) {
+            logger.debug("No completed navigation to measure", e);
+            return;
+        }
+        capture(driver);
+    }
+
+    /**
+     * Captures the current page once. A document that was already captured is skipped.
+     */
+    public static void capture(WebDriver driver) {
+        if (!isEnabled() || !(driver instanceof JavascriptExecutor)) {
+            return;
+        }
+        ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+        capture(driver, config.getEnvironment(), budgets(config));
+    }
+
+    static void capture(WebDriver driver, String environment, Map<String, Long> environmentBudgets) {
+        try {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> sample = (Map<String, Object>) ((JavascriptExecutor) driver).executeAsyncScript(COLLECT_SCRIPT);
+            if (sample == null || sample.get("timeOrigin") == null
+                    || sample.get("timeOrigin").equals(lastTimeOrigin.put(driver, sample.get("timeOrigin")))) {
+                return;
+            }
+            String url = String.valueOf(sample.get("url")).split("[?#]")[0];
+            PageStats page = pages.computeIfAbsent(environment + " " + url, key -> new PageStats(environment, url, environmentBudgets));
+            page.add(sample);
+            flagOverBudget(page, sample);
+        } catch (RuntimeException e) {
+            logger.warn("Unable to collect page performance metrics", e);
+        }
+    }
+
+    private static Object timeOrigin(WebDriver driver) {
+        return ((JavascriptExecutor) driver).executeScript("return performance.timeOrigin");
+    }
+
+    private static void flagOverBudget(PageStats page, Map<String, Object> sample) {
+        String url = page.url;
+        List<String> breaches = new ArrayList<>();
+        page.budgets.forEach((metric, budget) -> {
+            Object value = sample.get(metric);
+            if (value instanceof Number && ((Number) value).longValue() > budget) {
+                breaches.add(metric + " " + ((Number) value).longValue() + " ms > " + budget + " ms");
+            }
+        });
+        if (breaches.isEmpty()) {
+            return;
+        }
+        logger.warn("Page over performance budget: {} ({})", url, String.join(", ", breaches));
+        ExtentTest reportNode = ExtentCucumberAdapter.getCurrentScenario();
+        if (reportNode != null) {
+            reportNode.warning("Page over performance budget: " + url + "<br>" + String.join("<br>", breaches)
+                    + "<br>Slowest resources: " + sample.get("slowestResources"));
+        }
+    }
+
+    /**
+     * @return per-page aggregates, slowest median load first
+     */
+    public static List<PageSummary> getPageSummaries() {
+        return pages.values().stream()
+                .map(PageStats::summarize)
+                .sorted(Comparator.comparingDouble((PageSummary s) -> s.median.getOrDefault("load", 0.0)).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return pages whose median of any metric exceeds its budget
+     */
+    public static List<PageSummary> getPagesOverBudget() {
+        return getPageSummaries().stream().filter(s -> !s.overBudget.isEmpty()).collect(Collectors.toList());
+    }
+
+    public static void writeReport() {
+        if (pages.isEmpty()) {
+            return;
+        }
+        try {
+            REPORT_FILE.getParentFile().mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(REPORT_FILE, getPageSummaries());
+            logger.info("Page performance for {} page(s) written to {}, {} over budget",
+                    pages.size(), REPORT_FILE, getPagesOverBudget().size());
+        } catch (IOException e) {
+            logger.error("Unable to write page performance report", e);
+        }
+    }
+
+    private static class PageStats {
+        private final String environment;
+        private final String url;
+        private final Map<String, Long> budgets;
+        private final Map<String, List<Double>> values = new HashMap<>();
+        private long resourceBytes;
+        private int samples;
+
+        private PageStats(String environment, String url, Map<String, Long> budgets) {
+            this.environment = environment;
+            this.url = url;
+            this.budgets = budgets;
+        }
+
+        private synchronized void add(Map<String, Object> sample) {
+            samples++;
+            for (String metric : METRICS) {
+                Object value = sample.get(metric);
+                if (value instanceof Number && ((Number) value).doubleValue() > 0) {
+                    values.computeIfAbsent(metric, k -> new ArrayList<>()).add(((Number) value).doubleValue());
+                }
+            }
+            if (sample.get("resourceBytes") instanceof Number) {
+                resourceBytes += ((Number) sample.get("resourceBytes")).longValue();
+            }
+        }
+
+        private synchronized PageSummary summarize() {
+            PageSummary summary = new PageSummary();
+            summary.environment = environment;
+            summary.url = url;
+            summary.samples = samples;
+            summary.avgResourceKb = samples == 0 ? 0 : resourceBytes / 1024 / samples;
+            values.forEach((metric, list) -> {
+                List<Double> sorted = new ArrayList<>(list);
+                Collections.sort(sorted);
+                double median = sorted.get(sorted.size() / 2);
+                summary.median.put(metric, median);
+                summary.p90.put(metric, sorted.get((int) Math.ceil(sorted.size() * 0.9) - 1));
+                Long budget = budgets.get(metric);
+                if (budget != null && median > budget) {
+                    summary.overBudget.add(metric);
+                }
+            });
+            return summary;
+        }
+    }
+
+    /**
+     * Aggregated timings of one page, in milliseconds.
+     */
+    public static class PageSummary {
+        public String environment;
+        public String url;
+        public int samples;
+        public long avgResourceKb;
+        public Map<String, Double> median = new LinkedHashMap<>();
+        public Map<String, Double> p90 = new LinkedHashMap<>();
+        public List<String> overBudget = new ArrayList<>();
+    }
+}
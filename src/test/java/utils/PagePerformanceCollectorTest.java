@@ -0,0 +1,123 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PagePerformanceCollectorTest {
+
+    private final Deque<Map<String, Object>> samples = new ArrayDeque<>();
+    private WebDriver driver;
+
+    @BeforeMethod
+    public void setUp() {
+        samples.clear();
+        PagePerformanceCollector.configure(true, Collections.singletonMap("load", 1000L));
+        driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "executeAsyncScript":
+                            return samples.poll();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        PagePerformanceCollector.configure(false, Collections.emptyMap());
+    }
+
+    @Test
+    public void samplesAreAggregatedPerUrlWithoutQueryString() {
+        samples.add(sample("https://parabank/overview.htm?id=1", 1, 600));
+        samples.add(sample("https://parabank/overview.htm?id=2", 2, 800));
+        samples.add(sample("https://parabank/overview.htm", 3, 1400));
+        samples.add(sample("https://parabank/index.htm", 4, 300));
+        for (int i = 0; i < 4; i++) {
+            PagePerformanceCollector.capture(driver);
+        }
+
+        List<PagePerformanceCollector.PageSummary> summaries = PagePerformanceCollector.getPageSummaries();
+        Assert.assertEquals(summaries.size(), 2);
+        PagePerformanceCollector.PageSummary overview = summaries.get(0);
+        Assert.assertEquals(overview.url, "https://parabank/overview.htm", "slowest median load first");
+        Assert.assertEquals(overview.samples, 3);
+        Assert.assertEquals(overview.median.get("load"), 800.0);
+        Assert.assertEquals(overview.p90.get("load"), 1400.0);
+        Assert.assertTrue(PagePerformanceCollector.getPagesOverBudget().isEmpty(), "a single slow sample is not a slow page");
+    }
+
+    @Test
+    public void pageWhoseMedianBreachesTheBudgetIsOverBudget() {
+        samples.add(sample("https://parabank/transfer.htm", 1, 1200));
+        samples.add(sample("https://parabank/transfer.htm", 2, 1500));
+        PagePerformanceCollector.capture(driver);
+        PagePerformanceCollector.capture(driver);
+
+        List<PagePerformanceCollector.PageSummary> overBudget = PagePerformanceCollector.getPagesOverBudget();
+        Assert.assertEquals(overBudget.size(), 1);
+        Assert.assertEquals(overBudget.get(0).overBudget, Collections.singletonList("load"));
+    }
+
+    @Test
+    public void sameDocumentIsCapturedOnce() {
+        samples.add(sample("https://parabank/overview.htm", 7, 500));
+        samples.add(sample("https://parabank/overview.htm", 7, 500));
+        PagePerformanceCollector.capture(driver);
+        PagePerformanceCollector.capture(driver);
+
+        Assert.assertEquals(PagePerformanceCollector.getPageSummaries().get(0).samples, 1);
+    }
+
+    @Test
+    public void environmentsAreAggregatedSeparatelyAgainstTheirOwnBudgets() {
+        samples.add(sample("https://parabank/overview.htm", 1, 1200));
+        samples.add(sample("https://parabank/overview.htm", 2, 1200));
+        PagePerformanceCollector.capture(driver, "QA", Collections.singletonMap("load", 1000L));
+        PagePerformanceCollector.capture(driver, "UAT", Collections.singletonMap("load", 2000L));
+
+        Assert.assertEquals(PagePerformanceCollector.getPageSummaries().size(), 2);
+        List<PagePerformanceCollector.PageSummary> overBudget = PagePerformanceCollector.getPagesOverBudget();
+        Assert.assertEquals(overBudget.size(), 1);
+        Assert.assertEquals(overBudget.get(0).environment, "QA");
+        Assert.assertEquals(overBudget.get(0).samples, 1);
+    }
+
+    @Test
+    public void disabledCollectorDoesNotTouchTheDriver() {
+        PagePerformanceCollector.configure(false, Collections.emptyMap());
+        samples.add(sample("https://parabank/overview.htm", 1, 500));
+        PagePerformanceCollector.capture(driver);
+
+        Assert.assertEquals(samples.size(), 1);
+        Assert.assertNull(PagePerformanceCollector.navigationMarker(driver));
+        Assert.assertTrue(PagePerformanceCollector.getPageSummaries().isEmpty());
+    }
+
+    private static Map<String, Object> sample(String url, double timeOrigin, long load) {
+        Map<String, Object> sample = new HashMap<>();
+        sample.put("url", url);
+        sample.put("timeOrigin", timeOrigin);
+        sample.put("ttfb", 50L);
+        sample.put("load", load);
+        sample.put("resourceBytes", 2048L);
+        return sample;
+    }
+}
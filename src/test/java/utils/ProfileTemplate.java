@@ -0,0 +1,245 @@
+package utils;
+
+import dataProviders.ConfigFileReader;
+import managers.FileReaderManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * ProfileTemplate gives every new Chrome a prepared profile instead of an empty throwaway one.
+ *
+ * With `profileTemplate=true` the first launch for an environment prepares
+ * target/profile-template/template-<env>: Chrome is started once on that user-data-dir, loads the
+ * environment's getUrl() and `profileTemplateWarmUrls` so the HTTP and code caches hold its static
+ * assets, runs its first-run and component initialisation, and is quit. Every driver launched
+ * afterwards for that environment gets a copy of its template as its user-data-dir, so the scenarios
+ * of an environment matrix run start with the cache of the site they test. Cache files are copied like everything else rather than hard-linked: Chrome
+ * rewrites cache index and entry files in place, so a shared link would let one browser change the
+ * cache under another running clone and under the template. Chrome's process singleton links are
+ * skipped. Clones are deleted when their driver quits, and the whole directory at the end of the run.
+ *
+ * Launch time (including the clone) and the first navigation of every Chrome launch are recorded
+ * with and without the template and logged at shutdown. `profileTemplateCompare=true` launches
+ * every other driver without the template, so both figures come from the same run and agent.
+ */
+public class ProfileTemplate {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfileTemplate.class);
+    private static final Path ROOT = Paths.get("target", "profile-template");
+    private static final List<String> LOCK_FILES = Arrays.asList("SingletonLock", "SingletonSocket", "SingletonCookie", "lockfile");
+    private static final Map<WebDriver, Path> clones = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Boolean> pendingFirstLoad = new ThreadLocal<>();
+    private static final AtomicInteger cloneIds = new AtomicInteger();
+    private static final AtomicInteger launches = new AtomicInteger();
+    private static final AtomicLong cloneNanos = new AtomicLong();
+    private static final AtomicLong copiedFiles = new AtomicLong();
+    private static final AtomicLong copiedBytes = new AtomicLong();
+    private static final Timings withTemplate = new Timings();
+    private static final Timings withoutTemplate = new Timings();
+    private static final Set<String> prepared = ConcurrentHashMap.newKeySet();
+    private static final Set<String> unavailable = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong prepareMillis = new AtomicLong();
+
+    /**
+     * Launches Chrome with the given options, on a clone of the template when it is enabled for this launch.
+     */
+    public static ChromeDriver launch(ChromeOptions options) {
+        ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+        boolean templated = config.isProfileTemplate()
+                && !(config.isProfileTemplateCompare() && launches.getAndIncrement() % 2 == 1)
+                && prepare(options, config);
+
+        long start = System.nanoTime();
+        Path clone = null;
+        if (templated) {
+            try {
+                clone = cloneTemplate(template(config.getEnvironment()));
+                options.addArguments("--user-data-dir=" + clone.toAbsolutePath(), "--no-first-run",
+                        "--no-default-browser-check", "--disable-component-update");
+            } catch (IOException e) {
+                logger.warn("Unable to clone the profile template, launching with an empty profile", e);
+                templated = false;
+            }
+        }
+        ChromeDriver driver = new ChromeDriver(options);
+        (templated ? withTemplate : withoutTemplate).launched(System.nanoTime() - start);
+        if (clone != null) {
+            clones.put(driver, clone);
+        }
+        pendingFirstLoad.set(templated);
+        return driver;
+    }
+
+    /**
+     * Records the first navigation of the driver this thread launched last; later navigations are ignored.
+     */
+    public static void firstPageLoaded(long nanos) {
+        Boolean templated = pendingFirstLoad.get();
+        if (templated != null) {
+            pendingFirstLoad.remove();
+            (templated ? withTemplate : withoutTemplate).loaded(nanos);
+        }
+    }
+
+    /**
+     * Deletes the clone the driver ran on. Call after the driver has quit.
+     */
+    public static void discard(WebDriver driver) {
+        Path clone = clones.remove(driver);
+        if (clone != null) {
+            deleteRecursively(clone);
+        }
+    }
+
+    /**
+     * @return the template directory of the environment
+     */
+    static Path template(String environment) {
+        return ROOT.resolve("template-" + environment);
+    }
+
+    private static synchronized boolean prepare(ChromeOptions options, ConfigFileReader config) {
+        String environment = config.getEnvironment();
+        if (prepared.contains(environment) || unavailable.contains(environment)) {
+            return prepared.contains(environment);
+        }
+        Path template = template(environment);
+        long start = System.currentTimeMillis();
+        ChromeDriver driver = null;
+        try {
+            deleteRecursively(template);
+            Files.createDirectories(template);
+            ChromeOptions templateOptions = new ChromeOptions().merge(options);
+            templateOptions.addArguments("--user-data-dir=" + template.toAbsolutePath(), "--no-first-run", "--no-default-browser-check");
+            driver = new ChromeDriver(templateOptions);
+            List<String> urls = new ArrayList<>();
+            urls.add(config.getUrl());
+            urls.addAll(config.getProfileTemplateWarmUrls());
+            for (String url : urls) {
+                driver.get(url);
+            }
+            driver.manage().deleteAllCookies(); // Clones share the warmed cache, not the warm-up session
+            driver.quit();
+            driver = null;
+            for (String lock : LOCK_FILES) {
+                Files.deleteIfExists(template.resolve(lock));
+            }
+            long millis = System.currentTimeMillis() - start;
+            prepareMillis.addAndGet(millis);
+            prepared.add(environment);
+            logger.info("Prepared Chrome profile template for {} in {} ms ({} URL(s) warmed)", environment, millis, urls.size());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to prepare the Chrome profile template for {}, launching with empty profiles", environment, e);
+            unavailable.add(environment);
+            if (driver != null) {
+                driver.quit();
+            }
+        }
+        return prepared.contains(environment);
+    }
+
+    static Path cloneTemplate(Path template) throws IOException {
+        long start = System.nanoTime();
+        Path clone = ROOT.resolve("clone-" + cloneIds.incrementAndGet());
+        try (Stream<Path> paths = Files.walk(template)) {
+            for (Path source : (Iterable<Path>) paths::iterator) {
+                Path relative = template.relativize(source);
+                Path target = clone.resolve(relative.toString());
+                if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.createDirectories(target);
+                } else if (Files.isSymbolicLink(source)) {
+                    continue; // Chrome's process singleton links, recreated by every browser
+                } else {
+                    Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+                    copiedFiles.incrementAndGet();
+                    copiedBytes.addAndGet(Files.size(target));
+                }
+            }
+        }
+        cloneNanos.addAndGet(System.nanoTime() - start);
+        return clone;
+    }
+
+    private static void deleteRecursively(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    logger.debug("Unable to delete {}", path, e);
+                }
+            });
+        } catch (IOException e) {
+            logger.debug("Unable to delete {}", dir, e);
+        }
+    }
+
+    /**
+     * Logs launch and first-load times with and without the template and deletes the template.
+     */
+    public static synchronized void shutdown() {
+        if (withTemplate.launches.get() + withoutTemplate.launches.get() > 0) {
+            int clonesMade = cloneIds.get();
+            logger.info(String.format("Chrome profile: with template %s; without template %s%s",
+                    withTemplate, withoutTemplate,
+                    !prepared.isEmpty() ? String.format(" (template(s) for %s prepared in %d ms, clone avg %.0f ms, %d file(s) / %.1f MB copied)",
+                            String.join(", ", prepared), prepareMillis.get(), clonesMade == 0 ? 0 : cloneNanos.get() / (clonesMade * 1_000_000.0),
+                            copiedFiles.get(), copiedBytes.get() / 1048576.0) : ""));
+        }
+        new ArrayList<>(clones.keySet()).forEach(ProfileTemplate::discard);
+        deleteRecursively(ROOT);
+        prepared.clear();
+        unavailable.clear();
+        prepareMillis.set(0);
+    }
+
+    private static class Timings {
+        private final AtomicInteger launches = new AtomicInteger();
+        private final AtomicLong launchNanos = new AtomicLong();
+        private final AtomicInteger loads = new AtomicInteger();
+        private final AtomicLong loadNanos = new AtomicLong();
+
+        private void launched(long nanos) {
+            launches.incrementAndGet();
+            launchNanos.addAndGet(nanos);
+        }
+
+        private void loaded(long nanos) {
+            loads.incrementAndGet();
+            loadNanos.addAndGet(nanos);
+        }
+
+        @Override
+        public String toString() {
+            if (launches.get() == 0) {
+                return "n/a";
+            }
+            return String.format("%d launch(es) avg %.0f ms, first load avg %s", launches.get(),
+                    launchNanos.get() / (launches.get() * 1_000_000.0),
+                    loads.get() == 0 ? "n/a" : String.format("%.0f ms", loadNanos.get() / (loads.get() * 1_000_000.0)));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class ProfileTemplateTest {
+
+    @AfterMethod
+    public void tearDown() {
+        ProfileTemplate.shutdown(); // Deletes the template and every clone
+    }
+
+    @Test
+    public void cloneIsAnIndependentCopyOfTheTemplate() throws IOException {
+        Path template = ProfileTemplate.template("QA");
+        Path cacheEntry = template.resolve(Paths.get("Default", "Cache", "Cache_Data", "data_1"));
+        Path preferences = template.resolve(Paths.get("Default", "Preferences"));
+        Files.createDirectories(cacheEntry.getParent());
+        Files.write(cacheEntry, "cached asset".getBytes(StandardCharsets.UTF_8));
+        Files.write(preferences, "{}".getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.createSymbolicLink(template.resolve("SingletonSocket"), Paths.get("/tmp/does-not-exist"));
+        } catch (UnsupportedOperationException | IOException e) {
+            // No symbolic links on this file system; nothing to skip then
+        }
+
+        Path clone = ProfileTemplate.cloneTemplate(template);
+        Path clonedEntry = clone.resolve(template.relativize(cacheEntry).toString());
+
+        Assert.assertEquals(Files.readAllBytes(clonedEntry), Files.readAllBytes(cacheEntry));
+        Assert.assertFalse(Files.isSameFile(clonedEntry, cacheEntry), "cache files must not be shared with the template");
+        Assert.assertTrue(Files.exists(clone.resolve(Paths.get("Default", "Preferences"))));
+        Assert.assertFalse(Files.exists(clone.resolve("SingletonSocket"), LinkOption.NOFOLLOW_LINKS));
+
+        Files.write(clonedEntry, "rewritten by the clone's browser".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(new String(Files.readAllBytes(cacheEntry), StandardCharsets.UTF_8), "cached asset");
+    }
+
+    @Test
+    public void eachEnvironmentIsClonedFromItsOwnTemplate() throws IOException {
+        for (String environment : new String[]{"QA", "UAT"}) {
+            Path preferences = ProfileTemplate.template(environment).resolve(Paths.get("Default", "Preferences"));
+            Files.createDirectories(preferences.getParent());
+            Files.write(preferences, environment.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Path clone = ProfileTemplate.cloneTemplate(ProfileTemplate.template("UAT"));
+
+        Assert.assertNotEquals(ProfileTemplate.template("QA"), ProfileTemplate.template("UAT"));
+        Assert.assertEquals(new String(Files.readAllBytes(clone.resolve(Paths.get("Default", "Preferences"))), StandardCharsets.UTF_8), "UAT");
+    }
+}
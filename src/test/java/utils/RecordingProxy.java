@@ -0,0 +1,503 @@
+package utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dataProviders.ConfigFileReader;
+import managers.FileReaderManager;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.Proxy;
+import org.openqa.selenium.remote.CapabilityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * RecordingProxy is an embedded HTTP(S) proxy that records the application's responses to disk and
+ * replays them, so runs do not depend on the latency of the public site.
+ *
+ * BaseTest sets it as the browser proxy (capability `proxy`) when `proxyMode` is not `off`:
+ * - record: every request is forwarded and its response stored under `proxyStoreDir`, one
+ *   `<sha>.json` (method, URL, status, headers) and one `<sha>.body` file per request, keyed by
+ *   method and URL (and the body's hash for non-GET requests).
+ * - replay: static assets matching `proxyStaticPattern` are served from the store without touching
+ *   the network; with `proxyReplayAll=true` every request is, so the suite runs fully offline
+ *   against the recording and unrecorded requests get a 504.
+ * URLs matching any of the `proxyPassthrough` patterns (dynamic endpoints) are always forwarded
+ * and never recorded.
+ *
+ * HTTPS is intercepted with a self-signed certificate generated with keytool into
+ * target/recording-proxy.p12; the browsers already run with acceptInsecureCerts. Forwarded and
+ * replayed counts and times are logged at shutdown, so a replayed run shows the framework and
+ * browser cost without the network.
+ */
+public class RecordingProxy {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordingProxy.class);
+    private static final File KEY_STORE = new File("target/recording-proxy.p12");
+    private static final char[] KEY_STORE_PASSWORD = "recording-proxy".toCharArray();
+    private static final List<String> HOP_BY_HOP = Arrays.asList("connection", "proxy-connection", "keep-alive",
+            "transfer-encoding", "te", "trailer", "upgrade", "proxy-authorization", "content-length", "host", "expect");
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final AtomicLong replayed = new AtomicLong();
+    private static final AtomicLong replayNanos = new AtomicLong();
+    private static final AtomicLong forwarded = new AtomicLong();
+    private static final AtomicLong forwardNanos = new AtomicLong();
+    private static final AtomicLong recorded = new AtomicLong();
+    private static final AtomicLong missing = new AtomicLong();
+    private static RecordingProxy instance;
+
+    private final String mode;
+    private final boolean replayAll;
+    private final Path store;
+    private final Pattern staticPattern;
+    private final List<Pattern> passthrough = new ArrayList<>();
+    private final ServerSocket server;
+    private final SSLContext sslContext;
+    private final HttpClient client;
+    private final ExecutorService connections;
+
+    private RecordingProxy(ConfigFileReader config) throws Exception {
+        this(config.getProxyMode(), config.isProxyReplayAll(), Paths.get(config.getProxyStoreDir()),
+                config.getProxyStaticPattern(), config.getProxyPassthrough(), config.getProxyPort());
+    }
+
+    RecordingProxy(String mode, boolean replayAll, Path store, String staticPattern, List<String> passthrough, int port) throws Exception {
+        this.mode = mode;
+        this.replayAll = replayAll;
+        this.store = store;
+        this.staticPattern = Pattern.compile(staticPattern, Pattern.CASE_INSENSITIVE);
+        for (String regex : passthrough) {
+            this.passthrough.add(Pattern.compile(regex));
+        }
+        Files.createDirectories(store);
+        this.sslContext = serverSslContext();
+        this.client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER) // Redirects go back to the browser as they are
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        this.server = new ServerSocket(port, 256, InetAddress.getByName("127.0.0.1"));
+        this.connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "recording-proxy");
+            thread.setDaemon(true);
+            return thread;
+        });
+        connections.submit(this::acceptLoop);
+        logger.info("Recording proxy in {} mode on 127.0.0.1:{}, store {}", mode, server.getLocalPort(), store.toAbsolutePath());
+    }
+
+    public static boolean isEnabled() {
+        return !"off".equalsIgnoreCase(FileReaderManager.getInstance().getConfigReader().getProxyMode());
+    }
+
+    /**
+     * Points the browser options at the proxy, starting it on first use. Does nothing when proxyMode=off.
+     */
+    public static <T extends MutableCapabilities> T apply(T options) {
+        if (!isEnabled()) {
+            return options;
+        }
+        Proxy proxy = new Proxy();
+        String address = "127.0.0.1:" + start().getPort();
+        proxy.setHttpProxy(address);
+        proxy.setSslProxy(address);
+        options.setCapability(CapabilityType.PROXY, proxy);
+        options.setCapability(CapabilityType.ACCEPT_INSECURE_CERTS, true);
+        return options;
+    }
+
+    private static synchronized RecordingProxy start() {
+        if (instance == null) {
+            try {
+                instance = new RecordingProxy(FileReaderManager.getInstance().getConfigReader());
+            } catch (Exception e) {
+                throw new RuntimeException("Unable to start the recording proxy", e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the proxy and logs how many requests were replayed, forwarded and recorded.
+     */
+    public static synchronized void shutdown() {
+        if (instance == null) {
+            return;
+        }
+        instance.close();
+        logger.info(String.format("Recording proxy (%s): %d replayed avg %.1f ms, %d forwarded avg %.1f ms, %d recorded, %d not recorded",
+                instance.mode, replayed.get(), average(replayNanos, replayed), forwarded.get(), average(forwardNanos, forwarded),
+                recorded.get(), missing.get()));
+        instance = null;
+    }
+
+    int getPort() {
+        return server.getLocalPort();
+    }
+
+    void close() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            logger.debug("Unable to close the recording proxy socket", e);
+        }
+        connections.shutdownNow();
+    }
+
+    private static double average(AtomicLong nanos, AtomicLong count) {
+        return count.get() == 0 ? 0 : nanos.get() / (count.get() * 1_000_000.0);
+    }
+
+    // ================================
+    // CONNECTIONS
+    // ================================
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                connections.submit(() -> handle(socket));
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    logger.warn("Recording proxy failed to accept a connection", e);
+                }
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket client = socket) {
+            InputStream in = new BufferedInputStream(client.getInputStream());
+            OutputStream out = client.getOutputStream();
+            String requestLine = readLine(in);
+            if (requestLine == null || requestLine.isEmpty()) {
+                return;
+            }
+            if (requestLine.startsWith("CONNECT ")) {
+                String authority = requestLine.split(" ")[1];
+                readHeaders(in); // The CONNECT request's own headers
+                out.write("HTTP/1.1 200 Connection Established\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                out.flush();
+                SSLSocket tls = (SSLSocket) sslContext.getSocketFactory().createSocket(client, null, true);
+                tls.setUseClientMode(false);
+                String origin = "https://" + (authority.endsWith(":443") ? authority.substring(0, authority.length() - 4) : authority);
+                serve(new BufferedInputStream(tls.getInputStream()), tls.getOutputStream(), origin, null);
+            } else {
+                serve(in, out, null, requestLine);
+            }
+        } catch (IOException e) {
+            logger.debug("Recording proxy connection closed", e);
+        }
+    }
+
+    /**
+     * Serves requests from one client connection until it closes.
+     * @param origin scheme and authority of a CONNECT tunnel, null for plain proxy requests with absolute URLs
+     */
+    private void serve(InputStream in, OutputStream out, String origin, String firstLine) throws IOException {
+        String requestLine = firstLine;
+        while (true) {
+            if (requestLine == null) {
+                requestLine = readLine(in);
+                if (requestLine == null || requestLine.isEmpty()) {
+                    return;
+                }
+            }
+            String[] parts = requestLine.split(" ");
+            Map<String, List<String>> headers = readHeaders(in);
+            byte[] body = readBody(in, headers);
+            String url = origin == null ? parts[1] : origin + parts[1];
+            Recorded response = exchange(parts[0], url, headers, body);
+            write(out, parts[0], response);
+            if ("close".equalsIgnoreCase(first(headers, "connection")) || "close".equalsIgnoreCase(first(headers, "proxy-connection"))) {
+                return;
+            }
+            requestLine = null;
+        }
+    }
+
+    // ================================
+    // RECORD / REPLAY
+    // ================================
+
+    private Recorded exchange(String method, String url, Map<String, List<String>> headers, byte[] body) {
+        long start = System.nanoTime();
+        boolean passes = passthrough.stream().anyMatch(p -> p.matcher(url).find());
+        String key = key(method, url, body);
+        if (!passes && "replay".equalsIgnoreCase(mode) && (replayAll || staticPattern.matcher(url).find())) {
+            Recorded stored = load(key);
+            if (stored != null) {
+                replayNanos.addAndGet(System.nanoTime() - start);
+                replayed.incrementAndGet();
+                return stored;
+            }
+            if (replayAll) {
+                missing.incrementAndGet();
+                logger.warn("Recording proxy has no response for {} {}", method, url);
+                return new Recorded(504, new HashMap<>(), ("Not recorded: " + method + " " + url).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        Recorded response = forward(method, url, headers, body);
+        forwardNanos.addAndGet(System.nanoTime() - start);
+        forwarded.incrementAndGet();
+        // A 304 only answers the browser's conditional request and would shadow the full response
+        if (!passes && "record".equalsIgnoreCase(mode) && response.status != 304 && response.status != 502) {
+            save(key, method, url, response);
+        }
+        return response;
+    }
+
+    private Recorded forward(String method, String url, Map<String, List<String>> headers, byte[] body) {
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(FileReaderManager.getInstance().getConfigReader().getPageLoadTimeout()))
+                    .method(method, body.length == 0 ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+            headers.forEach((name, values) -> {
+                if (!HOP_BY_HOP.contains(name)) {
+                    for (String value : values) {
+                        try {
+                            request.header(name, value);
+                        } catch (IllegalArgumentException e) {
+                            break; // A header the JDK client sets itself
+                        }
+                    }
+                }
+            });
+            HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            return new Recorded(response.statusCode(), new HashMap<>(response.headers().map()), response.body());
+        } catch (IOException | IllegalArgumentException e) { // IllegalArgumentException: a URL the client cannot send
+            logger.warn("Recording proxy could not forward {} {}", method, url, e);
+            return new Recorded(502, new HashMap<>(), String.valueOf(e).getBytes(StandardCharsets.UTF_8));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Recorded(502, new HashMap<>(), new byte[0]);
+        }
+    }
+
+    private String key(String method, String url, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((method + " " + url).getBytes(StandardCharsets.UTF_8));
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                digest.update(body);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Recorded load(String key) {
+        Path meta = store.resolve(key + ".json");
+        if (!Files.exists(meta)) {
+            return null;
+        }
+        try {
+            Map<String, Object> entry = mapper.readValue(meta.toFile(), new TypeReference<Map<String, Object>>() {});
+            @SuppressWarnings("unchecked")
+            Map<String, List<String>> headers = (Map<String, List<String>>) entry.get("headers");
+            return new Recorded((Integer) entry.get("status"), headers, Files.readAllBytes(store.resolve(key + ".body")));
+        } catch (IOException e) {
+            logger.warn("Unable to read recorded response {}", key, e);
+            return null;
+        }
+    }
+
+    private void save(String key, String method, String url, Recorded response) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("method", method);
+        entry.put("url", url);
+        entry.put("status", response.status);
+        entry.put("headers", response.headers);
+        try {
+            // Body first, so a concurrent replay never sees metadata without its body
+            Files.write(store.resolve(key + ".body"), response.body);
+            mapper.writeValue(store.resolve(key + ".json").toFile(), entry);
+            recorded.incrementAndGet();
+        } catch (IOException e) {
+            logger.warn("Unable to record {} {}", method, url, e);
+        }
+    }
+
+    // ================================
+    // HTTP/1.1 WIRE FORMAT
+    // ================================
+
+    private static void write(OutputStream out, String method, Recorded response) throws IOException {
+        boolean bodyless = "HEAD".equals(method) || response.status == 204 || response.status == 304 || response.status < 200;
+        StringBuilder head = new StringBuilder("HTTP/1.1 ").append(response.status).append(" ").append(reason(response.status)).append("\r\n");
+        response.headers.forEach((name, values) -> {
+            if (!HOP_BY_HOP.contains(name.toLowerCase(Locale.ROOT)) && !name.startsWith(":")) {
+                values.forEach(value -> head.append(name).append(": ").append(value).append("\r\n"));
+            }
+        });
+        if (!bodyless) {
+            head.append("Content-Length: ").append(response.body.length).append("\r\n");
+        }
+        head.append("\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+        if (!bodyless) {
+            out.write(response.body);
+        }
+        out.flush();
+    }
+
+    private static String reason(int status) {
+        switch (status) {
+            case 200: return "OK";
+            case 301: return "Moved Permanently";
+            case 302: return "Found";
+            case 304: return "Not Modified";
+            case 404: return "Not Found";
+            case 502: return "Bad Gateway";
+            case 504: return "Gateway Timeout";
+            default: return "Status";
+        }
+    }
+
+    private static Map<String, List<String>> readHeaders(InputStream in) throws IOException {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.computeIfAbsent(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), name -> new ArrayList<>())
+                        .add(line.substring(colon + 1).trim());
+            }
+        }
+        return headers;
+    }
+
+    private static byte[] readBody(InputStream in, Map<String, List<String>> headers) throws IOException {
+        String length = first(headers, "content-length");
+        if (length != null) {
+            return readFully(in, Integer.parseInt(length));
+        }
+        if ("chunked".equalsIgnoreCase(first(headers, "transfer-encoding"))) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            int size;
+            while ((size = Integer.parseInt(readLine(in).split(";")[0].trim(), 16)) > 0) {
+                body.write(readFully(in, size));
+                readLine(in);
+            }
+            readHeaders(in); // Trailers
+            return body.toByteArray();
+        }
+        return new byte[0];
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int n = in.read(bytes, read, length - read);
+            if (n < 0) {
+                throw new IOException("Connection closed in the middle of a request body");
+            }
+            read += n;
+        }
+        return bytes;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return b == -1 && line.size() == 0 ? null : line.toString(StandardCharsets.ISO_8859_1.name());
+    }
+
+    private static String first(Map<String, List<String>> headers, String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    // ================================
+    // TLS
+    // ================================
+
+    /**
+     * Loads the proxy's self-signed key, generating it with the JDK's keytool the first time.
+     */
+    private static SSLContext serverSslContext() throws Exception {
+        if (!KEY_STORE.exists()) {
+            KEY_STORE.getParentFile().mkdirs();
+            String keytool = Paths.get(System.getProperty("java.home"), "bin", "keytool").toString();
+            Process process = new ProcessBuilder(keytool, "-genkeypair", "-alias", "recording-proxy", "-keyalg", "RSA",
+                    "-keysize", "2048", "-validity", "3650", "-dname", "CN=Recording Proxy", "-ext", "SAN=dns:localhost,ip:127.0.0.1",
+                    "-storetype", "PKCS12", "-keystore", KEY_STORE.getPath(),
+                    "-storepass", new String(KEY_STORE_PASSWORD), "-keypass", new String(KEY_STORE_PASSWORD))
+                    .redirectErrorStream(true).start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            if (process.waitFor() != 0) {
+                throw new IOException("keytool failed: " + output);
+            }
+        }
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = new FileInputStream(KEY_STORE)) {
+            keyStore.load(in, KEY_STORE_PASSWORD);
+        }
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, KEY_STORE_PASSWORD);
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers.getKeyManagers(), null, null);
+        return context;
+    }
+
+    private static class Recorded {
+        private final int status;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+
+        private Recorded(int status, Map<String, List<String>> headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Records responses of a stub site served by the JDK HTTP server through the proxy and replays them.
+ */
+public class RecordingProxyTest {
+
+    private static final String STATIC_PATTERN = "\\.(css|js)(\\?|$)";
+
+    private HttpServer upstream;
+    private String site;
+    private Path store;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final List<RecordingProxy> proxies = new ArrayList<>();
+
+    @BeforeMethod
+    public void startUpstream() throws IOException {
+        hits.set(0);
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.createContext("/", this::handle);
+        upstream.start();
+        site = "http://127.0.0.1:" + upstream.getAddress().getPort();
+        store = Files.createTempDirectory("proxy-store");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stop() throws IOException {
+        proxies.forEach(RecordingProxy::close);
+        proxies.clear();
+        upstream.stop(0);
+        try (Stream<Path> files = Files.walk(store)) {
+            files.map(Path::toFile).sorted(Collections.reverseOrder()).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void recordedStaticResponsesAreReplayedWithoutTheSite() throws Exception {
+        HttpResponse<String> recorded = get(proxy("record", false), "/app.css");
+        Assert.assertEquals(recorded.statusCode(), 200);
+        Assert.assertEquals(recorded.body(), "body 1");
+        Assert.assertEquals(hits.get(), 1);
+        Assert.assertEquals(storedFiles(), 2, "A .json and a .body file per response");
+
+        HttpClient replay = proxy("replay", false);
+        HttpResponse<String> replayed = get(replay, "/app.css");
+        Assert.assertEquals(replayed.statusCode(), 200);
+        Assert.assertEquals(replayed.body(), "body 1");
+        Assert.assertEquals(hits.get(), 1, "Replayed from the store");
+
+        // Only static resources are replayed unless proxyReplayAll is set
+        Assert.assertEquals(get(replay, "/accounts").body(), "body 2");
+        Assert.assertEquals(hits.get(), 2);
+    }
+
+    @Test
+    public void replayAllAnswersUnrecordedRequestsWith504() throws Exception {
+        HttpResponse<String> response = get(proxy("replay", true), "/accounts");
+
+        Assert.assertEquals(response.statusCode(), 504);
+        Assert.assertEquals(hits.get(), 0);
+    }
+
+    @Test
+    public void passthroughUrlsAreNeverRecorded() throws Exception {
+        HttpClient client = proxy("record", false, "/analytics");
+
+        Assert.assertEquals(get(client, "/analytics/beacon.js").statusCode(), 200);
+        Assert.assertEquals(storedFiles(), 0);
+    }
+
+    private HttpClient proxy(String mode, boolean replayAll, String... passthrough) throws Exception {
+        RecordingProxy proxy = new RecordingProxy(mode, replayAll, store, STATIC_PATTERN, List.of(passthrough), 0);
+        proxies.add(proxy);
+        return HttpClient.newBuilder()
+                .proxy(ProxySelector.of(new InetSocketAddress("127.0.0.1", proxy.getPort())))
+                .build();
+    }
+
+    private HttpResponse<String> get(HttpClient client, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(site + path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private long storedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(store)) {
+            return files.count();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body = ("body " + hits.incrementAndGet()).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dataProviders.ConfigFileReader;
+import io.cucumber.java.Scenario;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import managers.FileReaderManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * RunProgressServer shows the run while it is going, instead of only in the email after the JVM exits.
+ *
+ * With `progressServer=true` an embedded HTTP server (the JDK's com.sun.net.httpserver) is started on
+ * `progressServerHost`:`progressServerPort` when the runner plans its scenarios, or with the first
+ * scenario otherwise. It binds the loopback interface unless another host is configured, and sends an
+ * Access-Control-Allow-Origin header only for the origin in `progressServerAllowOrigin`:
+ * - GET /progress returns a JSON snapshot: counts, the planned count, the queued and running
+ *   scenarios, the state of every worker thread and the most recent failures
+ * - GET /events is a server-sent-events stream: a `snapshot` event on connect, then `started` and
+ *   `finished` events per scenario and a final `run` event
+ *
+ * Hooks feed it from the scenario threads. Those only update atomics, their own worker's state and a
+ * lock-free event queue; a single broadcaster thread fans events out to the watchers, each with its
+ * own bounded queue, so neither the number of watchers nor a slow one can hold up a scenario.
+ * A watcher that falls `WATCHER_BACKLOG` events behind is disconnected and can reconnect for a
+ * fresh snapshot. The server lives until the JVM exits, so watchers see the final state; a run planned
+ * or started after that in the same JVM starts again from empty counts.
+ */
+public class RunProgressServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RunProgressServer.class);
+    private static final int RECENT_FAILURES = 20;
+    private static final int WATCHER_BACKLOG = 1000;
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final AtomicInteger passed = new AtomicInteger();
+    private static final AtomicInteger failed = new AtomicInteger();
+    private static final AtomicInteger skipped = new AtomicInteger();
+    private static final ConcurrentLinkedQueue<Map<String, Object>> queued = new ConcurrentLinkedQueue<>();
+    private static final Map<String, WorkerState> workers = new ConcurrentHashMap<>();
+    private static final ConcurrentLinkedDeque<Map<String, Object>> recentFailures = new ConcurrentLinkedDeque<>();
+    private static final AtomicInteger recentFailureCount = new AtomicInteger();
+    private static final ConcurrentLinkedQueue<String> events = new ConcurrentLinkedQueue<>();
+    private static final List<BlockingQueue<String>> watchers = new CopyOnWriteArrayList<>();
+    private static volatile int planned = -1;
+    private static volatile long runStartedAt;
+    private static volatile boolean finished;
+    private static volatile Thread broadcaster;
+    private static volatile HttpServer server;
+    private static volatile String allowOrigin;
+    private static volatile boolean disabled;
+
+    /**
+     * Records the scenarios the runner is about to execute, starting a new run, and starts the server
+     * if it is enabled.
+     * @param scenarios the runner's data provider rows, each starting with a PickleWrapper
+     */
+    public static void plan(Object[][] scenarios) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Object[] row : scenarios) {
+            Pickle pickle = ((PickleWrapper) row[0]).getPickle();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("scenario", pickle.getName());
+            item.put("location", pickle.getUri() + ":" + pickle.getLine());
+            items.add(item);
+        }
+        plan(items);
+        start();
+    }
+
+    static synchronized void plan(List<Map<String, Object>> items) {
+        reset();
+        queued.addAll(items);
+        planned = items.size();
+    }
+
+    /**
+     * Marks the scenario as running on the calling worker thread.
+     */
+    public static void scenarioStarted(Scenario scenario) {
+        if (server == null && (disabled || !start())) {
+            return;
+        }
+        scenarioStarted(scenario.getName(), scenario.getUri() + ":" + scenario.getLine());
+    }
+
+    static void scenarioStarted(String name, String location) {
+        if (finished) {
+            synchronized (RunProgressServer.class) {
+                if (finished) {
+                    reset(); // A further run in the same JVM that was not planned
+                }
+            }
+        }
+        for (Map<String, Object> item : queued) {
+            if (location.equals(item.get("location")) && queued.remove(item)) {
+                break;
+            }
+        }
+        WorkerState worker = workers.computeIfAbsent(Thread.currentThread().getName(), WorkerState::new);
+        worker.scenario = name;
+        worker.scenarioStartedAt = System.currentTimeMillis();
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("worker", worker.name);
+        event.put("scenario", name);
+        event.put("location", location);
+        publish("started", event);
+    }
+
+    /**
+     * Counts the scenario's result and returns its worker to idle.
+     */
+    public static void scenarioFinished(Scenario scenario, String deviceProfile) {
+        if (server == null) {
+            return;
+        }
+        scenarioFinished(scenario.getName(), scenario.getUri() + ":" + scenario.getLine(), scenario.getStatus().toString(), deviceProfile);
+    }
+
+    static void scenarioFinished(String name, String location, String status, String deviceProfile) {
+        (status.equals("PASSED") ? passed : status.equals("FAILED") ? failed : skipped).incrementAndGet();
+        WorkerState worker = workers.computeIfAbsent(Thread.currentThread().getName(), WorkerState::new);
+        long durationMillis = worker.scenarioStartedAt == 0 ? 0 : System.currentTimeMillis() - worker.scenarioStartedAt;
+        worker.scenario = null;
+        worker.completed++;
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("worker", worker.name);
+        event.put("scenario", name);
+        event.put("status", status);
+        event.put("deviceProfile", deviceProfile);
+        event.put("durationMs", durationMillis);
+        event.put("location", location);
+        if (status.equals("FAILED")) {
+            worker.failed++;
+            event.put("at", System.currentTimeMillis());
+            recentFailures.addFirst(event);
+            if (recentFailureCount.incrementAndGet() > RECENT_FAILURES && recentFailures.pollLast() != null) {
+                recentFailureCount.decrementAndGet();
+            }
+        }
+        publish("finished", event);
+    }
+
+    /**
+     * Publishes the final state; the server keeps answering until the JVM exits.
+     */
+    public static void runFinished() {
+        if (server == null) {
+            return;
+        }
+        finished = true;
+        publish("run", snapshot());
+    }
+
+    /**
+     * Clears the counts, workers, queue and failures of the previous run.
+     */
+    private static synchronized void reset() {
+        passed.set(0);
+        failed.set(0);
+        skipped.set(0);
+        queued.clear();
+        workers.clear();
+        recentFailures.clear();
+        recentFailureCount.set(0);
+        planned = -1;
+        finished = false;
+        runStartedAt = System.currentTimeMillis();
+    }
+
+    private static synchronized boolean start() {
+        if (server != null || disabled) {
+            return server != null;
+        }
+        ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+        if (!config.isProgressServer()) {
+            disabled = true;
+            return false;
+        }
+        return start(config.getProgressServerHost(), config.getProgressServerPort(), config.getProgressServerAllowOrigin());
+    }
+
+    static synchronized boolean start(String host, int port, String origin) {
+        if (server != null) {
+            return true;
+        }
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+            httpServer.createContext("/progress", RunProgressServer::serveSnapshot);
+            httpServer.createContext("/events", RunProgressServer::serveEvents);
+            httpServer.setExecutor(Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "progress-http");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            httpServer.start();
+            server = httpServer;
+        } catch (IOException e) {
+            logger.warn("Unable to start the run progress server on {}:{}", host, port, e);
+            disabled = true;
+            return false;
+        }
+        allowOrigin = origin;
+        if (runStartedAt == 0) {
+            runStartedAt = System.currentTimeMillis();
+        }
+        Thread thread = new Thread(RunProgressServer::broadcast, "progress-broadcaster");
+        thread.setDaemon(true);
+        broadcaster = thread;
+        thread.start();
+        String address = server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        logger.info("Run progress at http://{}/progress and http://{}/events", address, address);
+        return true;
+    }
+
+    static InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops the server and its broadcaster; watchers' streams end.
+     */
+    static synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        Thread thread = broadcaster;
+        broadcaster = null;
+        LockSupport.unpark(thread);
+        server.stop(0);
+        server = null;
+        watchers.forEach(watcher -> watcher.offer(""));
+        watchers.clear();
+    }
+
+    // ================================
+    // EVENTS
+    // ================================
+
+    /**
+     * Queues an event for the watchers; never blocks the calling scenario thread.
+     */
+    private static void publish(String type, Map<String, Object> data) {
+        try {
+            events.offer("event: " + type + "\ndata: " + mapper.writeValueAsString(data) + "\n\n");
+            LockSupport.unpark(broadcaster);
+        } catch (JsonProcessingException e) {
+            logger.debug("Unable to serialise progress event", e);
+        }
+    }
+
+    private static void broadcast() {
+        while (broadcaster == Thread.currentThread()) {
+            String event;
+            while ((event = events.poll()) != null) {
+                for (BlockingQueue<String> watcher : watchers) {
+                    if (!watcher.offer(event)) {
+                        watchers.remove(watcher); // Too far behind; its stream ends and it can reconnect
+                        watcher.clear();
+                        watcher.offer("");
+                    }
+                }
+            }
+            LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    // ================================
+    // HTTP
+    // ================================
+
+    private static void serveSnapshot(HttpExchange exchange) throws IOException {
+        byte[] body = mapper.writeValueAsBytes(snapshot());
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        allowOrigin(exchange);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void serveEvents(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        allowOrigin(exchange);
+        exchange.sendResponseHeaders(200, 0);
+        BlockingQueue<String> queue = new ArrayBlockingQueue<>(WATCHER_BACKLOG);
+        watchers.add(queue);
+        try (OutputStream out = exchange.getResponseBody()) {
+            write(out, "event: snapshot\ndata: " + mapper.writeValueAsString(snapshot()) + "\n\n");
+            while (true) {
+                String event = queue.poll(15, TimeUnit.SECONDS);
+                if ("".equals(event)) {
+                    return; // Dropped by the broadcaster
+                }
+                write(out, event == null ? ": keep-alive\n\n" : event);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.debug("Progress watcher disconnected", e);
+        } finally {
+            watchers.remove(queue);
+        }
+    }
+
+    private static void allowOrigin(HttpExchange exchange) {
+        String origin = allowOrigin;
+        if (origin != null && !origin.isEmpty()) {
+            exchange.getResponseHeaders().set("Access-Control-Allow-Origin", origin);
+            exchange.getResponseHeaders().set("Vary", "Origin");
+        }
+    }
+
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static Map<String, Object> snapshot() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("status", finished ? "finished" : "running");
+        snapshot.put("elapsedSeconds", (now - runStartedAt) / 1000);
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("passed", passed.get());
+        counts.put("failed", failed.get());
+        counts.put("skipped", skipped.get());
+        counts.put("completed", passed.get() + failed.get() + skipped.get());
+        snapshot.put("counts", counts);
+        snapshot.put("planned", planned < 0 ? null : planned);
+        snapshot.put("queued", planned < 0 ? null : new ArrayList<>(queued));
+        List<Map<String, Object>> running = new ArrayList<>();
+        List<Map<String, Object>> workerStates = new ArrayList<>();
+        for (WorkerState worker : workers.values()) {
+            String scenario = worker.scenario;
+            Map<String, Object> state = new LinkedHashMap<>();
+            state.put("worker", worker.name);
+            state.put("state", scenario == null ? "idle" : "running");
+            state.put("scenario", scenario);
+            state.put("completed", worker.completed);
+            state.put("failed", worker.failed);
+            workerStates.add(state);
+            if (scenario != null) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("worker", worker.name);
+                item.put("scenario", scenario);
+                item.put("runningSeconds", (now - worker.scenarioStartedAt) / 1000);
+                running.add(item);
+            }
+        }
+        snapshot.put("running", running);
+        snapshot.put("workers", workerStates);
+        snapshot.put("recentFailures", new ArrayList<>(recentFailures));
+        snapshot.put("watchers", watchers.size());
+        return snapshot;
+    }
+
+    /**
+     * Written only by its own worker thread; volatile so the HTTP threads read current values.
+     */
+    private static class WorkerState {
+        private final String name;
+        private volatile String scenario;
+        private volatile long scenarioStartedAt;
+        private volatile int completed;
+        private volatile int failed;
+
+        private WorkerState(String name) {
+            this.name = name;
+        }
+    }
+}
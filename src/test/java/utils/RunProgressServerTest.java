@@ -0,0 +1,89 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the progress snapshot of a server started on an ephemeral loopback port.
+ */
+public class RunProgressServerTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeClass
+    public void startServer() {
+        Assert.assertTrue(RunProgressServer.start("127.0.0.1", 0, ""));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        RunProgressServer.stop();
+    }
+
+    @Test
+    public void serverBindsLoopbackWithoutCorsHeader() throws Exception {
+        Assert.assertTrue(RunProgressServer.getAddress().getAddress().isLoopbackAddress());
+
+        HttpResponse<String> response = progress();
+        Assert.assertEquals(response.statusCode(), 200);
+        Assert.assertFalse(response.headers().firstValue("Access-Control-Allow-Origin").isPresent());
+    }
+
+    @Test
+    public void queuedListsTheScenariosNotStartedYet() throws Exception {
+        RunProgressServer.plan(Arrays.asList(item("Login", "login.feature:3"), item("Transfer", "transfer.feature:7")));
+        RunProgressServer.scenarioStarted("Login", "login.feature:3");
+
+        JsonNode snapshot = mapper.readTree(progress().body());
+        Assert.assertEquals(snapshot.get("planned").asInt(), 2);
+        Assert.assertEquals(snapshot.get("queued").size(), 1);
+        Assert.assertEquals(snapshot.get("queued").get(0).get("scenario").asText(), "Transfer");
+        Assert.assertEquals(snapshot.get("queued").get(0).get("location").asText(), "transfer.feature:7");
+        Assert.assertEquals(snapshot.get("running").get(0).get("scenario").asText(), "Login");
+        RunProgressServer.scenarioFinished("Login", "login.feature:3", "PASSED", null);
+    }
+
+    @Test
+    public void countsStartAgainForTheNextRun() throws Exception {
+        RunProgressServer.plan(List.of(item("Login", "login.feature:3")));
+        RunProgressServer.scenarioStarted("Login", "login.feature:3");
+        RunProgressServer.scenarioFinished("Login", "login.feature:3", "FAILED", null);
+        RunProgressServer.runFinished();
+        Assert.assertEquals(mapper.readTree(progress().body()).get("counts").get("failed").asInt(), 1);
+
+        // An unplanned run in the same JVM
+        RunProgressServer.scenarioStarted("Transfer", "transfer.feature:7");
+        JsonNode snapshot = mapper.readTree(progress().body());
+        Assert.assertEquals(snapshot.get("status").asText(), "running");
+        Assert.assertEquals(snapshot.get("counts").get("completed").asInt(), 0);
+        Assert.assertEquals(snapshot.get("recentFailures").size(), 0);
+        Assert.assertTrue(snapshot.get("planned").isNull());
+        RunProgressServer.scenarioFinished("Transfer", "transfer.feature:7", "PASSED", null);
+    }
+
+    private HttpResponse<String> progress() throws Exception {
+        URI uri = URI.create("http://127.0.0.1:" + RunProgressServer.getAddress().getPort() + "/progress");
+        return client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Map<String, Object> item(String scenario, String location) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("scenario", scenario);
+        item.put("location", location);
+        return item;
+    }
+}
@@ -0,0 +1,191 @@
+package utils;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.ClassicConstants;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.sift.SiftingAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter;
+import io.cucumber.java.Scenario;
+import managers.FileReaderManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ScenarioLogRouter scopes logging to the running scenario.
+ *
+ * logback.xml routes every event through a bounded AsyncAppender into a SiftingAppender keyed on
+ * the `logFile` MDC value, so each scenario gets its own file under logs/scenarios/ and events
+ * logged outside a scenario go to logs/application.log.
+ *
+ * - start() puts featureId, scenarioId and logFile into the MDC of the scenario thread. The scenario id
+ *   carries a per-invocation sequence number, so the same scenario running concurrently (device or
+ *   environment matrix, load users) never shares or truncates another invocation's file.
+ * - finish() closes the scenario's file (FINALIZE_SESSION marker), links it into the Extent report
+ *   and records what should happen to it once the async queue has drained.
+ * - completeRun() waits for the queue to drain, stops every scenario file appender still open (the
+ *   sifting appender lingers after FINALIZE_SESSION, and with neverBlock the marker itself can be
+ *   dropped from a full queue) and then compresses or deletes passing-scenario logs according to
+ *   `scenarioLogOnPass` (keep, compress or delete). Failed-scenario logs are always kept.
+ */
+public class ScenarioLogRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioLogRouter.class);
+    private static final String LOG_DIR = System.getProperty("user.dir") + "/logs/";
+    private static final List<File> toCompress = new CopyOnWriteArrayList<>();
+    private static final List<File> toDelete = new CopyOnWriteArrayList<>();
+    private static final List<String> finishedLogFiles = new CopyOnWriteArrayList<>();
+    private static final AtomicLong invocations = new AtomicLong();
+
+    public static void start(Scenario scenario) {
+        String featureId = featureId(scenario);
+        String scenarioId = scenarioId(featureId, scenario.getLine());
+        MDC.put("featureId", featureId);
+        MDC.put("scenarioId", scenarioId);
+        MDC.put("logFile", "scenarios/" + scenarioId);
+        logger.info("Scenario started: {}", scenario.getName());
+    }
+
+    public static void finish(Scenario scenario) {
+        String logFile = MDC.get("logFile");
+        if (logFile == null) {
+            return;
+        }
+        // Closes the per-scenario appender once the async worker reaches this event
+        logger.info(ClassicConstants.FINALIZE_SESSION_MARKER, "Scenario finished: {} [{}]",
+                scenario.getName(), scenario.getStatus());
+        MDC.remove("featureId");
+        MDC.remove("scenarioId");
+        MDC.remove("logFile");
+        closeAtEndOfRun(logFile);
+
+        File file = new File(LOG_DIR + logFile + ".log");
+        String policy = scenario.isFailed() ? "keep"
+                : FileReaderManager.getInstance().getConfigReader().getScenarioLogOnPass();
+        if ("delete".equalsIgnoreCase(policy)) {
+            toDelete.add(file);
+            return;
+        }
+        if ("compress".equalsIgnoreCase(policy)) {
+            toCompress.add(file);
+            file = new File(file.getPath() + ".gz");
+        }
+
+        ExtentTest reportNode = ExtentCucumberAdapter.getCurrentScenario();
+        if (reportNode != null) {
+            reportNode.info("Scenario log: <a href='" + file.toURI() + "'>" + file.getName() + "</a>");
+        } else {
+            scenario.log("Scenario log: " + file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Waits for the async appender to drain, closes the scenario files, then applies the passing-scenario log policy.
+     * @param timeoutSeconds Maximum time to wait for queued log events
+     */
+    public static void completeRun(long timeoutSeconds) {
+        awaitDrained(timeoutSeconds);
+        closeScenarioFiles();
+        for (File file : toDelete) {
+            if (file.exists() && !file.delete()) {
+                logger.warn("Unable to delete scenario log {}", file);
+            }
+        }
+        for (File file : toCompress) {
+            if (!file.exists()) {
+                continue;
+            }
+            File gz = new File(file.getPath() + ".gz");
+            try (InputStream in = new FileInputStream(file);
+                 OutputStream out = new GZIPOutputStream(new FileOutputStream(gz))) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                logger.warn("Unable to compress scenario log {}", file, e);
+                continue;
+            }
+            try {
+                Files.delete(file.toPath());
+            } catch (IOException e) {
+                logger.warn("Unable to remove compressed scenario log {}", file, e);
+            }
+        }
+        toDelete.clear();
+        toCompress.clear();
+    }
+
+    static void closeAtEndOfRun(String logFile) {
+        finishedLogFiles.add(logFile);
+    }
+
+    static String scenarioId(String featureId, int line) {
+        return featureId + "_L" + line + "_" + invocations.incrementAndGet();
+    }
+
+    private static AsyncAppender asyncAppender() {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext)) {
+            return null;
+        }
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        return (AsyncAppender) context.getLogger(Logger.ROOT_LOGGER_NAME).getAppender("ASYNC");
+    }
+
+    /**
+     * Stops the file appenders of finished scenarios, whether they are still live (FINALIZE_SESSION
+     * dropped from a full queue) or lingering after it, so their files are flushed and closed before
+     * they are compressed or deleted.
+     */
+    private static void closeScenarioFiles() {
+        AsyncAppender async = asyncAppender();
+        Appender<ILoggingEvent> sift = async == null ? null : async.getAppender("SIFT");
+        if (sift instanceof SiftingAppender) {
+            SiftingAppender sifting = (SiftingAppender) sift;
+            for (String logFile : finishedLogFiles) {
+                Appender<ILoggingEvent> file = sifting.getAppenderTracker().find(logFile);
+                if (file != null) {
+                    file.stop();
+                    sifting.getAppenderTracker().endOfLife(logFile);
+                }
+            }
+        }
+        finishedLogFiles.clear();
+    }
+
+    private static void awaitDrained(long timeoutSeconds) {
+        AsyncAppender async = asyncAppender();
+        if (async == null) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + timeoutSeconds * 1000;
+        while (async.getNumberOfElementsInQueue() > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (async.getNumberOfElementsInQueue() > 0) {
+            logger.warn("Log queue still holds {} events after {}s", async.getNumberOfElementsInQueue(), timeoutSeconds);
+        }
+    }
+
+    private static String featureId(Scenario scenario) {
+        String uri = scenario.getUri().toString();
+        String feature = uri.substring(uri.lastIndexOf('/') + 1).replace(".feature", "");
+        return feature.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+}
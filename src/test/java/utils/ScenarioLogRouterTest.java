@@ -0,0 +1,53 @@
+package utils;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.sift.SiftingAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class ScenarioLogRouterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioLogRouterTest.class);
+
+    @Test
+    public void everyInvocationGetsItsOwnLogFile() {
+        Assert.assertNotEquals(ScenarioLogRouter.scenarioId("login", 12), ScenarioLogRouter.scenarioId("login", 12));
+    }
+
+    @Test
+    public void completeRunClosesFinishedScenarioFiles() throws IOException {
+        String logFile = "scenarios/ScenarioLogRouterTest_" + System.nanoTime();
+        MDC.put("logFile", logFile);
+        try {
+            logger.info("written before the run completes");
+        } finally {
+            MDC.remove("logFile");
+        }
+        ScenarioLogRouter.closeAtEndOfRun(logFile);
+        ScenarioLogRouter.completeRun(10);
+
+        File file = new File(System.getProperty("user.dir") + "/logs/" + logFile + ".log");
+        try {
+            Assert.assertTrue(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)
+                    .contains("written before the run completes"));
+            LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+            AsyncAppender async = (AsyncAppender) context.getLogger(Logger.ROOT_LOGGER_NAME).getAppender("ASYNC");
+            SiftingAppender sift = (SiftingAppender) async.getAppender("SIFT");
+            Appender<ILoggingEvent> appender = sift.getAppenderTracker().find(logFile);
+            Assert.assertTrue(appender == null || !appender.isStarted(), "the scenario file appender is stopped");
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package utils;
+
+import dataProviders.ConfigFileReader;
+import managers.FileReaderManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ScreencastRecorder keeps a short rolling video of the scenario for Chrome drivers.
+ *
+ * It subscribes to the DevTools `Page.screencastFrame` stream and keeps the most recent frames
+ * (still base64 JPEG, as delivered by Chrome) in a fixed-size ring buffer. The frame rate is capped
+ * at the source: Chrome is asked for every Nth compositor frame (`everyNthFrame`, from
+ * `screencastMaxFps` at 60 Hz) scaled to `screencastMaxWidth`, so frames over the cap are never
+ * encoded or sent. Bursts that still exceed the cap are acknowledged and discarded. Nothing is decoded
+ * or written while the scenario runs; only when it fails does saveAsGif() turn the buffered frames
+ * into an animated GIF.
+ *
+ * Frame acknowledgements are sent from the recorder's own thread: a blocking DevTools command sent
+ * from inside the event listener would wait on the connection thread that delivers its response.
+ * The frame listener goes through DevToolsListeners, so stop() leaves other recorders' listeners in place.
+ *
+ * Raw CDP method names are used instead of a versioned `devtools.vNNN` package so the recorder
+ * keeps working when Chrome and Selenium versions drift apart.
+ *
+ * Overhead per scenario (frames received/kept, JVM CPU time spent in the frame handler and peak
+ * buffer size) is available through getOverheadSummary().
+ */
+public class ScreencastRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScreencastRecorder.class);
+    private static final String RECORDING_DIR = "test-output/SparkReport/recordings";
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final int COMPOSITOR_FPS = 60;
+
+    private final DevTools devTools;
+    private DevToolsListeners.Subscription subscription;
+    private final String[] frames;
+    private final double[] timestamps;
+    private final long minFrameIntervalMs;
+    private final ExecutorService acks = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "screencast-ack");
+        t.setDaemon(true);
+        return t;
+    });
+    private int head;
+    private int size;
+    private long lastKeptAt;
+    private long bufferedChars;
+    private long peakBufferedChars;
+    private int received;
+    private int kept;
+    private long handlerCpuNanos;
+    private boolean stopped;
+
+    ScreencastRecorder(DevTools devTools, int bufferFrames, int maxFps) {
+        this.devTools = devTools;
+        this.frames = new String[bufferFrames];
+        this.timestamps = new double[bufferFrames];
+        this.minFrameIntervalMs = 1000L / Math.max(1, maxFps);
+    }
+
+    /**
+     * Starts recording if the driver supports DevTools.
+     * @param driver Chrome-based WebDriver
+     * @return a running recorder, or null when the driver has no DevTools support
+     */
+    public static ScreencastRecorder start(WebDriver driver) {
+        if (!(driver instanceof HasDevTools)) {
+            logger.warn("Screencast recording requested but {} has no DevTools support", driver.getClass().getSimpleName());
+            return null;
+        }
+        ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+
+        ScreencastRecorder recorder = new ScreencastRecorder(devTools,
+                config.getScreencastBufferFrames(), config.getScreencastMaxFps());
+        recorder.subscription = DevToolsListeners.subscribe(devTools, "Page.screencastFrame", recorder::onFrame);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("format", "jpeg");
+        params.put("quality", config.getScreencastQuality());
+        params.put("maxWidth", config.getScreencastMaxWidth());
+        params.put("maxHeight", config.getScreencastMaxWidth());
+        params.put("everyNthFrame", everyNthFrame(config.getScreencastMaxFps()));
+        devTools.send(new Command<Void>("Page.startScreencast", params));
+        return recorder;
+    }
+
+    /**
+     * @return how many compositor frames Chrome skips between two screencast frames to stay under maxFps
+     */
+    static int everyNthFrame(int maxFps) {
+        return Math.max(1, COMPOSITOR_FPS / Math.max(1, maxFps));
+    }
+
+    @SuppressWarnings("unchecked")
+    void onFrame(Map<String, Object> frame) {
+        long cpuStart = THREADS.getCurrentThreadCpuTime();
+        Number sessionId = (Number) frame.get("sessionId");
+        try {
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                received++;
+                long now = System.currentTimeMillis();
+                if (now - lastKeptAt >= minFrameIntervalMs) {
+                    lastKeptAt = now;
+                    Map<String, Object> metadata = (Map<String, Object>) frame.get("metadata");
+                    push((String) frame.get("data"), ((Number) metadata.get("timestamp")).doubleValue());
+                }
+            }
+            // Chrome stops sending frames until the previous one is acknowledged
+            acks.execute(() -> acknowledge(sessionId.intValue()));
+        } catch (Exception e) {
+            logger.debug("Dropping screencast frame", e);
+        } finally {
+            synchronized (this) {
+                handlerCpuNanos += THREADS.getCurrentThreadCpuTime() - cpuStart;
+            }
+        }
+    }
+
+    private void acknowledge(int sessionId) {
+        try {
+            devTools.send(new Command<Void>("Page.screencastFrameAck", Collections.singletonMap("sessionId", sessionId)));
+        } catch (Exception e) {
+            logger.debug("Unable to acknowledge screencast frame", e);
+        }
+    }
+
+    private void push(String data, double timestamp) {
+        int slot;
+        if (size == frames.length) {
+            // Buffer full: overwrite the oldest frame
+            slot = head;
+            bufferedChars -= frames[slot].length();
+            head = (head + 1) % frames.length;
+        } else {
+            slot = (head + size) % frames.length;
+            size++;
+        }
+        frames[slot] = data;
+        timestamps[slot] = timestamp;
+        bufferedChars += data.length();
+        peakBufferedChars = Math.max(peakBufferedChars, bufferedChars);
+        kept++;
+    }
+
+    /**
+     * Stops the screencast. Safe to call more than once and after the browser has gone away.
+     */
+    public void stop() {
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+        }
+        acks.shutdownNow();
+        try {
+            if (subscription != null) {
+                subscription.cancel(); // Other recorders of the driver keep their listeners
+            }
+            devTools.send(new Command<Void>("Page.stopScreencast", Collections.emptyMap()));
+        } catch (Exception e) {
+            logger.debug("Unable to stop screencast cleanly", e);
+        }
+    }
+
+    /**
+     * Encodes the buffered frames as an animated GIF, using the frame timestamps for delays.
+     * @param name Base file name, usually the scenario name
+     * @return the written file, or null when no frames were captured
+     */
+    public File saveAsGif(String name) throws IOException {
+        String[] snapshot;
+        double[] times;
+        synchronized (this) {
+            snapshot = new String[size];
+            times = new double[size];
+            for (int i = 0; i < size; i++) {
+                snapshot[i] = frames[(head + i) % frames.length];
+                times[i] = timestamps[(head + i) % frames.length];
+            }
+        }
+        if (snapshot.length == 0) {
+            return null;
+        }
+
+        File dir = new File(RECORDING_DIR);
+        dir.mkdirs();
+        File target = new File(dir, name.replaceAll("[^A-Za-z0-9_-]", "_") + "_" + System.currentTimeMillis() + ".gif");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target)) {
+            writer.setOutput(out);
+            writer.prepareWriteSequence(null);
+            for (int i = 0; i < snapshot.length; i++) {
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(Base64.getDecoder().decode(snapshot[i])));
+                if (image == null) {
+                    continue;
+                }
+                // GIF delays are in hundredths of a second; the last frame is held for one second
+                int delay = i + 1 < times.length ? (int) Math.max(1, Math.round((times[i + 1] - times[i]) * 100)) : 100;
+                writer.writeToSequence(new IIOImage(image, null, frameMetadata(writer, image, delay, i == 0)), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+        return target;
+    }
+
+    private static IIOMetadata frameMetadata(ImageWriter writer, BufferedImage image, int delay, boolean first) throws IOException {
+        IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), null);
+        String format = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+
+        IIOMetadataNode control = childNode(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "none");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("delayTime", String.valueOf(delay));
+        control.setAttribute("transparentColorIndex", "0");
+
+        if (first) {
+            // NETSCAPE2.0 extension makes the GIF loop forever
+            IIOMetadataNode extensions = childNode(root, "ApplicationExtensions");
+            IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+            loop.setAttribute("applicationID", "NETSCAPE");
+            loop.setAttribute("authenticationCode", "2.0");
+            loop.setUserObject(new byte[]{1, 0, 0});
+            extensions.appendChild(loop);
+        }
+        metadata.setFromTree(format, root);
+        return metadata;
+    }
+
+    private static IIOMetadataNode childNode(IIOMetadataNode root, String name) {
+        for (int i = 0; i < root.getLength(); i++) {
+            if (root.item(i).getNodeName().equalsIgnoreCase(name)) {
+                return (IIOMetadataNode) root.item(i);
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        root.appendChild(node);
+        return node;
+    }
+
+    /**
+     * @return a one-line summary of the recorder's cost for this scenario
+     */
+    public synchronized String getOverheadSummary() {
+        return String.format("Screencast overhead: %d frames received, %d kept, %d buffered, "
+                        + "handler CPU %.1f ms, peak buffer ~%d KB",
+                received, kept, size, handlerCpuNanos / 1_000_000.0, peakBufferedChars / 1024);
+    }
+}
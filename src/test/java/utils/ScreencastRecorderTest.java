@@ -0,0 +1,73 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ScreencastRecorderTest {
+
+    @Test
+    public void frameRateCapIsAppliedAtTheSource() {
+        Assert.assertEquals(ScreencastRecorder.everyNthFrame(4), 15);
+        Assert.assertEquals(ScreencastRecorder.everyNthFrame(60), 1);
+        Assert.assertEquals(ScreencastRecorder.everyNthFrame(120), 1);
+        Assert.assertEquals(ScreencastRecorder.everyNthFrame(0), 60);
+    }
+
+    @Test
+    public void framesOverTheCapAreDropped() throws IOException {
+        // No DevTools session: acknowledgements fail quietly on the recorder's own thread
+        ScreencastRecorder recorder = new ScreencastRecorder(null, 10, 1);
+        String jpeg = jpeg();
+        for (int i = 0; i < 5; i++) {
+            recorder.onFrame(frame(jpeg, i * 0.01));
+        }
+        recorder.stop();
+        Assert.assertTrue(recorder.getOverheadSummary().startsWith("Screencast overhead: 5 frames received, 1 kept, 1 buffered"),
+                recorder.getOverheadSummary());
+    }
+
+    @Test
+    public void ringBufferKeepsTheMostRecentFrames() throws Exception {
+        ScreencastRecorder recorder = new ScreencastRecorder(null, 2, 1000);
+        String jpeg = jpeg();
+        for (int i = 0; i < 4; i++) {
+            recorder.onFrame(frame(jpeg, i * 0.5));
+            Thread.sleep(5);
+        }
+        recorder.stop();
+        File gif = recorder.saveAsGif("ring buffer");
+        try (ImageInputStream in = ImageIO.createImageInputStream(gif)) {
+            ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+            reader.setInput(in);
+            Assert.assertEquals(reader.getNumImages(true), 2);
+            reader.dispose();
+        } finally {
+            gif.delete();
+        }
+    }
+
+    private static Map<String, Object> frame(String data, double timestamp) {
+        Map<String, Object> frame = new HashMap<>();
+        frame.put("sessionId", 1);
+        frame.put("data", data);
+        frame.put("metadata", Map.of("timestamp", timestamp));
+        return frame;
+    }
+
+    private static String jpeg() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(20, 10, BufferedImage.TYPE_INT_RGB), "jpg", out);
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+}
@@ -0,0 +1,232 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentTest;
+import dataProviders.ConfigFileReader;
+import managers.FileReaderManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * ScreenshotPipeline moves failure screenshot processing off the scenario thread.
+ *
+ * The scenario thread only hands over the raw PNG bytes returned by the driver. A fixed pool of
+ * worker threads then:
+ * - Deduplicates identical frames by content hash (e.g. the same error page on every failure)
+ * - Decodes and downscales the image to the configured maximum width
+ * - Encodes it as JPEG and writes it to the Extent screenshot directory
+ * - Links the written file into the scenario's Extent report node
+ * - Hands each newly written file to the registered listeners (Hooks forwards them to Azure storage)
+ *
+ * Backpressure: at most (queue capacity + workers) screenshots are held in memory. When all slots
+ * are taken, submit() blocks the caller for a short time and then drops the frame with a warning,
+ * so a flood of failures cannot exhaust the heap.
+ *
+ * drain() must run before the report is flushed (Hooks @AfterAll) so every link is in place.
+ */
+public class ScreenshotPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScreenshotPipeline.class);
+    private static final long SUBMIT_TIMEOUT_MS = 2000;
+    private static final List<Consumer<File>> writtenListeners = new CopyOnWriteArrayList<>();
+    private static ScreenshotPipeline instance;
+
+    private final ExecutorService workers;
+    private final Semaphore slots;
+    private final File screenshotDir;
+    private final int maxWidth;
+    private final Map<String, File> writtenByHash = new ConcurrentHashMap<>();
+    private final AtomicInteger written = new AtomicInteger();
+    private final AtomicInteger duplicates = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    ScreenshotPipeline(int workerCount, int queueCapacity, int maxWidth, File screenshotDir) {
+        AtomicInteger threadId = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "screenshot-worker-" + threadId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.slots = new Semaphore(queueCapacity + workerCount);
+        this.maxWidth = maxWidth;
+        this.screenshotDir = screenshotDir;
+    }
+
+    public static synchronized ScreenshotPipeline getInstance() {
+        if (instance == null) {
+            ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+            instance = new ScreenshotPipeline(config.getScreenshotWorkers(), config.getScreenshotQueueCapacity(),
+                    config.getScreenshotMaxWidth(), new File(getExtentProperty("screenshot.dir", "test-output/SparkReport/screenshots")));
+        }
+        return instance;
+    }
+
+    /**
+     * Registers a callback for every screenshot file written, run on the worker thread.
+     */
+    public static void onWritten(Consumer<File> listener) {
+        writtenListeners.add(listener);
+    }
+
+    /**
+     * Queues a raw screenshot for encoding. Only blocks when the pipeline is saturated.
+     *
+     * @param png        Raw PNG bytes from TakesScreenshot
+     * @param name       Base file name, usually derived from the scenario name
+     * @param reportNode Extent node to link the written file into, may be null
+     * @return true if the frame was accepted, false if it was dropped due to backpressure
+     */
+    public boolean submit(byte[] png, String name, ExtentTest reportNode) {
+        try {
+            if (!slots.tryAcquire(SUBMIT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                dropped.incrementAndGet();
+                logger.warn("Screenshot pipeline saturated, dropping screenshot for {}", name);
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        try {
+            workers.execute(() -> {
+                try {
+                    process(png, name, reportNode);
+                } catch (Exception e) {
+                    logger.error("Failed to process screenshot for {}", name, e);
+                } finally {
+                    slots.release();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            dropped.incrementAndGet();
+            logger.warn("Screenshot pipeline already drained, dropping screenshot for {}", name);
+            return false;
+        }
+    }
+
+    private void process(byte[] png, String name, ExtentTest reportNode) throws IOException {
+        String hash = sha1(png);
+        File target = writtenByHash.get(hash);
+        if (target != null) {
+            duplicates.incrementAndGet();
+        } else {
+            target = encodeAndWrite(png, name + "_" + hash.substring(0, 8));
+            File previous = writtenByHash.putIfAbsent(hash, target);
+            if (previous != null) {
+                duplicates.incrementAndGet();
+                target.delete();
+                target = previous;
+            } else {
+                written.incrementAndGet();
+                for (Consumer<File> listener : writtenListeners) {
+                    listener.accept(target);
+                }
+            }
+        }
+
+        if (reportNode != null) {
+            reportNode.addScreenCaptureFromPath(target.getAbsolutePath(), name);
+        }
+        logger.debug("Screenshot for {} available at {}", name, target.getAbsolutePath());
+    }
+
+    private File encodeAndWrite(byte[] png, String fileName) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(png));
+        if (source == null) {
+            throw new IOException("Driver returned an unreadable screenshot");
+        }
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+        if (width > maxWidth) {
+            height = (int) Math.round(height * (maxWidth / (double) width));
+            width = maxWidth;
+        }
+
+        // JPEG has no alpha channel, so always redraw into an RGB image
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+
+        screenshotDir.mkdirs();
+        File target = new File(screenshotDir, fileName.replaceAll("[^A-Za-z0-9_-]", "_") + ".jpg");
+        ImageIO.write(scaled, "jpg", target);
+        return target;
+    }
+
+    /**
+     * Stops accepting new screenshots and waits for the queued ones to be written and linked.
+     * @param timeoutSeconds Maximum time to wait for pending work
+     */
+    public static synchronized void drain(long timeoutSeconds) {
+        if (instance == null) {
+            return;
+        }
+        instance.finish(timeoutSeconds);
+        instance = null;
+    }
+
+    void finish(long timeoutSeconds) {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                logger.warn("Screenshot pipeline did not finish within {}s", timeoutSeconds);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Screenshot pipeline: {} written, {} duplicates, {} dropped", written.get(), duplicates.get(), dropped.get());
+    }
+
+    int getWrittenCount() {
+        return written.get();
+    }
+
+    int getDuplicateCount() {
+        return duplicates.get();
+    }
+
+    private static String getExtentProperty(String key, String defaultValue) {
+        Properties extent = new Properties();
+        try (InputStream input = ScreenshotPipeline.class.getClassLoader().getResourceAsStream("extent.properties")) {
+            if (input != null) {
+                extent.load(input);
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to read extent.properties, using default {}", defaultValue);
+        }
+        return extent.getProperty(key, defaultValue);
+    }
+
+    private static String sha1(byte[] data) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(data)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            throw new RuntimeException("SHA-1 not available", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ScreenshotPipelineTest {
+
+    @Test
+    public void identicalFramesAreWrittenOnceAndDownscaled() throws IOException {
+        File dir = Files.createTempDirectory("screenshots").toFile();
+        List<File> published = new CopyOnWriteArrayList<>();
+        ScreenshotPipeline.onWritten(published::add);
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(2, 4, 100, dir);
+        byte[] png = png(400, 200);
+
+        Assert.assertTrue(pipeline.submit(png, "first failure", null));
+        Assert.assertTrue(pipeline.submit(png, "second failure", null));
+        pipeline.finish(10);
+
+        File[] files = dir.listFiles();
+        Assert.assertNotNull(files);
+        Assert.assertEquals(files.length, 1);
+        Assert.assertEquals(pipeline.getWrittenCount(), 1);
+        Assert.assertEquals(pipeline.getDuplicateCount(), 1);
+        BufferedImage written = ImageIO.read(files[0]);
+        Assert.assertEquals(written.getWidth(), 100);
+        Assert.assertEquals(written.getHeight(), 50);
+        Assert.assertTrue(published.contains(files[0]), "listeners get every newly written file");
+    }
+
+    @Test
+    public void submitAfterFinishIsDropped() throws IOException {
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(1, 1, 100, Files.createTempDirectory("screenshots").toFile());
+        pipeline.finish(1);
+
+        Assert.assertFalse(pipeline.submit(png(10, 10), "late", null));
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
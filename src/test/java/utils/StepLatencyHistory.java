@@ -0,0 +1,287 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dataProviders.ConfigFileReader;
+import managers.FileReaderManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StepLatencyHistory keeps the duration of every step and scenario across runs and flags the ones
+ * that got slower, so a change that quietly slows the suite down is caught even when it still passes.
+ *
+ * - StepLatencyListener records the duration of each passed step (keyed by scenario and step text)
+ *   and each passed scenario. Every key is prefixed with the runner, the device profile and the
+ *   environment it ran with, so runs on other devices or environments, or with another runner's
+ *   parallelism, keep baselines of their own. Repeated samples within a run (CSV rows) are reduced
+ *   to their median.
+ * - A distributed worker detaches: it keeps each scenario's samples by location until
+ *   ResultCollector takes them, they travel to the coordinator with the WorkResult and the
+ *   coordinator adds them to its run, which is the one gated.
+ * - At the end of the run every key is compared with its baseline over the last `latencyHistoryRuns`
+ *   runs in `latencyHistoryFile`: the median and the median absolute deviation (MAD), which a few
+ *   outlier runs cannot move. A key regresses when it is slower than the baseline median by more
+ *   than `latencyGateMads` scaled MADs and by at least `latencyGateMinDeltaMs`.
+ * - `latencyGate=warn` lists the offenders in the log and the summary email; `latencyGate=fail`
+ *   also fails the run. Keys with fewer than `latencyGateMinRuns` runs of history are not judged.
+ *
+ * The run is appended to the history either way, so an accepted slowdown becomes the new baseline
+ * once it is the median. Keep the history file outside target/ (or cache it on the agent).
+ */
+public class StepLatencyHistory {
+
+    private static final Logger logger = LoggerFactory.getLogger(StepLatencyHistory.class);
+    private static final double MAD_TO_SIGMA = 1.4826; // Makes the MAD comparable to a standard deviation
+    private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final Map<String, List<Long>> steps = new ConcurrentHashMap<>();
+    private static final Map<String, List<Long>> scenarios = new ConcurrentHashMap<>();
+    private static final Map<String, Samples> detachedSamples = new ConcurrentHashMap<>();
+    private static volatile List<Regression> regressions = Collections.emptyList();
+    private static volatile String runner = "cucumber";
+    private static volatile boolean detached;
+
+    public static boolean isEnabled() {
+        return !"off".equalsIgnoreCase(FileReaderManager.getInstance().getConfigReader().getLatencyGate());
+    }
+
+    /**
+     * Names the runner the keys of this JVM are recorded under, e.g. the TestNG runner class.
+     */
+    public static void setRunner(String name) {
+        runner = name;
+    }
+
+    /**
+     * Keeps samples by scenario location for takeDetached() instead of gating them in this JVM.
+     */
+    public static void detach(String runnerName) {
+        runner = runnerName;
+        detached = true;
+    }
+
+    /**
+     * Drops the samples and the runner name, e.g. between tests.
+     */
+    static void reset() {
+        steps.clear();
+        scenarios.clear();
+        detachedSamples.clear();
+        regressions = Collections.emptyList();
+        runner = "cucumber";
+        detached = false;
+    }
+
+    static void recordStep(String location, String scenario, String step, long durationMs) {
+        add(detached ? detachedSamples.computeIfAbsent(location, key -> new Samples()).steps : steps,
+                context() + " :: " + scenario + " > " + step, durationMs);
+    }
+
+    static void recordScenario(String location, String scenario, long durationMs) {
+        add(detached ? detachedSamples.computeIfAbsent(location, key -> new Samples()).scenarios : scenarios,
+                context() + " :: " + scenario, durationMs);
+    }
+
+    /**
+     * @return the runner, device profile and environment of the scenario running on this thread
+     */
+    static String context() {
+        DeviceProfile profile = DeviceProfile.current();
+        return runner + " / " + (profile == null ? "no device profile" : profile.getName())
+                + " / " + FileReaderManager.getInstance().getConfigReader().getEnvironment();
+    }
+
+    private static void add(Map<String, List<Long>> samples, String key, long durationMs) {
+        samples.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(durationMs);
+    }
+
+    /**
+     * @return the samples a detached JVM recorded since the previous call, by scenario location
+     */
+    public static Map<String, Samples> takeDetached() {
+        Map<String, Samples> taken = new HashMap<>(detachedSamples);
+        detachedSamples.keySet().removeAll(taken.keySet());
+        return taken;
+    }
+
+    /**
+     * Adds samples recorded in another JVM, e.g. those a distributed worker sent, to this run.
+     */
+    public static void add(Samples samples) {
+        if (samples == null) {
+            return;
+        }
+        samples.steps.forEach((key, values) -> values.forEach(value -> add(steps, key, value)));
+        samples.scenarios.forEach((key, values) -> values.forEach(value -> add(scenarios, key, value)));
+    }
+
+    /**
+     * @return the steps and scenarios the last completed run flagged, slowest increase first
+     */
+    public static List<Regression> getRegressions() {
+        return regressions;
+    }
+
+    /**
+     * Compares this run with the history, appends it to the history file and logs the offenders.
+     * @throws RuntimeException with latencyGate=fail when anything regressed, after the history is written
+     */
+    public static void complete() {
+        if (!isEnabled() || (steps.isEmpty() && scenarios.isEmpty())) {
+            return;
+        }
+        complete(new File(FileReaderManager.getInstance().getConfigReader().getLatencyHistoryFile()));
+    }
+
+    @SuppressWarnings("unchecked")
+    static void complete(File historyFile) {
+        ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+        List<Map<String, Object>> runs = new ArrayList<>();
+        if (historyFile.exists()) {
+            try {
+                Object stored = mapper.readValue(historyFile, Map.class).get("runs");
+                if (stored instanceof List) {
+                    runs = (List<Map<String, Object>>) stored;
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Unable to read latency history {}, starting a new one", historyFile, e);
+            }
+        }
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("at", System.currentTimeMillis());
+        run.put("steps", medians(steps));
+        run.put("scenarios", medians(scenarios));
+
+        List<Regression> found = new ArrayList<>();
+        compare("step", (Map<String, Long>) run.get("steps"), runs, "steps", config, found);
+        compare("scenario", (Map<String, Long>) run.get("scenarios"), runs, "scenarios", config, found);
+        found.sort(Comparator.comparingDouble((Regression r) -> r.currentMs - r.baselineMs).reversed());
+        regressions = found;
+
+        runs.add(run);
+        while (runs.size() > config.getLatencyHistoryRuns()) {
+            runs.remove(0);
+        }
+        try {
+            historyFile.getAbsoluteFile().getParentFile().mkdirs();
+            mapper.writeValue(historyFile, Collections.singletonMap("runs", runs));
+        } catch (IOException e) {
+            logger.warn("Unable to write latency history {}", historyFile, e);
+        }
+        steps.clear();
+        scenarios.clear();
+
+        if (found.isEmpty()) {
+            logger.info("Latency gate: no step or scenario slower than its baseline ({} run(s) of history)", runs.size() - 1);
+            return;
+        }
+        found.forEach(r -> logger.warn("Latency regression: {}", r));
+        if ("fail".equalsIgnoreCase(config.getLatencyGate())) {
+            throw new RuntimeException(found.size() + " step/scenario latency regression(s), first: " + found.get(0));
+        }
+    }
+
+    private static Map<String, Long> medians(Map<String, List<Long>> samples) {
+        Map<String, Long> medians = new LinkedHashMap<>();
+        samples.forEach((key, values) -> {
+            synchronized (values) {
+                medians.put(key, Math.round(median(new ArrayList<>(values))));
+            }
+        });
+        return medians;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void compare(String kind, Map<String, Long> current, List<Map<String, Object>> runs, String section,
+                                ConfigFileReader config, List<Regression> found) {
+        for (Map.Entry<String, Long> entry : current.entrySet()) {
+            List<Long> history = new ArrayList<>();
+            for (Map<String, Object> past : runs) {
+                Object value = ((Map<String, Object>) past.getOrDefault(section, Collections.emptyMap())).get(entry.getKey());
+                if (value instanceof Number) {
+                    history.add(((Number) value).longValue());
+                }
+            }
+            if (history.size() < config.getLatencyGateMinRuns()) {
+                continue;
+            }
+            double baseline = median(history);
+            List<Long> deviations = new ArrayList<>();
+            history.forEach(value -> deviations.add(Math.round(Math.abs(value - baseline))));
+            double mad = median(deviations);
+            double delta = entry.getValue() - baseline;
+            if (delta > config.getLatencyGateMads() * MAD_TO_SIGMA * mad && delta >= config.getLatencyGateMinDeltaMs()) {
+                found.add(new Regression(kind, entry.getKey(), entry.getValue(), baseline, mad, history.size()));
+            }
+        }
+    }
+
+    private static double median(List<Long> values) {
+        Collections.sort(values);
+        int middle = values.size() / 2;
+        return values.size() % 2 == 1 ? values.get(middle) : (values.get(middle - 1) + values.get(middle)) / 2.0;
+    }
+
+    /**
+     * Step and scenario durations recorded in one JVM, keyed like the history, as sent with a WorkResult.
+     */
+    public static class Samples {
+        private Map<String, List<Long>> steps = new ConcurrentHashMap<>();
+        private Map<String, List<Long>> scenarios = new ConcurrentHashMap<>();
+
+        public Map<String, List<Long>> getSteps() {
+            return steps;
+        }
+
+        public void setSteps(Map<String, List<Long>> steps) {
+            this.steps = steps;
+        }
+
+        public Map<String, List<Long>> getScenarios() {
+            return scenarios;
+        }
+
+        public void setScenarios(Map<String, List<Long>> scenarios) {
+            this.scenarios = scenarios;
+        }
+    }
+
+    /**
+     * A step or scenario that ran slower than its historical baseline.
+     */
+    public static class Regression {
+        public final String kind;
+        public final String name;
+        public final long currentMs;
+        public final double baselineMs;
+        public final double madMs;
+        public final int runs;
+
+        Regression(String kind, String name, long currentMs, double baselineMs, double madMs, int runs) {
+            this.kind = kind;
+            this.name = name;
+            this.currentMs = currentMs;
+            this.baselineMs = baselineMs;
+            this.madMs = madMs;
+            this.runs = runs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s '%s' took %d ms, baseline median %.0f ms (MAD %.0f ms over %d runs)",
+                    kind, name, currentMs, baselineMs, madMs, runs);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import distributed.WorkResult;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records samples under their runner, device and environment and gates them against a temporary history.
+ */
+public class StepLatencyHistoryTest {
+
+    private static final DeviceProfile PHONE = new DeviceProfile("phone", 390, 844, 3, true, true, null);
+    private final ObjectMapper mapper = new ObjectMapper();
+    private File historyFile;
+
+    @BeforeMethod
+    public void createHistory() throws IOException {
+        StepLatencyHistory.reset();
+        historyFile = Files.createTempFile("step-latency", ".json").toFile();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void cleanUp() {
+        StepLatencyHistory.reset();
+        DeviceProfile.unbind();
+        historyFile.delete();
+    }
+
+    @Test
+    public void keysCarryRunnerDeviceAndEnvironment() throws IOException {
+        StepLatencyHistory.setRunner("DeviceMatrixRunner");
+        DeviceProfile.bind(PHONE);
+        StepLatencyHistory.recordStep("login.feature:3", "Login", "I sign in", 1200);
+        DeviceProfile.unbind();
+        StepLatencyHistory.recordStep("login.feature:3", "Login", "I sign in", 800);
+        StepLatencyHistory.complete(historyFile);
+
+        Map<?, ?> steps = lastRun("steps");
+        Assert.assertEquals(steps.get("DeviceMatrixRunner / phone / QA :: Login > I sign in"), 1200);
+        Assert.assertEquals(steps.get("DeviceMatrixRunner / no device profile / QA :: Login > I sign in"), 800);
+    }
+
+    @Test
+    public void detachedSamplesAreGatedWhereTheyAreAdded() throws IOException {
+        StepLatencyHistory.detach("DistributedWorker");
+        String key = StepLatencyHistory.context() + " :: Transfer";
+        StepLatencyHistory.recordScenario("transfer.feature:7", "Transfer", 2000);
+        writeHistory(key, 1000, 1010, 990, 1000, 1005);
+
+        // The worker keeps nothing to gate itself; the samples travel with the result
+        StepLatencyHistory.Samples samples = StepLatencyHistory.takeDetached().get("transfer.feature:7");
+        Assert.assertTrue(StepLatencyHistory.takeDetached().isEmpty());
+        WorkResult result = new WorkResult();
+        result.setLatency(samples);
+        WorkResult received = mapper.readValue(mapper.writeValueAsString(result), WorkResult.class);
+
+        StepLatencyHistory.reset(); // The coordinator's JVM
+        StepLatencyHistory.add(received.getLatency());
+        StepLatencyHistory.complete(historyFile);
+
+        Assert.assertEquals(StepLatencyHistory.getRegressions().size(), 1);
+        Assert.assertEquals(StepLatencyHistory.getRegressions().get(0).name, key);
+        Assert.assertEquals(StepLatencyHistory.getRegressions().get(0).currentMs, 2000);
+        Assert.assertEquals(lastRun("scenarios").get(key), 2000);
+    }
+
+    private void writeHistory(String key, long... durations) throws IOException {
+        List<Map<String, Object>> runs = new ArrayList<>();
+        for (long duration : durations) {
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("steps", Collections.emptyMap());
+            run.put("scenarios", Collections.singletonMap(key, duration));
+            runs.add(run);
+        }
+        mapper.writeValue(historyFile, Collections.singletonMap("runs", runs));
+    }
+
+    private Map<?, ?> lastRun(String section) throws IOException {
+        List<?> runs = (List<?>) mapper.readValue(historyFile, Map.class).get("runs");
+        return (Map<?, ?>) ((Map<?, ?>) runs.get(runs.size() - 1)).get(section);
+    }
+}
@@ -0,0 +1,127 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter;
+import distributed.ResultCollector;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestStepFinished;
+import managers.FileReaderManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cucumber plugin that compares every step's duration with its latency budget and, when the budget
+ * is exceeded, writes the DevTools trace of the scenario's StepTraceRecorder and links it into the
+ * Extent report.
+ *
+ * The budget is `stepLatencyBudgetMs`, overridden per scenario with a `@stepBudgetMs:<n>` tag.
+ * Concurrent event handlers run on the scenario's own thread, so the thread-bound recorder is the
+ * one driving the step that was slow. Scenarios without a recorder (tracing off, non-Chrome
+ * drivers) cost one duration comparison per step.
+ *
+ * When the latency gate is on, the duration of every passed step and scenario is also handed to
+ * StepLatencyHistory for the comparison with previous runs. With step tracing on, passed steps also
+ * feed StepTraceRecorder's traced/untraced step totals. The first failing step of a scenario is
+ * handed to FlakinessStore as its failure signature.
+ */
+public class StepLatencyListener implements ConcurrentEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(StepLatencyListener.class);
+    static final String BUDGET_TAG_PREFIX = "@stepBudgetMs:";
+    private static final ThreadLocal<Long> budget = new ThreadLocal<>();
+    private final boolean recordHistory = StepLatencyHistory.isEnabled();
+    private final boolean stepTracing = FileReaderManager.getInstance().getConfigReader().isStepTracing();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseStarted.class, this::onTestCaseStarted);
+        publisher.registerHandlerFor(TestStepFinished.class, this::onTestStepFinished);
+        if (recordHistory) {
+            publisher.registerHandlerFor(TestCaseFinished.class, this::onTestCaseFinished);
+        }
+    }
+
+    private void onTestCaseFinished(TestCaseFinished event) {
+        if (event.getResult().getStatus() == Status.PASSED) {
+            StepLatencyHistory.recordScenario(location(event.getTestCase()), event.getTestCase().getName(),
+                    event.getResult().getDuration().toMillis());
+        }
+    }
+
+    private void onTestCaseStarted(TestCaseStarted event) {
+        FlakinessStore.clearFailure();
+        long budgetMs = FileReaderManager.getInstance().getConfigReader().getStepLatencyBudgetMs();
+        for (String tag : event.getTestCase().getTags()) {
+            if (tag.startsWith(BUDGET_TAG_PREFIX)) {
+                budgetMs = Long.parseLong(tag.substring(BUDGET_TAG_PREFIX.length()));
+            }
+        }
+        budget.set(budgetMs);
+    }
+
+    private void onTestStepFinished(TestStepFinished event) {
+        if (event.getResult().getStatus() == Status.FAILED) {
+            FlakinessStore.stepFailed(event.getTestStep() instanceof PickleStepTestStep
+                    ? ((PickleStepTestStep) event.getTestStep()).getStep().getText()
+                    : "hook " + event.getTestStep().getCodeLocation(), event.getResult().getError());
+        }
+        if (!(event.getTestStep() instanceof PickleStepTestStep) || budget.get() == null) {
+            return;
+        }
+        long durationMs = event.getResult().getDuration().toMillis();
+        if (recordHistory && event.getResult().getStatus() == Status.PASSED) {
+            StepLatencyHistory.recordStep(location(event.getTestCase()), event.getTestCase().getName(),
+                    ((PickleStepTestStep) event.getTestStep()).getStep().getText(), durationMs);
+        }
+        if (stepTracing && event.getResult().getStatus() == Status.PASSED) {
+            StepTraceRecorder.stepFinished(durationMs);
+        }
+        if (durationMs <= budget.get()) {
+            return;
+        }
+        String step = ((PickleStepTestStep) event.getTestStep()).getStep().getText();
+        String scenario = event.getTestCase().getName();
+        logger.warn("Step '{}' of '{}' took {} ms, over its {} ms budget", step, scenario, durationMs, budget.get());
+
+        StepTraceRecorder recorder = StepTraceRecorder.current();
+        if (recorder == null) {
+            return;
+        }
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("scenario", scenario);
+        metadata.put("step", step);
+        metadata.put("status", event.getResult().getStatus().toString());
+        metadata.put("durationMs", durationMs);
+        metadata.put("budgetMs", budget.get());
+        metadata.put("stepStartedAt", event.getInstant().minus(event.getResult().getDuration()).toString());
+        metadata.put("stepFinishedAt", event.getInstant().toString());
+        try {
+            File trace = recorder.dump(scenario + "_" + step, metadata);
+            if (trace == null) {
+                return;
+            }
+            logger.info("Slow step trace written to {}", trace.getAbsolutePath());
+            ExtentTest reportNode = ExtentCucumberAdapter.getCurrentScenario();
+            if (reportNode != null) {
+                reportNode.warning("Slow step '" + step + "' (" + durationMs + " ms, budget " + budget.get()
+                        + " ms): <a href='" + trace.toURI() + "'>" + trace.getName() + "</a>");
+            }
+        } catch (Exception e) {
+            logger.warn("Unable to write trace for slow step '{}'", step, e);
+        }
+    }
+
+    private static String location(TestCase testCase) {
+        return ResultCollector.location(testCase.getUri(), testCase.getLocation().getLine());
+    }
+}
@@ -0,0 +1,268 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dataProviders.ConfigFileReader;
+import managers.FileReaderManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StepTraceRecorder keeps a DevTools performance trace running in the background of a Chrome driver
+ * so slow steps can be diagnosed afterwards.
+ *
+ * Tracing runs in Chrome's `recordContinuously` mode: events go into a fixed-size ring buffer inside
+ * the browser (`stepTraceBufferKb`) and nothing crosses the DevTools connection while steps are fast.
+ * Only when StepLatencyListener sees a step exceed its latency budget does dump() end the trace,
+ * write the buffered window (the slow step plus whatever preceded it) to
+ * test-output/SparkReport/traces as Chrome trace JSON, and restart tracing for the next steps.
+ * The files open in the Chrome DevTools Performance panel or https://ui.perfetto.dev.
+ *
+ * The recorder is bound to the scenario thread that created the driver, which is where the
+ * Cucumber step events for that driver are published. Its listeners go through DevToolsListeners,
+ * so stop() leaves the screencast recorder of the same driver running.
+ *
+ * Steady-state cost: StepLatencyListener hands every passed step to stepFinished(), which adds it to
+ * the traced or untraced totals depending on whether the scenario thread has a recorder. With
+ * `stepTraceCompare=true` only every other scenario is traced, and getRunOverheadSummary() compares
+ * the mean step time of both halves of the run, i.e. what background tracing costs each step.
+ */
+public class StepTraceRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(StepTraceRecorder.class);
+    private static final String TRACE_DIR = "test-output/SparkReport/traces";
+    private static final ThreadLocal<StepTraceRecorder> current = new ThreadLocal<>();
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final AtomicInteger started = new AtomicInteger();
+    private static final StepTotals traced = new StepTotals();
+    private static final StepTotals untraced = new StepTotals();
+
+    private final DevTools devTools;
+    private final Map<String, Object> traceConfig;
+    private final int maxDumps;
+    private final List<DevToolsListeners.Subscription> subscriptions = new ArrayList<>();
+    private List<Object> collected;
+    private CountDownLatch complete;
+    private boolean tracing;
+    private int dumps;
+    private long dumpMillis;
+    private int steps;
+    private long stepMillis;
+
+    StepTraceRecorder(DevTools devTools, Map<String, Object> traceConfig, int maxDumps) {
+        this.devTools = devTools;
+        this.traceConfig = traceConfig;
+        this.maxDumps = maxDumps;
+    }
+
+    /**
+     * Starts background tracing if the driver supports DevTools and binds the recorder to the calling thread.
+     * @param driver Chrome-based WebDriver
+     * @return a running recorder, or null when the driver has no DevTools support or the scenario
+     *         is an untraced baseline of `stepTraceCompare`
+     */
+    public static StepTraceRecorder start(WebDriver driver) {
+        if (!(driver instanceof HasDevTools)) {
+            logger.warn("Step tracing requested but {} has no DevTools support", driver.getClass().getSimpleName());
+            return null;
+        }
+        ConfigFileReader config = FileReaderManager.getInstance().getConfigReader();
+        if (config.isStepTraceCompare() && started.getAndIncrement() % 2 == 1) {
+            return null;
+        }
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+
+        Map<String, Object> traceConfig = new HashMap<>();
+        traceConfig.put("recordMode", "recordContinuously");
+        traceConfig.put("traceBufferSizeInKb", config.getStepTraceBufferKb());
+        traceConfig.put("includedCategories", Arrays.asList(config.getStepTraceCategories().split("\\s*,\\s*")));
+
+        StepTraceRecorder recorder = new StepTraceRecorder(devTools, traceConfig, config.getStepTraceMaxPerScenario());
+        recorder.subscriptions.add(DevToolsListeners.subscribe(devTools, "Tracing.dataCollected", recorder::onData));
+        recorder.subscriptions.add(DevToolsListeners.subscribe(devTools, "Tracing.tracingComplete", data -> recorder.onComplete()));
+        recorder.begin();
+        recorder.bindToCurrentThread();
+        return recorder;
+    }
+
+    void bindToCurrentThread() {
+        current.set(this);
+    }
+
+    /**
+     * @return the recorder bound to the calling scenario thread, or null when tracing is off
+     */
+    public static StepTraceRecorder current() {
+        return current.get();
+    }
+
+    /**
+     * Adds a passed step to the traced or untraced totals of the run, by the calling scenario thread's recorder.
+     */
+    public static void stepFinished(long durationMs) {
+        StepTraceRecorder recorder = current.get();
+        if (recorder == null) {
+            untraced.add(durationMs);
+        } else {
+            traced.add(durationMs);
+            recorder.steps++;
+            recorder.stepMillis += durationMs;
+        }
+    }
+
+    /**
+     * @return the mean step time of traced and untraced scenarios, or null when no traced step finished
+     */
+    public static String getRunOverheadSummary() {
+        if (traced.count.sum() == 0) {
+            return null;
+        }
+        String summary = String.format("Step tracing steady state: %.1f ms per traced step (%d steps)",
+                traced.mean(), traced.count.sum());
+        if (untraced.count.sum() == 0) {
+            return summary + ", no untraced baseline (set stepTraceCompare=true)";
+        }
+        return summary + String.format(" vs %.1f ms untraced (%d steps), %+.1f%%", untraced.mean(), untraced.count.sum(),
+                untraced.mean() == 0 ? 0 : (traced.mean() / untraced.mean() - 1) * 100);
+    }
+
+    /**
+     * Clears the run totals and the `stepTraceCompare` alternation.
+     */
+    static void resetRunTotals() {
+        started.set(0);
+        traced.reset();
+        untraced.reset();
+    }
+
+    private void begin() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("transferMode", "ReportEvents");
+        params.put("traceConfig", traceConfig);
+        devTools.send(new Command<Void>("Tracing.start", params));
+        tracing = true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized void onData(Map<String, Object> data) {
+        if (collected != null) {
+            collected.addAll((List<Object>) data.get("value"));
+        }
+    }
+
+    private synchronized void onComplete() {
+        if (complete != null) {
+            complete.countDown();
+        }
+    }
+
+    /**
+     * Flushes the trace buffer to disk and restarts tracing.
+     * @param name     Base file name, usually the scenario and step
+     * @param metadata Step details stored in the trace's metadata section
+     * @return the written file, or null when tracing is stopped or the per-scenario limit is reached
+     */
+    public File dump(String name, Map<String, Object> metadata) throws IOException {
+        if (!tracing || dumps >= maxDumps) {
+            return null;
+        }
+        long start = System.currentTimeMillis();
+        List<Object> events;
+        CountDownLatch latch = new CountDownLatch(1);
+        synchronized (this) {
+            collected = new ArrayList<>();
+            complete = latch;
+        }
+        try {
+            devTools.send(new Command<Void>("Tracing.end", Collections.emptyMap()));
+            if (!latch.await(30, TimeUnit.SECONDS)) {
+                logger.warn("Trace buffer was not flushed within 30s, writing the events received so far");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                events = collected;
+                collected = null;
+                complete = null;
+            }
+            begin();
+        }
+
+        File dir = new File(TRACE_DIR);
+        dir.mkdirs();
+        File target = new File(dir, name.replaceAll("[^A-Za-z0-9_-]", "_") + "_" + System.currentTimeMillis() + ".json");
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("metadata", metadata);
+        trace.put("traceEvents", events);
+        mapper.writeValue(target, trace);
+        dumps++;
+        dumpMillis += System.currentTimeMillis() - start;
+        return target;
+    }
+
+    /**
+     * Ends tracing and unbinds the recorder. Safe to call more than once and after the browser has gone away.
+     */
+    public void stop() {
+        current.remove();
+        if (!tracing) {
+            return;
+        }
+        tracing = false;
+        try {
+            // Other recorders of the driver keep their listeners
+            subscriptions.forEach(DevToolsListeners.Subscription::cancel);
+            // Nobody listens for the buffered events any more, so Chrome's trace data is dropped
+            devTools.send(new Command<Void>("Tracing.end", Collections.emptyMap()));
+        } catch (Exception e) {
+            logger.debug("Unable to stop step tracing cleanly", e);
+        }
+    }
+
+    /**
+     * @return a one-line summary of the recorder's cost for this scenario
+     */
+    public String getOverheadSummary() {
+        return String.format("Step tracing: %d step(s) traced, %.1f ms per step, %d slow step trace(s) written, %d ms spent flushing",
+                steps, steps == 0 ? 0.0 : (double) stepMillis / steps, dumps, dumpMillis);
+    }
+
+    private static class StepTotals {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder millis = new LongAdder();
+
+        private void add(long durationMs) {
+            count.increment();
+            millis.add(durationMs);
+        }
+
+        private double mean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) millis.sum() / n;
+        }
+
+        private void reset() {
+            count.reset();
+            millis.reset();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+public class StepTraceRecorderTest {
+
+    @BeforeMethod
+    public void setUp() {
+        StepTraceRecorder.resetRunTotals();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (StepTraceRecorder.current() != null) {
+            StepTraceRecorder.current().stop();
+        }
+        StepTraceRecorder.resetRunTotals();
+    }
+
+    @Test
+    public void untracedStepsAloneGiveNoSummary() {
+        StepTraceRecorder.stepFinished(100);
+        Assert.assertNull(StepTraceRecorder.getRunOverheadSummary());
+    }
+
+    @Test
+    public void tracedStepsAreComparedWithTheUntracedBaseline() {
+        StepTraceRecorder.stepFinished(100);
+        StepTraceRecorder.stepFinished(100);
+        StepTraceRecorder recorder = new StepTraceRecorder(null, Collections.emptyMap(), 3);
+        recorder.bindToCurrentThread();
+        StepTraceRecorder.stepFinished(110);
+        StepTraceRecorder.stepFinished(120);
+
+        Assert.assertEquals(StepTraceRecorder.getRunOverheadSummary(),
+                "Step tracing steady state: 115.0 ms per traced step (2 steps) vs 100.0 ms untraced (2 steps), +15.0%");
+        Assert.assertTrue(recorder.getOverheadSummary().startsWith("Step tracing: 2 step(s) traced, 115.0 ms per step"),
+                recorder.getOverheadSummary());
+    }
+
+    @Test
+    public void summaryAsksForABaselineWhenEveryScenarioIsTraced() {
+        new StepTraceRecorder(null, Collections.emptyMap(), 3).bindToCurrentThread();
+        StepTraceRecorder.stepFinished(90);
+
+        Assert.assertTrue(StepTraceRecorder.getRunOverheadSummary().endsWith("no untraced baseline (set stepTraceCompare=true)"),
+                StepTraceRecorder.getRunOverheadSummary());
+    }
+}
@@ -31,6 +31,7 @@ import java.time.Duration;
  * - Launches the application using the provided URL.
  * - Validates input to prevent null or empty URLs.
  * - Waits until the page is fully loaded using JavaScript's readyState check.
+ * - Records the page's load timings with PagePerformanceCollector (when enabled).
  */
 
 public class TestContextSetup {
@@ -59,5 +60,6 @@ public class TestContextSetup {
         new WebDriverWait(driver, Duration.ofSeconds(10))
                 .until(webDriver -> ((JavascriptExecutor) webDriver)
                         .executeScript("return document.readyState").equals("complete"));
+        PagePerformanceCollector.capture(driver);
     }
 }